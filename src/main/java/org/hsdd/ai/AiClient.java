@@ -8,5 +8,33 @@ public interface AiClient {
     // tags = extra keywords (can be empty list)
     Result analyze(String description, List<String> tags);
 
-    record Result(String label, double confidence) {}
-}
\ No newline at end of file
+    // bypassCache = caller wants a fresh answer from the model (clinician re-check)
+    default Result analyze(String description, List<String> tags, boolean bypassCache) {
+        return analyze(description, tags);
+    }
+
+    // One result per request, in the same order. Clients that can answer several
+    // submissions in one upstream call override this.
+    default List<Result> analyzeAll(List<Request> requests) {
+        return requests.stream()
+                .map(r -> analyze(r.description(), r.tags()))
+                .toList();
+    }
+
+    record Request(String description, List<String> tags) {}
+
+    // label used when the model could not be asked; confidence 0 routes it to doctors
+    String NEEDS_REVIEW = "needs_review";
+
+    // degraded = a stand-in answer (fallback / local classifier), not the model's; never cached
+    record Result(String label, double confidence, boolean degraded) {
+
+        public Result(String label, double confidence) {
+            this(label, confidence, false);
+        }
+
+        public static Result needsReview() {
+            return new Result(NEEDS_REVIEW, 0.0, true);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.hsdd.ai;
+
+// A batched completion came back in a shape we can't map to the submitted items
+public class BatchResponseException extends RuntimeException {
+
+    public BatchResponseException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,209 @@
+package org.hsdd.ai;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Micro-batching in front of the provider: submissions arriving within window-ms
+// (up to max-size of them) go out as one multi-item completion via analyzeAll and
+// each caller gets its own answer back. If the batched answer can't be mapped to
+// the items, every item is retried as a single call. Disabled = pass-through.
+@Component("batchingAiClient")
+public class BatchingAiClient implements AiClient {
+
+    public record Stats(
+            boolean enabled,
+            int queueDepth,
+            long items,
+            long batches,
+            long singles,
+            long parseFallbacks,
+            long failedBatches
+    ) {}
+
+    private record Pending(Request request, CompletableFuture<Result> result) {}
+
+    private static final Logger log = LoggerFactory.getLogger(BatchingAiClient.class);
+
+    private final AiClient delegate;
+    private final ExecutorService executor;
+    private final boolean enabled;
+    private final int maxSize;
+    private final long windowMs;
+    private final BlockingQueue<Pending> queue;
+
+    private final AtomicLong items = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong singles = new AtomicLong();
+    private final AtomicLong parseFallbacks = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread collector;
+
+    public BatchingAiClient(@Qualifier("xaiClient") AiClient delegate,
+                            @Qualifier("aiCallExecutor") ExecutorService executor,
+                            @Value("${hsdd.ai.batch.enabled:false}") boolean enabled,
+                            @Value("${hsdd.ai.batch.max-size:8}") int maxSize,
+                            @Value("${hsdd.ai.batch.window-ms:25}") long windowMs,
+                            @Value("${hsdd.ai.batch.queue-capacity:1000}") int queueCapacity) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.enabled = enabled;
+        this.maxSize = Math.max(1, maxSize);
+        this.windowMs = windowMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        running = true;
+        collector = Thread.ofPlatform().name("ai-batcher").daemon(true).start(this::runCollector);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (collector != null) {
+            collector.interrupt();
+        }
+        // nobody will send these any more
+        List<Pending> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        rest.forEach(p -> p.result().completeExceptionally(new IllegalStateException("AI batcher stopped")));
+    }
+
+    @Override
+    public Result analyze(String description, List<String> tags) {
+        if (!enabled) {
+            return delegate.analyze(description, tags);
+        }
+
+        Pending pending = new Pending(new Request(description, tags), new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            // backlog full: don't make this caller wait behind it
+            singles.incrementAndGet();
+            return delegate.analyze(description, tags);
+        }
+
+        try {
+            return pending.result().get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            // caller gave up (deadline); the batch still completes without it
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for batched AI call", e);
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(
+                enabled,
+                queue.size(),
+                items.get(),
+                batches.get(),
+                singles.get(),
+                parseFallbacks.get(),
+                failedBatches.get()
+        );
+    }
+
+    private void runCollector() {
+        while (running) {
+            List<Pending> batch = new ArrayList<>(maxSize);
+            try {
+                Pending first = queue.take();
+                batch.add(first);
+
+                // wait at most window-ms for more items to join
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMs);
+                while (batch.size() < maxSize) {
+                    queue.drainTo(batch, maxSize - batch.size());
+                    if (batch.size() >= maxSize) break;
+                    long waitNs = deadline - System.nanoTime();
+                    if (waitNs <= 0) break;
+                    Pending next = queue.poll(waitNs, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+
+            if (!batch.isEmpty()) {
+                dispatch(batch);
+            }
+        }
+    }
+
+    // the HTTP call runs off the collector so the next window can start filling
+    private void dispatch(List<Pending> batch) {
+        try {
+            executor.execute(() -> send(batch));
+        } catch (RejectedExecutionException e) {
+            send(batch);
+        }
+    }
+
+    private void send(List<Pending> batch) {
+        items.addAndGet(batch.size());
+
+        if (batch.size() == 1) {
+            singles.incrementAndGet();
+            sendSingle(batch.get(0));
+            return;
+        }
+
+        batches.incrementAndGet();
+        try {
+            List<Result> results = delegate.analyzeAll(batch.stream().map(Pending::request).toList());
+            if (results.size() != batch.size()) {
+                throw new BatchResponseException("expected " + batch.size() + " results, got " + results.size());
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(results.get(i));
+            }
+        } catch (BatchResponseException e) {
+            // the provider answered, just not in a usable shape: ask one by one
+            parseFallbacks.incrementAndGet();
+            log.warn("Batched AI response unusable ({}), retrying {} items singly", e.getMessage(), batch.size());
+            for (Pending p : batch) {
+                try {
+                    executor.execute(() -> sendSingle(p));
+                } catch (RejectedExecutionException rejected) {
+                    sendSingle(p);
+                }
+            }
+        } catch (RuntimeException e) {
+            // provider failure: retrying each item would only add load
+            failedBatches.incrementAndGet();
+            batch.forEach(p -> p.result().completeExceptionally(e));
+        }
+    }
+
+    private void sendSingle(Pending p) {
+        try {
+            p.result().complete(delegate.analyze(p.request().description(), p.request().tags()));
+        } catch (RuntimeException e) {
+            p.result().completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package org.hsdd.ai;
+
+import org.hsdd.repo.InferenceCacheRepository;
+import org.hsdd.value.InferenceCacheEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Result cache in front of the model: bounded in-memory LRU + TTL, backed by the
+// inference_cache table so warm entries survive restarts. Concurrent misses for
+// the same key share one upstream call. Expired rows are deleted every
+// purge-interval-minutes.
+@Component
+@Primary
+public class CachingAiClient implements AiClient {
+
+    public record Stats(
+            int size,
+            long hits,
+            long storeHits,
+            long misses,
+            long bypasses,
+            long evictions
+    ) {}
+
+    private record Entry(Result result, long expiresAt) {}
+
+    private static final Logger log = LoggerFactory.getLogger(CachingAiClient.class);
+
+    private final AiClient delegate;
+    private final InferenceCacheRepository store;
+    private final String model;
+    private final boolean enabled;
+    private final Duration ttl;
+
+    private final Map<String, Entry> entries;
+    private final Map<String, CompletableFuture<Result>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong storeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong bypasses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public CachingAiClient(@Qualifier("resilientAiClient") AiClient delegate,
+                           InferenceCacheRepository store,
+                           @Value("${xai.model:}") String model,
+                           @Value("${hsdd.inference.cache.enabled:true}") boolean enabled,
+                           @Value("${hsdd.inference.cache.max-entries:10000}") int maxEntries,
+                           @Value("${hsdd.inference.cache.ttl-hours:24}") long ttlHours) {
+        this.delegate = delegate;
+        this.store = store;
+        this.model = model;
+        this.enabled = enabled;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.entries = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public Result analyze(String description, List<String> tags) {
+        return analyze(description, tags, false);
+    }
+
+    @Override
+    public Result analyze(String description, List<String> tags, boolean bypassCache) {
+        if (!enabled) {
+            return delegate.analyze(description, tags);
+        }
+
+        String key = SymptomKey.of(model, description, tags);
+
+        if (bypassCache) {
+            // fresh answer, but keep it for the next normal request
+            bypasses.incrementAndGet();
+            Result fresh = delegate.analyze(description, tags);
+            put(key, fresh);
+            return fresh;
+        }
+
+        Result cached = getLocal(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        CompletableFuture<Result> mine = new CompletableFuture<>();
+        CompletableFuture<Result> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            // same symptoms already being analyzed; wait for that answer
+            hits.incrementAndGet();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+
+        try {
+            InferenceCacheEntry stored = loadFromStore(key);
+            Result result;
+            if (stored != null) {
+                storeHits.incrementAndGet();
+                result = toResult(stored);
+                putLocal(key, result, stored.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            } else {
+                misses.incrementAndGet();
+                result = delegate.analyze(description, tags);
+                put(key, result);
+            }
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // findLive already ignores expired rows; this keeps them from piling up
+    @Scheduled(fixedDelayString = "${hsdd.inference.cache.purge-interval-minutes:60}",
+            initialDelayString = "${hsdd.inference.cache.purge-interval-minutes:60}",
+            timeUnit = TimeUnit.MINUTES)
+    public void purgeExpired() {
+        try {
+            int purged = store.deleteExpired(LocalDateTime.now());
+            if (purged > 0) log.info("Purged {} expired inference cache rows", purged);
+        } catch (Exception e) {
+            log.warn("Inference cache purge failed, retrying next interval", e);
+        }
+    }
+
+    public Stats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new Stats(size, hits.get(), storeHits.get(), misses.get(), bypasses.get(), evictions.get());
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private Result getLocal(String key) {
+        synchronized (entries) {
+            Entry e = entries.get(key);
+            if (e == null) return null;
+            if (e.expiresAt() <= System.currentTimeMillis()) {
+                entries.remove(key);
+                return null;
+            }
+            return e.result();
+        }
+    }
+
+    private void putLocal(String key, Result result, long expiresAt) {
+        synchronized (entries) {
+            entries.put(key, new Entry(result, expiresAt));
+        }
+    }
+
+    private void put(String key, Result result) {
+        // a fallback answer must not outlive the outage
+        if (result.degraded()) return;
+        putLocal(key, result, System.currentTimeMillis() + ttl.toMillis());
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            store.upsert(key, result.label(), result.confidence(), now, now.plus(ttl));
+        } catch (Exception e) {
+            // the cache is an optimization; never fail an inference because of it
+            log.warn("Could not persist inference cache entry", e);
+        }
+    }
+
+    private InferenceCacheEntry loadFromStore(String key) {
+        try {
+            return store.findLive(key, LocalDateTime.now()).orElse(null);
+        } catch (Exception e) {
+            log.warn("Inference cache lookup failed, calling the model", e);
+            return null;
+        }
+    }
+
+    private Result toResult(InferenceCacheEntry e) {
+        return new Result(e.getLabel(), e.getConfidence());
+    }
+}
@@ -0,0 +1,122 @@
+package org.hsdd.ai;
+
+import java.util.function.LongSupplier;
+
+// Count-based circuit breaker: opens when the failure rate over the last `window`
+// calls reaches the threshold, rejects calls for `openMs`, then lets a single
+// probe through (HALF_OPEN) whose outcome closes or re-opens it.
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int window;
+    private final int minCalls;
+    private final double failureRate;
+    private final long openMs;
+    private final LongSupplier clock;
+
+    // ring buffer of the last `window` outcomes, true = failure
+    private final boolean[] outcomes;
+    private int next;
+    private int recorded;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean probeInFlight;
+    private long timesOpened;
+
+    public CircuitBreaker(int window, int minCalls, double failureRate, long openMs) {
+        this(window, minCalls, failureRate, openMs, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(int window, int minCalls, double failureRate, long openMs, LongSupplier clock) {
+        if (window < 1) throw new IllegalArgumentException("window must be >= 1");
+        this.window = window;
+        this.minCalls = Math.max(1, Math.min(minCalls, window));
+        this.failureRate = failureRate;
+        this.openMs = openMs;
+        this.clock = clock;
+        this.outcomes = new boolean[window];
+    }
+
+    // true = caller may go ahead and must report the outcome
+    public synchronized boolean allow() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> {
+                if (clock.getAsLong() - openedAt < openMs) yield false;
+                // first caller after the cool-down becomes the probe
+                state = State.HALF_OPEN;
+                probeInFlight = false;
+                yield claimProbe();
+            }
+            case HALF_OPEN -> claimProbe();
+        };
+    }
+
+    // one trial call at a time while half-open
+    private boolean claimProbe() {
+        if (probeInFlight) return false;
+        probeInFlight = true;
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            reset();
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && recorded >= minCalls && failures >= failureRate * recorded) {
+            open();
+        }
+    }
+
+    // the permitted call never reached the provider (e.g. bulkhead full)
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) probeInFlight = false;
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public synchronized long timesOpened() {
+        return timesOpened;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == window) {
+            if (outcomes[next]) failures--;
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        if (failure) failures++;
+        next = (next + 1) % window;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+        probeInFlight = false;
+        timesOpened++;
+    }
+
+    private void reset() {
+        state = State.CLOSED;
+        probeInFlight = false;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+    }
+}
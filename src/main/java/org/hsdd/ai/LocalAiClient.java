@@ -0,0 +1,173 @@
+package org.hsdd.ai;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.hsdd.repo.PredictionRepository;
+import org.hsdd.repo.projection.TrainingRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-process classifier used when the model can't be reached. Trained from our own
+// predictions (confident ones only) and doctors' corrected labels, retrained
+// periodically. Answers are marked degraded and their confidence is capped below
+// the review threshold, so a doctor still looks at every one of them.
+@Component("localAiClient")
+public class LocalAiClient implements AiClient {
+
+    public record Stats(
+            boolean enabled,
+            boolean trained,
+            int examples,
+            int labels,
+            int vocabulary,
+            long answered,
+            long unknown,
+            long trainings
+    ) {}
+
+    private static final Logger log = LoggerFactory.getLogger(LocalAiClient.class);
+
+    private final PredictionRepository predictions;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final boolean enabled;
+    private final double minTrainingConfidence;
+    private final int minExamplesPerLabel;
+    private final int maxExamples;
+    private final double maxConfidence;
+    private final long retrainMinutes;
+
+    private volatile NaiveBayesClassifier classifier;
+    private ScheduledExecutorService scheduler;
+
+    private final AtomicLong answered = new AtomicLong();
+    private final AtomicLong unknown = new AtomicLong();
+    private final AtomicLong trainings = new AtomicLong();
+
+    public LocalAiClient(PredictionRepository predictions,
+                         @Value("${hsdd.ai.local.enabled:true}") boolean enabled,
+                         @Value("${hsdd.ai.local.min-training-confidence:0.7}") double minTrainingConfidence,
+                         @Value("${hsdd.ai.local.min-examples-per-label:3}") int minExamplesPerLabel,
+                         @Value("${hsdd.ai.local.max-examples:50000}") int maxExamples,
+                         @Value("${hsdd.ai.local.max-confidence:0.49}") double maxConfidence,
+                         @Value("${hsdd.ai.local.retrain-minutes:60}") long retrainMinutes) {
+        this.predictions = predictions;
+        this.enabled = enabled;
+        this.minTrainingConfidence = minTrainingConfidence;
+        this.minExamplesPerLabel = minExamplesPerLabel;
+        this.maxExamples = maxExamples;
+        this.maxConfidence = maxConfidence;
+        this.retrainMinutes = retrainMinutes;
+    }
+
+    // train in the background so startup doesn't wait on a large predictions table
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("local-classifier").daemon(true).factory());
+        if (retrainMinutes > 0) {
+            scheduler.scheduleWithFixedDelay(this::retrainQuietly, 0, retrainMinutes, TimeUnit.MINUTES);
+        } else {
+            scheduler.execute(this::retrainQuietly);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) scheduler.shutdownNow();
+    }
+
+    @Override
+    public Result analyze(String description, List<String> tags) {
+        NaiveBayesClassifier c = classifier;
+        Result r = (enabled && c != null) ? c.classify(description, tags) : null;
+        if (r == null) {
+            unknown.incrementAndGet();
+            return Result.needsReview();
+        }
+        answered.incrementAndGet();
+        return new Result(r.label(), Math.min(r.confidence(), maxConfidence), true);
+    }
+
+    // Returns the number of examples the new model was trained on
+    public int retrain() {
+        List<TrainingRow> rows = predictions.findTrainingRows(
+                NEEDS_REVIEW, minTrainingConfidence, PageRequest.of(0, maxExamples));
+
+        // one example per prediction; the latest doctor correction beats the model's label
+        Map<Long, NaiveBayesClassifier.Example> byPrediction = new LinkedHashMap<>();
+        Set<Long> corrected = new HashSet<>();
+        for (TrainingRow row : rows) {
+            Long id = row.predictionId();
+            if (row.correctedLabel() != null && !row.correctedLabel().isBlank()) {
+                if (corrected.add(id)) {
+                    byPrediction.put(id, new NaiveBayesClassifier.Example(
+                            row.description(), parseTags(row.tags()), row.correctedLabel()));
+                }
+            } else if (!byPrediction.containsKey(id) && row.confidence() >= minTrainingConfidence) {
+                byPrediction.put(id, new NaiveBayesClassifier.Example(
+                        row.description(), parseTags(row.tags()), row.label()));
+            }
+        }
+
+        NaiveBayesClassifier trained = NaiveBayesClassifier.train(new ArrayList<>(byPrediction.values()), minExamplesPerLabel);
+        classifier = trained;
+        trainings.incrementAndGet();
+        log.info("Local classifier trained on {} examples ({} labels, {} tokens)",
+                trained.exampleCount(), trained.labelCount(), trained.vocabularySize());
+        return trained.exampleCount();
+    }
+
+    public Stats stats() {
+        NaiveBayesClassifier c = classifier;
+        return new Stats(
+                enabled,
+                c != null,
+                c == null ? 0 : c.exampleCount(),
+                c == null ? 0 : c.labelCount(),
+                c == null ? 0 : c.vocabularySize(),
+                answered.get(),
+                unknown.get(),
+                trainings.get()
+        );
+    }
+
+    // for tests: use a ready-made model
+    void setClassifier(NaiveBayesClassifier classifier) {
+        this.classifier = classifier;
+    }
+
+    private void retrainQuietly() {
+        try {
+            retrain();
+        } catch (Exception e) {
+            log.warn("Local classifier training failed; keeping the previous model", e);
+        }
+    }
+
+    private List<String> parseTags(String json) {
+        if (json == null || json.isBlank()) return List.of();
+        try {
+            return objectMapper.readValue(json, new TypeReference<List<String>>() {});
+        } catch (Exception e) {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.hsdd.ai;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Multinomial naive Bayes over description words and tags (tags count `tagWeight`
+// times, they are usually the most specific signal). Immutable once trained, so
+// one instance can be shared by any number of threads.
+public final class NaiveBayesClassifier {
+
+    public record Example(String description, List<String> tags, String label) {}
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "an", "and", "the", "of", "in", "on", "at", "to", "for", "with", "my", "i", "im",
+            "is", "am", "are", "was", "have", "has", "had", "been", "it", "its", "me", "since", "very",
+            "some", "bit", "feel", "feeling", "also", "but", "or", "no", "not", "day", "days");
+
+    private static final int TAG_WEIGHT = 3;
+
+    private final String[] labels;
+    private final double[] logPrior;
+    private final double[] logDenominator;
+    // token -> count per label index
+    private final Map<String, int[]> counts;
+    private final int examples;
+
+    private NaiveBayesClassifier(String[] labels, double[] logPrior, double[] logDenominator,
+                                 Map<String, int[]> counts, int examples) {
+        this.labels = labels;
+        this.logPrior = logPrior;
+        this.logDenominator = logDenominator;
+        this.counts = counts;
+        this.examples = examples;
+    }
+
+    // Labels with fewer than minExamples examples are left out: too little to learn from
+    public static NaiveBayesClassifier train(List<Example> data, int minExamples) {
+        Map<String, Integer> perLabel = new HashMap<>();
+        for (Example e : data) {
+            if (e.label() == null || e.label().isBlank()) continue;
+            perLabel.merge(normalizeLabel(e.label()), 1, Integer::sum);
+        }
+        perLabel.values().removeIf(n -> n < minExamples);
+
+        Map<String, Integer> index = new LinkedHashMap<>();
+        perLabel.keySet().stream().sorted().forEach(l -> index.put(l, index.size()));
+        int k = index.size();
+
+        Map<String, int[]> counts = new HashMap<>();
+        long[] tokensPerLabel = new long[k];
+        int used = 0;
+
+        for (Example e : data) {
+            if (e.label() == null) continue;
+            Integer li = index.get(normalizeLabel(e.label()));
+            if (li == null) continue;
+            used++;
+            for (String t : tokens(e.description(), e.tags())) {
+                counts.computeIfAbsent(t, x -> new int[k])[li]++;
+                tokensPerLabel[li]++;
+            }
+        }
+
+        String[] labels = index.keySet().toArray(new String[0]);
+        double[] logPrior = new double[k];
+        double[] logDenominator = new double[k];
+        int vocabulary = counts.size();
+        for (int i = 0; i < k; i++) {
+            logPrior[i] = Math.log((double) perLabel.get(labels[i]) / used);
+            // Laplace smoothing
+            logDenominator[i] = Math.log(tokensPerLabel[i] + vocabulary);
+        }
+        return new NaiveBayesClassifier(labels, logPrior, logDenominator, counts, used);
+    }
+
+    // Best label with its posterior probability, or null when nothing in the input is known
+    public AiClient.Result classify(String description, List<String> tags) {
+        if (labels.length == 0) return null;
+
+        double[] score = logPrior.clone();
+        boolean known = false;
+        for (String t : tokens(description, tags)) {
+            int[] c = counts.get(t);
+            if (c == null) continue;   // unseen words say nothing about the label
+            known = true;
+            for (int i = 0; i < score.length; i++) {
+                score[i] += Math.log(c[i] + 1) - logDenominator[i];
+            }
+        }
+        if (!known) return null;
+
+        int best = 0;
+        for (int i = 1; i < score.length; i++) {
+            if (score[i] > score[best]) best = i;
+        }
+        // softmax, shifted by the max for numerical stability
+        double sum = 0;
+        for (double s : score) sum += Math.exp(s - score[best]);
+        return new AiClient.Result(labels[best], 1.0 / sum, true);
+    }
+
+    public int labelCount() {
+        return labels.length;
+    }
+
+    public int vocabularySize() {
+        return counts.size();
+    }
+
+    public int exampleCount() {
+        return examples;
+    }
+
+    static List<String> tokens(String description, List<String> tags) {
+        List<String> out = new ArrayList<>();
+        if (description != null) {
+            for (String w : description.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                if (w.length() < 2 || STOPWORDS.contains(w)) continue;
+                out.add(w);
+            }
+        }
+        if (tags != null) {
+            for (String tag : tags) {
+                if (tag == null || tag.isBlank()) continue;
+                String t = "tag:" + tag.toLowerCase(Locale.ROOT).trim();
+                for (int i = 0; i < TAG_WEIGHT; i++) out.add(t);
+            }
+        }
+        return out;
+    }
+
+    static String normalizeLabel(String label) {
+        return label.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,274 @@
+package org.hsdd.ai;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps a slow or failing provider from tying up our threads: every call gets a
+// deadline, at most max-concurrent calls are in flight (bulkhead), and a circuit
+// breaker stops calling a provider that keeps failing. Whenever the model can't
+// answer, the caller gets the local classifier's (degraded) answer, or
+// Result.needsReview() if it has none, instead of an exception.
+// With hedge-delay-ms > 0 a second request is sent if the first is slow.
+@Component("resilientAiClient")
+public class ResilientAiClient implements AiClient {
+
+    public record Stats(
+            CircuitBreaker.State circuit,
+            long circuitOpened,
+            int inFlight,
+            int maxConcurrent,
+            long calls,
+            long successes,
+            long failures,
+            long timeouts,
+            long rejected,
+            long shortCircuited,
+            long fallbacks,
+            long localAnswers,
+            long hedges,
+            long hedgeWins
+    ) {}
+
+    private record Call(CompletableFuture<Result> result, Future<?> task) {
+        void cancel() {
+            if (task != null) task.cancel(true);
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ResilientAiClient.class);
+
+    private final AiClient delegate;
+    private final AiClient local;
+    private final ExecutorService executor;
+    private final CircuitBreaker breaker;
+    private final Semaphore bulkhead;
+    private final int maxConcurrent;
+    private final long timeoutMs;
+    private final long bulkheadWaitMs;
+    private final long hedgeDelayMs;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong shortCircuited = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private final AtomicLong localAnswers = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    public ResilientAiClient(@Qualifier("batchingAiClient") AiClient delegate,
+                             @Qualifier("localAiClient") AiClient local,
+                             @Qualifier("aiCallExecutor") ExecutorService executor,
+                             CircuitBreaker aiCircuitBreaker,
+                             @Value("${hsdd.ai.max-concurrent:16}") int maxConcurrent,
+                             @Value("${hsdd.ai.timeout-ms:10000}") long timeoutMs,
+                             @Value("${hsdd.ai.bulkhead-wait-ms:250}") long bulkheadWaitMs,
+                             @Value("${hsdd.ai.hedge-delay-ms:0}") long hedgeDelayMs) {
+        this.delegate = delegate;
+        this.local = local;
+        this.executor = executor;
+        this.breaker = aiCircuitBreaker;
+        this.maxConcurrent = maxConcurrent;
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.timeoutMs = timeoutMs;
+        this.bulkheadWaitMs = bulkheadWaitMs;
+        this.hedgeDelayMs = hedgeDelayMs;
+    }
+
+    @Override
+    public Result analyze(String description, List<String> tags) {
+        calls.incrementAndGet();
+
+        if (!breaker.allow()) {
+            shortCircuited.incrementAndGet();
+            return fallback("circuit open", description, tags);
+        }
+
+        try {
+            if (!bulkhead.tryAcquire(bulkheadWaitMs, TimeUnit.MILLISECONDS)) {
+                breaker.onIgnored();
+                rejected.incrementAndGet();
+                return fallback("bulkhead full", description, tags);
+            }
+        } catch (InterruptedException e) {
+            breaker.onIgnored();
+            Thread.currentThread().interrupt();
+            return fallback("interrupted", description, tags);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        Call primary = submit(description, tags);
+        Call hedge = null;
+        CompletableFuture<Result> answer = primary.result();
+
+        try {
+            if (hedgeDelayMs > 0 && hedgeDelayMs < timeoutMs) {
+                try {
+                    return succeeded(primary.result().get(hedgeDelayMs, TimeUnit.MILLISECONDS));
+                } catch (TimeoutException slow) {
+                    // only hedge with spare capacity; a hedge must never push real calls out
+                    if (bulkhead.tryAcquire()) {
+                        hedges.incrementAndGet();
+                        hedge = submit(description, tags);
+                        answer = firstSuccess(primary.result(), hedge.result());
+                    }
+                }
+            }
+
+            long remaining = deadline - System.nanoTime();
+            Result result = answer.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+            // counted here, not when the hedge completes, so stats read after return include it
+            if (hedge != null && answeredBy(hedge, result)) hedgeWins.incrementAndGet();
+            return succeeded(result);
+
+        } catch (TimeoutException e) {
+            timeouts.incrementAndGet();
+            breaker.onFailure();
+            return fallback("timed out after " + timeoutMs + " ms", description, tags);
+        } catch (ExecutionException e) {
+            return failed(e.getCause(), description, tags);
+        } catch (InterruptedException e) {
+            breaker.onIgnored();
+            Thread.currentThread().interrupt();
+            return fallback("interrupted", description, tags);
+        } finally {
+            // no-op for finished calls; stops the loser / the timed-out call
+            primary.cancel();
+            if (hedge != null) hedge.cancel();
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(
+                breaker.state(),
+                breaker.timesOpened(),
+                maxConcurrent - bulkhead.availablePermits(),
+                maxConcurrent,
+                calls.get(),
+                successes.get(),
+                failures.get(),
+                timeouts.get(),
+                rejected.get(),
+                shortCircuited.get(),
+                fallbacks.get(),
+                localAnswers.get(),
+                hedges.get(),
+                hedgeWins.get()
+        );
+    }
+
+    // Runs one upstream call; the bulkhead permit is held until the call really ends
+    private Call submit(String description, List<String> tags) {
+        CompletableFuture<Result> result = new CompletableFuture<>();
+        try {
+            Future<?> task = executor.submit(() -> {
+                try {
+                    result.complete(delegate.analyze(description, tags));
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                } finally {
+                    bulkhead.release();
+                }
+            });
+            return new Call(result, task);
+        } catch (RejectedExecutionException e) {
+            bulkhead.release();
+            result.completeExceptionally(e);
+            return new Call(result, null);
+        }
+    }
+
+    // Completes with the first successful answer, or the last failure if both fail
+    private CompletableFuture<Result> firstSuccess(CompletableFuture<Result> primary,
+                                                   CompletableFuture<Result> hedge) {
+        CompletableFuture<Result> first = new CompletableFuture<>();
+        AtomicInteger failed = new AtomicInteger();
+
+        primary.whenComplete((r, t) -> {
+            if (t == null) first.complete(r);
+            else if (failed.incrementAndGet() == 2) first.completeExceptionally(t);
+        });
+        hedge.whenComplete((r, t) -> {
+            if (t == null) first.complete(r);
+            else if (failed.incrementAndGet() == 2) first.completeExceptionally(t);
+        });
+        return first;
+    }
+
+    private static boolean answeredBy(Call call, Result result) {
+        CompletableFuture<Result> f = call.result();
+        return f.isDone() && !f.isCompletedExceptionally() && f.join() == result;
+    }
+
+    private Result succeeded(Result result) {
+        successes.incrementAndGet();
+        breaker.onSuccess();
+        return result;
+    }
+
+    private Result failed(Throwable cause, String description, List<String> tags) {
+        failures.incrementAndGet();
+        if (isProviderFailure(cause)) {
+            breaker.onFailure();
+        } else {
+            // our request was rejected (bad key, bad payload): the provider itself is up
+            breaker.onSuccess();
+        }
+        log.warn("AI call failed: {}", rootMessage(cause));
+        return fallback("call failed", description, tags);
+    }
+
+    private Result fallback(String reason, String description, List<String> tags) {
+        fallbacks.incrementAndGet();
+        try {
+            Result r = local.analyze(description, tags);
+            if (!NEEDS_REVIEW.equals(r.label())) {
+                localAnswers.incrementAndGet();
+                log.debug("AI fallback ({}): local classifier answered {}", reason, r.label());
+                return r;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Local classifier failed", e);
+        }
+        log.debug("AI fallback to needs_review: {}", reason);
+        return Result.needsReview();
+    }
+
+    // 4xx other than 429 means the request was wrong, not that the provider is unhealthy
+    static boolean isProviderFailure(Throwable t) {
+        for (Throwable c = t; c != null; c = c.getCause()) {
+            if (c instanceof HttpClientErrorException e) {
+                return e.getStatusCode().value() == 429;
+            }
+            if (c instanceof HttpStatusCodeException) {
+                return true;
+            }
+        }
+        return true;
+    }
+
+    private static String rootMessage(Throwable t) {
+        Throwable root = t;
+        while (root.getCause() != null && root.getCause() != root) root = root.getCause();
+        return root.getClass().getSimpleName() + ": " + root.getMessage();
+    }
+}
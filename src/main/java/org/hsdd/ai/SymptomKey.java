@@ -0,0 +1,52 @@
+package org.hsdd.ai;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+// Normalizes a symptom description + tags so near-identical submissions share a cache key:
+// "Headache,  Nausea!" / ["Night"] and "nausea, headache" / ["night"] map to the same key.
+public final class SymptomKey {
+
+    private SymptomKey() {}
+
+    // Lower-case, punctuation stripped, comma/semicolon separated phrases sorted and de-duplicated
+    public static String normalizeDescription(String description) {
+        if (description == null) return "";
+        return Arrays.stream(description.toLowerCase(Locale.ROOT).split("[,;\\n]"))
+                .map(part -> part.replaceAll("[^\\p{L}\\p{N} ]", " ").trim().replaceAll("\\s+", " "))
+                .filter(part -> !part.isEmpty())
+                .distinct()
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    public static String normalizeTags(List<String> tags) {
+        if (tags == null) return "";
+        return tags.stream()
+                .filter(Objects::nonNull)
+                .map(t -> t.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " "))
+                .filter(t -> !t.isEmpty())
+                .distinct()
+                .sorted()
+                .collect(Collectors.joining(","));
+    }
+
+    // model is part of the key so switching models never serves the old model's answers
+    public static String of(String model, String description, List<String> tags) {
+        String normalized = model + "\n" + normalizeDescription(description) + "\n" + normalizeTags(tags);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
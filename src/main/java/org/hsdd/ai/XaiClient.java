@@ -3,31 +3,39 @@ package org.hsdd.ai;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.Primary;
 import org.springframework.http.*;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-@Component
-@Primary
+// Raw xAI call; the application uses it through CachingAiClient -> ResilientAiClient -> BatchingAiClient
+@Component("xaiClient")
 public class XaiClient implements AiClient {
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     private final String apiKey;
     private final String url;
     private final String model;
+    private final MeterRegistry meters;
 
     public XaiClient(
             @Value("${xai.api-key}") String apiKey,
             @Value("${xai.url}") String url,
-            @Value("${xai.model}") String model) {
+            @Value("${xai.model}") String model,
+            @Qualifier("xaiRestTemplate") RestTemplate restTemplate,
+            MeterRegistry meters) {
+        this.restTemplate = restTemplate;
+        this.meters = meters;
         this.apiKey = apiKey;
         this.url = url;
         this.model = model;
@@ -35,18 +43,27 @@ public class XaiClient implements AiClient {
 
     @Override
     public Result analyze(String text, List<String> tags) {
+        Timer.Sample sample = Timer.start(meters);
+        String outcome = "error";
+        try {
+            Result result = analyzeOnce(text, tags);
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(latency("single", outcome));
+        }
+    }
+
+    private Result analyzeOnce(String text, List<String> tags) {
         try {
             // 1) Build messages
-            Map<String, Object> systemMsg = Map.of(
-                    "role", "system",
-                    "content", """
+            String systemPrompt = """
                         You are a medical triage assistant.
                         You MUST ALWAYS answer ONLY with a JSON object:
                         {"label": "<short best-guess diagnosis>", "confidence": <number between 0 and 1>}
                         Never say "unknown", "needs_review", or similar.
                         Pick your BEST GUESS even if information is incomplete.
-                        """
-            );
+                        """;
 
             String userContent = """
                 Symptoms description:
@@ -58,49 +75,13 @@ public class XaiClient implements AiClient {
                 {"label": "migraine", "confidence": 0.91}
                 """.formatted(text, tags);
 
-            Map<String, Object> userMsg = Map.of(
-                    "role", "user",
-                    "content", userContent
-            );
-
-            // 2) Request body
-            Map<String, Object> body = new HashMap<>();
-            body.put("model", model);
-            body.put("stream", false);
-            body.put("temperature", 0);
-            body.put("messages", List.of(systemMsg, userMsg));
-
-            // 3) Headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.setBearerAuth(apiKey);
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-
-            // 4) Call Grok
-            ResponseEntity<String> response =
-                    restTemplate.postForEntity(url, entity, String.class);
-
-            // 5) Parse JSON generically (NO XaiChatResponse)
-            JsonNode root = objectMapper.readTree(response.getBody());
-            JsonNode firstChoice = root.path("choices").get(0);
-            String content = firstChoice
-                    .path("message")
-                    .path("content")
-                    .asText()
-                    .trim();
-
-            // 6) Try to parse Grok's content as JSON { "label": ..., "confidence": ... }
+            // 2) Call Grok
+            String content = chat(systemPrompt, userContent);
+
+            // 3) Try to parse Grok's content as JSON { "label": ..., "confidence": ... }
             try {
                 JsonNode node = objectMapper.readTree(content);
-                String label = node.path("label").asText();
-                double conf = node.path("confidence").asDouble(0.5);
-
-                if (label == null || label.isBlank()) {
-                    label = "model_response";
-                }
-
-                return new Result(label, conf);
+                return toResult(node);
             } catch (JsonProcessingException e) {
                 // If Grok returns plain text instead of JSON, use that as label
                 return new Result(content, 0.5);
@@ -110,4 +91,135 @@ public class XaiClient implements AiClient {
             throw new RuntimeException("xAI call failed", e);
         }
     }
-}
\ No newline at end of file
+
+    // Several submissions in one completion: the system prompt and instructions are paid once.
+    // Throws BatchResponseException if the answer can't be matched back to every item.
+    @Override
+    public List<Result> analyzeAll(List<Request> requests) {
+        Timer.Sample sample = Timer.start(meters);
+        String outcome = "error";
+        try {
+            List<Result> results = analyzeAllOnce(requests);
+            outcome = "success";
+            return results;
+        } finally {
+            sample.stop(latency("batch", outcome));
+        }
+    }
+
+    private List<Result> analyzeAllOnce(List<Request> requests) {
+        String content;
+        try {
+            String systemPrompt = """
+                        You are a medical triage assistant.
+                        You receive several independent patients, each with an "id".
+                        You MUST ALWAYS answer ONLY with a JSON array, one object per patient:
+                        [{"id": <id>, "label": "<short best-guess diagnosis>", "confidence": <number between 0 and 1>}]
+                        Never say "unknown", "needs_review", or similar.
+                        Pick your BEST GUESS even if information is incomplete.
+                        """;
+
+            List<Map<String, Object>> items = new ArrayList<>(requests.size());
+            for (int i = 0; i < requests.size(); i++) {
+                Request r = requests.get(i);
+                items.add(Map.of(
+                        "id", i,
+                        "symptoms", r.description() == null ? "" : r.description(),
+                        "tags", r.tags() == null ? List.of() : r.tags()));
+            }
+
+            String userContent = """
+                Patients:
+                %s
+
+                Respond ONLY with a JSON array like:
+                [{"id": 0, "label": "migraine", "confidence": 0.91}]
+                """.formatted(objectMapper.writeValueAsString(items));
+
+            content = chat(systemPrompt, userContent);
+        } catch (Exception e) {
+            throw new RuntimeException("xAI call failed", e);
+        }
+
+        // demultiplex by id, not position: models sometimes reorder
+        Result[] results = new Result[requests.size()];
+        try {
+            JsonNode root = objectMapper.readTree(content);
+            if (!root.isArray()) {
+                throw new BatchResponseException("expected a JSON array");
+            }
+            for (JsonNode node : root) {
+                int id = node.path("id").asInt(-1);
+                if (id < 0 || id >= results.length || results[id] != null) {
+                    throw new BatchResponseException("bad or duplicate id " + node.path("id"));
+                }
+                results[id] = toResult(node);
+            }
+        } catch (JsonProcessingException e) {
+            throw new BatchResponseException("response is not JSON");
+        }
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) throw new BatchResponseException("no answer for id " + i);
+        }
+        return List.of(results);
+    }
+
+    private String chat(String systemPrompt, String userContent) throws JsonProcessingException {
+        Map<String, Object> systemMsg = Map.of(
+                "role", "system",
+                "content", systemPrompt
+        );
+
+        Map<String, Object> userMsg = Map.of(
+                "role", "user",
+                "content", userContent
+        );
+
+        // Request body
+        Map<String, Object> body = new HashMap<>();
+        body.put("model", model);
+        body.put("stream", false);
+        body.put("temperature", 0);
+        body.put("messages", List.of(systemMsg, userMsg));
+
+        // Headers
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBearerAuth(apiKey);
+
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
+
+        ResponseEntity<String> response =
+                restTemplate.postForEntity(url, entity, String.class);
+
+        // Parse JSON generically (NO XaiChatResponse)
+        JsonNode root = objectMapper.readTree(response.getBody());
+        JsonNode firstChoice = root.path("choices").get(0);
+        return firstChoice
+                .path("message")
+                .path("content")
+                .asText()
+                .trim();
+    }
+
+    // Provider round trip including parsing; histogram buckets let Prometheus aggregate percentiles
+    private Timer latency(String call, String outcome) {
+        return Timer.builder("hsdd.ai.provider.latency")
+                .description("xAI completion latency")
+                .tag("call", call)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(meters);
+    }
+
+    private Result toResult(JsonNode node) {
+        String label = node.path("label").asText();
+        double conf = node.path("confidence").asDouble(0.5);
+
+        if (label == null || label.isBlank()) {
+            label = "model_response";
+        }
+        return new Result(label, conf);
+    }
+}
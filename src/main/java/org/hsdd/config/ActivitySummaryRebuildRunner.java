@@ -0,0 +1,30 @@
+package org.hsdd.config;
+
+import org.hsdd.service.PatientActivityService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// One-off backfill at startup:
+//   java -jar healthapp.jar --hsdd.activity-summary.rebuild-on-startup=true
+@Component
+@ConditionalOnProperty(name = "hsdd.activity-summary.rebuild-on-startup", havingValue = "true")
+public class ActivitySummaryRebuildRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivitySummaryRebuildRunner.class);
+
+    private final PatientActivityService activity;
+
+    public ActivitySummaryRebuildRunner(PatientActivityService activity) {
+        this.activity = activity;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int rows = activity.rebuild();
+        log.info("Rebuilt patient_activity_summary: {} rows", rows);
+    }
+}
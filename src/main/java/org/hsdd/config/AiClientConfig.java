@@ -0,0 +1,41 @@
+package org.hsdd.config;
+
+import org.hsdd.ai.CircuitBreaker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+@Configuration
+public class AiClientConfig {
+
+    // One shared JDK HttpClient for xAI: keeps connections alive between calls
+    // (and multiplexes them over HTTP/2) instead of a fresh connection per request.
+    @Bean
+    public RestTemplate xaiRestTemplate(
+            @Value("${hsdd.ai.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${hsdd.ai.read-timeout-ms:15000}") long readTimeoutMs) {
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return new RestTemplate(factory);
+    }
+
+    @Bean
+    public CircuitBreaker aiCircuitBreaker(
+            @Value("${hsdd.ai.breaker.window:20}") int window,
+            @Value("${hsdd.ai.breaker.min-calls:10}") int minCalls,
+            @Value("${hsdd.ai.breaker.failure-rate:0.5}") double failureRate,
+            @Value("${hsdd.ai.breaker.open-ms:30000}") long openMs) {
+
+        return new CircuitBreaker(window, minCalls, failureRate, openMs);
+    }
+}
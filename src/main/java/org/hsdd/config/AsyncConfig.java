@@ -0,0 +1,106 @@
+package org.hsdd.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class AsyncConfig {
+
+    // Runs AI inference for async symptom submissions.
+    // Virtual threads keep the blocking xAI call cheap, the pool size caps
+    // how many calls hit the provider at once and the queue caps the backlog.
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService inferenceExecutor(
+            @Value("${hsdd.inference.max-concurrency:16}") int maxConcurrency,
+            @Value("${hsdd.inference.queue-capacity:256}") int queueCapacity) {
+
+        return new ThreadPoolExecutor(
+                maxConcurrency,
+                maxConcurrency,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofVirtual().name("inference-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    // Upstream model calls made by ResilientAiClient, so the caller can stop
+    // waiting at the deadline. Unbounded on purpose: its bulkhead limits concurrency.
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService aiCallExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ai-call-", 0).factory());
+    }
+
+    // BCrypt for logins, signups and password changes (see PasswordHasher).
+    // Platform threads: hashing is pure CPU. Fewer threads than cores so a login
+    // storm leaves room for everything else; the queue caps the backlog.
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService passwordHashExecutor(
+            @Value("${hsdd.auth.hash-threads:0}") int threads,
+            @Value("${hsdd.auth.hash-queue-capacity:64}") int queueCapacity) {
+
+        int n = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new ThreadPoolExecutor(
+                n,
+                n,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("pw-hash-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    // Parses chunks of bulk medical history uploads (see HistoryImportService).
+    // Pure CPU, so platform threads, one per core by default. When the queue is
+    // full the uploading thread parses the chunk itself, which slows its reading.
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService historyParseExecutor(
+            @Value("${hsdd.history.parse-threads:0}") int threads,
+            @Value("${hsdd.history.parse-queue-capacity:64}") int queueCapacity) {
+
+        int n = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new ThreadPoolExecutor(
+                n,
+                n,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("history-parse-", 0).daemon(true).factory(),
+                // like CallerRunsPolicy, but fail instead of silently dropping
+                // the chunk (and hanging its upload) once shut down
+                (task, pool) -> {
+                    if (pool.isShutdown()) throw new RejectedExecutionException("History parse pool is shut down");
+                    task.run();
+                }
+        );
+    }
+
+    // Writes to open SSE connections (see NotificationStream). A blocked write
+    // only parks its virtual thread; each connection bounds its own backlog.
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService sseSendExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-send-", 0).factory());
+    }
+
+    // Low-confidence notification fan-out and its delayed retries.
+    // Small on purpose: each task is one batched insert and holds a DB connection.
+    @Bean(destroyMethod = "shutdown")
+    public ScheduledThreadPoolExecutor notificationExecutor(
+            @Value("${hsdd.notifications.dispatch-threads:2}") int threads) {
+
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(
+                threads,
+                Thread.ofPlatform().name("notify-", 0).daemon(true).factory()
+        );
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+}
@@ -18,6 +18,7 @@ public class CorsConfig {
                         .allowedOrigins("http://localhost:5173")
                         .allowedMethods("*")
                         .allowedHeaders("*")
+                        .exposedHeaders("X-Next-Cursor")   // keyset paging cursor
                         .allowCredentials(true);
             }
         };
@@ -0,0 +1,75 @@
+package org.hsdd.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.hsdd.ai.BatchingAiClient;
+import org.hsdd.ai.CachingAiClient;
+import org.hsdd.ai.CircuitBreaker;
+import org.hsdd.ai.ResilientAiClient;
+import org.hsdd.service.AuditSink;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Meters not owned by a single class. Per-endpoint timers (http.server.requests)
+// and the Hikari pool gauges (hikaricp.connections.*) come from Spring Boot;
+// here they get percentiles, and our in-process queues become gauges.
+@Configuration
+public class MetricsConfig {
+
+    static final String HTTP_REQUESTS = "http.server.requests";
+
+    // p50/p99 for system-health plus histogram buckets so Prometheus can aggregate across instances
+    @Bean
+    public MeterFilter httpRequestPercentiles() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!HTTP_REQUESTS.equals(id.getName())) return config;
+                return DistributionStatisticConfig.builder()
+                        .percentiles(0.5, 0.99)
+                        .percentilesHistogram(true)
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+
+    // Read on scrape from the stats() the components already keep
+    @Bean
+    public MeterBinder hsddQueueMetrics(AuditSink auditSink,
+                                        ResilientAiClient aiClient,
+                                        BatchingAiClient aiBatcher,
+                                        CachingAiClient inferenceCache) {
+        return registry -> {
+            Gauge.builder("hsdd.audit.queue.depth", auditSink, s -> s.stats().queueDepth())
+                    .description("Audit entries waiting to be written")
+                    .register(registry);
+            FunctionCounter.builder("hsdd.audit.dropped", auditSink, s -> s.stats().dropped())
+                    .description("Audit entries dropped by the overflow policy")
+                    .register(registry);
+
+            Gauge.builder("hsdd.ai.in_flight", aiClient, c -> c.stats().inFlight())
+                    .description("Provider calls holding a bulkhead permit")
+                    .register(registry);
+            Gauge.builder("hsdd.ai.circuit.open", aiClient,
+                            c -> c.stats().circuit() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                    .description("1 while the provider circuit breaker is open or half-open")
+                    .register(registry);
+            FunctionCounter.builder("hsdd.ai.fallbacks", aiClient, c -> c.stats().fallbacks())
+                    .description("Calls answered without the provider")
+                    .register(registry);
+
+            Gauge.builder("hsdd.ai.batch.queue.depth", aiBatcher, b -> b.stats().queueDepth())
+                    .description("Submissions waiting for a micro-batch")
+                    .register(registry);
+
+            Gauge.builder("hsdd.inference.cache.size", inferenceCache, c -> c.stats().size())
+                    .description("Entries in the in-memory inference cache")
+                    .register(registry);
+        };
+    }
+}
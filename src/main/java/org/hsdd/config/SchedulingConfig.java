@@ -0,0 +1,23 @@
+package org.hsdd.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+// Runs @Scheduled housekeeping. Declared here because notificationExecutor is a
+// ScheduledExecutorService bean: without a TaskScheduler of its own, scheduling
+// would pick that pool and compete with notification dispatch.
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("housekeeping-");
+        scheduler.setDaemon(true);
+        return scheduler;
+    }
+}
@@ -1,6 +1,8 @@
 package org.hsdd.config;
 
 import org.hsdd.security.TokenAuthFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -10,18 +12,26 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    // Raising the strength is picked up on each user's next login (rehash-on-login)
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${hsdd.auth.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http, TokenAuthFilter tokenFilter) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           TokenAuthFilter tokenFilter,
+                                           @Value("${management.server.port:-1}") int managementPort) throws Exception {
+
+        // without a separate management port nothing matches, so the endpoints need a login
+        RequestMatcher onManagementPort = request -> managementPort > 0 && request.getLocalPort() == managementPort;
 
         http
                 .csrf(csrf -> csrf.disable())
@@ -29,9 +39,14 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
 
-                        // PUBLIC
+                        // PUBLIC (except changing a password, which needs a login)
+                        .requestMatchers("/api/auth/reset-password/**").authenticated()
                         .requestMatchers("/api/auth/**").permitAll()
 
+                        // METRICS (open on the management port only, which stays off the public network)
+                        .requestMatchers(new AndRequestMatcher(EndpointRequest.to("prometheus", "health"), onManagementPort))
+                        .permitAll()
+
                         // ACCOUNT routes (authenticated users only)
                         .requestMatchers("/api/account/**").authenticated()
 
@@ -1,11 +1,17 @@
 package org.hsdd.controller;
 
 import org.hsdd.dto.*;
+import jakarta.servlet.http.HttpServletRequest;
 import org.hsdd.model.Patient;
+import org.hsdd.security.AuthPrincipal;
+import org.hsdd.security.LoginThrottledException;
 import org.hsdd.service.*;
 import org.springframework.http.*;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.security.Principal;
+
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
@@ -25,19 +31,32 @@ public class AuthController {
         return ResponseEntity.status(HttpStatus.CREATED).body(body);
     }
 
+    // getRemoteAddr is the client only with server.forward-headers-strategy set behind
+    // a proxy (see application-example.yml); otherwise every login shares the proxy's limit
     @PostMapping("/login")
-    public AuthResponse login(@RequestBody LoginRequest req){
-        return auth.login(req);
+    public AuthResponse login(@RequestBody LoginRequest req, HttpServletRequest http){
+        return auth.login(req, http.getRemoteAddr());
     }
 
-
+    // Own password, or anyone's for an admin; checked before the request reaches the hash pool
     @PutMapping("/reset-password/{userId}")
     public ResponseEntity<?> resetPassword(@PathVariable Long userId,
-                                           @RequestBody ResetPasswordRequest req) {
+                                           @RequestBody ResetPasswordRequest req,
+                                           Principal principal) {
+        if (!mayResetPassword(principal, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
         auth.resetPassword(userId, req.newPassword());
         return ResponseEntity.ok().build();
     }
 
+    private static boolean mayResetPassword(Principal principal, Long userId) {
+        if (!(principal instanceof Authentication a) || !(a.getDetails() instanceof AuthPrincipal p)) {
+            return false;
+        }
+        return p.userId().equals(userId)
+                || a.getAuthorities().stream().anyMatch(g -> "ROLE_ADMIN".equals(g.getAuthority()));
+    }
 
     @PostMapping("/logout")
     public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authHeader) {
@@ -45,6 +64,19 @@ public class AuthController {
         return ResponseEntity.ok().build();
     }
 
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<?> handleThrottled(LoginThrottledException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ex.getMessage());
+    }
+
+    // password hashing pool saturated
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<?> handleBusy(IllegalStateException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ex.getMessage());
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<?> handleRuntimeException(RuntimeException ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("error");
@@ -1,8 +1,16 @@
 package org.hsdd.controller;
 
+import org.hsdd.ai.BatchingAiClient;
+import org.hsdd.ai.CachingAiClient;
+import org.hsdd.ai.LocalAiClient;
+import org.hsdd.ai.ResilientAiClient;
 import org.hsdd.dto.*;
 import org.hsdd.service.AdminService;
+import org.hsdd.service.AuditSink;
+import org.hsdd.service.LatencyStats;
 import org.hsdd.repo.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -10,26 +18,64 @@ import java.util.HashMap;
 import java.util.Map;
 import java.lang.management.ManagementFactory;
 import com.sun.management.OperatingSystemMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.Principal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/admin")
 public class ComplianceController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int MAX_USER_PAGE = 200;
+
     private final AdminService adminService;
     private final UserRepository userRepository;   // ⭐ REQUIRED FOR activeUsers
-
-    public ComplianceController(AdminService adminService, UserRepository userRepository) {
+    private final AuditSink auditSink;
+    private final CachingAiClient inferenceCache;
+    private final ResilientAiClient aiClient;
+    private final BatchingAiClient aiBatcher;
+    private final LocalAiClient localClassifier;
+    private final LatencyStats latencyStats;
+    private final String backupMarker;
+
+    public ComplianceController(AdminService adminService, UserRepository userRepository,
+                                AuditSink auditSink, CachingAiClient inferenceCache,
+                                ResilientAiClient aiClient, BatchingAiClient aiBatcher,
+                                LocalAiClient localClassifier, LatencyStats latencyStats,
+                                @Value("${hsdd.ops.backup-marker:}") String backupMarker) {
         this.adminService = adminService;
         this.userRepository = userRepository;      // ⭐ SAVE IT
+        this.auditSink = auditSink;
+        this.inferenceCache = inferenceCache;
+        this.aiClient = aiClient;
+        this.aiBatcher = aiBatcher;
+        this.localClassifier = localClassifier;
+        this.latencyStats = latencyStats;
+        this.backupMarker = backupMarker;
     }
 
     // ---------------- USERS ----------------
 
+    // Paged directory; role / active / q (username or email prefix) are optional
+    // sort = id | username | email | role | createdAt | name, dir = asc | desc
     @GetMapping("/users")
-    public ResponseEntity<List<AdminUserDto>> listUsers() {
-        return ResponseEntity.ok(adminService.listUsers());
+    public ResponseEntity<PageDto<AdminUserDto>> listUsers(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String dir,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String q
+    ) {
+        return ResponseEntity.ok(adminService.listUsers(
+                role, active, q, Math.max(page, 0), Math.min(Math.max(size, 1), MAX_USER_PAGE), sort, dir));
     }
 
     @GetMapping("/users/{id}")
@@ -77,11 +123,28 @@ public class ComplianceController {
 
     // ---------------- AUDIT ----------------
 
+    // Keyset paging: when more rows exist the X-Next-Cursor header carries the
+    // cursor for the next call (?cursor=...)
     @GetMapping("/audit-logs")
     public ResponseEntity<List<AuditLogDto>> listAuditLogs(
-            @RequestParam(defaultValue = "100") int limit
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String actor,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String cursor
     ) {
-        return ResponseEntity.ok(adminService.listAuditLogs(limit));
+        try {
+            CursorPageDto<AuditLogDto> page =
+                    adminService.searchAuditLogs(actor, type, from, to, cursor, limit);
+            ResponseEntity.BodyBuilder res = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                res.header(NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return res.body(page.items());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/audit-logs/report")
@@ -89,6 +152,20 @@ public class ComplianceController {
         return ResponseEntity.ok(adminService.auditSummary());
     }
 
+    // GROUP BY event type over [from, to), bucket = none | hour | day (UTC)
+    @GetMapping("/audit-logs/summary")
+    public ResponseEntity<List<AuditSummaryDto>> auditSummaryByWindow(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "none") String bucket
+    ) {
+        try {
+            return ResponseEntity.ok(adminService.auditSummary(from, to, bucket));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/audit-logs/recent")
     public ResponseEntity<List<AuditLogDto>> recentAuditLogs() {
         return ResponseEntity.ok(
@@ -99,6 +176,32 @@ public class ComplianceController {
 
 
 
+    // ---------------- MAINTENANCE ----------------
+
+    // Backfills patient_activity_summary from predictions/symptoms/annotations
+    @PostMapping("/maintenance/activity-summary/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildActivitySummary(Principal principal) {
+        String actor = principal != null ? principal.getName() : "admin";
+        int rows = adminService.rebuildActivitySummary(actor);
+        return ResponseEntity.ok(Map.of("rows", rows));
+    }
+
+    // Recomputes patient_label_trend from predictions
+    @PostMapping("/maintenance/trends/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildTrends(Principal principal) {
+        String actor = principal != null ? principal.getName() : "admin";
+        int rows = adminService.rebuildTrends(actor);
+        return ResponseEntity.ok(Map.of("rows", rows));
+    }
+
+    // Retrains the offline fallback classifier now instead of waiting for the next scheduled run
+    @PostMapping("/maintenance/local-classifier/retrain")
+    public ResponseEntity<Map<String, Object>> retrainLocalClassifier(Principal principal) {
+        String actor = principal != null ? principal.getName() : "admin";
+        int examples = adminService.retrainLocalClassifier(actor);
+        return ResponseEntity.ok(Map.of("examples", examples));
+    }
+
     // ---------------- SYSTEM HEALTH ----------------
 
     @GetMapping("/system-health")
@@ -125,8 +228,26 @@ public class ComplianceController {
         result.put("cpuUsage", cpuPercent);
         result.put("memoryUsage", (int) memoryPercent);
         result.put("activeUsers", activeUsers);   // ⭐ NOW INCLUDED
-        result.put("lastBackup", "2025-11-11 23:45");
+        result.put("lastBackup", lastBackup());
+        result.put("auditQueue", auditSink.stats());   // write-behind backlog / drops
+        result.put("inferenceCache", inferenceCache.stats());   // hit / miss counters
+        result.put("aiClient", aiClient.stats());               // breaker state, timeouts, fallbacks
+        result.put("aiBatching", aiBatcher.stats());            // items per upstream call
+        result.put("localClassifier", localClassifier.stats()); // offline fallback model
+        result.put("latency", latencyStats.snapshot());         // recent p50/p99 per endpoint, inference, provider
 
         return ResponseEntity.ok(result);
     }
+
+    // The backup job touches the marker file when it succeeds
+    private String lastBackup() {
+        if (backupMarker.isBlank()) return "unknown";
+        try {
+            Instant at = Files.getLastModifiedTime(Path.of(backupMarker)).toInstant();
+            return LocalDateTime.ofInstant(at, ZoneId.systemDefault())
+                    .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
 }
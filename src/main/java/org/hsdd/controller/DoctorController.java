@@ -1,18 +1,24 @@
 package org.hsdd.controller;
 
 import org.hsdd.dto.LowConfidenceDto;
+import org.hsdd.dto.PageDto;
+import org.hsdd.dto.ReviewItemDto;
 import org.hsdd.model.Doctor;
 import org.hsdd.service.DoctorFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/doctor")
 public class DoctorController {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final DoctorFactory doctorFactory;
 
     public DoctorController(DoctorFactory doctorFactory) {
@@ -52,7 +58,12 @@ public class DoctorController {
             Principal principal
     ) {
         Doctor doctor = doctorFactory.fromUsername(principal.getName());
-        doctor.markPredictionReviewed(id);
+        try {
+            doctor.markPredictionReviewed(id);
+        } catch (IllegalStateException e) {
+            // another doctor holds the lease
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
 
         return ResponseEntity.ok().build();
     }
@@ -74,4 +85,53 @@ public class DoctorController {
         return ResponseEntity.ok(doctor.getLowConfidenceQueue());
     }
 
+    // -------------------------------------------------------
+    //   REVIEW QUEUE (paged, claim with an expiring lease)
+    // -------------------------------------------------------
+
+    // Pending items oldest first; claimedBy / leaseUntil show who is on it
+    @GetMapping("/review-queue")
+    public ResponseEntity<PageDto<ReviewItemDto>> getReviewQueue(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            Principal principal
+    ) {
+        Doctor doctor = doctorFactory.fromUsername(principal.getName());
+        return ResponseEntity.ok(doctor.getReviewQueue(
+                Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE)));
+    }
+
+    // Claims up to count more of the oldest unclaimed items; returns all items this doctor holds
+    @PostMapping("/review-queue/claim")
+    public ResponseEntity<List<ReviewItemDto>> claimReviews(
+            @RequestParam(defaultValue = "10") int count,
+            Principal principal
+    ) {
+        Doctor doctor = doctorFactory.fromUsername(principal.getName());
+        return ResponseEntity.ok(doctor.claimReviews(count));
+    }
+
+    @GetMapping("/review-queue/mine")
+    public ResponseEntity<List<ReviewItemDto>> getClaimedReviews(Principal principal) {
+        Doctor doctor = doctorFactory.fromUsername(principal.getName());
+        return ResponseEntity.ok(doctor.getClaimedReviews());
+    }
+
+    // Heartbeat while the doctor is still working through the batch
+    @PostMapping("/review-queue/renew")
+    public ResponseEntity<Map<String, Object>> renewReviewClaims(Principal principal) {
+        Doctor doctor = doctorFactory.fromUsername(principal.getName());
+        return ResponseEntity.ok(Map.of("renewed", doctor.renewReviewClaims()));
+    }
+
+    @DeleteMapping("/review-queue/claims/{id}")
+    public ResponseEntity<Void> releaseReviewClaim(
+            @PathVariable Long id,
+            Principal principal
+    ) {
+        Doctor doctor = doctorFactory.fromUsername(principal.getName());
+        return doctor.releaseReviewClaim(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
 }
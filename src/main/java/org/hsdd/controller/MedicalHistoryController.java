@@ -1,6 +1,8 @@
 package org.hsdd.controller;
 
+import org.hsdd.dto.HistoryImportDto;
 import org.hsdd.model.MedicalHistory;
+import org.hsdd.security.PatientAccess;
 import org.hsdd.service.MedicalHistoryService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -8,52 +10,119 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.security.Principal;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/history")
 public class MedicalHistoryController {
 
+    private static final String NOT_YOUR_RECORD = "Not your record";
+
     private final MedicalHistoryService historyService;
+    private final PatientAccess access;
 
-    public MedicalHistoryController(MedicalHistoryService historyService) {
+    public MedicalHistoryController(MedicalHistoryService historyService, PatientAccess access) {
         this.historyService = historyService;
+        this.access = access;
     }
 
     // -------------------------------------------------------
     // 1) Upload
     // -------------------------------------------------------
+    // Without a patientId the file is a bulk csv / fhir export naming its own
+    // patients; only doctors and admins may upload those. With one, records
+    // naming any other patient are rejected.
     @PostMapping("/upload")
     public ResponseEntity<?> uploadHistory(
             @RequestParam(value = "patientId", required = false) String patientId,
-            @RequestParam(value = "file", required = false) MultipartFile file
+            @RequestParam(value = "importId", required = false) Long importId,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestParam(value = "file", required = false) MultipartFile file,
+            Principal principal
     ) {
-        if (patientId == null || patientId.isBlank()) {
-            return ResponseEntity.badRequest().body("Missing patientId");
-        }
         if (file == null || file.isEmpty()) {
             return ResponseEntity.badRequest().body("Missing file");
         }
+        if (patientId != null && patientId.isBlank()) {
+            patientId = null;
+        }
+        if (patientId == null && !PatientAccess.isStaff(principal)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Missing patientId (bulk uploads are for doctors and admins)");
+        }
+        if (patientId != null && !access.allows(principal, patientId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(NOT_YOUR_RECORD);
+        }
 
         try {
-            historyService.uploadHistoryFile(patientId, file);
-            return ResponseEntity.ok().build();
+            HistoryImportDto result = historyService.uploadHistoryFile(patientId, importId, format, file);
+            // a failed import still reports how far it got, so the client can resume
+            if ("FAILED".equals(result.status())) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+            }
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (IOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Failed to upload: " + e.getMessage());
         }
     }
 
+    // Registers an import before uploading, so its progress can be polled
+    @PostMapping("/imports")
+    public ResponseEntity<?> startImport(
+            @RequestParam(value = "patientId", required = false) String patientId,
+            @RequestParam(value = "fileName", required = false) String fileName,
+            @RequestParam(value = "format", required = false) String format,
+            Principal principal
+    ) {
+        if (patientId != null && patientId.isBlank()) {
+            patientId = null;
+        }
+        if (patientId == null && !PatientAccess.isStaff(principal)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Missing patientId (bulk uploads are for doctors and admins)");
+        }
+        if (patientId != null && !access.allows(principal, patientId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(NOT_YOUR_RECORD);
+        }
+        try {
+            return ResponseEntity.ok(historyService.startImport(patientId, fileName, format));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/imports/{id}")
+    public ResponseEntity<?> getImport(@PathVariable Long id, Principal principal) {
+        HistoryImportDto imp;
+        try {
+            imp = historyService.getImport(id);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+        boolean allowed = imp.patientId() == null
+                ? PatientAccess.isStaff(principal)
+                : access.allows(principal, imp.patientId());
+        return allowed ? ResponseEntity.ok(imp) : ResponseEntity.status(HttpStatus.FORBIDDEN).body(NOT_YOUR_RECORD);
+    }
+
     // -------------------------------------------------------
     // 2) List
     // -------------------------------------------------------
     @GetMapping
     public ResponseEntity<?> listHistory(
-            @RequestParam(value = "patientId", required = false) String patientId
+            @RequestParam(value = "patientId", required = false) String patientId,
+            Principal principal
     ) {
         if (patientId == null || patientId.isBlank()) {
             return ResponseEntity.badRequest().body("Missing patientId");
         }
+        if (!access.allows(principal, patientId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(NOT_YOUR_RECORD);
+        }
 
         try {
             List<MedicalHistory> list = historyService.listHistory(patientId);
@@ -71,13 +140,17 @@ public class MedicalHistoryController {
     public ResponseEntity<?> addHistoryEntry(
             @RequestParam(value = "patientId", required = false) String patientId,
             @RequestParam(value = "title", required = false) String title,
-            @RequestParam(value = "details", required = false) String details
+            @RequestParam(value = "details", required = false) String details,
+            Principal principal
     ) {
         if (patientId == null || patientId.isBlank()
                 || title == null || title.isBlank()
                 || details == null || details.isBlank()) {
             return ResponseEntity.badRequest().body("Missing required fields");
         }
+        if (!access.allows(principal, patientId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(NOT_YOUR_RECORD);
+        }
 
         try {
             MedicalHistory entry = new MedicalHistory();
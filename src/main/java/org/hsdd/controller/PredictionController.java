@@ -1,36 +1,62 @@
 package org.hsdd.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.hsdd.dto.*;
 import org.hsdd.model.Doctor;
 import org.hsdd.service.DoctorFactory;
 import org.hsdd.service.DoctorService;
 import org.hsdd.service.NotificationService;
+import org.hsdd.service.NotificationStream;
 import org.hsdd.repo.UserRepository;
+import org.hsdd.security.AuthPrincipal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.security.Principal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.Semaphore;
 
 @RestController
 @RequestMapping("/api/doctor")
 public class PredictionController {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final DoctorService doctorService;
     private final NotificationService notificationService;
     private final UserRepository users;
     private final DoctorFactory doctorFactory;
+    private final NotificationStream notificationStream;
+    private final ObjectMapper objectMapper;
+    private final Semaphore exports;
 
     public PredictionController(
             DoctorService doctorService,
             NotificationService notificationService,
             UserRepository users,
-            DoctorFactory doctorFactory
+            DoctorFactory doctorFactory,
+            NotificationStream notificationStream,
+            ObjectMapper objectMapper,
+            @Value("${hsdd.reports.export-max-concurrent:4}") int maxConcurrentExports
     ) {
         this.doctorService = doctorService;
         this.notificationService = notificationService;
         this.users = users;
         this.doctorFactory = doctorFactory;
+        this.notificationStream = notificationStream;
+        this.objectMapper = objectMapper;
+        this.exports = new Semaphore(Math.max(1, maxConcurrentExports));
     }
 
     // -----------------------------------
@@ -41,9 +67,36 @@ public class PredictionController {
         return ResponseEntity.ok(doctorService.getPatientPredictions(patientId));
     }
 
+    // from/to (ISO dates, to exclusive) narrow the totals to that range; none = all time
     @GetMapping("/patients/{patientId}/trends")
-    public ResponseEntity<List<TrendDataDto>> getTrends(@PathVariable String patientId) {
-        return ResponseEntity.ok(doctorService.getPatientTrends(patientId));
+    public ResponseEntity<?> getTrends(
+            @PathVariable String patientId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        if (from == null && to == null) {
+            return ResponseEntity.ok(doctorService.getPatientTrends(patientId));
+        }
+        try {
+            return ResponseEntity.ok(doctorService.getPatientTrends(patientId, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // bucket = week | month; defaults to the last 12 buckets
+    @GetMapping("/patients/{patientId}/trends/histogram")
+    public ResponseEntity<?> getTrendHistogram(
+            @PathVariable String patientId,
+            @RequestParam(defaultValue = "week") String bucket,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        try {
+            return ResponseEntity.ok(doctorService.getPatientTrendHistogram(patientId, bucket, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     // -----------------------------------
@@ -88,25 +141,26 @@ public class PredictionController {
     // -----------------------------------
     // NOTIFICATIONS
     // -----------------------------------
+    // sinceId = newest notification id the client already has (delta fetch on reconnect)
     @GetMapping("/notifications")
-    public ResponseEntity<List<NotificationDto>> getUnread(Principal principal) {
-        Long userId = users.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"))
-                .getId();
-
-        List<NotificationDto> dtos = notificationService
-                .getUnreadNotifications(userId)
-                .stream()
-                .map(n -> new NotificationDto(
-                        n.getId(),
-                        n.getPrediction().getId(),
-                        n.getMessage(),
-                        n.isReadFlag(),
-                        n.getCreatedAt()
-                ))
-                .toList();
+    public ResponseEntity<List<NotificationDto>> getUnread(
+            @RequestParam(required = false) Long sinceId,
+            Principal principal
+    ) {
+        Long userId = currentUserId(principal);
+        return ResponseEntity.ok(notificationService.getUnread(userId, sinceId));
+    }
 
-        return ResponseEntity.ok(dtos);
+    // Server-Sent Events: pushes each new notification as it is created.
+    // EventSource resends Last-Event-ID on reconnect and missed rows are replayed.
+    @GetMapping(value = "/notifications/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNotifications(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(required = false) Long sinceId,
+            Principal principal
+    ) {
+        Long userId = currentUserId(principal);
+        return notificationStream.subscribe(userId, lastEventId != null ? lastEventId : sinceId);
     }
 
     @PostMapping("/notifications/{id}/read")
@@ -114,9 +168,7 @@ public class PredictionController {
             @PathVariable Long id,
             Principal principal
     ) {
-        Long userId = users.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"))
-                .getId();
+        Long userId = currentUserId(principal);
 
         notificationService.markAsRead(id, userId);
         return ResponseEntity.ok().build();
@@ -132,13 +184,28 @@ public class PredictionController {
     }
 
     @GetMapping("/recent-patients")
-    public ResponseEntity<List<RecentPatientDto>> getRecentPatients() {
-        return ResponseEntity.ok(doctorService.getRecentPatients());
+    public ResponseEntity<PageDto<RecentPatientDto>> getRecentPatients(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(doctorService.getRecentPatients(
+                Math.max(page, 0), clampPageSize(size)));
     }
 
+    // sort = lastVisit | name | patientId, dir = asc | desc
     @GetMapping("/all-patients")
-    public ResponseEntity<List<RecentPatientDto>> getAllPatients() {
-        return ResponseEntity.ok(doctorService.getAllPatients());
+    public ResponseEntity<PageDto<RecentPatientDto>> getAllPatients(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "name") String sort,
+            @RequestParam(defaultValue = "asc") String dir
+    ) {
+        return ResponseEntity.ok(doctorService.getAllPatients(
+                Math.max(page, 0), clampPageSize(size), sort, dir));
+    }
+
+    private int clampPageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
     }
 
     @GetMapping("/patient/{patientId}/full-record")
@@ -154,14 +221,90 @@ public class PredictionController {
         return ResponseEntity.ok(dto);
     }
 
+    // sort = date | confidence | label, dir = asc | desc; filters are optional and AND-ed,
+    // from/to are ISO dates (to exclusive), min/maxConfidence inclusive
     @GetMapping("/reports")
-    public ResponseEntity<List<AllReportDto>> getAllReports(Principal principal) {
-
+    public ResponseEntity<PageDto<AllReportDto>> getReports(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "date") String sort,
+            @RequestParam(defaultValue = "desc") String dir,
+            @ModelAttribute ReportFilter filter,
+            Principal principal
+    ) {
         // Allow tests without principal
         String username = (principal != null) ? principal.getName() : null;
 
         Doctor doctor = doctorFactory.fromUsername(username);
-        return ResponseEntity.ok(doctor.getAllReports());
+        try {
+            return ResponseEntity.ok(doctor.getReports(
+                    filter, Math.max(page, 0), clampPageSize(size), sort, dir));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Same filters and order, every matching row as one JSON array written while
+    // the rows are read, so memory stays flat however large the history gets
+    @GetMapping(value = "/reports/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportReports(
+            @RequestParam(defaultValue = "date") String sort,
+            @RequestParam(defaultValue = "desc") String dir,
+            @ModelAttribute ReportFilter filter,
+            Principal principal
+    ) {
+        String username = (principal != null) ? principal.getName() : null;
+        Doctor doctor = doctorFactory.fromUsername(username);
+
+        // checked here, while a 400 can still be sent; the body runs after the 200 is committed
+        ReportFilter checked;
+        try {
+            checked = ReportFilter.checked(filter);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // open-in-view keeps the request's connection checked out until the download
+        // ends, so only a few run at once; the rest get 503 instead of draining the pool
+        if (!exports.tryAcquire()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                // if the rows fail midway, leave the array open so the export is visibly broken
+                json.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+                json.writeStartArray();
+                doctor.exportReports(checked, sort, dir, r -> {
+                    try {
+                        json.writeObject(r);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                json.writeEndArray();
+            } finally {
+                exports.release();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping("/reports/{id}")
+    public ResponseEntity<AllReportDto> getReport(@PathVariable Long id, Principal principal) {
+        String username = (principal != null) ? principal.getName() : null;
+
+        Doctor doctor = doctorFactory.fromUsername(username);
+        return ResponseEntity.ok(doctor.getReport(id));
     }
 
+    // TokenAuthFilter puts the resolved user in the auth details; only fall back to a lookup without it
+    private Long currentUserId(Principal principal) {
+        if (principal instanceof Authentication auth && auth.getDetails() instanceof AuthPrincipal p) {
+            return p.userId();
+        }
+        return users.findByUsername(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"))
+                .getId();
+    }
 }
@@ -1,35 +1,70 @@
 package org.hsdd.controller;
 
-import org.hsdd.dto.PredictionDto;
+import org.hsdd.dto.CursorPageDto;
 import org.hsdd.dto.PredictionWithAnnotationDto;
 import org.hsdd.dto.SymptomDto;
+import org.hsdd.security.PatientAccess;
 import org.hsdd.service.RecordsService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.security.Principal;
 import java.util.List;
 
+import static org.hsdd.controller.ComplianceController.NEXT_CURSOR_HEADER;
+
 @RestController
 @RequestMapping("/api/records")
 public class RecordsController {
 
     private final RecordsService records;
+    private final PatientAccess access;
 
-    public RecordsController(RecordsService records) {
+    public RecordsController(RecordsService records, PatientAccess access) {
         this.records = records;
+        this.access = access;
     }
 
+    // Newest first; pass the X-Next-Cursor header back as ?before= for the next page
     @GetMapping("/symptoms")
-    public ResponseEntity<List<SymptomDto>> listSymptoms(@RequestParam String patientId) {
-        // returns last 200 symptoms for this patientId
-        return ResponseEntity.ok(records.listSymptoms(patientId));
+    public ResponseEntity<List<SymptomDto>> listSymptoms(
+            @RequestParam String patientId,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "200") int limit,
+            Principal principal) {
+        if (!access.allows(principal, patientId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        try {
+            return withCursor(records.listSymptoms(patientId, before, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
 
     @GetMapping("/predictions")
-    public ResponseEntity<List<PredictionWithAnnotationDto>> listPredictions(@RequestParam String patientId) {
-        return ResponseEntity.ok(records.listPredictions(patientId));
+    public ResponseEntity<List<PredictionWithAnnotationDto>> listPredictions(
+            @RequestParam String patientId,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "200") int limit,
+            Principal principal) {
+        if (!access.allows(principal, patientId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        try {
+            return withCursor(records.listPredictions(patientId, before, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
-
-}
\ No newline at end of file
+    private static <T> ResponseEntity<List<T>> withCursor(CursorPageDto<T> page) {
+        ResponseEntity.BodyBuilder res = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            res.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return res.body(page.items());
+    }
+}
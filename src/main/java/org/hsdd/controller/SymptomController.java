@@ -3,7 +3,10 @@ package org.hsdd.controller;
 import lombok.RequiredArgsConstructor;
 import org.hsdd.dto.SubmitSymptomRequest;
 import org.hsdd.dto.SubmitSymptomResponse;
+import org.hsdd.dto.SymptomJobDto;
 import org.hsdd.service.SymptomService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -25,4 +28,29 @@ public class SymptomController {
         var ip = http.getRemoteAddr();
         return symptomService.submit(req, actor, ip);
     }
+
+    // Returns 202 with a job handle right away; poll /symptoms/jobs/{jobId} for the prediction
+    @PostMapping("/symptoms/async")
+    public ResponseEntity<?> submitAsync(@RequestBody SubmitSymptomRequest req,
+                                         Principal principal,
+                                         HttpServletRequest http) {
+
+        var actor = principal != null ? principal.getName() : "anonymous";
+        var ip = http.getRemoteAddr();
+
+        try {
+            SymptomJobDto job = symptomService.submitAsync(req, actor, ip);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        }
+    }
+
+    // 404 for jobs submitted by someone else, as for unknown ids
+    @GetMapping("/symptoms/jobs/{jobId}")
+    public ResponseEntity<SymptomJobDto> getJob(@PathVariable String jobId, Principal principal) {
+        return symptomService.getJob(jobId, principal)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
 }
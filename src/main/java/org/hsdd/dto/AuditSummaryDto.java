@@ -0,0 +1,8 @@
+package org.hsdd.dto;
+
+// bucket is the UTC bucket start ("2025-01-01 13:00:00" / "2025-01-01"), null when not bucketed
+public record AuditSummaryDto(
+        String bucket,
+        String eventType,
+        long count
+) {}
@@ -0,0 +1,9 @@
+package org.hsdd.dto;
+
+import java.util.List;
+
+// Keyset page: pass nextCursor back to get the following page, null when done
+public record CursorPageDto<T>(
+        List<T> items,
+        String nextCursor
+) {}
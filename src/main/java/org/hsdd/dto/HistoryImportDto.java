@@ -0,0 +1,20 @@
+package org.hsdd.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+// errors: the first rejected lines of this request (empty when polled)
+public record HistoryImportDto(
+        Long importId,
+        String patientId,
+        String fileName,
+        String format,
+        String status,
+        long linesCommitted,
+        long rowsImported,
+        long errorLines,
+        String lastError,
+        Instant createdAt,
+        Instant updatedAt,
+        List<HistoryLineError> errors
+) {}
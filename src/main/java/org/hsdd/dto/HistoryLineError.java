@@ -0,0 +1,6 @@
+package org.hsdd.dto;
+
+public record HistoryLineError(
+        long line,
+        String message
+) {}
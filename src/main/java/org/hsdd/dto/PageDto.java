@@ -0,0 +1,23 @@
+package org.hsdd.dto;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+public record PageDto<T>(
+        List<T> items,
+        int page,
+        int size,
+        long totalElements,
+        int totalPages
+) {
+    public static <T> PageDto<T> of(Page<?> source, List<T> items) {
+        return new PageDto<>(
+                items,
+                source.getNumber(),
+                source.getSize(),
+                source.getTotalElements(),
+                source.getTotalPages()
+        );
+    }
+}
@@ -0,0 +1,33 @@
+package org.hsdd.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+// Optional filters for the doctors' reports list; null = not filtered.
+// Confidence range is inclusive, dates are [from, to).
+public record ReportFilter(
+        String label,
+        Double minConfidence,
+        Double maxConfidence,
+        Boolean reviewed,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+        String patientId
+) {
+    public static ReportFilter none() {
+        return new ReportFilter(null, null, null, null, null, null, null);
+    }
+
+    // null = none(); throws IllegalArgumentException for an empty range
+    public static ReportFilter checked(ReportFilter filter) {
+        ReportFilter f = filter != null ? filter : none();
+        if (f.minConfidence() != null && f.maxConfidence() != null && f.minConfidence() > f.maxConfidence()) {
+            throw new IllegalArgumentException("minConfidence must not exceed maxConfidence");
+        }
+        if (f.from() != null && f.to() != null && !f.from().isBefore(f.to())) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        return f;
+    }
+}
@@ -0,0 +1,16 @@
+package org.hsdd.dto;
+
+import java.time.LocalDateTime;
+
+// One entry of the doctors' review queue; claimedBy / leaseUntil null when unclaimed
+public record ReviewItemDto(
+        Long id,
+        String patientName,
+        String patientId,
+        String predictedDisease,
+        double confidence,
+        LocalDateTime submittedOn,
+        String symptomDescription,
+        String claimedBy,
+        LocalDateTime leaseUntil
+) {}
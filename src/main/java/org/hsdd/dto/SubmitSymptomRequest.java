@@ -2,4 +2,10 @@ package org.hsdd.dto;
 
 import java.util.List;
 
-public record SubmitSymptomRequest(String patientId, String text, List<String> tags) {}
\ No newline at end of file
+// fresh = skip the inference cache and ask the model again
+public record SubmitSymptomRequest(String patientId, String text, List<String> tags, boolean fresh) {
+
+    public SubmitSymptomRequest(String patientId, String text, List<String> tags) {
+        this(patientId, text, tags, false);
+    }
+}
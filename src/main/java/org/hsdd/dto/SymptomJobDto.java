@@ -0,0 +1,13 @@
+package org.hsdd.dto;
+
+import java.time.Instant;
+
+public record SymptomJobDto(
+        String jobId,
+        String status,          // "PENDING", "DONE", "FAILED"
+        SymptomDto symptom,
+        PredictionDto prediction,
+        String error,
+        Instant createdAt,
+        Instant completedAt
+) {}
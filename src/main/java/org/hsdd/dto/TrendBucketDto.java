@@ -0,0 +1,10 @@
+package org.hsdd.dto;
+
+import java.time.LocalDate;
+
+// One histogram cell: predictions with this label in the week/month starting at bucketStart
+public record TrendBucketDto(
+        LocalDate bucketStart,
+        String label,
+        Long count
+) {}
@@ -21,6 +21,11 @@ public class AI {
 
 
     public Prediction predict(SymptomEntry symptom) {
+        return predict(symptom, false);
+    }
+
+    // bypassCache = ask the model even if an identical submission was answered before
+    public Prediction predict(SymptomEntry symptom, boolean bypassCache) {
 
         // Extract tags
         List<String> tags = new ArrayList<>();
@@ -34,7 +39,8 @@ public class AI {
         // 🔥 AI CALL (Grok) — this stays exactly the same
         AiClient.Result result = aiClient.analyze(
                 symptom.getDescription(),
-                tags
+                tags,
+                bypassCache
         );
 
         // Return prediction object — service layer will save it
@@ -5,18 +5,20 @@ import org.hsdd.dto.AnnotationDto;
 import org.hsdd.dto.CreateAnnotationRequest;
 import org.hsdd.dto.IssueReportDto;
 import org.hsdd.dto.LowConfidenceDto;
+import org.hsdd.dto.PageDto;
 import org.hsdd.dto.PatientFullRecordDto;
-import org.hsdd.dto.PredictionDto;
 import org.hsdd.dto.PredictionWithAnnotationDto;
 import org.hsdd.dto.RecentPatientDto;
+import org.hsdd.dto.ReportFilter;
 import org.hsdd.dto.ReportIssueRequest;
+import org.hsdd.dto.ReviewItemDto;
 import org.hsdd.dto.SymptomDto;
-import org.hsdd.dto.TrendDataDto;
 import org.hsdd.dto.UpdateAnnotationRequest;
 import org.hsdd.service.DoctorService;
 import org.hsdd.service.RecordsService;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public class Doctor {
 
@@ -64,17 +66,7 @@ public class Doctor {
 
 
     public PatientFullRecordDto viewPatientRecord(String patientId) {
-        List<PredictionDto> predictions =
-                doctorService.getPatientPredictions(patientId);
-
-        List<TrendDataDto> trends =
-                doctorService.getPatientTrends(patientId);
-
-        return new PatientFullRecordDto(
-                patientId,
-                predictions,
-                trends
-        );
+        return doctorService.getPatientRecord(patientId);
     }
 
 
@@ -134,19 +126,47 @@ public class Doctor {
         doctorService.markLowConfidencePending(predictionId);
     }
 
+    public PageDto<ReviewItemDto> getReviewQueue(int page, int size) {
+        return doctorService.getReviewQueue(page, size);
+    }
+
+    public List<ReviewItemDto> claimReviews(int count) {
+        return doctorService.claimReviews(user.getId(), count);
+    }
+
+    public List<ReviewItemDto> getClaimedReviews() {
+        return doctorService.getClaimedReviews(user.getId());
+    }
+
+    public int renewReviewClaims() {
+        return doctorService.renewReviewClaims(user.getId());
+    }
+
+    public boolean releaseReviewClaim(Long predictionId) {
+        return doctorService.releaseReviewClaim(predictionId, user.getId());
+    }
+
     // -----------------------------
     // Patients & reports
     // -----------------------------
 
-    public List<RecentPatientDto> getRecentPatients() {
-        return doctorService.getRecentPatients();
+    public PageDto<RecentPatientDto> getRecentPatients(int page, int size) {
+        return doctorService.getRecentPatients(page, size);
+    }
+
+    public PageDto<RecentPatientDto> getAllPatients(int page, int size, String sort, String direction) {
+        return doctorService.getAllPatients(page, size, sort, direction);
+    }
+
+    public PageDto<AllReportDto> getReports(ReportFilter filter, int page, int size, String sort, String direction) {
+        return doctorService.getReports(filter, page, size, sort, direction);
     }
 
-    public List<RecentPatientDto> getAllPatients() {
-        return doctorService.getAllPatients();
+    public void exportReports(ReportFilter filter, String sort, String direction, Consumer<AllReportDto> sink) {
+        doctorService.streamReports(filter, sort, direction, sink);
     }
 
-    public List<AllReportDto> getAllReports() {
-        return doctorService.getAllReports();
+    public AllReportDto getReport(Long reportId) {
+        return doctorService.getReport(reportId);
     }
 }
@@ -0,0 +1,59 @@
+package org.hsdd.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// One medical history file upload. linesCommitted (records, for csv/fhir)
+// only moves forward in the same transaction as the rows of that chunk, so a
+// failed or interrupted upload can be resumed from exactly there.
+@Entity
+@Table(name = "history_imports")
+@Getter
+@Setter
+@NoArgsConstructor
+public class HistoryImport {
+
+    // PENDING: registered via POST /api/history/imports, no upload yet
+    public enum Status { PENDING, RUNNING, FAILED, COMPLETED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // null for bulk files whose records name their own patients
+    @Column(name = "patient_id", length = 8)
+    private String patientId;
+
+    // HistoryFormat name; a resume parses the file the same way
+    @Column(nullable = false, length = 16)
+    private String format;
+
+    @Column(name = "file_name", length = 255)
+    private String fileName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status = Status.RUNNING;
+
+    @Column(name = "lines_committed", nullable = false)
+    private long linesCommitted;
+
+    @Column(name = "rows_imported", nullable = false)
+    private long rowsImported;
+
+    @Column(name = "error_lines", nullable = false)
+    private long errorLines;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt = Instant.now();
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt = Instant.now();
+}
@@ -1,9 +1,53 @@
 package org.hsdd.repo;
 
+import org.hsdd.dto.AuditLogDto;
+import org.hsdd.repo.projection.EventTypeCount;
 import org.hsdd.value.AuditLogEntry;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
 import java.util.List;
 
 public interface AuditLogRepository extends JpaRepository<AuditLogEntry, Long> {
     List<AuditLogEntry> findAllByOrderByEventTimeDesc();
+
+    // Keyset page, newest first. Cursor is the (eventTime, id) of the last row already seen.
+    @Query("select new org.hsdd.dto.AuditLogDto(e.id, e.eventTime, e.actor, e.eventType, e.details, e.ipAddress) " +
+            "from AuditLogEntry e " +
+            "where (:actor is null or e.actor = :actor) " +
+            "and (:type is null or e.eventType = :type) " +
+            "and (:from is null or e.eventTime >= :from) " +
+            "and (:to is null or e.eventTime < :to) " +
+            "and (:cursorTime is null or e.eventTime < :cursorTime " +
+            "     or (e.eventTime = :cursorTime and e.id < :cursorId)) " +
+            "order by e.eventTime desc, e.id desc")
+    List<AuditLogDto> findPage(@Param("actor") String actor,
+                               @Param("type") String type,
+                               @Param("from") Instant from,
+                               @Param("to") Instant to,
+                               @Param("cursorTime") Instant cursorTime,
+                               @Param("cursorId") Long cursorId,
+                               Pageable limit);
+
+    @Query("select new org.hsdd.repo.projection.EventTypeCount(e.eventType, count(e)) " +
+            "from AuditLogEntry e " +
+            "where (:from is null or e.eventTime >= :from) " +
+            "and (:to is null or e.eventTime < :to) " +
+            "group by e.eventType")
+    List<EventTypeCount> countByEventType(@Param("from") Instant from,
+                                          @Param("to") Instant to);
+
+    // rows: [bucket, event_type, count]; fmt is a MySQL DATE_FORMAT pattern
+    @Query(value = "select date_format(event_time, :fmt) as bucket, event_type, count(*) as cnt " +
+            "from audit_logs " +
+            "where event_time >= :from and event_time < :to " +
+            "group by bucket, event_type " +
+            "order by bucket, event_type",
+            nativeQuery = true)
+    List<Object[]> countByBucketAndEventType(@Param("fmt") String fmt,
+                                             @Param("from") Instant from,
+                                             @Param("to") Instant to);
 }
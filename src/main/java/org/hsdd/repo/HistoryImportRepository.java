@@ -0,0 +1,56 @@
+package org.hsdd.repo;
+
+import org.hsdd.model.HistoryImport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+// The updates below are bulk JPQL: they flush and clear the persistence context
+// so that an EntityManager kept open for the request (open-in-view) re-reads
+// the import instead of returning the copy it loaded before the update.
+public interface HistoryImportRepository extends JpaRepository<HistoryImport, Long> {
+
+    // Takes over an import to resume it: not finished, and not running unless its
+    // last heartbeat is older than staleBefore (the node running it died)
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Transactional
+    @Query("""
+            update HistoryImport i set i.status = :running, i.lastError = null, i.updatedAt = :now
+            where i.id = :id
+              and i.status <> :completed
+              and (i.status <> :running or i.updatedAt < :staleBefore)
+            """)
+    int claim(@Param("id") Long id,
+              @Param("running") HistoryImport.Status running,
+              @Param("completed") HistoryImport.Status completed,
+              @Param("now") Instant now,
+              @Param("staleBefore") Instant staleBefore);
+
+    // Runs in the chunk's transaction, next to the inserted rows
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            update HistoryImport i
+            set i.linesCommitted = :lines,
+                i.rowsImported = i.rowsImported + :rows,
+                i.errorLines = i.errorLines + :errors,
+                i.updatedAt = :now
+            where i.id = :id
+            """)
+    int recordProgress(@Param("id") Long id,
+                       @Param("lines") long lines,
+                       @Param("rows") long rows,
+                       @Param("errors") long errors,
+                       @Param("now") Instant now);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Transactional
+    @Query("update HistoryImport i set i.status = :status, i.lastError = :error, i.updatedAt = :now where i.id = :id")
+    int finish(@Param("id") Long id,
+               @Param("status") HistoryImport.Status status,
+               @Param("error") String error,
+               @Param("now") Instant now);
+}
@@ -0,0 +1,37 @@
+package org.hsdd.repo;
+
+import org.hsdd.value.InferenceCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface InferenceCacheRepository extends JpaRepository<InferenceCacheEntry, String> {
+
+    @Query("select e from InferenceCacheEntry e where e.cacheKey = :key and e.expiresAt > :now")
+    Optional<InferenceCacheEntry> findLive(@Param("key") String key,
+                                           @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO inference_cache (cache_key, label, confidence, created_at, expires_at) " +
+            "VALUES (:key, :label, :confidence, :now, :expiresAt) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "label = VALUES(label), confidence = VALUES(confidence), " +
+            "created_at = VALUES(created_at), expires_at = VALUES(expires_at)",
+            nativeQuery = true)
+    void upsert(@Param("key") String key,
+                @Param("label") String label,
+                @Param("confidence") double confidence,
+                @Param("now") LocalDateTime now,
+                @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM inference_cache WHERE expires_at <= :now", nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,11 +1,28 @@
 package org.hsdd.repo;
 
+import org.hsdd.dto.NotificationDto;
+import org.hsdd.repo.projection.NotificationRow;
 import org.hsdd.value.Notification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
 
     List<Notification> findByUserIdAndReadFlagFalseOrderByCreatedAtDesc(Long userId);
+
+    // Unread, newest first, optionally only rows after sinceId; no Prediction load
+    @Query("select new org.hsdd.dto.NotificationDto(n.id, n.prediction.id, n.message, n.readFlag, n.createdAt) " +
+            "from Notification n " +
+            "where n.user.id = :userId and n.readFlag = false " +
+            "and (:sinceId is null or n.id > :sinceId) " +
+            "order by n.id desc")
+    List<NotificationDto> findUnread(@Param("userId") Long userId, @Param("sinceId") Long sinceId);
+
+    @Query("select new org.hsdd.repo.projection.NotificationRow(" +
+            "n.user.id, n.id, n.prediction.id, n.message, n.readFlag, n.createdAt) " +
+            "from Notification n where n.prediction.id = :predictionId")
+    List<NotificationRow> findRowsByPredictionId(@Param("predictionId") Long predictionId);
 }
@@ -0,0 +1,87 @@
+package org.hsdd.repo;
+
+import org.hsdd.value.PatientActivitySummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+// MySQL upserts keep each row correct under concurrent writers:
+// timestamps only move forward and a prediction only replaces an older one.
+public interface PatientActivitySummaryRepository extends JpaRepository<PatientActivitySummary, String> {
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO patient_activity_summary " +
+            "(patient_id, last_symptom_at, last_visit, updated_at) " +
+            "VALUES (:patientId, :at, :at, NOW()) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "last_symptom_at = GREATEST(COALESCE(last_symptom_at, VALUES(last_symptom_at)), VALUES(last_symptom_at)), " +
+            "last_visit = GREATEST(COALESCE(last_visit, VALUES(last_visit)), VALUES(last_visit)), " +
+            "updated_at = NOW()",
+            nativeQuery = true)
+    void upsertSymptom(@Param("patientId") String patientId,
+                       @Param("at") LocalDateTime at);
+
+    // last_prediction_id is assigned last: MySQL applies SET clauses left to
+    // right, so the IF() checks above it still see the previous value.
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO patient_activity_summary " +
+            "(patient_id, last_prediction_id, last_prediction_at, last_diagnosis, last_visit, updated_at) " +
+            "VALUES (:patientId, :predictionId, :at, :label, :at, NOW()) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "last_note = IF(COALESCE(last_prediction_id, 0) < VALUES(last_prediction_id), NULL, last_note), " +
+            "last_annotation_id = IF(COALESCE(last_prediction_id, 0) < VALUES(last_prediction_id), NULL, last_annotation_id), " +
+            "last_diagnosis = IF(COALESCE(last_prediction_id, 0) < VALUES(last_prediction_id), VALUES(last_diagnosis), last_diagnosis), " +
+            "last_prediction_at = IF(COALESCE(last_prediction_id, 0) < VALUES(last_prediction_id), VALUES(last_prediction_at), last_prediction_at), " +
+            "last_prediction_id = GREATEST(COALESCE(last_prediction_id, 0), VALUES(last_prediction_id)), " +
+            "last_visit = GREATEST(COALESCE(last_visit, VALUES(last_visit)), VALUES(last_visit)), " +
+            "updated_at = NOW()",
+            nativeQuery = true)
+    void upsertPrediction(@Param("patientId") String patientId,
+                          @Param("predictionId") Long predictionId,
+                          @Param("label") String label,
+                          @Param("at") LocalDateTime at);
+
+    // Only the newest note on the patient's latest prediction is shown
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE patient_activity_summary " +
+            "SET last_note = :notes, last_annotation_id = :annotationId, updated_at = NOW() " +
+            "WHERE patient_id = :patientId " +
+            "AND last_prediction_id = :predictionId " +
+            "AND COALESCE(last_annotation_id, 0) <= :annotationId",
+            nativeQuery = true)
+    int updateNote(@Param("patientId") String patientId,
+                   @Param("predictionId") Long predictionId,
+                   @Param("annotationId") Long annotationId,
+                   @Param("notes") String notes);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM patient_activity_summary", nativeQuery = true)
+    void deleteAllRows();
+
+    // Backfill from existing rows (latest = highest id, as ids are IDENTITY)
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO patient_activity_summary " +
+            "(patient_id, last_symptom_at, last_prediction_id, last_prediction_at, last_diagnosis, " +
+            " last_annotation_id, last_note, last_visit, updated_at) " +
+            "SELECT pt.patient_id, s.last_symptom_at, pr.id, pr.created_at, pr.label, an.id, an.notes, " +
+            "       GREATEST(COALESCE(s.last_symptom_at, pr.created_at), COALESCE(pr.created_at, s.last_symptom_at)), NOW() " +
+            "FROM patients pt " +
+            "LEFT JOIN (SELECT patient_id, MAX(submitted_at) AS last_symptom_at FROM symptoms GROUP BY patient_id) s " +
+            "       ON s.patient_id = pt.patient_id " +
+            "LEFT JOIN predictions pr " +
+            "       ON pr.id = (SELECT MAX(p2.id) FROM predictions p2 WHERE p2.patient_id = pt.patient_id) " +
+            "LEFT JOIN annotations an " +
+            "       ON an.id = (SELECT MAX(a2.id) FROM annotations a2 WHERE a2.prediction_id = pr.id) " +
+            "WHERE s.last_symptom_at IS NOT NULL OR pr.id IS NOT NULL",
+            nativeQuery = true)
+    int insertFromHistory();
+}
@@ -2,18 +2,45 @@ package org.hsdd.repo;
 
 import org.hsdd.model.Patient;
 import org.hsdd.model.User;
+import org.hsdd.repo.projection.PatientActivityRow;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface PatientRepository extends JpaRepository<Patient, Long> {
 
     boolean existsByPatientId(String patientId);
 
+    // Which of these ids exist: one lookup per chunk of a bulk history upload
+    @Query("select p.patientId from Patient p where p.patientId in :ids")
+    List<String> findExistingPatientIds(@Param("ids") Collection<String> ids);
+
 
     Optional<Patient> findByUser(User user);
 
     Optional<Patient> findByUser_Username(String username);
     // new version – used when submitting symptoms
     Optional<Patient> findByPatientId(String patientId);
+
+    // Doctor dashboards: patients joined to their activity summary by primary key.
+    // Sort by "p.lastName" etc. or JpaSort.unsafe("a.lastVisit").
+    @Query(value = "select new org.hsdd.repo.projection.PatientActivityRow(" +
+            "p.patientId, p.firstName, p.lastName, p.dateOfBirth, a.lastVisit, a.lastDiagnosis, a.lastNote) " +
+            "from Patient p left join PatientActivitySummary a on a.patientId = p.patientId",
+            countQuery = "select count(p) from Patient p")
+    Page<PatientActivityRow> findActivityRows(Pageable pageable);
+
+    // Recent activity first, straight off the last_visit index
+    @Query(value = "select new org.hsdd.repo.projection.PatientActivityRow(" +
+            "p.patientId, p.firstName, p.lastName, p.dateOfBirth, a.lastVisit, a.lastDiagnosis, a.lastNote) " +
+            "from PatientActivitySummary a join Patient p on p.patientId = a.patientId " +
+            "order by a.lastVisit desc, a.patientId",
+            countQuery = "select count(a) from PatientActivitySummary a")
+    Page<PatientActivityRow> findRecentActivityRows(Pageable pageable);
 }
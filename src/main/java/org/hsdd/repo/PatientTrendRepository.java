@@ -0,0 +1,80 @@
+package org.hsdd.repo;
+
+import org.hsdd.dto.TrendBucketDto;
+import org.hsdd.dto.TrendDataDto;
+import org.hsdd.value.PatientLabelTrend;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface PatientTrendRepository extends JpaRepository<PatientLabelTrend, PatientLabelTrend.Key> {
+
+    // +1 on the all-time, day, week and month rows of one prediction, in one statement
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO patient_label_trend (patient_id, granularity, bucket_start, label, cnt) VALUES " +
+            "(:patientId, 'A', '1970-01-01', :label, 1), " +
+            "(:patientId, 'D', :day, :label, 1), " +
+            "(:patientId, 'W', :week, :label, 1), " +
+            "(:patientId, 'M', :month, :label, 1) " +
+            "ON DUPLICATE KEY UPDATE cnt = cnt + 1",
+            nativeQuery = true)
+    void increment(@Param("patientId") String patientId,
+                   @Param("label") String label,
+                   @Param("day") LocalDate day,
+                   @Param("week") LocalDate week,
+                   @Param("month") LocalDate month);
+
+    @Query("select new org.hsdd.dto.TrendDataDto(t.id.label, t.total) " +
+            "from PatientLabelTrend t " +
+            "where t.id.patientId = :patientId and t.id.granularity = 'A' " +
+            "order by t.total desc, t.id.label")
+    List<TrendDataDto> findTotals(@Param("patientId") String patientId);
+
+    // totals over the days in [from, to)
+    @Query("select new org.hsdd.dto.TrendDataDto(t.id.label, sum(t.total)) " +
+            "from PatientLabelTrend t " +
+            "where t.id.patientId = :patientId and t.id.granularity = 'D' " +
+            "and t.id.bucketStart >= :from and t.id.bucketStart < :to " +
+            "group by t.id.label " +
+            "order by sum(t.total) desc, t.id.label")
+    List<TrendDataDto> findTotalsBetween(@Param("patientId") String patientId,
+                                         @Param("from") LocalDate from,
+                                         @Param("to") LocalDate to);
+
+    @Query("select new org.hsdd.dto.TrendBucketDto(t.id.bucketStart, t.id.label, t.total) " +
+            "from PatientLabelTrend t " +
+            "where t.id.patientId = :patientId and t.id.granularity = :granularity " +
+            "and t.id.bucketStart >= :from and t.id.bucketStart < :to " +
+            "order by t.id.bucketStart, t.total desc, t.id.label")
+    List<TrendBucketDto> findBuckets(@Param("patientId") String patientId,
+                                     @Param("granularity") String granularity,
+                                     @Param("from") LocalDate from,
+                                     @Param("to") LocalDate to);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM patient_label_trend", nativeQuery = true)
+    void deleteAllRows();
+
+    // Backfill: same buckets as PatientTrendService (day, ISO week from Monday, calendar month)
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO patient_label_trend (patient_id, granularity, bucket_start, label, cnt) " +
+            "SELECT patient_id, 'A', DATE('1970-01-01'), label, COUNT(*) FROM predictions GROUP BY patient_id, label " +
+            "UNION ALL " +
+            "SELECT patient_id, 'D', DATE(created_at), label, COUNT(*) FROM predictions GROUP BY 1, 3, 4 " +
+            "UNION ALL " +
+            "SELECT patient_id, 'W', DATE_SUB(DATE(created_at), INTERVAL WEEKDAY(created_at) DAY), label, COUNT(*) " +
+            "FROM predictions GROUP BY 1, 3, 4 " +
+            "UNION ALL " +
+            "SELECT patient_id, 'M', DATE_FORMAT(created_at, '%Y-%m-01'), label, COUNT(*) " +
+            "FROM predictions GROUP BY 1, 3, 4",
+            nativeQuery = true)
+    int insertFromHistory();
+}
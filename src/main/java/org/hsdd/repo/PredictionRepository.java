@@ -1,14 +1,39 @@
 package org.hsdd.repo;
 
+import org.hsdd.repo.projection.PredictionAnnotationRow;
+import org.hsdd.repo.projection.ReportRow;
+import org.hsdd.repo.projection.TrainingRow;
 import org.hsdd.value.Prediction;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface PredictionRepository extends JpaRepository<Prediction, Long> {
 
-    List<Prediction> findTop200ByPatientIdOrderByCreatedAtDesc(String patientId);
+    String REPORT_SELECT = """
+            select new org.hsdd.repo.projection.ReportRow(
+                p.id, p.patientId, pt.firstName, pt.lastName, p.label, p.confidence, p.createdAt, p.reviewed)
+            from Prediction p
+            left join Patient pt on pt.patientId = p.patientId
+            """;
+
+    // null parameter = no filter; the driver inlines parameters, so MySQL drops the dead branches
+    String REPORT_FILTER = """
+            where (:label is null or p.label = :label)
+              and (:minConfidence is null or p.confidence >= :minConfidence)
+              and (:maxConfidence is null or p.confidence <= :maxConfidence)
+              and (:reviewed is null or p.reviewed = :reviewed)
+              and (:from is null or p.createdAt >= :from)
+              and (:to is null or p.createdAt < :to)
+              and (:patientId is null or p.patientId = :patientId)
+            """;
 
     List<Prediction> findByPatientIdOrderByCreatedAtDesc(String patientId);
     List<Prediction> findByConfidenceLessThan(double threshold);
@@ -17,4 +42,111 @@ public interface PredictionRepository extends JpaRepository<Prediction, Long> {
     // 🔹 Used by DoctorServiceImpl
     Optional<Prediction> findTop1ByPatientIdOrderByCreatedAtDesc(String patientId);
 
+    // Keyset page, newest first, each prediction joined to its latest annotation (highest id)
+    @Query("select new org.hsdd.repo.projection.PredictionAnnotationRow(" +
+            "p.id, p.symptomId, p.label, p.confidence, p.createdAt, d.username, a.notes, a.correctedLabel) " +
+            "from Prediction p " +
+            "left join p.annotations a " +
+            "  on a.id = (select max(a2.id) from Annotation a2 where a2.prediction = p) " +
+            "left join a.doctor d " +
+            "where p.patientId = :patientId " +
+            "and (:beforeTime is null or p.createdAt < :beforeTime " +
+            "     or (p.createdAt = :beforeTime and p.id < :beforeId)) " +
+            "order by p.createdAt desc, p.id desc")
+    List<PredictionAnnotationRow> findPageWithLatestAnnotation(@Param("patientId") String patientId,
+                                                              @Param("beforeTime") LocalDateTime beforeTime,
+                                                              @Param("beforeId") Long beforeId,
+                                                              Pageable limit);
+
+    // Newest first; one row per annotation, so a prediction can appear more than once
+    @Query("""
+            select new org.hsdd.repo.projection.TrainingRow(
+                p.id, s.description, s.tags, p.label, p.confidence, a.correctedLabel)
+            from Prediction p
+            join p.symptomEntity s
+            left join p.annotations a
+            where p.label <> :skipLabel
+              and (p.confidence >= :minConfidence or a.correctedLabel is not null)
+            order by p.id desc, a.updatedAt desc
+            """)
+    List<TrainingRow> findTrainingRows(@Param("skipLabel") String skipLabel,
+                                       @Param("minConfidence") double minConfidence,
+                                       Pageable page);
+
+    // Doctors' reports list: patient names from the same query, count without the join
+    @Query(value = REPORT_SELECT + REPORT_FILTER,
+            countQuery = "select count(p) from Prediction p " + REPORT_FILTER)
+    Page<ReportRow> findReportRows(@Param("label") String label,
+                                   @Param("minConfidence") Double minConfidence,
+                                   @Param("maxConfidence") Double maxConfidence,
+                                   @Param("reviewed") Boolean reviewed,
+                                   @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to,
+                                   @Param("patientId") String patientId,
+                                   Pageable pageable);
+
+    // Export batches: same rows, resuming after the last row of the previous batch
+    // (null afterId = first batch) in the sort given with the page. Each sort has
+    // its own keyset, all covered by the predictions indexes (InnoDB adds id).
+    @Query(REPORT_SELECT + REPORT_FILTER + """
+              and (:afterId is null
+                or (:descending = true and (p.createdAt < :afterTime
+                    or (p.createdAt = :afterTime and p.id < :afterId)))
+                or (:descending = false and (p.createdAt > :afterTime
+                    or (p.createdAt = :afterTime and p.id > :afterId))))
+            """)
+    List<ReportRow> findReportBatchByDate(@Param("label") String label,
+                                          @Param("minConfidence") Double minConfidence,
+                                          @Param("maxConfidence") Double maxConfidence,
+                                          @Param("reviewed") Boolean reviewed,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to,
+                                          @Param("patientId") String patientId,
+                                          @Param("descending") boolean descending,
+                                          @Param("afterTime") LocalDateTime afterTime,
+                                          @Param("afterId") Long afterId,
+                                          Pageable batch);
+
+    @Query(REPORT_SELECT + REPORT_FILTER + """
+              and (:afterId is null
+                or (:descending = true and (p.confidence < :afterConfidence
+                    or (p.confidence = :afterConfidence and p.id < :afterId)))
+                or (:descending = false and (p.confidence > :afterConfidence
+                    or (p.confidence = :afterConfidence and p.id > :afterId))))
+            """)
+    List<ReportRow> findReportBatchByConfidence(@Param("label") String label,
+                                                @Param("minConfidence") Double minConfidence,
+                                                @Param("maxConfidence") Double maxConfidence,
+                                                @Param("reviewed") Boolean reviewed,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to,
+                                                @Param("patientId") String patientId,
+                                                @Param("descending") boolean descending,
+                                                @Param("afterConfidence") Double afterConfidence,
+                                                @Param("afterId") Long afterId,
+                                                Pageable batch);
+
+    // label in the requested direction, newest first within a label
+    @Query(REPORT_SELECT + REPORT_FILTER + """
+              and (:afterId is null
+                or (:descending = true and p.label < :afterLabel)
+                or (:descending = false and p.label > :afterLabel)
+                or (p.label = :afterLabel and (p.createdAt < :afterTime
+                    or (p.createdAt = :afterTime and p.id < :afterId))))
+            """)
+    List<ReportRow> findReportBatchByLabel(@Param("label") String label,
+                                           @Param("minConfidence") Double minConfidence,
+                                           @Param("maxConfidence") Double maxConfidence,
+                                           @Param("reviewed") Boolean reviewed,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to,
+                                           @Param("patientId") String patientId,
+                                           @Param("descending") boolean descending,
+                                           @Param("afterLabel") String afterLabel,
+                                           @Param("afterTime") LocalDateTime afterTime,
+                                           @Param("afterId") Long afterId,
+                                           Pageable batch);
+
+    @Query(REPORT_SELECT + "where p.id = :id")
+    Optional<ReportRow> findReportRow(@Param("id") Long id);
 }
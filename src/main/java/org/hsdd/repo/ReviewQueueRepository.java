@@ -0,0 +1,85 @@
+package org.hsdd.repo;
+
+import org.hsdd.repo.projection.ReviewItemRow;
+import org.hsdd.value.Prediction;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// Low-confidence review queue over predictions. Pending = not reviewed and below
+// the threshold, served by idx_predictions_review (reviewed, confidence, created_at).
+// Leases live in predictions.claimed_by / lease_until.
+public interface ReviewQueueRepository extends Repository<Prediction, Long> {
+
+    String ITEM_SELECT = """
+            select new org.hsdd.repo.projection.ReviewItemRow(
+                p.id, p.patientId, pt.firstName, pt.lastName, p.label, p.confidence, p.createdAt,
+                s.description, p.reviewed, u.username, p.leaseUntil)
+            from Prediction p
+            left join Patient pt on pt.patientId = p.patientId
+            left join p.symptomEntity s
+            left join User u on u.id = p.claimedBy
+            """;
+
+    @Query(value = ITEM_SELECT + "where p.reviewed = false and p.confidence < :threshold",
+            countQuery = "select count(p) from Prediction p where p.reviewed = false and p.confidence < :threshold")
+    Page<ReviewItemRow> findPending(@Param("threshold") double threshold, Pageable pageable);
+
+    @Query(ITEM_SELECT + "where p.reviewed = false and p.confidence < :threshold")
+    List<ReviewItemRow> findAllPending(@Param("threshold") double threshold, Sort sort);
+
+    // reviewed ones too
+    @Query(ITEM_SELECT + "where p.confidence < :threshold")
+    List<ReviewItemRow> findAllBelow(@Param("threshold") double threshold, Sort sort);
+
+    @Query(ITEM_SELECT + "where p.id = :id")
+    Optional<ReviewItemRow> findItem(@Param("id") Long id);
+
+    @Query(ITEM_SELECT + """
+            where p.claimedBy = :doctorId and p.leaseUntil > :now and p.reviewed = false
+            order by p.createdAt, p.id
+            """)
+    List<ReviewItemRow> findClaimedBy(@Param("doctorId") Long doctorId, @Param("now") LocalDateTime now);
+
+    // Oldest unclaimed (or lease-expired) pending items, in one statement: concurrent
+    // claims lock and re-check the rows, so an item never goes to two doctors
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE predictions SET claimed_by = :doctorId, lease_until = :leaseUntil " +
+            "WHERE reviewed = 0 AND confidence < :threshold " +
+            "AND (lease_until IS NULL OR lease_until <= :now) " +
+            "ORDER BY created_at, id LIMIT :count",
+            nativeQuery = true)
+    int claim(@Param("doctorId") Long doctorId,
+              @Param("threshold") double threshold,
+              @Param("now") LocalDateTime now,
+              @Param("leaseUntil") LocalDateTime leaseUntil,
+              @Param("count") int count);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE predictions SET lease_until = :leaseUntil " +
+            "WHERE claimed_by = :doctorId AND lease_until > :now AND reviewed = 0",
+            nativeQuery = true)
+    int renew(@Param("doctorId") Long doctorId,
+              @Param("now") LocalDateTime now,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE predictions SET claimed_by = NULL, lease_until = NULL " +
+            "WHERE id = :id AND claimed_by = :doctorId AND lease_until > :now",
+            nativeQuery = true)
+    int release(@Param("id") Long id,
+                @Param("doctorId") Long doctorId,
+                @Param("now") LocalDateTime now);
+}
@@ -1,16 +1,30 @@
 package org.hsdd.repo;
 
+import org.hsdd.repo.projection.SymptomRow;
 import org.hsdd.value.SymptomEntry;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface SymptomRepository extends JpaRepository<SymptomEntry, Long> {
 
-    // Recent symptoms for patient
-    List<SymptomEntry> findTop200ByPatientIdOrderBySubmittedAtDesc(String patientId);
-
     // 🔹 Used by DoctorServiceImpl
     Optional<SymptomEntry> findTop1ByPatientIdOrderBySubmittedAtDesc(String patientId);
+
+    // Keyset page, newest first: rows strictly older than (beforeTime, beforeId)
+    @Query("select new org.hsdd.repo.projection.SymptomRow(s.id, s.description, s.tags, s.submittedAt) " +
+            "from SymptomEntry s " +
+            "where s.patientId = :patientId " +
+            "and (:beforeTime is null or s.submittedAt < :beforeTime " +
+            "     or (s.submittedAt = :beforeTime and s.id < :beforeId)) " +
+            "order by s.submittedAt desc, s.id desc")
+    List<SymptomRow> findPage(@Param("patientId") String patientId,
+                              @Param("beforeTime") LocalDateTime beforeTime,
+                              @Param("beforeId") Long beforeId,
+                              Pageable limit);
 }
@@ -1,13 +1,34 @@
 package org.hsdd.repo;
 
+import org.hsdd.dto.AdminUserDto;
 import org.hsdd.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    // Admin user directory: each user with its patient profile (null for staff) in one row
+    String ADMIN_SELECT = """
+            select new org.hsdd.dto.AdminUserDto(
+                u.id, u.username, u.email, u.role, u.active,
+                pt.patientId, pt.firstName, pt.lastName, pt.dateOfBirth, pt.phone, u.createdAt)
+            from User u
+            left join Patient pt on pt.user = u
+            """;
+
+    // null parameter = no filter; q is a prefix of the username or email
+    String ADMIN_FILTER = """
+            where (:role is null or u.role = :role)
+              and (:active is null or u.active = :active)
+              and (:q is null or u.username like :q or u.email like :q)
+            """;
+
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
 
@@ -17,4 +38,18 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     // ⭐ ADD THIS
     List<User> findByRole(String role);
+
+    @Query("select u.id from User u where u.role = :role and u.active = true")
+    List<Long> findActiveIdsByRole(@Param("role") String role);
+
+    // The count needs no join: every user is one row
+    @Query(value = ADMIN_SELECT + ADMIN_FILTER,
+            countQuery = "select count(u) from User u " + ADMIN_FILTER)
+    Page<AdminUserDto> findAdminRows(@Param("role") String role,
+                                     @Param("active") Boolean active,
+                                     @Param("q") String q,
+                                     Pageable pageable);
+
+    @Query(ADMIN_SELECT + "where u.id = :id")
+    Optional<AdminUserDto> findAdminRow(@Param("id") Long id);
 }
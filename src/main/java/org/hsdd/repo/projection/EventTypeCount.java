@@ -0,0 +1,6 @@
+package org.hsdd.repo.projection;
+
+public record EventTypeCount(
+        String eventType,
+        long count
+) {}
@@ -0,0 +1,19 @@
+package org.hsdd.repo.projection;
+
+import org.hsdd.dto.NotificationDto;
+
+import java.time.LocalDateTime;
+
+// Notification plus its recipient, for pushing freshly inserted rows
+public record NotificationRow(
+        Long userId,
+        Long id,
+        Long predictionId,
+        String message,
+        boolean readFlag,
+        LocalDateTime createdAt
+) {
+    public NotificationDto toDto() {
+        return new NotificationDto(id, predictionId, message, readFlag, createdAt);
+    }
+}
@@ -0,0 +1,15 @@
+package org.hsdd.repo.projection;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// One patient joined with their patient_activity_summary row (nulls if no activity yet)
+public record PatientActivityRow(
+        String patientId,
+        String firstName,
+        String lastName,
+        LocalDate dateOfBirth,
+        LocalDateTime lastVisit,
+        String lastDiagnosis,
+        String lastNote
+) {}
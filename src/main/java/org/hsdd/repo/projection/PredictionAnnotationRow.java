@@ -0,0 +1,15 @@
+package org.hsdd.repo.projection;
+
+import java.time.LocalDateTime;
+
+// A prediction with its latest annotation (annotation columns null if none)
+public record PredictionAnnotationRow(
+        Long id,
+        Long symptomId,
+        String label,
+        double confidence,
+        LocalDateTime createdAt,
+        String doctorUsername,
+        String doctorNotes,
+        String correctedLabel
+) {}
@@ -0,0 +1,15 @@
+package org.hsdd.repo.projection;
+
+import java.time.LocalDateTime;
+
+// A prediction joined with its patient's name (names null if the patient row is gone)
+public record ReportRow(
+        Long id,
+        String patientId,
+        String firstName,
+        String lastName,
+        String label,
+        double confidence,
+        LocalDateTime createdAt,
+        boolean reviewed
+) {}
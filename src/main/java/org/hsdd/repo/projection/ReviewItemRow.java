@@ -0,0 +1,19 @@
+package org.hsdd.repo.projection;
+
+import java.time.LocalDateTime;
+
+// A low-confidence prediction with patient name, symptom text and the last lease
+// holder (possibly expired); joined columns are null when missing
+public record ReviewItemRow(
+        Long id,
+        String patientId,
+        String firstName,
+        String lastName,
+        String label,
+        double confidence,
+        LocalDateTime createdAt,
+        String symptomDescription,
+        boolean reviewed,
+        String claimedBy,
+        LocalDateTime leaseUntil
+) {}
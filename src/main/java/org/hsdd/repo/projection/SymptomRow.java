@@ -0,0 +1,11 @@
+package org.hsdd.repo.projection;
+
+import java.time.LocalDateTime;
+
+// Columns of a symptom entry needed for the records view; tags still raw JSON
+public record SymptomRow(
+        Long id,
+        String description,
+        String tags,
+        LocalDateTime submittedAt
+) {}
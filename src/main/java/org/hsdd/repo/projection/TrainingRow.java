@@ -0,0 +1,12 @@
+package org.hsdd.repo.projection;
+
+// A prediction with its symptom text and (if any) a doctor's corrected label;
+// training input for the local fallback classifier
+public record TrainingRow(
+        Long predictionId,
+        String description,
+        String tags,
+        String label,
+        double confidence,
+        String correctedLabel
+) {}
@@ -0,0 +1,13 @@
+package org.hsdd.security;
+
+// Just enough of a User to build the Spring Authentication for a request.
+public record AuthPrincipal(
+        Long userId,
+        String username,
+        String role,
+        boolean active
+) {
+    public String springRole() {
+        return "ROLE_" + role.toUpperCase();
+    }
+}
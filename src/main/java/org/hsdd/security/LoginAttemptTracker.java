@@ -0,0 +1,104 @@
+package org.hsdd.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+// Failed logins per username and per client IP over a sliding window. Once a
+// key reaches its limit, further attempts are refused before the user is looked
+// up or any hash computed, until the oldest failure leaves the window.
+// Bounded LRU of keys, so a spray of usernames/IPs can't grow it without limit.
+@Component
+public class LoginAttemptTracker {
+
+    private final long windowMillis;
+    private final int maxPerUser;
+    private final int maxPerIp;
+    private final LongSupplier clock;
+
+    // key -> failure times, oldest first; never longer than the key's limit
+    private final Map<String, ArrayDeque<Long>> failures;
+
+    @Autowired
+    public LoginAttemptTracker(@Value("${hsdd.auth.attempts.window-seconds:900}") long windowSeconds,
+                               @Value("${hsdd.auth.attempts.max-per-user:5}") int maxPerUser,
+                               @Value("${hsdd.auth.attempts.max-per-ip:30}") int maxPerIp,
+                               @Value("${hsdd.auth.attempts.max-tracked:100000}") int maxTracked) {
+        this(windowSeconds, maxPerUser, maxPerIp, maxTracked, System::currentTimeMillis);
+    }
+
+    LoginAttemptTracker(long windowSeconds, int maxPerUser, int maxPerIp, int maxTracked, LongSupplier clock) {
+        this.windowMillis = windowSeconds * 1000;
+        this.maxPerUser = Math.max(1, maxPerUser);
+        this.maxPerIp = Math.max(1, maxPerIp);
+        this.clock = clock;
+        this.failures = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ArrayDeque<Long>> eldest) {
+                return size() > maxTracked;
+            }
+        };
+    }
+
+    // Seconds until an attempt is allowed again, or 0 if it is allowed now
+    public long retryAfterSeconds(String username, String ip) {
+        long now = clock.getAsLong();
+        synchronized (failures) {
+            long waitMs = Math.max(
+                    waitMillis(userKey(username), maxPerUser, now),
+                    ip != null ? waitMillis(ipKey(ip), maxPerIp, now) : 0);
+            return (waitMs + 999) / 1000;
+        }
+    }
+
+    public void recordFailure(String username, String ip) {
+        long now = clock.getAsLong();
+        synchronized (failures) {
+            add(userKey(username), maxPerUser, now);
+            if (ip != null) add(ipKey(ip), maxPerIp, now);
+        }
+    }
+
+    // A correct password clears the username; the IP keeps its history
+    public void recordSuccess(String username) {
+        synchronized (failures) {
+            failures.remove(userKey(username));
+        }
+    }
+
+    private long waitMillis(String key, int limit, long now) {
+        ArrayDeque<Long> times = failures.get(key);
+        if (times == null) return 0;
+        prune(times, now);
+        if (times.isEmpty()) {
+            failures.remove(key);
+            return 0;
+        }
+        return times.size() >= limit ? times.peekFirst() + windowMillis - now : 0;
+    }
+
+    private void add(String key, int limit, long now) {
+        ArrayDeque<Long> times = failures.computeIfAbsent(key, k -> new ArrayDeque<>(limit));
+        prune(times, now);
+        times.addLast(now);
+        while (times.size() > limit) times.pollFirst();
+    }
+
+    private void prune(ArrayDeque<Long> times, long now) {
+        while (!times.isEmpty() && times.peekFirst() <= now - windowMillis) times.pollFirst();
+    }
+
+    private static String userKey(String username) {
+        return "u:" + (username == null ? "" : username.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private static String ipKey(String ip) {
+        return "ip:" + ip;
+    }
+}
@@ -0,0 +1,69 @@
+package org.hsdd.security;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Runs BCrypt on the small passwordHashExecutor instead of the request thread,
+// so a login burst can use a few cores but never all of them. When its queue
+// is full or the wait runs out the caller gets IllegalStateException (503)
+// rather than joining an ever-growing backlog.
+@Component
+public class PasswordHasher {
+
+    private final PasswordEncoder encoder;
+    private final ExecutorService executor;
+    private final long timeoutMs;
+
+    public PasswordHasher(PasswordEncoder encoder,
+                          @Qualifier("passwordHashExecutor") ExecutorService executor,
+                          @Value("${hsdd.auth.hash-timeout-ms:5000}") long timeoutMs) {
+        this.encoder = encoder;
+        this.executor = executor;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public String encode(String raw) {
+        return run(() -> encoder.encode(raw));
+    }
+
+    public boolean matches(String raw, String hash) {
+        return run(() -> encoder.matches(raw, hash));
+    }
+
+    // Hash was made with a lower work factor than the one configured now (cheap, no hashing)
+    public boolean needsRehash(String hash) {
+        return encoder.upgradeEncoding(hash);
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> f;
+        try {
+            f = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Too many password checks in progress, try again shortly");
+        }
+        try {
+            return f.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            f.cancel(true);
+            throw new IllegalStateException("Password check timed out, try again shortly");
+        } catch (InterruptedException e) {
+            f.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while checking password");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.hsdd.security;
+
+import org.hsdd.model.Patient;
+import org.hsdd.repo.PatientRepository;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+// Who may read or write a patient's records: doctors and admins any patient,
+// a patient only their own. Endpoints taking ?patientId= check it here.
+@Component
+public class PatientAccess {
+
+    private final PatientRepository patients;
+
+    public PatientAccess(PatientRepository patients) {
+        this.patients = patients;
+    }
+
+    public boolean allows(Principal principal, String patientId) {
+        if (!(principal instanceof Authentication auth) || patientId == null) {
+            return false;
+        }
+        if (isStaff(auth)) {
+            return true;
+        }
+        return hasRole(auth, "ROLE_PATIENT") && patients.findByUser_Username(auth.getName())
+                .map(Patient::getPatientId)
+                .filter(patientId::equals)
+                .isPresent();
+    }
+
+    public static boolean isStaff(Principal principal) {
+        return principal instanceof Authentication auth
+                && (hasRole(auth, "ROLE_DOCTOR") || hasRole(auth, "ROLE_ADMIN"));
+    }
+
+    private static boolean hasRole(Authentication auth, String role) {
+        return auth.getAuthorities().stream().anyMatch(a -> role.equals(a.getAuthority()));
+    }
+}
@@ -0,0 +1,128 @@
+package org.hsdd.security;
+
+import org.hsdd.model.User;
+import org.hsdd.repo.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Bounded LRU + TTL cache of userId -> principal, so the auth filter doesn't
+// hit the users table on every request. UserService invalidates on changes;
+// a password reset revokes the user's older tokens outright. Like the cache,
+// both markers live in this node's memory.
+@Component
+public class PrincipalCache {
+
+    private record Entry(AuthPrincipal principal, long expiresAt) {}
+
+    private final UserRepository users;
+    private final long ttlMillis;
+    private final long tokenTtlMillis;
+
+    private final Map<Long, Entry> entries;
+
+    // userId -> last invalidation time; signed tokens issued before this are re-checked
+    private final Map<Long, Long> invalidatedAt = new ConcurrentHashMap<>();
+
+    // userId -> last password reset; signed tokens issued before this are refused
+    private final Map<Long, Long> revokedAt = new ConcurrentHashMap<>();
+
+    public PrincipalCache(UserRepository users,
+                          @Value("${hsdd.auth.principal-cache.max-entries:10000}") int maxEntries,
+                          @Value("${hsdd.auth.principal-cache.ttl-seconds:300}") long ttlSeconds,
+                          @Value("${hsdd.auth.token-ttl-minutes:60}") long tokenTtlMinutes) {
+        this.users = users;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.tokenTtlMillis = tokenTtlMinutes * 60_000;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public Optional<AuthPrincipal> get(Long userId) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry e = entries.get(userId);
+            if (e != null && e.expiresAt() > now) {
+                return Optional.of(e.principal());
+            }
+        }
+
+        User u = users.findById(userId).orElse(null);
+        if (u == null) {
+            return Optional.empty();
+        }
+
+        AuthPrincipal p = new AuthPrincipal(u.getId(), u.getUsername(), u.getRole(), u.isActive());
+
+        // don't cache a row that was read before a concurrent invalidation
+        Long invalidated = invalidatedAt.get(userId);
+        if (invalidated == null || invalidated < now) {
+            synchronized (entries) {
+                entries.put(userId, new Entry(p, now + ttlMillis));
+            }
+        }
+        return Optional.of(p);
+    }
+
+    // Evicts now and again after the surrounding transaction commits, so a
+    // request racing the update can't re-cache the old row.
+    public void invalidate(Long userId) {
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    // Invalidates the user and refuses every token issued until now (and
+    // until the surrounding transaction commits)
+    public void revokeTokens(Long userId) {
+        revokedAt.put(userId, System.currentTimeMillis());
+        invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    revokedAt.put(userId, System.currentTimeMillis());
+                }
+            });
+        }
+    }
+
+    // True if the user's tokens were revoked after this one was issued
+    public boolean isRevoked(Long userId, long issuedAtMillis) {
+        Long revoked = revokedAt.get(userId);
+        return revoked != null && revoked >= issuedAtMillis;
+    }
+
+    // True if the user changed after the token was issued
+    public boolean isStale(Long userId, long issuedAtMillis) {
+        Long invalidated = invalidatedAt.get(userId);
+        return invalidated != null && invalidated >= issuedAtMillis;
+    }
+
+    private void evict(Long userId) {
+        long now = System.currentTimeMillis();
+        invalidatedAt.put(userId, now);
+        synchronized (entries) {
+            entries.remove(userId);
+        }
+        // markers only matter while a token issued before them can still be live
+        invalidatedAt.values().removeIf(t -> t < now - tokenTtlMillis);
+        revokedAt.values().removeIf(t -> t < now - tokenTtlMillis);
+    }
+}
@@ -4,10 +4,7 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.hsdd.model.User;
-import org.hsdd.repo.UserRepository;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
@@ -15,14 +12,25 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 
 @Component
 public class TokenAuthFilter extends OncePerRequestFilter {
 
-    private final UserRepository users;
+    private static final String SSE_PATH_SUFFIX = "/notifications/stream";
 
-    public TokenAuthFilter(UserRepository users) {
-        this.users = users;
+    private final PrincipalCache principals;
+    private final TokenService tokens;
+
+    public TokenAuthFilter(PrincipalCache principals, TokenService tokens) {
+        this.principals = principals;
+        this.tokens = tokens;
+    }
+
+    // SSE responses complete on an async dispatch, which needs authenticating too
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
     }
 
     @Override
@@ -39,21 +47,24 @@ public class TokenAuthFilter extends OncePerRequestFilter {
             authHeader = req.getHeader("authorization");
         }
 
-        if (authHeader != null && authHeader.startsWith("Bearer TOKEN-")) {
-            try {
-                Long userId = Long.parseLong(authHeader.substring("Bearer TOKEN-".length()));
-
-                User u = users.findById(userId).orElse(null);
+        // EventSource can't send headers, so the SSE stream may pass the token as a query param
+        if (authHeader == null && req.getRequestURI().endsWith(SSE_PATH_SUFFIX)) {
+            String token = req.getParameter("access_token");
+            if (token != null) authHeader = "Bearer " + token;
+        }
 
-                if (u != null && u.isActive()) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                AuthPrincipal p = resolve(authHeader.substring("Bearer ".length()).trim()).orElse(null);
 
-                    String springRole = "ROLE_" + u.getRole().toUpperCase();
+                if (p != null && p.active()) {
 
-                    Authentication auth = new UsernamePasswordAuthenticationToken(
-                            u.getUsername(),
+                    UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
+                            p.username(),
                             null,
-                            List.of(new SimpleGrantedAuthority(springRole))
+                            List.of(new SimpleGrantedAuthority(p.springRole()))
                     );
+                    auth.setDetails(p);   // lets controllers read the user id without a lookup
 
                     SecurityContextHolder.getContext().setAuthentication(auth);
                 }
@@ -64,4 +75,13 @@ public class TokenAuthFilter extends OncePerRequestFilter {
         chain.doFilter(req, res);
     }
 
+    // Only signed tokens: trust their claims unless the user changed since it was issued
+    private Optional<AuthPrincipal> resolve(String token) {
+        TokenService.Claims c = tokens.verify(token).orElse(null);
+        if (c == null || principals.isRevoked(c.userId(), c.issuedAt())) return Optional.empty();
+        if (principals.isStale(c.userId(), c.issuedAt())) {
+            return principals.get(c.userId());
+        }
+        return Optional.of(c.toPrincipal());
+    }
 }
@@ -0,0 +1,106 @@
+package org.hsdd.security;
+
+import org.hsdd.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+
+// Self-contained HMAC-SHA256 tokens: HSDD1.<payload>.<signature>
+// payload = base64url("userId:issuedAt:expiresAt:role:username")
+@Component
+public class TokenService {
+
+    public static final String PREFIX = "HSDD1.";
+
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+    private static final String ALGORITHM = "HmacSHA256";
+
+    public record Claims(Long userId, String username, String role, long issuedAt, long expiresAt) {
+        public AuthPrincipal toPrincipal() {
+            return new AuthPrincipal(userId, username, role, true);
+        }
+    }
+
+    private final SecretKeySpec key;
+    private final long ttlMillis;
+
+    public TokenService(@Value("${hsdd.auth.token-secret:}") String secret,
+                        @Value("${hsdd.auth.token-ttl-minutes:60}") long ttlMinutes) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            // tokens won't survive a restart or work across instances
+            log.warn("hsdd.auth.token-secret is not set, using a random per-process key");
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttlMillis = ttlMinutes * 60_000;
+    }
+
+    public String issue(User u) {
+        long now = System.currentTimeMillis();
+        String raw = u.getId() + ":" + now + ":" + (now + ttlMillis) + ":" + u.getRole() + ":" + u.getUsername();
+        String payload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        return PREFIX + payload + "." + sign(payload);
+    }
+
+    public boolean isSigned(String token) {
+        return token != null && token.startsWith(PREFIX);
+    }
+
+    // Empty if the token is malformed, tampered with or expired
+    public Optional<Claims> verify(String token) {
+        if (!isSigned(token)) return Optional.empty();
+
+        String body = token.substring(PREFIX.length());
+        int dot = body.indexOf('.');
+        if (dot <= 0) return Optional.empty();
+
+        String payload = body.substring(0, dot);
+        byte[] given = body.substring(dot + 1).getBytes(StandardCharsets.US_ASCII);
+        byte[] expected = sign(payload).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(given, expected)) return Optional.empty();
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(payload), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 5);
+            if (parts.length != 5) return Optional.empty();
+
+            Claims c = new Claims(
+                    Long.parseLong(parts[0]),
+                    parts[4],
+                    parts[3],
+                    Long.parseLong(parts[1]),
+                    Long.parseLong(parts[2])
+            );
+            if (c.expiresAt() <= System.currentTimeMillis()) return Optional.empty();
+            return Optional.of(c);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            byte[] sig = mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(sig);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Token signing failed", e);
+        }
+    }
+}
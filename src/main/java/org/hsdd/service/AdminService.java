@@ -1,10 +1,15 @@
 package org.hsdd.service;
 
+import org.hsdd.ai.LocalAiClient;
 import org.hsdd.dto.*;
-import org.hsdd.value.AuditLogEntry;
 import org.hsdd.repo.AuditLogRepository;
+import org.hsdd.repo.projection.EventTypeCount;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -12,16 +17,37 @@ import java.util.stream.Collectors;
 @Service
 public class AdminService {
 
+    public static final int MAX_AUDIT_PAGE = 1000;
+
+    // widest window allowed per bucket size, keeps the GROUP BY result small
+    private static final Duration MAX_HOURLY_WINDOW = Duration.ofDays(31);
+    private static final Duration MAX_DAILY_WINDOW = Duration.ofDays(366);
+    private static final Duration DEFAULT_WINDOW = Duration.ofDays(7);
+
     private final UserService userService;
     private final AuditLogRepository auditRepo;
+    private final PatientActivityService activity;
+    private final AuditService audit;
+    private final LocalAiClient localClassifier;
+    private final PatientTrendService trends;
 
-    public AdminService(UserService userService, AuditLogRepository auditRepo) {
+    public AdminService(UserService userService,
+                        AuditLogRepository auditRepo,
+                        PatientActivityService activity,
+                        AuditService audit,
+                        LocalAiClient localClassifier,
+                        PatientTrendService trends) {
         this.userService = userService;
         this.auditRepo = auditRepo;
+        this.activity = activity;
+        this.audit = audit;
+        this.localClassifier = localClassifier;
+        this.trends = trends;
     }
 
-    public List<AdminUserDto> listUsers() {
-        return userService.getAllUsers();
+    public PageDto<AdminUserDto> listUsers(String role, Boolean active, String q,
+                                           int page, int size, String sort, String direction) {
+        return userService.getUsers(role, active, q, page, size, sort, direction);
     }
 
     public AdminUserDto getUser(Long id) {
@@ -46,24 +72,103 @@ public class AdminService {
 
 
     public List<AuditLogDto> listAuditLogs(int limit) {
-        return auditRepo.findAllByOrderByEventTimeDesc().stream()
-                .limit(limit)
-                .map(a -> new AuditLogDto(
-                        a.getId(),
-                        a.getEventTime(),
-                        a.getActor(),
-                        a.getEventType(),
-                        a.getDetails(),
-                        a.getIpAddress()
-                ))
-                .toList();
+        return searchAuditLogs(null, null, null, null, null, limit).items();
+    }
+
+    // Newest first; filters and LIMIT run in SQL, cursor = "<eventTime>_<id>" of the last row
+    public CursorPageDto<AuditLogDto> searchAuditLogs(String actor,
+                                                      String eventType,
+                                                      Instant from,
+                                                      Instant to,
+                                                      String cursor,
+                                                      int limit) {
+        int size = Math.max(0, Math.min(limit, MAX_AUDIT_PAGE));
+        if (size == 0) {
+            return new CursorPageDto<>(List.of(), null);
+        }
+
+        Instant cursorTime = null;
+        Long cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            int sep = cursor.lastIndexOf('_');
+            try {
+                cursorTime = Instant.parse(cursor.substring(0, sep));
+                cursorId = Long.parseLong(cursor.substring(sep + 1));
+            } catch (IndexOutOfBoundsException | DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        // one extra row tells us whether there is a next page
+        List<AuditLogDto> rows = auditRepo.findPage(
+                blankToNull(actor), blankToNull(eventType), from, to,
+                cursorTime, cursorId, PageRequest.of(0, size + 1));
+
+        if (rows.size() <= size) {
+            return new CursorPageDto<>(rows, null);
+        }
+        List<AuditLogDto> items = rows.subList(0, size);
+        AuditLogDto last = items.get(size - 1);
+        return new CursorPageDto<>(items, last.eventTime() + "_" + last.id());
     }
 
     public Map<String, Long> auditSummary() {
-        return auditRepo.findAll().stream()
-                .collect(Collectors.groupingBy(
-                        AuditLogEntry::getEventType,
-                        Collectors.counting()
-                ));
+        return auditRepo.countByEventType(null, null).stream()
+                .collect(Collectors.toMap(EventTypeCount::eventType, EventTypeCount::count));
+    }
+
+    // Counts per event type in [from, to), optionally split into UTC hour/day buckets
+    public List<AuditSummaryDto> auditSummary(Instant from, Instant to, String bucket) {
+        if (bucket == null || bucket.isBlank() || "none".equalsIgnoreCase(bucket)) {
+            return auditRepo.countByEventType(from, to).stream()
+                    .map(r -> new AuditSummaryDto(null, r.eventType(), r.count()))
+                    .toList();
+        }
+
+        String fmt;
+        Duration maxWindow;
+        switch (bucket.toLowerCase()) {
+            case "hour" -> { fmt = "%Y-%m-%d %H:00:00"; maxWindow = MAX_HOURLY_WINDOW; }
+            case "day" -> { fmt = "%Y-%m-%d"; maxWindow = MAX_DAILY_WINDOW; }
+            default -> throw new IllegalArgumentException("bucket must be hour, day or none");
+        }
+
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(DEFAULT_WINDOW);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (Duration.between(start, end).compareTo(maxWindow) > 0) {
+            throw new IllegalArgumentException("Time window too large for " + bucket + " buckets");
+        }
+
+        return auditRepo.countByBucketAndEventType(fmt, start, end).stream()
+                .map(r -> new AuditSummaryDto(
+                        (String) r[0],
+                        (String) r[1],
+                        ((Number) r[2]).longValue()))
+                .toList();
+    }
+
+    public int rebuildActivitySummary(String actor) {
+        int rows = activity.rebuild();
+        audit.log(actor, "ADMIN_REBUILD_ACTIVITY_SUMMARY", "rows=" + rows);
+        return rows;
+    }
+
+    public int rebuildTrends(String actor) {
+        int rows = trends.rebuild();
+        audit.log(actor, "ADMIN_REBUILD_TRENDS", "rows=" + rows);
+        return rows;
+    }
+
+    public int retrainLocalClassifier(String actor) {
+        int examples = localClassifier.retrain();
+        audit.log(actor, "ADMIN_RETRAIN_LOCAL_CLASSIFIER", "examples=" + examples);
+        return examples;
+    }
+
+    private static String blankToNull(String s) {
+        return s == null || s.isBlank() ? null : s;
     }
 }
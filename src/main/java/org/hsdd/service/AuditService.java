@@ -2,16 +2,17 @@ package org.hsdd.service;
 
 import jakarta.servlet.http.HttpServletRequest;
 import org.hsdd.value.AuditLogEntry;
-import org.hsdd.repo.AuditLogRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 public class AuditService {
-    private final AuditLogRepository repo;
+    private final AuditSink sink;
     private final HttpServletRequest request;
 
-    public AuditService(AuditLogRepository repo, HttpServletRequest request) {
-        this.repo = repo; this.request = request;
+    public AuditService(AuditSink sink, HttpServletRequest request) {
+        this.sink = sink; this.request = request;
     }
 
     public void log(String actor, String type, String details) {
@@ -19,7 +20,28 @@ public class AuditService {
         a.setActor(actor);
         a.setEventType(type);
         a.setDetails(details);
-        a.setIpAddress(request.getRemoteAddr());
-        repo.save(a);
+        // read on the request thread; the writer thread has no request bound
+        a.setIpAddress(remoteAddr());
+
+        // keep the old semantics: a rolled-back operation leaves no audit row
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sink.submit(a);
+                }
+            });
+        } else {
+            sink.submit(a);
+        }
+    }
+
+    private String remoteAddr() {
+        try {
+            return request.getRemoteAddr();
+        } catch (IllegalStateException e) {
+            // called outside a request (async inference, startup runners)
+            return null;
+        }
     }
 }
@@ -0,0 +1,215 @@
+package org.hsdd.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.hsdd.value.AuditLogEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Write-behind audit log: entries are queued by the request thread and a single
+// background writer inserts them into audit_logs with JDBC batches.
+@Component
+public class AuditSink {
+
+    // What submit() does when the queue is full
+    public enum OverflowPolicy {
+        BLOCK,        // wait up to offer-timeout-ms, then drop
+        DROP,         // drop immediately
+        CALLER_RUNS   // insert synchronously on the caller's thread
+    }
+
+    public record Stats(
+            int queueDepth,
+            int queueCapacity,
+            long enqueued,
+            long written,
+            long dropped,
+            long callerRuns,
+            long failed,
+            long batches
+    ) {}
+
+    private static final Logger log = LoggerFactory.getLogger(AuditSink.class);
+
+    static final String INSERT_SQL =
+            "insert into audit_logs (event_time, actor, event_type, details, ip_address) values (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbc;
+    private final BlockingQueue<AuditLogEntry> queue;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+    private final long shutdownTimeoutMs;
+    private final OverflowPolicy overflowPolicy;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong callerRuns = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public AuditSink(JdbcTemplate jdbc,
+                     @Value("${hsdd.audit.queue-capacity:10000}") int capacity,
+                     @Value("${hsdd.audit.batch-size:200}") int batchSize,
+                     @Value("${hsdd.audit.flush-interval-ms:500}") long flushIntervalMs,
+                     @Value("${hsdd.audit.overflow-policy:CALLER_RUNS}") OverflowPolicy overflowPolicy,
+                     @Value("${hsdd.audit.offer-timeout-ms:50}") long offerTimeoutMs,
+                     @Value("${hsdd.audit.shutdown-timeout-ms:10000}") long shutdownTimeoutMs) {
+        this.jdbc = jdbc;
+        this.capacity = capacity;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = flushIntervalMs;
+        this.overflowPolicy = overflowPolicy;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = Thread.ofPlatform().name("audit-writer").daemon(true).start(this::runWriter);
+    }
+
+    // Flushes everything still queued before the DataSource goes away
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writer != null) {
+            // no interrupt: the writer may be mid-batch, it notices within one flush interval
+            try {
+                writer.join(shutdownTimeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        int rest = flush();
+        if (rest > 0) {
+            log.info("Flushed {} audit entries on shutdown", rest);
+        }
+    }
+
+    public void submit(AuditLogEntry entry) {
+        if (queue.offer(entry)) {
+            enqueued.incrementAndGet();
+            return;
+        }
+
+        switch (overflowPolicy) {
+            case CALLER_RUNS -> {
+                callerRuns.incrementAndGet();
+                write(List.of(entry));
+            }
+            case BLOCK -> {
+                try {
+                    if (queue.offer(entry, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        enqueued.incrementAndGet();
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                drop(entry);
+            }
+            case DROP -> drop(entry);
+        }
+    }
+
+    // Drains and writes whatever is queued right now; returns the number of entries taken
+    public int flush() {
+        int total = 0;
+        List<AuditLogEntry> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            total += batch.size();
+            write(batch);
+            batch.clear();
+        }
+        return total;
+    }
+
+    public Stats stats() {
+        return new Stats(
+                queue.size(),
+                capacity,
+                enqueued.get(),
+                written.get(),
+                dropped.get(),
+                callerRuns.get(),
+                failed.get(),
+                batches.get()
+        );
+    }
+
+    private void runWriter() {
+        List<AuditLogEntry> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                AuditLogEntry first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+
+                // fill the batch until it's full or the flush interval runs out
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    if (batch.size() >= batchSize) break;
+                    long waitNs = deadline - System.nanoTime();
+                    if (waitNs <= 0) break;
+                    AuditLogEntry next = queue.poll(waitNs, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<AuditLogEntry> batch) {
+        try {
+            jdbc.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, a) -> {
+                ps.setTimestamp(1, Timestamp.from(a.getEventTime()));
+                ps.setString(2, a.getActor());
+                ps.setString(3, a.getEventType());
+                ps.setString(4, a.getDetails());
+                ps.setString(5, a.getIpAddress());
+            });
+            written.addAndGet(batch.size());
+            batches.incrementAndGet();
+        } catch (Exception e) {
+            failed.addAndGet(batch.size());
+            log.error("Failed to write {} audit entries", batch.size(), e);
+        }
+    }
+
+    private void drop(AuditLogEntry entry) {
+        long n = dropped.incrementAndGet();
+        // log the first drop and then every 1000th to keep the log readable under sustained overload
+        if (n == 1 || n % 1000 == 0) {
+            log.warn("Audit queue full, dropped {} entries so far (last: {} {})",
+                    n, entry.getEventType(), entry.getActor());
+        }
+    }
+}
@@ -6,87 +6,96 @@ import org.hsdd.dto.AuthResponse;
 import org.hsdd.dto.LoginRequest;
 import org.hsdd.repo.PatientRepository;
 import org.hsdd.repo.UserRepository;
-import org.hsdd.value.SessionToken;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.hsdd.security.LoginAttemptTracker;
+import org.hsdd.security.LoginThrottledException;
+import org.hsdd.security.PasswordHasher;
+import org.hsdd.security.PrincipalCache;
+import org.hsdd.security.TokenService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
-
 
 @Service
 public class AuthService {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+
     private final UserRepository users;
     private final PatientRepository patients;
-    private final PasswordEncoder encoder;
+    private final PasswordHasher hasher;
     private final AuditService audit;
+    private final TokenService tokens;
+    private final LoginAttemptTracker attempts;
+    private final PrincipalCache principals;
 
     public AuthService(UserRepository users,
                        PatientRepository patients,
-                       PasswordEncoder encoder,
-                       AuditService audit) {
+                       PasswordHasher hasher,
+                       AuditService audit,
+                       TokenService tokens,
+                       LoginAttemptTracker attempts,
+                       PrincipalCache principals) {
         this.users = users;
         this.patients = patients;
-        this.encoder = encoder;
+        this.hasher = hasher;
         this.audit = audit;
+        this.tokens = tokens;
+        this.attempts = attempts;
+        this.principals = principals;
     }
 
 
-    public AuthResponse login(LoginRequest req) {
-        System.out.println("---- LOGIN DEBUG START ----");
-        System.out.println("username = " + req.username());
-
-        try {
-            User u = users.findByUsername(req.username())
-                    .orElseThrow(() -> new IllegalArgumentException("Invalid username/password"));
-
-            System.out.println("USER FOUND: id=" + u.getId() + " role=" + u.getRole());
-
-
-            if (!u.isActive()) {
-                System.out.println("LOGIN FAILED — USER INACTIVE");
-                throw new IllegalArgumentException("Account is inactive. Contact admin.");
-            }
-
-
-            System.out.println("RAW PASSWORD = [" + req.password() + "]");
-            System.out.println("DB HASH = [" + u.getPasswordHash() + "]");
-
-
-// ⭐ Check match
-            boolean passwordMatch = encoder.matches(req.password(), u.getPasswordHash());
-            System.out.println("PASSWORD MATCH = " + passwordMatch);
+    public AuthResponse login(LoginRequest req, String clientIp) {
+        // refused before any lookup or hashing, so a credential-stuffing wave stays cheap
+        long retryAfter = attempts.retryAfterSeconds(req.username(), clientIp);
+        if (retryAfter > 0) {
+            throw new LoginThrottledException(retryAfter);
+        }
 
+        User u = users.findByUsername(req.username()).orElse(null);
+        if (u == null) {
+            attempts.recordFailure(req.username(), clientIp);
+            throw new IllegalArgumentException("Invalid username/password");
+        }
 
-            if (!passwordMatch) {
-                throw new IllegalArgumentException("Invalid username/password");
-            }
+        if (!u.isActive()) {
+            throw new IllegalArgumentException("Account is inactive. Contact admin.");
+        }
 
-            System.out.println("AUDIT LOGGING...");
-            audit.log(u.getUsername(), "LOGIN_SUCCESS", "userId=" + u.getId());
-            System.out.println("AUDIT DONE!");
+        if (!hasher.matches(req.password(), u.getPasswordHash())) {
+            attempts.recordFailure(req.username(), clientIp);
+            throw new IllegalArgumentException("Invalid username/password");
+        }
+        attempts.recordSuccess(req.username());
+        rehashIfNeeded(u, req.password());
 
-            String token = "TOKEN-" + u.getId();
-            Patient p = null;
-            if ("patient".equals(u.getRole())) {
-                p = patients.findByUser(u).orElse(null);
-            }
+        audit.log(u.getUsername(), "LOGIN_SUCCESS", "userId=" + u.getId());
 
-            System.out.println("---- LOGIN DEBUG END ----");
-            return new AuthResponse(
-                    token,
-                    u.getUsername(),
-                    u.getRole(),
-                    u.getId(),
-                    p != null ? p.getPatientId() : null
-            );
+        String token = tokens.issue(u);
+        Patient p = null;
+        if ("patient".equals(u.getRole())) {
+            p = patients.findByUser(u).orElse(null);
+        }
 
-        } catch (Exception e) {
-            System.out.println("---- LOGIN ERROR ----");
-            e.printStackTrace();  // ⭐ PRINTS REAL ERROR EVEN IF HANDLER HIDES IT ⭐
-            System.out.println("---- END ERROR ----");
+        return new AuthResponse(
+                token,
+                u.getUsername(),
+                u.getRole(),
+                u.getId(),
+                p != null ? p.getPatientId() : null
+        );
+    }
 
-            throw e; // rethrow so handler returns 500
+    // The only time we have the plain password: move old hashes to the configured work factor
+    private void rehashIfNeeded(User u, String rawPassword) {
+        if (!hasher.needsRehash(u.getPasswordHash())) return;
+        try {
+            u.setPasswordHash(hasher.encode(rawPassword));
+            users.save(u);
+        } catch (RuntimeException e) {
+            // the login itself succeeded; try again next time
+            log.warn("Could not rehash password for userId={}", u.getId(), e);
         }
     }
 
@@ -94,22 +103,22 @@ public class AuthService {
         User u = users.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
         // Encode the new password before storing
-        u.setPasswordHash(encoder.encode(newPassword));
+        u.setPasswordHash(hasher.encode(newPassword));
         users.save(u);
+        // sessions from before the reset (possibly stolen ones) end here
+        principals.revokeTokens(userId);
         audit.log(u.getUsername(), "RESET_PASSWORD", "userId=" + userId);
     }
 
     public void logout(String token) {
-        if (token == null || !token.startsWith("Bearer TOKEN-")) {
+        if (token == null || !token.startsWith("Bearer ")) {
             return;
         }
+        String raw = token.substring("Bearer ".length()).trim();
         try {
-            Long userId = Long.parseLong(token.substring("Bearer TOKEN-".length()));
-            User u = users.findById(userId).orElse(null);
-            if (u != null) {
-                audit.log(u.getUsername(), "LOGOUT", "userId=" + userId);
-            }
+            tokens.verify(raw).ifPresent(c ->
+                    audit.log(c.username(), "LOGOUT", "userId=" + c.userId()));
         } catch (Exception ignored) {
         }
     }
-}
\ No newline at end of file
+}
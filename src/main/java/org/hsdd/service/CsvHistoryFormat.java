@@ -0,0 +1,130 @@
+package org.hsdd.service;
+
+import org.hsdd.model.MedicalHistory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Bulk CSV export, one entry per row, RFC 4180 quoting. The header names the
+// columns (any order, case and '_' ignored): title is required, patientId and
+// details are optional. Rows without a patientId belong to the upload's patient
+// (HistoryImportService rejects rows naming another when the upload has one).
+@Component
+public class CsvHistoryFormat implements HistoryFormat {
+
+    public static final String NAME = "csv";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public List<String> extensions() {
+        return List.of(".csv");
+    }
+
+    @Override
+    public boolean patientPerRecord() {
+        return true;
+    }
+
+    @Override
+    public Records open(Reader in, int maxRecordChars) throws IOException {
+        HistoryLineReader rows = new HistoryLineReader(in, maxRecordChars, true);
+        String header = rows.readLine();
+        if (header == null || rows.truncated()) {
+            rows.close();
+            throw new IllegalArgumentException("CSV file has no header row");
+        }
+
+        int patientCol = -1;
+        int titleCol = -1;
+        int detailsCol = -1;
+        List<String> names = split(header);
+        for (int i = 0; i < names.size(); i++) {
+            switch (names.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT)) {
+                case "patientid" -> patientCol = i;
+                case "title" -> titleCol = i;
+                case "details" -> detailsCol = i;
+                default -> { }   // other columns are ignored
+            }
+        }
+        if (titleCol < 0) {
+            rows.close();
+            throw new IllegalArgumentException("CSV header needs a title column");
+        }
+        return new CsvRecords(rows, patientCol, titleCol, detailsCol);
+    }
+
+    private record CsvRecords(HistoryLineReader rows, int patientCol, int titleCol, int detailsCol)
+            implements Records {
+
+        @Override
+        public String next() throws IOException {
+            return rows.readLine();
+        }
+
+        @Override
+        public boolean truncated() {
+            return rows.truncated();
+        }
+
+        @Override
+        public List<MedicalHistory> parse(String record, String patientId) {
+            if (record.isBlank()) return List.of();
+            List<String> fields = split(record);
+            String rowPatient = field(fields, patientCol);
+            String details = field(fields, detailsCol);
+            return List.of(HistoryFormat.row(
+                    rowPatient != null && !rowPatient.isBlank() ? rowPatient : patientId,
+                    field(fields, titleCol),
+                    details != null ? details.trim() : null));
+        }
+
+        @Override
+        public void close() throws IOException {
+            rows.close();
+        }
+
+        private static String field(List<String> fields, int col) {
+            return col >= 0 && col < fields.size() ? fields.get(col) : null;
+        }
+    }
+
+    // One CSV record into its fields; quotes removed, "" unescaped
+    static List<String> split(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,42 @@
+package org.hsdd.service;
+
+import org.hsdd.repo.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Cached ids of active doctors, used for notification fan-out.
+// UserService invalidates it whenever a user is created, changed or (de)activated.
+@Component
+public class DoctorRoster {
+
+    private record Snapshot(List<Long> ids, long expiresAt) {}
+
+    private final UserRepository users;
+    private final long ttlMillis;
+
+    private volatile Snapshot snapshot;
+
+    public DoctorRoster(UserRepository users,
+                        @Value("${hsdd.notifications.roster-ttl-seconds:60}") long ttlSeconds) {
+        this.users = users;
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    public List<Long> doctorIds() {
+        Snapshot s = snapshot;
+        long now = System.currentTimeMillis();
+        if (s != null && s.expiresAt() > now) {
+            return s.ids();
+        }
+        // concurrent misses may both load; harmless, last one wins
+        List<Long> ids = List.copyOf(users.findActiveIdsByRole("doctor"));
+        snapshot = new Snapshot(ids, now + ttlMillis);
+        return ids;
+    }
+
+    public void invalidate() {
+        snapshot = null;
+    }
+}
@@ -3,7 +3,10 @@ package org.hsdd.service;
 import org.hsdd.dto.TrendDataDto;
 import org.hsdd.dto.AllReportDto;
 import org.hsdd.dto.*;
+
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface DoctorService {
 
@@ -21,15 +24,37 @@ public interface DoctorService {
 
     List<TrendDataDto> getPatientTrends(String patientId);
 
-    List<RecentPatientDto> getRecentPatients();
+    // from/to null = all time; otherwise counts over whole weeks in [from, to)
+    List<TrendDataDto> getPatientTrends(String patientId, LocalDate from, LocalDate to);
+
+    // bucket = week | month; from/to default to the last 12 buckets
+    List<TrendBucketDto> getPatientTrendHistogram(String patientId, String bucket, LocalDate from, LocalDate to);
+
+    // Predictions and label totals built from a single read
+    PatientFullRecordDto getPatientRecord(String patientId);
+
+    PageDto<RecentPatientDto> getRecentPatients(int page, int size);
     List<LowConfidenceDto> getLowConfidenceReports();
     LowConfidenceDto getLowConfidenceReport(Long id);
     List<LowConfidenceDto> getAllLowConfidenceReports();
-    List<RecentPatientDto> getAllPatients();
+    PageDto<RecentPatientDto> getAllPatients(int page, int size, String sort, String direction);
 
-    // ⭐ NEW: For All Reports Page
-    List<AllReportDto> getAllReports();
+    // All Reports page: sort = date | confidence | label, direction = asc | desc
+    PageDto<AllReportDto> getReports(ReportFilter filter, int page, int size, String sort, String direction);
+
+    // Every matching report, one at a time, without holding them all in memory
+    void streamReports(ReportFilter filter, String sort, String direction, Consumer<AllReportDto> sink);
+
+    AllReportDto getReport(Long id);
+    // Throws IllegalStateException while another doctor holds the review lease
     void markLowConfidenceReviewed(Long id, String doctorUsername);
     void markLowConfidencePending(Long id);
 
+    // Review queue: pending low-confidence items, oldest first, with lease holders
+    PageDto<ReviewItemDto> getReviewQueue(int page, int size);
+    List<ReviewItemDto> claimReviews(Long doctorId, int count);
+    List<ReviewItemDto> getClaimedReviews(Long doctorId);
+    int renewReviewClaims(Long doctorId);
+    boolean releaseReviewClaim(Long predictionId, Long doctorId);
+
 }
@@ -0,0 +1,247 @@
+package org.hsdd.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hsdd.model.MedicalHistory;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+// FHIR-style JSON Bundle: {"resourceType": "Bundle", "entry": [{"resource": {...}}, ...]}.
+// Condition, AllergyIntolerance and Procedure resources become history rows
+// (title from code, details from note / reaction); other resources are skipped.
+// The patient comes from subject (or patient) "Patient/<patientId>"; when the
+// upload has a patient, entries for anyone else are rejected by the import.
+//
+// Records are the elements of the entry array, cut out by a small bracket
+// scanner so the reading thread never builds a JSON tree; each entry is
+// parsed with Jackson on the parse pool.
+@Component
+public class FhirBundleHistoryFormat implements HistoryFormat {
+
+    public static final String NAME = "fhir";
+
+    private static final String PATIENT_REF = "Patient/";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public List<String> extensions() {
+        return List.of(".json");
+    }
+
+    @Override
+    public boolean patientPerRecord() {
+        return true;
+    }
+
+    @Override
+    public Records open(Reader in, int maxRecordChars) throws IOException {
+        EntryScanner entries = new EntryScanner(in, maxRecordChars);
+        if (!entries.seekEntryArray()) {
+            entries.close();
+            throw new IllegalArgumentException("Not a FHIR bundle: no entry array");
+        }
+        return new Records() {
+            @Override
+            public String next() throws IOException {
+                return entries.next();
+            }
+
+            @Override
+            public boolean truncated() {
+                return entries.truncated;
+            }
+
+            @Override
+            public List<MedicalHistory> parse(String record, String patientId) {
+                return parseEntry(record, patientId);
+            }
+
+            @Override
+            public void close() throws IOException {
+                entries.close();
+            }
+        };
+    }
+
+    List<MedicalHistory> parseEntry(String entry, String patientId) {
+        JsonNode resource;
+        try {
+            resource = mapper.readTree(entry).path("resource");
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON entry");
+        }
+
+        String type = resource.path("resourceType").asText("");
+        String details;
+        JsonNode subject;
+        switch (type) {
+            case "Condition", "Procedure" -> {
+                details = text(resource.path("note").path(0).path("text"));
+                subject = resource.path("subject");
+            }
+            case "AllergyIntolerance" -> {
+                details = text(resource.path("reaction").path(0).path("description"));
+                if (details == null) details = text(resource.path("note").path(0).path("text"));
+                subject = resource.path("patient");
+            }
+            default -> {
+                return List.of();
+            }
+        }
+
+        String title = codeText(resource.path("code"));
+        if (title == null) {
+            throw new IllegalArgumentException(type + " without a code");
+        }
+        String ref = text(subject.path("reference"));
+        String rowPatient = ref != null && ref.startsWith(PATIENT_REF) ? ref.substring(PATIENT_REF.length()) : patientId;
+        return List.of(HistoryFormat.row(rowPatient, title, details != null ? details : title));
+    }
+
+    // CodeableConcept: text, else the first coding's display, else its code
+    private static String codeText(JsonNode code) {
+        String text = text(code.path("text"));
+        if (text != null) return text;
+        JsonNode coding = code.path("coding").path(0);
+        text = text(coding.path("display"));
+        return text != null ? text : text(coding.path("code"));
+    }
+
+    private static String text(JsonNode node) {
+        if (!node.isTextual()) return null;
+        String s = node.asText().trim();
+        return s.isEmpty() ? null : s;
+    }
+
+    // Finds the top-level "entry" array and returns its elements as raw JSON
+    // text, tracking only nesting depth and string literals
+    static final class EntryScanner implements Closeable {
+
+        // strings before the entry array are only compared with "entry"; longer ones aren't kept
+        static final int MAX_KEY_CHARS = 32;
+
+        private final Reader in;
+        private final int maxChars;
+        private final char[] buf = new char[8192];
+        private final StringBuilder record = new StringBuilder();
+        private int pos;
+        private int len;
+        private boolean done;
+        boolean truncated;
+
+        EntryScanner(Reader in, int maxChars) {
+            this.in = in;
+            this.maxChars = Math.max(1, maxChars);
+        }
+
+        // Positions after the '[' of the top-level "entry"; false if there is none
+        boolean seekEntryArray() throws IOException {
+            int depth = 0;
+            String lastString = null;
+            String key = null;
+            int c;
+            while ((c = read()) >= 0) {
+                switch (c) {
+                    case '"' -> lastString = readString(false);
+                    case ':' -> { if (depth == 1) key = lastString; }
+                    case ',' -> key = null;
+                    case '{' -> depth++;
+                    case '}', ']' -> depth--;
+                    case '[' -> {
+                        if (depth == 1 && "entry".equals(key)) return true;
+                        depth++;
+                    }
+                    default -> { }
+                }
+            }
+            return false;
+        }
+
+        // Next element of the entry array, or null after its closing ']'
+        String next() throws IOException {
+            if (done) return null;
+            record.setLength(0);
+            truncated = false;
+
+            int c;
+            do {
+                c = read();
+            } while (c >= 0 && (c == ',' || Character.isWhitespace(c)));
+            if (c < 0) throw new IOException("Unexpected end of bundle");
+            if (c == ']') {
+                done = true;
+                return null;
+            }
+            if (c != '{') throw new IOException("Bundle entry is not an object");
+
+            int depth = 0;
+            do {
+                if (c == '"') {
+                    append('"');
+                    readString(true);
+                    append('"');
+                } else {
+                    append((char) c);
+                    if (c == '{' || c == '[') depth++;
+                    else if (c == '}' || c == ']') depth--;
+                }
+                if (depth == 0) return record.toString();
+            } while ((c = read()) >= 0);
+            throw new IOException("Unexpected end of bundle");
+        }
+
+        // Reads a string literal after its opening quote. Capturing copies it raw into
+        // the record; otherwise it is returned (escapes left as is, keys don't need them),
+        // or null once longer than MAX_KEY_CHARS, so a huge value is skipped, not copied.
+        private String readString(boolean capture) throws IOException {
+            StringBuilder out = capture ? null : new StringBuilder();
+            boolean escaped = false;
+            boolean tooLong = false;
+            int c;
+            while ((c = read()) >= 0) {
+                if (c == '"' && !escaped) return capture || tooLong ? null : out.toString();
+                escaped = c == '\\' && !escaped;
+                if (capture) append((char) c);
+                else if (out.length() < MAX_KEY_CHARS) out.append((char) c);
+                else tooLong = true;
+            }
+            throw new IOException("Unterminated string in bundle");
+        }
+
+        private void append(char c) {
+            if (record.length() < maxChars) {
+                record.append(c);
+            } else {
+                truncated = true;
+            }
+        }
+
+        private int read() throws IOException {
+            if (pos >= len) {
+                len = in.read(buf);
+                pos = 0;
+                if (len <= 0) {
+                    len = 0;
+                    return -1;
+                }
+            }
+            return buf[pos++];
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.hsdd.service;
+
+import org.hsdd.model.MedicalHistory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+// A medical history upload format (see HistoryImportService). The import reads
+// the file on one thread, cutting it into raw records with next(), and parses
+// chunks of records on the history parse pool, so parse() must be thread-safe
+// and depend only on the record it's given.
+public interface HistoryFormat {
+
+    int MAX_TITLE = 100;   // medical_history.title
+
+    // Value of the upload's format parameter, stored on the import
+    String name();
+
+    // Lower-case file extensions picked up without an explicit format
+    List<String> extensions();
+
+    // true if records name their own patient (bulk files); otherwise every
+    // row belongs to the patientId of the upload
+    boolean patientPerRecord();
+
+    // Reads any header; throws IllegalArgumentException if the file can't be this format
+    Records open(Reader in, int maxRecordChars) throws IOException;
+
+    interface Records extends Closeable {
+
+        // Next raw record, or null at end of input. Reading thread only.
+        String next() throws IOException;
+
+        // Whether the last record was cut at maxRecordChars
+        boolean truncated();
+
+        // Rows for one record, none if it has nothing to import. patientId is the
+        // upload's (may be null for bulk files). Throws IllegalArgumentException
+        // with a message for the client if the record is bad.
+        List<MedicalHistory> parse(String record, String patientId);
+    }
+
+    // A medical_history row, checked against the column limits
+    static MedicalHistory row(String patientId, String title, String details) {
+        if (patientId == null || patientId.isBlank()) {
+            throw new IllegalArgumentException("Missing patientId");
+        }
+        String t = title == null ? "" : title.trim();
+        if (t.isEmpty()) {
+            throw new IllegalArgumentException("Missing title");
+        }
+        if (t.length() > MAX_TITLE) {
+            throw new IllegalArgumentException("Title longer than " + MAX_TITLE + " characters");
+        }
+        MedicalHistory entry = new MedicalHistory();
+        entry.setPatientId(patientId.trim());
+        entry.setTitle(t);
+        entry.setDetails(details);
+        return entry;
+    }
+}
@@ -0,0 +1,347 @@
+package org.hsdd.service;
+
+import org.hsdd.dto.HistoryImportDto;
+import org.hsdd.dto.HistoryLineError;
+import org.hsdd.model.HistoryImport;
+import org.hsdd.model.MedicalHistory;
+import org.hsdd.repo.HistoryImportRepository;
+import org.hsdd.repo.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+// Streams a medical history file into medical_history without holding it in
+// memory. The uploading thread cuts the file into records (lines, CSV rows,
+// bundle entries - see HistoryFormat) and hands chunk-lines of them at a time
+// to the parse pool; up to parse-ahead chunks are parsed while the oldest is
+// written. Chunks commit in file order, each with its rows and the import's
+// progress in one transaction, so GET /api/history/imports/{id} shows progress
+// and a failed upload can be sent again with its importId to continue after
+// the last committed record.
+// Bad records are skipped and reported, they don't fail the upload.
+@Service
+public class HistoryImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(HistoryImportService.class);
+
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private final HistoryImportRepository imports;
+    private final MedicalHistoryWriter writer;
+    private final TransactionTemplate tx;
+    private final PatientRepository patients;
+    private final Map<String, HistoryFormat> formats = new LinkedHashMap<>();
+    private final ExecutorService parser;
+    private final int chunkLines;
+    private final int maxLineChars;
+    private final int maxRecordChars;
+    private final Duration staleAfter;
+    private final int parseAhead;
+
+    public HistoryImportService(HistoryImportRepository imports,
+                                MedicalHistoryWriter writer,
+                                TransactionTemplate tx,
+                                PatientRepository patients,
+                                List<HistoryFormat> formats,
+                                @Qualifier("historyParseExecutor") ExecutorService parser,
+                                @Value("${hsdd.history.chunk-lines:1000}") int chunkLines,
+                                @Value("${hsdd.history.max-line-chars:8192}") int maxLineChars,
+                                @Value("${hsdd.history.max-record-chars:65536}") int maxRecordChars,
+                                @Value("${hsdd.history.stale-minutes:10}") long staleMinutes,
+                                @Value("${hsdd.history.parse-ahead:8}") int parseAhead) {
+        this.imports = imports;
+        this.writer = writer;
+        this.tx = tx;
+        this.patients = patients;
+        for (HistoryFormat f : formats) {
+            this.formats.put(f.name(), f);
+        }
+        if (!this.formats.containsKey(TextHistoryFormat.NAME)) {
+            throw new IllegalStateException("No " + TextHistoryFormat.NAME + " history format");
+        }
+        this.parser = parser;
+        this.chunkLines = Math.max(1, chunkLines);
+        this.maxLineChars = maxLineChars;
+        this.maxRecordChars = maxRecordChars;
+        this.staleAfter = Duration.ofMinutes(staleMinutes);
+        this.parseAhead = Math.max(1, parseAhead);
+    }
+
+    // Registers an import up front, so the client can poll it while the upload runs
+    public HistoryImportDto start(String patientId, String fileName, String format) {
+        HistoryImport imp = newImport(patientId, fileName, formatFor(format, fileName));
+        imp.setStatus(HistoryImport.Status.PENDING);
+        return toDto(imports.save(imp), List.of());
+    }
+
+    public HistoryImportDto get(Long importId) {
+        return imports.findById(importId)
+                .map(imp -> toDto(imp, List.of()))
+                .orElseThrow(() -> new IllegalArgumentException("Import not found"));
+    }
+
+    // importId null = new import; format null = by file extension, else text.
+    // With a patientId every record must be that patient's: csv rows or bundle
+    // entries naming another patient are rejected (only a bulk upload, without
+    // a patientId, may write for several patients).
+    // Throws IllegalArgumentException for an unknown or mismatched import, a
+    // missing patientId or a file that isn't the format, and
+    // IllegalStateException if the import is running elsewhere.
+    public HistoryImportDto importFile(String patientId, Long importId, String fileName, String format,
+                                       InputStream in) {
+        HistoryImport imp = importId == null
+                ? imports.save(newImport(patientId, fileName, formatFor(format, fileName)))
+                : resume(importId, patientId, fileName, format);
+        if (imp.getStatus() == HistoryImport.Status.COMPLETED) {
+            return toDto(imp, List.of());
+        }
+
+        HistoryFormat fmt = formats.get(imp.getFormat());
+        int maxChars = fmt.patientPerRecord() ? maxRecordChars : maxLineChars;
+        Progress progress = new Progress(imp);
+        Deque<Future<ParsedChunk>> ahead = new ArrayDeque<>();
+
+        try (HistoryFormat.Records records = fmt.open(new InputStreamReader(in, StandardCharsets.UTF_8), maxChars)) {
+            long recordNo = 0;
+            List<String> batch = new ArrayList<>();
+            String raw;
+            while ((raw = records.next()) != null) {
+                recordNo++;
+                if (recordNo <= imp.getLinesCommitted()) continue;   // done by an earlier attempt
+
+                batch.add(records.truncated() ? null : raw);
+                if (batch.size() >= chunkLines) {
+                    ahead.add(submit(records, batch, recordNo, patientId, maxChars));
+                    batch = new ArrayList<>();
+                    if (ahead.size() >= parseAhead) {
+                        commit(progress, ahead.poll().get(), fmt.patientPerRecord());
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                ahead.add(submit(records, batch, recordNo, patientId, maxChars));
+            }
+            while (!ahead.isEmpty()) {
+                commit(progress, ahead.poll().get(), fmt.patientPerRecord());
+            }
+            imports.finish(imp.getId(), HistoryImport.Status.COMPLETED, null, Instant.now());
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(imp, progress, e);
+        } catch (ExecutionException e) {
+            fail(imp, progress, e.getCause() instanceof Exception cause ? cause : e);
+        } catch (IOException | RuntimeException e) {
+            fail(imp, progress, e);
+        } finally {
+            ahead.forEach(f -> f.cancel(true));
+        }
+
+        HistoryImport done = imports.findById(imp.getId()).orElse(imp);
+        return toDto(done, progress.reported);
+    }
+
+    private Future<ParsedChunk> submit(HistoryFormat.Records records, List<String> batch, long lastRecord,
+                                       String patientId, int maxChars) {
+        long first = lastRecord - batch.size() + 1;
+        return parser.submit(() -> parse(records, batch, first, patientId, maxChars));
+    }
+
+    // Runs on the parse pool; a null record was longer than maxChars
+    private static ParsedChunk parse(HistoryFormat.Records records, List<String> batch, long first,
+                                     String patientId, int maxChars) {
+        List<ParsedRow> rows = new ArrayList<>(batch.size());
+        List<HistoryLineError> errors = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            long recordNo = first + i;
+            String raw = batch.get(i);
+            if (raw == null) {
+                errors.add(new HistoryLineError(recordNo, "Record longer than " + maxChars + " characters"));
+                continue;
+            }
+            try {
+                List<MedicalHistory> entries = records.parse(raw, patientId);
+                if (patientId != null) {
+                    for (MedicalHistory entry : entries) {
+                        if (!patientId.equals(entry.getPatientId())) {
+                            throw new IllegalArgumentException("Record is for patient " + entry.getPatientId()
+                                    + ", not " + patientId);
+                        }
+                    }
+                }
+                for (MedicalHistory entry : entries) {
+                    rows.add(new ParsedRow(recordNo, entry));
+                }
+            } catch (IllegalArgumentException e) {
+                errors.add(new HistoryLineError(recordNo, e.getMessage()));
+            }
+        }
+        return new ParsedChunk(first + batch.size() - 1, rows, errors);
+    }
+
+    // Rows and progress of one chunk in one transaction. Bulk files name their
+    // own patients, which are checked with one lookup for the whole chunk.
+    private void commit(Progress p, ParsedChunk chunk, boolean checkPatients) {
+        List<HistoryLineError> errors = new ArrayList<>(chunk.errors());
+        tx.executeWithoutResult(status -> {
+            List<MedicalHistory> rows = checkPatients
+                    ? knownPatientRows(chunk.rows(), errors)
+                    : chunk.rows().stream().map(ParsedRow::entry).toList();
+            if (!rows.isEmpty()) writer.insertAll(rows);
+            imports.recordProgress(p.importId, chunk.lastRecord(), rows.size(), errors.size(), Instant.now());
+        });
+        p.committedLine = chunk.lastRecord();
+        errors.sort(Comparator.comparingLong(HistoryLineError::line));
+        errors.forEach(p::report);
+    }
+
+    private List<MedicalHistory> knownPatientRows(List<ParsedRow> rows, List<HistoryLineError> errors) {
+        if (rows.isEmpty()) return List.of();
+        Set<String> ids = new HashSet<>();
+        rows.forEach(r -> ids.add(r.entry().getPatientId()));
+        Set<String> known = new HashSet<>(patients.findExistingPatientIds(ids));
+
+        List<MedicalHistory> out = new ArrayList<>(rows.size());
+        long lastBad = 0;
+        for (ParsedRow r : rows) {
+            String id = r.entry().getPatientId();
+            if (known.contains(id)) {
+                out.add(r.entry());
+            } else if (r.recordNo() != lastBad) {
+                errors.add(new HistoryLineError(r.recordNo(), "Unknown patientId " + id));
+                lastBad = r.recordNo();
+            }
+        }
+        return out;
+    }
+
+    private void fail(HistoryImport imp, Progress progress, Exception e) {
+        log.warn("History import {} stopped after record {}", imp.getId(), progress.committedLine, e);
+        imports.finish(imp.getId(), HistoryImport.Status.FAILED, truncate(describe(e), 500), Instant.now());
+    }
+
+    HistoryFormat formatFor(String requested, String fileName) {
+        if (requested != null && !requested.isBlank()) {
+            HistoryFormat f = formats.get(requested.trim().toLowerCase(Locale.ROOT));
+            if (f == null) {
+                throw new IllegalArgumentException("Unknown format " + requested + ", expected one of " + formats.keySet());
+            }
+            return f;
+        }
+        String name = fileName != null ? fileName.toLowerCase(Locale.ROOT) : "";
+        for (HistoryFormat f : formats.values()) {
+            for (String ext : f.extensions()) {
+                if (name.endsWith(ext)) return f;
+            }
+        }
+        return formats.get(TextHistoryFormat.NAME);
+    }
+
+    private static HistoryImport newImport(String patientId, String fileName, HistoryFormat format) {
+        if (!format.patientPerRecord() && (patientId == null || patientId.isBlank())) {
+            throw new IllegalArgumentException("Missing patientId");
+        }
+        HistoryImport imp = new HistoryImport();
+        imp.setPatientId(patientId);
+        imp.setFileName(fileName);
+        imp.setFormat(format.name());
+        return imp;
+    }
+
+    private HistoryImport resume(Long importId, String patientId, String fileName, String format) {
+        HistoryImport imp = imports.findById(importId)
+                .orElseThrow(() -> new IllegalArgumentException("Import not found"));
+        if (!Objects.equals(imp.getPatientId(), patientId)) {
+            throw new IllegalArgumentException("Import belongs to another patient");
+        }
+        if (imp.getFileName() != null && fileName != null && !Objects.equals(imp.getFileName(), fileName)) {
+            throw new IllegalArgumentException("Resume with the same file (" + imp.getFileName() + ")");
+        }
+        if (format != null && !format.isBlank() && !format.trim().equalsIgnoreCase(imp.getFormat())) {
+            throw new IllegalArgumentException("Import was started as " + imp.getFormat());
+        }
+        if (imp.getStatus() == HistoryImport.Status.COMPLETED) {
+            return imp;
+        }
+
+        Instant now = Instant.now();
+        int claimed = imports.claim(importId, HistoryImport.Status.RUNNING, HistoryImport.Status.COMPLETED,
+                now, now.minus(staleAfter));
+        if (claimed == 0) {
+            throw new IllegalStateException("Import " + importId + " is already running");
+        }
+        // re-read: linesCommitted is where this attempt starts
+        return imports.findById(importId).orElseThrow();
+    }
+
+    private static HistoryImportDto toDto(HistoryImport i, List<HistoryLineError> errors) {
+        return new HistoryImportDto(
+                i.getId(),
+                i.getPatientId(),
+                i.getFileName(),
+                i.getFormat(),
+                i.getStatus().name(),
+                i.getLinesCommitted(),
+                i.getRowsImported(),
+                i.getErrorLines(),
+                i.getLastError(),
+                i.getCreatedAt(),
+                i.getUpdatedAt(),
+                errors
+        );
+    }
+
+    private static String describe(Exception e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+
+    private static String truncate(String s, int max) {
+        return s.length() > max ? s.substring(0, max) : s;
+    }
+
+    private record ParsedRow(long recordNo, MedicalHistory entry) {}
+
+    private record ParsedChunk(long lastRecord, List<ParsedRow> rows, List<HistoryLineError> errors) {}
+
+    // Per-request state: how far this attempt has committed and the errors to report back
+    private static final class Progress {
+        final Long importId;
+        final List<HistoryLineError> reported = new ArrayList<>();
+        long committedLine;
+
+        Progress(HistoryImport imp) {
+            this.importId = imp.getId();
+            this.committedLine = imp.getLinesCommitted();
+        }
+
+        void report(HistoryLineError error) {
+            if (reported.size() < MAX_REPORTED_ERRORS) {
+                reported.add(error);
+            }
+        }
+    }
+}
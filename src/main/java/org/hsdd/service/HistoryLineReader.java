@@ -0,0 +1,82 @@
+package org.hsdd.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+// Reads lines (\n, \r\n or \r) from a stream with a cap on line length:
+// characters past maxChars are dropped and truncated() is set, so one
+// enormous "line" can't pull the rest of the file into memory.
+// Skips a leading UTF-8 byte order mark. With csvQuotes, line breaks inside
+// double quotes belong to the record (RFC 4180 quoted fields).
+public final class HistoryLineReader implements Closeable {
+
+    private final Reader in;
+    private final int maxChars;
+    private final boolean csvQuotes;
+    private final char[] buf = new char[8192];
+    private final StringBuilder line = new StringBuilder();
+    private int pos;
+    private int len;
+    private boolean started;
+    private boolean truncated;
+
+    public HistoryLineReader(Reader in, int maxChars) {
+        this(in, maxChars, false);
+    }
+
+    public HistoryLineReader(Reader in, int maxChars, boolean csvQuotes) {
+        this.in = in;
+        this.maxChars = Math.max(1, maxChars);
+        this.csvQuotes = csvQuotes;
+    }
+
+    // Next line without its terminator, or null at end of input
+    public String readLine() throws IOException {
+        line.setLength(0);
+        truncated = false;
+        boolean any = false;
+        boolean quoted = false;   // an escaped "" toggles twice, so this still holds
+
+        while (fill()) {
+            char c = buf[pos++];
+            if (!started) {
+                started = true;
+                if (c == '\uFEFF') continue;
+            }
+            any = true;
+            if (csvQuotes && c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && c == '\n') {
+                return line.toString();
+            } else if (!quoted && c == '\r') {
+                if (fill() && buf[pos] == '\n') pos++;
+                return line.toString();
+            }
+            if (line.length() < maxChars) {
+                line.append(c);
+            } else {
+                truncated = true;
+            }
+        }
+        return any ? line.toString() : null;
+    }
+
+    // Whether the last line returned was cut at maxChars
+    public boolean truncated() {
+        return truncated;
+    }
+
+    private boolean fill() throws IOException {
+        if (pos < len) return true;
+        int n = in.read(buf);
+        pos = 0;
+        len = Math.max(n, 0);
+        return n > 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
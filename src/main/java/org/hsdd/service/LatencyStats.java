@@ -0,0 +1,91 @@
+package org.hsdd.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Recent p50/p99 latencies for the admin system-health page, read from the same
+// timers Prometheus scrapes. Percentiles cover the last couple of minutes
+// (Micrometer's decaying window); counts are since startup.
+@Component
+public class LatencyStats {
+
+    public record Latency(long count, double p50Ms, double p99Ms, double maxMs) {}
+
+    public record EndpointLatency(String method, String uri, long requests, long errors,
+                                  double p50Ms, double p99Ms) {}
+
+    public record Snapshot(Latency inference, Latency aiProvider, List<EndpointLatency> endpoints) {}
+
+    static final int MAX_ENDPOINTS = 20;
+
+    private final MeterRegistry meters;
+
+    public LatencyStats(MeterRegistry meters) {
+        this.meters = meters;
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(
+                latency(meters.find("hsdd.inference").timer()),
+                // failed calls end early and would make the provider look faster than it is
+                latency(meters.find("hsdd.ai.provider.latency")
+                        .tags("call", "single", "outcome", "success").timer()),
+                endpoints());
+    }
+
+    // Busiest endpoints first; percentiles from successful requests, errors counted separately
+    private List<EndpointLatency> endpoints() {
+        Map<String, List<Timer>> byEndpoint = new LinkedHashMap<>();
+        for (Timer t : meters.find("http.server.requests").timers()) {
+            String key = t.getId().getTag("method") + " " + t.getId().getTag("uri");
+            byEndpoint.computeIfAbsent(key, k -> new ArrayList<>()).add(t);
+        }
+
+        List<EndpointLatency> out = new ArrayList<>(byEndpoint.size());
+        for (List<Timer> timers : byEndpoint.values()) {
+            long requests = 0;
+            long errors = 0;
+            Timer success = null;
+            for (Timer t : timers) {
+                requests += t.count();
+                if ("SUCCESS".equals(t.getId().getTag("outcome"))) {
+                    success = t;
+                } else {
+                    errors += t.count();
+                }
+            }
+            Latency l = latency(success != null ? success : timers.get(0));
+            out.add(new EndpointLatency(
+                    timers.get(0).getId().getTag("method"), timers.get(0).getId().getTag("uri"),
+                    requests, errors, l.p50Ms(), l.p99Ms()));
+        }
+        out.sort(Comparator.comparingLong(EndpointLatency::requests).reversed());
+        return out.size() > MAX_ENDPOINTS ? List.copyOf(out.subList(0, MAX_ENDPOINTS)) : out;
+    }
+
+    static Latency latency(Timer timer) {
+        if (timer == null) return new Latency(0, 0, 0, 0);
+        HistogramSnapshot s = timer.takeSnapshot();
+        double p50 = 0;
+        double p99 = 0;
+        for (ValueAtPercentile v : s.percentileValues()) {
+            if (v.percentile() == 0.5) p50 = v.value(TimeUnit.MILLISECONDS);
+            else if (v.percentile() == 0.99) p99 = v.value(TimeUnit.MILLISECONDS);
+        }
+        return new Latency(timer.count(), round(p50), round(p99), round(s.max(TimeUnit.MILLISECONDS)));
+    }
+
+    private static double round(double ms) {
+        return Math.round(ms * 10) / 10.0;
+    }
+}
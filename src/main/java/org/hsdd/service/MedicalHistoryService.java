@@ -1,6 +1,7 @@
 
 package org.hsdd.service;
 
+import org.hsdd.dto.HistoryImportDto;
 import org.hsdd.model.MedicalHistory;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -9,7 +10,11 @@ import java.util.List;
 
 public interface MedicalHistoryService {
 
-    void uploadHistoryFile(String patientId, MultipartFile file) throws IOException;
+    // importId: resume that import instead of starting a new one;
+    // format: text, csv or fhir (null = by file extension)
+    HistoryImportDto uploadHistoryFile(String patientId, Long importId, String format, MultipartFile file) throws IOException;
+    HistoryImportDto startImport(String patientId, String fileName, String format);
+    HistoryImportDto getImport(Long importId);
     MedicalHistory save(MedicalHistory entry);
 
     List<MedicalHistory> listHistory(String patientId);
@@ -0,0 +1,43 @@
+package org.hsdd.service;
+
+import org.hsdd.model.MedicalHistory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Bulk insert path for medical history uploads. MedicalHistory keeps its
+// IDENTITY id, which makes Hibernate insert one row per round trip; a JDBC
+// batch (rewritten by the driver into multi-row INSERTs, see
+// rewriteBatchedStatements) writes the same rows in a few statements.
+// Ids are not read back: callers of the upload don't use them.
+@Component
+public class MedicalHistoryWriter {
+
+    // diagnosed_at comes from the column default
+    static final String INSERT_SQL =
+            "insert into medical_history (patient_id, title, details) values (?, ?, ?)";
+
+    private final JdbcTemplate jdbc;
+    private final int batchSize;
+
+    public MedicalHistoryWriter(JdbcTemplate jdbc,
+                                @Value("${hsdd.history.insert-batch-size:500}") int batchSize) {
+        this.jdbc = jdbc;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    // All rows or none, like saveAll; returns rows written
+    @Transactional
+    public int insertAll(List<MedicalHistory> entries) {
+        if (entries.isEmpty()) return 0;
+        jdbc.batchUpdate(INSERT_SQL, entries, batchSize, (ps, e) -> {
+            ps.setString(1, e.getPatientId());
+            ps.setString(2, e.getTitle());
+            ps.setString(3, e.getDetails());
+        });
+        return entries.size();
+    }
+}
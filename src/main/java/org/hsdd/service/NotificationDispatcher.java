@@ -0,0 +1,139 @@
+package org.hsdd.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hsdd.repo.NotificationRepository;
+import org.hsdd.repo.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Fans a low-confidence prediction out to every active doctor off the request
+// path: one batched insert per prediction, retried with backoff on failure,
+// then pushed to connected doctors over SSE.
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    static final String INSERT_SQL =
+            "insert into notifications (user_id, prediction_id, message, read_flag, created_at) values (?, ?, ?, false, ?)";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final PatientRepository patients;
+    private final DoctorRoster roster;
+    private final NotificationRepository notifications;
+    private final NotificationStream stream;
+    private final ScheduledThreadPoolExecutor executor;
+    private final DistributionSummary fanOutSize;
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final int queueCapacity;
+
+    public NotificationDispatcher(JdbcTemplate jdbc,
+                                  TransactionTemplate tx,
+                                  PatientRepository patients,
+                                  DoctorRoster roster,
+                                  NotificationRepository notifications,
+                                  NotificationStream stream,
+                                  @Qualifier("notificationExecutor") ScheduledThreadPoolExecutor executor,
+                                  MeterRegistry meters,
+                                  @Value("${hsdd.notifications.max-attempts:3}") int maxAttempts,
+                                  @Value("${hsdd.notifications.retry-backoff-ms:500}") long backoffMs,
+                                  @Value("${hsdd.notifications.queue-capacity:1000}") int queueCapacity) {
+        this.jdbc = jdbc;
+        this.tx = tx;
+        this.patients = patients;
+        this.roster = roster;
+        this.notifications = notifications;
+        this.stream = stream;
+        this.executor = executor;
+        this.fanOutSize = DistributionSummary.builder("hsdd.notifications.fanout")
+                .description("Doctors notified per low-confidence prediction")
+                .baseUnit("notifications")
+                .register(meters);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMs = backoffMs;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public void dispatch(Long predictionId, String patientId) {
+        // backlog full (DB down for a while?): do the work on the caller instead of growing without bound
+        if (executor.getQueue().size() >= queueCapacity) {
+            log.warn("Notification queue full, fanning out prediction {} synchronously", predictionId);
+            attempt(predictionId, patientId, maxAttempts);
+            return;
+        }
+        schedule(predictionId, patientId, 1, 0);
+    }
+
+    // Inserts one notification per active doctor in a single transaction; returns rows written
+    public int fanOut(Long predictionId, String patientId) {
+        List<Long> doctorIds = roster.doctorIds();
+        if (doctorIds.isEmpty()) return 0;
+
+        String fullName = patients.findByPatientId(patientId)
+                .map(p -> p.getFirstName() + " " + p.getLastName())
+                .orElse("Unknown Patient");
+        String message = "Low confidence prediction for " + fullName + " (ID " + patientId + ")";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        // all-or-nothing, so a retry never duplicates rows
+        tx.executeWithoutResult(status ->
+                jdbc.batchUpdate(INSERT_SQL, doctorIds, doctorIds.size(), (ps, doctorId) -> {
+                    ps.setLong(1, doctorId);
+                    ps.setLong(2, predictionId);
+                    ps.setString(3, message);
+                    ps.setTimestamp(4, now);
+                }));
+        fanOutSize.record(doctorIds.size());
+
+        // read the rows back (for their ids) only when someone is listening
+        if (stream.hasSubscribers()) {
+            try {
+                stream.publish(notifications.findRowsByPredictionId(predictionId));
+            } catch (Exception e) {
+                // rows are committed; clients catch up via ?sinceId on reconnect
+                log.warn("Could not push notifications for prediction {}", predictionId, e);
+            }
+        }
+        return doctorIds.size();
+    }
+
+    private void schedule(Long predictionId, String patientId, int attemptNo, long delayMs) {
+        try {
+            executor.schedule(() -> attempt(predictionId, patientId, attemptNo), delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // shutting down
+            log.warn("Dropped notifications for prediction {}: dispatcher stopped", predictionId);
+        }
+    }
+
+    private void attempt(Long predictionId, String patientId, int attemptNo) {
+        try {
+            fanOut(predictionId, patientId);
+        } catch (Exception e) {
+            if (attemptNo >= maxAttempts) {
+                log.error("Giving up on notifications for prediction {} after {} attempts",
+                        predictionId, attemptNo, e);
+                return;
+            }
+            long delay = backoffMs << (attemptNo - 1);
+            log.warn("Notification fan-out for prediction {} failed (attempt {}), retrying in {} ms",
+                    predictionId, attemptNo, delay);
+            schedule(predictionId, patientId, attemptNo + 1, delay);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.hsdd.service;
 
+import org.hsdd.dto.NotificationDto;
 import org.hsdd.value.Prediction;
 import org.hsdd.value.Notification;
 
@@ -11,5 +12,8 @@ public interface NotificationService {
 
     List<Notification> getUnreadNotifications(Long userId);
 
+    // sinceId = newest id the client already has, null for everything unread
+    List<NotificationDto> getUnread(Long userId, Long sinceId);
+
     void markAsRead(Long notificationId, Long userId);
 }
@@ -0,0 +1,245 @@
+package org.hsdd.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.hsdd.dto.NotificationDto;
+import org.hsdd.repo.NotificationRepository;
+import org.hsdd.repo.projection.NotificationRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+// Open SSE connections per doctor. NotificationDispatcher pushes new rows here;
+// on (re)connect the client's Last-Event-ID is used to replay what it missed.
+// Writes never happen on the caller: each connection has its own bounded
+// queue, drained by one task at a time on the sender executor, so a client
+// that reads slowly only delays its own events. One that falls a whole queue
+// behind is closed and catches up through the replay when it reconnects.
+@Component
+public class NotificationStream {
+
+    static final String EVENT_NAME = "notification";
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationStream.class);
+
+    private static final Supplier<SseEmitter.SseEventBuilder> PING = () -> SseEmitter.event().comment("ping");
+
+    private final NotificationRepository notifications;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Executor sender;
+    private final long timeoutMs;
+    private final long heartbeatMs;
+    private final int maxPerUser;
+    private final int queueCapacity;
+
+    private final Map<Long, Set<Connection>> connections = new ConcurrentHashMap<>();
+    private ScheduledFuture<?> heartbeat;
+
+    public NotificationStream(NotificationRepository notifications,
+                              @Qualifier("notificationExecutor") ScheduledThreadPoolExecutor scheduler,
+                              @Qualifier("sseSendExecutor") Executor sender,
+                              @Value("${hsdd.notifications.sse-timeout-ms:1800000}") long timeoutMs,
+                              @Value("${hsdd.notifications.sse-heartbeat-ms:25000}") long heartbeatMs,
+                              @Value("${hsdd.notifications.sse-max-per-user:5}") int maxPerUser,
+                              @Value("${hsdd.notifications.sse-queue-capacity:100}") int queueCapacity) {
+        this.notifications = notifications;
+        this.scheduler = scheduler;
+        this.sender = sender;
+        this.timeoutMs = timeoutMs;
+        this.heartbeatMs = heartbeatMs;
+        this.maxPerUser = maxPerUser;
+        this.queueCapacity = Math.max(1, queueCapacity);
+    }
+
+    // keeps proxies from closing idle streams and weeds out dead connections
+    @PostConstruct
+    public void start() {
+        heartbeat = scheduler.scheduleAtFixedRate(this::sendHeartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (heartbeat != null) heartbeat.cancel(false);
+        connections.values().forEach(set -> set.forEach(Connection::close));
+        connections.clear();
+    }
+
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        Connection conn = new Connection(userId, new SseEmitter(timeoutMs));
+        List<Connection> evicted = new ArrayList<>();
+
+        connections.compute(userId, (id, set) -> {
+            if (set == null) set = new CopyOnWriteArraySet<>();
+            // a user with many tabs open: drop the oldest connections
+            Iterator<Connection> it = set.iterator();
+            while (set.size() - evicted.size() >= maxPerUser && it.hasNext()) {
+                evicted.add(it.next());
+            }
+            set.removeAll(evicted);
+            set.add(conn);
+            return set;
+        });
+        evicted.forEach(Connection::close);
+
+        SseEmitter emitter = conn.emitter;
+        emitter.onCompletion(conn::finished);
+        emitter.onTimeout(conn::finished);
+        emitter.onError(e -> conn.finished());
+
+        // replay anything created while the client was away, oldest first; the
+        // emitter isn't returned yet, so these sends are only buffered
+        if (lastEventId != null) {
+            List<NotificationDto> missed = notifications.findUnread(userId, lastEventId);
+            for (int i = missed.size() - 1; i >= 0; i--) {
+                try {
+                    emitter.send(event(missed.get(i)));
+                } catch (IOException | IllegalStateException e) {
+                    conn.close();
+                    break;
+                }
+            }
+        }
+        return emitter;
+    }
+
+    public boolean hasSubscribers() {
+        return !connections.isEmpty();
+    }
+
+    // Queues the rows for their users' connections and returns; nothing is written here
+    public void publish(List<NotificationRow> rows) {
+        for (NotificationRow row : rows) {
+            Set<Connection> mine = connections.get(row.userId());
+            if (mine == null) continue;
+            NotificationDto dto = row.toDto();
+            for (Connection conn : mine) {
+                conn.enqueue(() -> event(dto));
+            }
+        }
+    }
+
+    int connectionCount(Long userId) {
+        Set<Connection> mine = connections.get(userId);
+        return mine == null ? 0 : mine.size();
+    }
+
+    private static SseEmitter.SseEventBuilder event(NotificationDto dto) {
+        return SseEmitter.event()
+                .id(String.valueOf(dto.id()))
+                .name(EVENT_NAME)
+                .data(dto);
+    }
+
+    private void sendHeartbeat() {
+        connections.values().forEach(set -> set.forEach(conn -> conn.enqueue(PING)));
+    }
+
+    private void remove(Connection conn) {
+        connections.computeIfPresent(conn.userId, (id, set) -> {
+            set.remove(conn);
+            return set.isEmpty() ? null : set;
+        });
+        log.debug("SSE connection closed for user {}", conn.userId);
+    }
+
+    // One stream and its pending events. The draining flag makes sure a single
+    // task writes to the emitter at a time, in queue order.
+    private final class Connection {
+
+        final Long userId;
+        final SseEmitter emitter;
+        private final BlockingQueue<Supplier<SseEmitter.SseEventBuilder>> pending;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+        private volatile boolean completed;
+
+        Connection(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        void enqueue(Supplier<SseEmitter.SseEventBuilder> event) {
+            if (closed) return;
+            if (!pending.offer(event)) {
+                log.debug("SSE client of user {} fell {} events behind, closing", userId, queueCapacity);
+                close();
+                return;
+            }
+            schedule();
+        }
+
+        // Completing takes the emitter's lock, which a blocked send holds, so
+        // it is left to the draining task rather than done on the caller
+        void close() {
+            closed = true;
+            remove(this);
+            schedule();
+        }
+
+        // the emitter is done (completed, timed out or broken); nothing left to complete
+        void finished() {
+            completed = true;
+            closed = true;
+            remove(this);
+        }
+
+        private void schedule() {
+            if (!draining.compareAndSet(false, true)) return;
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // shutting down: finish on this thread
+                drain();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                if (closed) {
+                    pending.clear();
+                    if (!completed) {
+                        completed = true;
+                        emitter.complete();
+                    }
+                    return;   // draining stays set, so nothing is written after this
+                }
+                Supplier<SseEmitter.SseEventBuilder> event = pending.poll();
+                if (event == null) {
+                    draining.set(false);
+                    // an event or close() may have come in after poll(); take over again unless another task has
+                    if ((pending.isEmpty() && !closed) || !draining.compareAndSet(false, true)) return;
+                    continue;
+                }
+                try {
+                    emitter.send(event.get());
+                } catch (IOException | IllegalStateException e) {
+                    // client went away
+                    closed = true;
+                    remove(this);
+                }
+            }
+        }
+    }
+}
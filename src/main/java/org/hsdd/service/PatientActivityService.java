@@ -0,0 +1,46 @@
+package org.hsdd.service;
+
+import org.hsdd.repo.PatientActivitySummaryRepository;
+import org.hsdd.value.Annotation;
+import org.hsdd.value.Prediction;
+import org.hsdd.value.SymptomEntry;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+// Keeps patient_activity_summary in step with symptom, prediction and
+// annotation writes. Each call joins the caller's transaction, so the
+// summary commits (or rolls back) together with the row it describes.
+@Service
+public class PatientActivityService {
+
+    private final PatientActivitySummaryRepository summaries;
+
+    public PatientActivityService(PatientActivitySummaryRepository summaries) {
+        this.summaries = summaries;
+    }
+
+    public void recordSymptom(SymptomEntry symptom) {
+        summaries.upsertSymptom(symptom.getPatientId(), symptom.getSubmittedAt());
+    }
+
+    public void recordPrediction(Prediction prediction) {
+        summaries.upsertPrediction(
+                prediction.getPatientId(),
+                prediction.getId(),
+                prediction.getLabel(),
+                prediction.getCreatedAt()
+        );
+    }
+
+    public void recordAnnotation(Annotation annotation) {
+        Prediction p = annotation.getPrediction();
+        summaries.updateNote(p.getPatientId(), p.getId(), annotation.getId(), annotation.getNotes());
+    }
+
+    // Drops and recomputes every row from predictions/symptoms/annotations
+    @Transactional
+    public int rebuild() {
+        summaries.deleteAllRows();
+        return summaries.insertFromHistory();
+    }
+}
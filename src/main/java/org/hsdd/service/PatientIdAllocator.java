@@ -0,0 +1,151 @@
+package org.hsdd.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Hands out 8-digit patient ids from memory. Each node reserves a block of
+// block-size counter values from the id_sequences row (locked for the length
+// of one short transaction), so nodes never get overlapping ranges. Counters
+// become ids through a keyed permutation of the 8-digit space, so ids don't
+// reveal signup order and neighbours of a known id are not other patients.
+// The key is a random value kept in id_sequences, the same on every node.
+// Ids already used by patients created before the sequence existed (random
+// ids) are skipped with one query per block. Unused counters of a block are
+// lost on restart; ids never repeat.
+@Component
+public class PatientIdAllocator {
+
+    record Block(long from, long to) {}   // counters [from, to)
+
+    static final String SEQUENCE = "patient_id";
+    static final String KEY = "patient_id_key";
+    static final long MAX_ID = 99_999_999L;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate reserveTx;
+    private final int blockSize;
+
+    private final ArrayDeque<String> free = new ArrayDeque<>();
+    private IdPermutation permutation;
+
+    public PatientIdAllocator(JdbcTemplate jdbc,
+                              PlatformTransactionManager txManager,
+                              @Value("${hsdd.patient-id.block-size:50}") int blockSize) {
+        this.jdbc = jdbc;
+        // own transaction: the row lock is released before the signup commits
+        this.reserveTx = new TransactionTemplate(txManager);
+        this.reserveTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    public synchronized String next() {
+        if (permutation == null) {
+            permutation = new IdPermutation(loadKey());
+        }
+        while (free.isEmpty()) {
+            refill(reserve());
+        }
+        return free.poll();
+    }
+
+    Block reserve() {
+        return reserveTx.execute(status -> {
+            Long next = lockSequence();
+            if (next == null) {
+                // first use on this database; another node may be doing the same
+                jdbc.update("insert ignore into id_sequences (name, next_value) values (?, 1)", SEQUENCE);
+                next = lockSequence();
+            }
+            if (next == null || next > MAX_ID) {
+                throw new IllegalStateException("Patient id space exhausted");
+            }
+            long to = Math.min(next + blockSize, MAX_ID + 1);
+            jdbc.update("update id_sequences set next_value = ? where name = ?", to, SEQUENCE);
+            return new Block(next, to);
+        });
+    }
+
+    private Long lockSequence() {
+        List<Long> rows = jdbc.queryForList(
+                "select next_value from id_sequences where name = ? for update", Long.class, SEQUENCE);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    // The first node to start picks the key; insert ignore keeps whichever came first
+    long loadKey() {
+        jdbc.update("insert ignore into id_sequences (name, next_value) values (?, ?)",
+                KEY, new SecureRandom().nextLong());
+        return jdbc.queryForObject("select next_value from id_sequences where name = ?", Long.class, KEY);
+    }
+
+    private void refill(Block block) {
+        List<String> ids = new ArrayList<>((int) (block.to() - block.from()));
+        for (long n = block.from(); n < block.to(); n++) {
+            ids.add(format(permutation.apply(n)));
+        }
+        String in = String.join(",", Collections.nCopies(ids.size(), "?"));
+        Set<String> taken = new HashSet<>(jdbc.queryForList(
+                "select patient_id from patients where patient_id in (" + in + ")", String.class, ids.toArray()));
+        for (String id : ids) {
+            if (!taken.contains(id)) free.add(id);
+        }
+    }
+
+    static String format(long n) {
+        return String.format("%08d", n);
+    }
+
+    // Balanced Feistel network over [0, 10^8) as two base-10^4 halves, with
+    // HMAC-SHA256 rounds: a bijection, so distinct counters give distinct ids
+    static final class IdPermutation {
+
+        private static final int HALF = 10_000;
+        private static final int ROUNDS = 4;
+
+        private final Mac mac;
+
+        IdPermutation(long key) {
+            try {
+                mac = Mac.getInstance("HmacSHA256");
+                mac.init(new SecretKeySpec(ByteBuffer.allocate(8).putLong(key).array(), "HmacSHA256"));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 unavailable", e);
+            }
+        }
+
+        long apply(long n) {
+            if (n < 0 || n > MAX_ID) {
+                throw new IllegalArgumentException("Not an 8-digit counter: " + n);
+            }
+            int left = (int) (n / HALF);
+            int right = (int) (n % HALF);
+            for (int round = 0; round < ROUNDS; round++) {
+                int mixed = (left + round(round, right)) % HALF;
+                left = right;
+                right = mixed;
+            }
+            return (long) left * HALF + right;
+        }
+
+        private int round(int round, int half) {
+            byte[] h = mac.doFinal(ByteBuffer.allocate(8).putInt(round).putInt(half).array());
+            return (ByteBuffer.wrap(h).getInt() & Integer.MAX_VALUE) % HALF;
+        }
+    }
+}
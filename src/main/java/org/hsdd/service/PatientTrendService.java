@@ -0,0 +1,108 @@
+package org.hsdd.service;
+
+import org.hsdd.dto.TrendBucketDto;
+import org.hsdd.dto.TrendDataDto;
+import org.hsdd.repo.PatientTrendRepository;
+import org.hsdd.value.Prediction;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+// Keeps patient_label_trend in step with prediction writes, like
+// PatientActivityService: PredictionServiceImpl runs the upsert in the
+// transaction that saves the prediction.
+@Service
+public class PatientTrendService {
+
+    public enum Bucket {
+        WEEK("W"),
+        MONTH("M");
+
+        final String code;
+
+        Bucket(String code) {
+            this.code = code;
+        }
+
+        LocalDate start(LocalDate day) {
+            return this == WEEK
+                    ? day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                    : day.withDayOfMonth(1);
+        }
+
+        // first bucket after the one holding the last day of [.., to)
+        LocalDate end(LocalDate to) {
+            LocalDate last = start(to.minusDays(1));
+            return this == WEEK ? last.plusWeeks(1) : last.plusMonths(1);
+        }
+
+        ChronoUnit unit() {
+            return this == WEEK ? ChronoUnit.WEEKS : ChronoUnit.MONTHS;
+        }
+
+        public static Bucket parse(String s) {
+            if ("week".equalsIgnoreCase(s)) return WEEK;
+            if ("month".equalsIgnoreCase(s)) return MONTH;
+            throw new IllegalArgumentException("bucket must be week or month");
+        }
+    }
+
+    // cap on histogram size per request
+    static final int MAX_BUCKETS = 260;
+
+    private final PatientTrendRepository trends;
+
+    public PatientTrendService(PatientTrendRepository trends) {
+        this.trends = trends;
+    }
+
+    public void recordPrediction(Prediction prediction) {
+        LocalDate day = prediction.getCreatedAt().toLocalDate();
+        trends.increment(
+                prediction.getPatientId(),
+                prediction.getLabel(),
+                day,
+                Bucket.WEEK.start(day),
+                Bucket.MONTH.start(day)
+        );
+    }
+
+    public List<TrendDataDto> totals(String patientId) {
+        return trends.findTotals(patientId);
+    }
+
+    // Label counts for exactly [from, to), summed from the day rows
+    public List<TrendDataDto> totals(String patientId, LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        return trends.findTotalsBetween(patientId, from, to);
+    }
+
+    // Histogram for [from, to), widened to whole buckets
+    public List<TrendBucketDto> histogram(String patientId, Bucket bucket, LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        LocalDate start = bucket.start(from);
+        LocalDate end = bucket.end(to);
+        if (bucket.unit().between(start, end) > MAX_BUCKETS) {
+            throw new IllegalArgumentException("Range too large: at most " + MAX_BUCKETS + " buckets");
+        }
+        return trends.findBuckets(patientId, bucket.code, start, end);
+    }
+
+    // Drops and recomputes every row from predictions
+    @Transactional
+    public int rebuild() {
+        trends.deleteAllRows();
+        return trends.insertFromHistory();
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+    }
+}
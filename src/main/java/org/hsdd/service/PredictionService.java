@@ -5,5 +5,10 @@ import org.hsdd.value.SymptomEntry;
 
 public interface PredictionService {
     // Infer (via stub) and persist, then return the saved Prediction entity
-    Prediction inferAndSave(SymptomEntry symptom, String actor, String ip);
+    default Prediction inferAndSave(SymptomEntry symptom, String actor, String ip) {
+        return inferAndSave(symptom, actor, ip, false);
+    }
+
+    // fresh = bypass the inference cache
+    Prediction inferAndSave(SymptomEntry symptom, String actor, String ip, boolean fresh);
 }
@@ -1,13 +1,25 @@
 package org.hsdd.service;
 
-import org.hsdd.dto.PredictionDto;
+import org.hsdd.dto.CursorPageDto;
 import org.hsdd.dto.PredictionWithAnnotationDto;
 import org.hsdd.dto.SymptomDto;
 
 import java.util.List;
 
 public interface RecordsService {
-    List<SymptomDto> listSymptoms(String patientId);
-    List<PredictionWithAnnotationDto> listPredictions(String patientId);
 
-}
\ No newline at end of file
+    int DEFAULT_PAGE = 200;
+    int MAX_PAGE = 1000;
+
+    // Newest first; before = nextCursor of the previous page ("<timestamp>_<id>"), null for the first
+    CursorPageDto<SymptomDto> listSymptoms(String patientId, String before, int limit);
+    CursorPageDto<PredictionWithAnnotationDto> listPredictions(String patientId, String before, int limit);
+
+    default List<SymptomDto> listSymptoms(String patientId) {
+        return listSymptoms(patientId, null, DEFAULT_PAGE).items();
+    }
+
+    default List<PredictionWithAnnotationDto> listPredictions(String patientId) {
+        return listPredictions(patientId, null, DEFAULT_PAGE).items();
+    }
+}
@@ -0,0 +1,138 @@
+package org.hsdd.service;
+
+import org.hsdd.dto.LowConfidenceDto;
+import org.hsdd.dto.PageDto;
+import org.hsdd.dto.ReviewItemDto;
+import org.hsdd.repo.ReviewQueueRepository;
+import org.hsdd.repo.projection.ReviewItemRow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Low-confidence predictions waiting for a doctor, read with one joined query.
+// A doctor claims a batch of the oldest items with an expiring lease so two
+// doctors don't review the same thing; an abandoned lease simply runs out.
+@Service
+public class ReviewQueueService {
+
+    private static final Sort OLDEST_FIRST = Sort.by("createdAt", "id");
+
+    private final ReviewQueueRepository queue;
+    private final double threshold;
+    private final Duration lease;
+    private final int maxClaim;
+
+    public ReviewQueueService(ReviewQueueRepository queue,
+                              @Value("${hsdd.review.confidence-threshold:0.55}") double threshold,
+                              @Value("${hsdd.review.lease-minutes:15}") long leaseMinutes,
+                              @Value("${hsdd.review.max-claim:25}") int maxClaim) {
+        this.queue = queue;
+        this.threshold = threshold;
+        this.lease = Duration.ofMinutes(leaseMinutes);
+        this.maxClaim = Math.max(1, maxClaim);
+    }
+
+    public PageDto<ReviewItemDto> page(int page, int size) {
+        LocalDateTime now = LocalDateTime.now();
+        Page<ReviewItemRow> rows = queue.findPending(threshold, PageRequest.of(page, size, OLDEST_FIRST));
+        return PageDto.of(rows, rows.getContent().stream().map(r -> toItem(r, now)).toList());
+    }
+
+    // Legacy unpaged lists behind /low-confidence and /flagged
+    public List<LowConfidenceDto> pending() {
+        LocalDateTime now = LocalDateTime.now();
+        return queue.findAllPending(threshold, OLDEST_FIRST).stream()
+                .map(r -> toLowConfidence(r, now))
+                .toList();
+    }
+
+    public List<LowConfidenceDto> allBelowThreshold() {
+        LocalDateTime now = LocalDateTime.now();
+        return queue.findAllBelow(threshold, OLDEST_FIRST).stream()
+                .map(r -> toLowConfidence(r, now))
+                .toList();
+    }
+
+    public LowConfidenceDto item(Long id) {
+        return queue.findItem(id)
+                .map(r -> toLowConfidence(r, LocalDateTime.now()))
+                .orElseThrow(() -> new RuntimeException("Prediction not found"));
+    }
+
+    // Claims up to count more items and returns everything this doctor now holds
+    @Transactional
+    public List<ReviewItemDto> claim(Long doctorId, int count) {
+        LocalDateTime now = LocalDateTime.now();
+        int n = Math.min(Math.max(count, 1), maxClaim);
+        queue.claim(doctorId, threshold, now, now.plus(lease), n);
+        return claimedBy(doctorId, now);
+    }
+
+    public List<ReviewItemDto> claimed(Long doctorId) {
+        return claimedBy(doctorId, LocalDateTime.now());
+    }
+
+    // Extends every live lease this doctor holds; expired ones are not revived
+    public int renew(Long doctorId) {
+        LocalDateTime now = LocalDateTime.now();
+        return queue.renew(doctorId, now, now.plus(lease));
+    }
+
+    // false if the doctor doesn't hold a live lease on it
+    public boolean release(Long predictionId, Long doctorId) {
+        return queue.release(predictionId, doctorId, LocalDateTime.now()) > 0;
+    }
+
+    private List<ReviewItemDto> claimedBy(Long doctorId, LocalDateTime now) {
+        return queue.findClaimedBy(doctorId, now).stream()
+                .map(r -> toItem(r, now))
+                .toList();
+    }
+
+    private ReviewItemDto toItem(ReviewItemRow r, LocalDateTime now) {
+        boolean leased = isLeased(r, now);
+        return new ReviewItemDto(
+                r.id(),
+                patientName(r),
+                r.patientId(),
+                r.label(),
+                r.confidence(),
+                r.createdAt(),
+                r.symptomDescription() != null ? r.symptomDescription() : "—",
+                leased ? r.claimedBy() : null,
+                leased ? r.leaseUntil() : null
+        );
+    }
+
+    private LowConfidenceDto toLowConfidence(ReviewItemRow r, LocalDateTime now) {
+        String status = r.reviewed() ? "Reviewed"
+                : isLeased(r, now) ? "In Review"
+                : "Pending Review";
+
+        return new LowConfidenceDto(
+                r.id(),
+                patientName(r),
+                r.patientId(),
+                r.label(),
+                r.confidence(),
+                r.createdAt(),
+                status,
+                r.symptomDescription() != null ? r.symptomDescription() : "—"
+        );
+    }
+
+    private static boolean isLeased(ReviewItemRow r, LocalDateTime now) {
+        return r.claimedBy() != null && r.leaseUntil() != null && r.leaseUntil().isAfter(now);
+    }
+
+    private static String patientName(ReviewItemRow r) {
+        return r.firstName() != null ? r.firstName() + " " + r.lastName() : "Unknown";
+    }
+}
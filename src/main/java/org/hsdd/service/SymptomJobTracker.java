@@ -0,0 +1,72 @@
+package org.hsdd.service;
+
+import org.hsdd.dto.PredictionDto;
+import org.hsdd.dto.SymptomDto;
+import org.hsdd.dto.SymptomJobDto;
+import org.hsdd.security.PatientAccess;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory status board for async symptom submissions.
+// Finished jobs are kept for a retention window so the client can poll the result.
+// Each job remembers who submitted it; only they (or staff) can read it back.
+@Component
+public class SymptomJobTracker {
+
+    public static final String PENDING = "PENDING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+
+    private record Job(SymptomJobDto dto, String owner) {}
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Duration retention;
+
+    public SymptomJobTracker(@Value("${hsdd.inference.job-retention-minutes:30}") long retentionMinutes) {
+        this.retention = Duration.ofMinutes(retentionMinutes);
+    }
+
+    public SymptomJobDto start(SymptomDto symptom, String owner) {
+        evictExpired();
+
+        String jobId = UUID.randomUUID().toString();
+        SymptomJobDto job = new SymptomJobDto(jobId, PENDING, symptom, null, null, Instant.now(), null);
+        jobs.put(jobId, new Job(job, owner));
+        return job;
+    }
+
+    public void complete(String jobId, PredictionDto prediction) {
+        jobs.computeIfPresent(jobId, (id, j) -> new Job(new SymptomJobDto(
+                id, DONE, j.dto().symptom(), prediction, null, j.dto().createdAt(), Instant.now()), j.owner()));
+    }
+
+    public void fail(String jobId, String error) {
+        jobs.computeIfPresent(jobId, (id, j) -> new Job(new SymptomJobDto(
+                id, FAILED, j.dto().symptom(), null, error, j.dto().createdAt(), Instant.now()), j.owner()));
+    }
+
+    public void remove(String jobId) {
+        jobs.remove(jobId);
+    }
+
+    // Someone else's job looks the same as a missing one
+    public Optional<SymptomJobDto> find(String jobId, Principal requester) {
+        return Optional.ofNullable(jobs.get(jobId))
+                .filter(j -> PatientAccess.isStaff(requester)
+                        || (requester != null && requester.getName().equals(j.owner())))
+                .map(Job::dto);
+    }
+
+    private void evictExpired() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(j -> j.dto().completedAt() != null && j.dto().completedAt().isBefore(cutoff));
+    }
+}
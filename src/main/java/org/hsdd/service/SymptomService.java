@@ -2,7 +2,17 @@ package org.hsdd.service;
 
 import org.hsdd.dto.SubmitSymptomRequest;
 import org.hsdd.dto.SubmitSymptomResponse;
+import org.hsdd.dto.SymptomJobDto;
+
+import java.security.Principal;
+import java.util.Optional;
 
 public interface SymptomService {
     SubmitSymptomResponse submit(SubmitSymptomRequest req, String actor, String ip);
+
+    // Saves the symptom and runs inference in the background; poll with getJob
+    SymptomJobDto submitAsync(SubmitSymptomRequest req, String actor, String ip);
+
+    // Empty unless the requester submitted the job or is a doctor/admin
+    Optional<SymptomJobDto> getJob(String jobId, Principal requester);
 }
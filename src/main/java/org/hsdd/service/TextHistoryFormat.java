@@ -0,0 +1,73 @@
+package org.hsdd.service;
+
+import org.hsdd.model.MedicalHistory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+// The original upload format: one "title: details" line per entry for the
+// uploading patient. A line without a colon is used as both (title cut to 100 chars).
+@Component
+public class TextHistoryFormat implements HistoryFormat {
+
+    public static final String NAME = "text";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public List<String> extensions() {
+        return List.of(".txt");
+    }
+
+    @Override
+    public boolean patientPerRecord() {
+        return false;
+    }
+
+    @Override
+    public Records open(Reader in, int maxRecordChars) {
+        HistoryLineReader lines = new HistoryLineReader(in, maxRecordChars);
+        return new Records() {
+            @Override
+            public String next() throws IOException {
+                return lines.readLine();
+            }
+
+            @Override
+            public boolean truncated() {
+                return lines.truncated();
+            }
+
+            @Override
+            public List<MedicalHistory> parse(String record, String patientId) {
+                return parseLine(record, patientId);
+            }
+
+            @Override
+            public void close() throws IOException {
+                lines.close();
+            }
+        };
+    }
+
+    static List<MedicalHistory> parseLine(String rawLine, String patientId) {
+        String line = rawLine.trim();
+        if (line.isEmpty()) return List.of();
+
+        int colon = line.indexOf(':');
+        if (colon < 0) {
+            String title = line.length() > MAX_TITLE ? line.substring(0, MAX_TITLE) : line;
+            return List.of(HistoryFormat.row(patientId, title, line));
+        }
+        String title = line.substring(0, colon).trim();
+        if (title.isEmpty()) {
+            throw new IllegalArgumentException("Missing title before ':'");
+        }
+        return List.of(HistoryFormat.row(patientId, title, line.substring(colon + 1).trim()));
+    }
+}
@@ -4,31 +4,45 @@ import org.hsdd.dto.SignupRequest;
 import org.hsdd.model.Patient;
 import org.hsdd.model.User;
 import org.hsdd.repo.*;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.hsdd.security.PasswordHasher;
+import org.hsdd.security.PrincipalCache;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.JpaSort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.hsdd.dto.AdminUserDto;
 import org.hsdd.dto.CreateUserRequest;
+import org.hsdd.dto.PageDto;
 import java.time.Instant;
 import org.hsdd.dto.UpdateUserRequest;
-import java.util.List;
 
 import java.time.LocalDate;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Locale;
 
 @Service
 public class UserService {
     private final UserRepository users;
     private final PatientRepository patients;
-    private final PasswordEncoder encoder;
+    private final PasswordHasher hasher;
     private final AuditService audit;              // <-- NEW
+    private final PrincipalCache principals;
+    private final DoctorRoster doctors;
+    private final PatientIdAllocator patientIds;
 
     public UserService(UserRepository u, PatientRepository p,
-                       PasswordEncoder e, AuditService audit) {  // <-- NEW
+                       PasswordHasher h, AuditService audit,
+                       PrincipalCache principals, DoctorRoster doctors,
+                       PatientIdAllocator patientIds) {  // <-- NEW
         this.users = u;
         this.patients = p;
-        this.encoder = e;
+        this.hasher = h;
         this.audit = audit;
+        this.principals = principals;
+        this.doctors = doctors;
+        this.patientIds = patientIds;
     }
 
     @Transactional
@@ -39,13 +53,13 @@ public class UserService {
         User u = new User();
         u.setUsername(req.username());
         u.setEmail(req.email());
-        u.setPasswordHash(encoder.encode(req.password()));
+        u.setPasswordHash(hasher.encode(req.password()));
         u.setRole("patient");          // 🔹 ensure role is set
-        users.save(u);
+        saveNewUser(u);
 
         Patient p = new Patient();
         p.setUser(u);
-        p.setPatientId(generateUniquePatientId());
+        p.setPatientId(patientIds.next());
         p.setFirstName(req.firstName());
         p.setLastName(req.lastName());
         if (req.dateOfBirth() != null && !req.dateOfBirth().isBlank()) {
@@ -70,17 +84,18 @@ public class UserService {
         User u = new User();
         u.setUsername(req.username());
         u.setEmail(req.email());
-        u.setPasswordHash(encoder.encode(req.password()));
+        u.setPasswordHash(hasher.encode(req.password()));
         u.setRole(req.role().toLowerCase());  // "patient", "doctor", "admin"
         u.setCreatedAt(Instant.now());
         u.setActive(true);
-        users.save(u);
+        saveNewUser(u);
+        doctors.invalidate();
 
         Patient p = null;
         if ("patient".equals(u.getRole())) {
             p = new Patient();
             p.setUser(u);
-            p.setPatientId(generateUniquePatientId());
+            p.setPatientId(patientIds.next());
             p.setFirstName(req.firstName());
             p.setLastName(req.lastName());
             if (req.dateOfBirth() != null && !req.dateOfBirth().isBlank()) {
@@ -106,7 +121,7 @@ public class UserService {
             u.setEmail(req.email());
         }
         if (req.password() != null) {
-            u.setPasswordHash(encoder.encode(req.password()));
+            u.setPasswordHash(hasher.encode(req.password()));
         }
         if (req.role() != null) {
             u.setRole(req.role().toLowerCase());
@@ -115,6 +130,8 @@ public class UserService {
             u.setActive(req.active());
         }
         users.save(u);
+        principals.invalidate(userId);
+        doctors.invalidate();
 
         if (patient != null) {
             if (req.firstName() != null) patient.setFirstName(req.firstName());
@@ -137,6 +154,8 @@ public class UserService {
 
         u.setActive(false);
         users.save(u);
+        principals.invalidate(userId);
+        doctors.invalidate();
 
         audit.log(actor, "ADMIN_DEACTIVATE_USER", "userId=" + userId);
     }
@@ -156,6 +175,8 @@ public class UserService {
 
         user.setActive(true);
         users.save(user);
+        principals.invalidate(userId);
+        doctors.invalidate();
 
         // Log Reactivation (correct 3-arg signature)
         audit.log(actor, "ADMIN_REACTIVATE_USER", "userId=" + userId);
@@ -166,29 +187,51 @@ public class UserService {
 
 
 
-    public List<AdminUserDto> getAllUsers() {
-        return users.findAll().stream()
-                .map(u -> {
-                    Patient p = patients.findByUser(u).orElse(null);
-                    return toAdminDto(u, p);
-                })
-                .toList();
+    // One joined query for the page plus a join-free count; null filters are ignored.
+    // sort = id | username | email | role | createdAt | name, direction = asc | desc
+    public PageDto<AdminUserDto> getUsers(String role, Boolean active, String q,
+                                          int page, int size, String sort, String direction) {
+        String roleFilter = role == null || role.isBlank() ? null : role.trim().toLowerCase(Locale.ROOT);
+        String prefix = q == null || q.isBlank() ? null : escapeLike(q.trim()) + "%";
+
+        Page<AdminUserDto> rows = users.findAdminRows(roleFilter, active, prefix,
+                PageRequest.of(page, size, userSort(sort, direction)));
+        return PageDto.of(rows, rows.getContent());
     }
 
     public AdminUserDto getUser(Long id) {
-        User u = users.findById(id)
+        return users.findAdminRow(id)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    }
 
-        Patient p = patients.findByUser(u).orElse(null);
+    private Sort userSort(String sort, String direction) {
+        Sort.Direction dir = "desc".equalsIgnoreCase(direction)
+                ? Sort.Direction.DESC
+                : Sort.Direction.ASC;
+
+        Sort byId = Sort.by(dir, "id");
+        if (sort == null) return byId;
+        return switch (sort) {
+            case "username", "email", "role", "createdAt" -> Sort.by(dir, sort).and(byId);
+            // staff have no patient row; MySQL puts their nulls first ascending
+            case "name" -> JpaSort.unsafe(dir, "pt.lastName", "pt.firstName").and(byId);
+            default -> byId;
+        };
+    }
 
-        return toAdminDto(u, p);
+    // a typed % or _ matches itself (MySQL's default LIKE escape is \)
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
 
 
-    private String generateUniquePatientId() {
-        while (true) {
-            String id = String.format("%08d", ThreadLocalRandom.current().nextInt(0, 100_000_000));
-            if (!patients.existsByPatientId(id)) return id;
+    // The exists checks above are only a fast path: two concurrent signups can
+    // both pass them, and then the unique keys decide (IDENTITY inserts right away)
+    private void saveNewUser(User u) {
+        try {
+            users.save(u);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Username or email already exists");
         }
     }
     private AdminUserDto toAdminDto(User user, Patient patient) {
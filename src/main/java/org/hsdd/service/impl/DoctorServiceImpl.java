@@ -5,21 +5,36 @@ import org.hsdd.dto.*;
 import org.hsdd.value.Annotation;
 import org.hsdd.model.IssueReport;
 import org.hsdd.value.Prediction;
-import org.hsdd.value.SymptomEntry;
 import org.hsdd.repo.*;
+import org.hsdd.repo.projection.PatientActivityRow;
+import org.hsdd.repo.projection.ReportRow;
 import org.hsdd.service.AuditService;
 import org.hsdd.service.DoctorService;
+import org.hsdd.service.PatientActivityService;
+import org.hsdd.service.PatientTrendService;
+import org.hsdd.service.ReviewQueueService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.JpaSort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Period;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
 public class DoctorServiceImpl implements DoctorService {
 
+    // rows per export query
+    static final int EXPORT_BATCH_SIZE = 1000;
+
     private final AnnotationRepository annotations;
     private final IssueReportRepository issues;
     private final PredictionRepository predictions;
@@ -27,6 +42,9 @@ public class DoctorServiceImpl implements DoctorService {
     private final PatientRepository patients;
     private final SymptomRepository symptoms;
     private final AuditService audit;
+    private final PatientActivityService activity;
+    private final PatientTrendService trends;
+    private final ReviewQueueService reviewQueue;
 
     public DoctorServiceImpl(
             AnnotationRepository annotations,
@@ -35,7 +53,10 @@ public class DoctorServiceImpl implements DoctorService {
             UserRepository users,
             PatientRepository patients,
             SymptomRepository symptoms,
-            AuditService audit
+            AuditService audit,
+            PatientActivityService activity,
+            PatientTrendService trends,
+            ReviewQueueService reviewQueue
     ) {
         this.annotations = annotations;
         this.issues = issues;
@@ -44,6 +65,9 @@ public class DoctorServiceImpl implements DoctorService {
         this.patients = patients;
         this.symptoms = symptoms;
         this.audit = audit;
+        this.activity = activity;
+        this.trends = trends;
+        this.reviewQueue = reviewQueue;
     }
 
     // ------------------------------------
@@ -59,6 +83,7 @@ public class DoctorServiceImpl implements DoctorService {
     }
 
     @Override
+    @Transactional
     public AnnotationDto createAnnotation(CreateAnnotationRequest req, String doctorUsername) {
         User doctor = users.findByUsername(doctorUsername)
                 .orElseThrow(() -> new RuntimeException("Doctor not found"));
@@ -73,6 +98,7 @@ public class DoctorServiceImpl implements DoctorService {
         a.setCorrectedLabel(req.correctedLabel());
 
         annotations.save(a);
+        activity.recordAnnotation(a);
 
         audit.log(doctorUsername, "DOCTOR_CREATE_ANNOTATION",
                 "predictionId=" + req.predictionId());
@@ -81,6 +107,7 @@ public class DoctorServiceImpl implements DoctorService {
     }
 
     @Override
+    @Transactional
     public AnnotationDto updateAnnotation(Long annotationId, UpdateAnnotationRequest req, String doctorUsername) {
         Annotation a = annotations.findById(annotationId)
                 .orElseThrow(() -> new RuntimeException("Annotation not found"));
@@ -92,6 +119,7 @@ public class DoctorServiceImpl implements DoctorService {
         a.setNotes(req.notes());
         a.setCorrectedLabel(req.correctedLabel());
         annotations.save(a);
+        activity.recordAnnotation(a);
 
         audit.log(doctorUsername, "DOCTOR_UPDATE_ANNOTATION",
                 "annotationId=" + annotationId);
@@ -145,16 +173,50 @@ public class DoctorServiceImpl implements DoctorService {
                 .toList();
     }
 
+    // Served from patient_label_trend, maintained on every saved prediction
     @Override
     public List<TrendDataDto> getPatientTrends(String patientId) {
-        return predictions.findByPatientIdOrderByCreatedAtDesc(patientId)
-                .stream()
-                .collect(java.util.stream.Collectors.groupingBy(Prediction::getLabel,
-                        java.util.stream.Collectors.counting()))
-                .entrySet()
-                .stream()
+        return trends.totals(patientId);
+    }
+
+    @Override
+    public List<TrendDataDto> getPatientTrends(String patientId, LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            return trends.totals(patientId);
+        }
+        LocalDate end = to != null ? to : LocalDate.now().plusDays(1);
+        LocalDate start = from != null ? from : LocalDate.EPOCH;
+        return trends.totals(patientId, start, end);
+    }
+
+    @Override
+    public List<TrendBucketDto> getPatientTrendHistogram(String patientId, String bucket, LocalDate from, LocalDate to) {
+        PatientTrendService.Bucket b = PatientTrendService.Bucket.parse(bucket);
+        LocalDate end = to != null ? to : LocalDate.now().plusDays(1);
+        LocalDate start = from != null ? from
+                : (b == PatientTrendService.Bucket.WEEK ? end.minusWeeks(12) : end.minusMonths(12));
+        return trends.histogram(patientId, b, start, end);
+    }
+
+    @Override
+    public PatientFullRecordDto getPatientRecord(String patientId) {
+        List<Prediction> rows = predictions.findByPatientIdOrderByCreatedAtDesc(patientId);
+
+        // both sections from the same rows, so they always agree
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Prediction p : rows) {
+            counts.merge(p.getLabel(), 1L, Long::sum);
+        }
+        List<TrendDataDto> totals = counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
                 .map(e -> new TrendDataDto(e.getKey(), e.getValue()))
                 .toList();
+
+        return new PatientFullRecordDto(
+                patientId,
+                rows.stream().map(this::toPredictionDto).toList(),
+                totals
+        );
     }
 
     // ------------------------------------
@@ -162,65 +224,52 @@ public class DoctorServiceImpl implements DoctorService {
     // ------------------------------------
 
     @Override
-    public List<RecentPatientDto> getRecentPatients() {
-
-        return patients.findAll().stream().map(p -> {
-
-                    // fetch last symptom or prediction timestamps
-                    LocalDateTime lastSymptom = symptoms
-                            .findTop1ByPatientIdOrderBySubmittedAtDesc(p.getPatientId())
-                            .map(SymptomEntry::getSubmittedAt)
-                            .orElse(null);
-
-                    Prediction lastPredictionEntity = predictions
-                            .findTop1ByPatientIdOrderByCreatedAtDesc(p.getPatientId())
-                            .orElse(null);
-
-                    LocalDateTime lastPredictionTime =
-                            lastPredictionEntity != null ? lastPredictionEntity.getCreatedAt() : null;
-
-                    LocalDateTime lastVisit = latest(lastSymptom, lastPredictionTime);
-
-                    String lastDiagnosis =
-                            lastPredictionEntity != null ? lastPredictionEntity.getLabel() : "No diagnosis yet";
-
-                    // ⭐ NEW: fetch latest annotation notes if exists
-                    String doctorNotes = "—";
-                    if (lastPredictionEntity != null) {
-                        var latestAnnotation = annotations
-                                .findTop1ByPredictionIdOrderByCreatedAtDesc(lastPredictionEntity.getId());
-
-                        if (latestAnnotation.isPresent()) {
-                            doctorNotes = latestAnnotation.get().getNotes();
-                        }
-                    }
-
-                    return new RecentPatientDto(
-                            p.getPatientId(),
-                            p.getFirstName() + " " + p.getLastName(),
-                            calculateAge(p.getDateOfBirth()),
-                            lastVisit,
-                            lastDiagnosis,
-                            doctorNotes
-                    );
-                })
-                .sorted((a, b) -> {
-                    if (a.lastVisit() == null && b.lastVisit() == null) return 0;
-                    if (a.lastVisit() == null) return 1;
-                    if (b.lastVisit() == null) return -1;
-                    return b.lastVisit().compareTo(a.lastVisit());
-                })
-                .toList();
+    public PageDto<RecentPatientDto> getRecentPatients(int page, int size) {
+
+        Page<PatientActivityRow> rows =
+                patients.findRecentActivityRows(PageRequest.of(page, size));
+
+        return PageDto.of(rows, rows.getContent().stream().map(this::toRecentPatientDto).toList());
     }
 
+    @Override
+    public PageDto<RecentPatientDto> getAllPatients(int page, int size, String sort, String direction) {
+
+        Page<PatientActivityRow> rows =
+                patients.findActivityRows(PageRequest.of(page, size, patientSort(sort, direction)));
 
+        return PageDto.of(rows, rows.getContent().stream().map(this::toRecentPatientDto).toList());
+    }
 
-    private LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
-        if (a == null) return b;
-        if (b == null) return a;
-        return a.isAfter(b) ? a : b;
+    // Everything comes pre-computed from patient_activity_summary
+    private RecentPatientDto toRecentPatientDto(PatientActivityRow p) {
+        return new RecentPatientDto(
+                p.patientId(),
+                p.firstName() + " " + p.lastName(),
+                calculateAge(p.dateOfBirth()),
+                p.lastVisit(),
+                p.lastDiagnosis() != null ? p.lastDiagnosis() : "No diagnosis yet",
+                p.lastNote() != null ? p.lastNote() : "—"
+        );
     }
 
+    // sort = "lastVisit" | "name" | "patientId", direction = "asc" | "desc"
+    private Sort patientSort(String sort, String direction) {
+        Sort.Direction dir = "desc".equalsIgnoreCase(direction)
+                ? Sort.Direction.DESC
+                : Sort.Direction.ASC;
+
+        if ("lastVisit".equals(sort)) {
+            return JpaSort.unsafe(dir, "a.lastVisit").and(Sort.by("patientId"));
+        }
+        if ("patientId".equals(sort)) {
+            return Sort.by(dir, "patientId");
+        }
+        return Sort.by(dir, "lastName", "firstName", "patientId");
+    }
+
+
+
     private Integer calculateAge(LocalDate dob) {
         if (dob == null) return null;
         return Period.between(dob, LocalDate.now()).getYears();
@@ -230,61 +279,41 @@ public class DoctorServiceImpl implements DoctorService {
     // LOW CONFIDENCE REPORTS
     // ------------------------------------
 
+    // One joined query each (patient name + symptom text), see ReviewQueueService
     @Override
     public List<LowConfidenceDto> getLowConfidenceReports() {
-        return predictions.findByConfidenceLessThanAndReviewedFalse(0.55)
-                .stream()
-                .map(p -> {
-                    String patientName = patients.findByPatientId(p.getPatientId())
-                            .map(pp -> pp.getFirstName() + " " + pp.getLastName())
-                            .orElse("Unknown");
-
-                    SymptomEntry s = symptoms.findById(p.getSymptomId()).orElse(null);
-                    String symptomText = (s != null) ? s.getDescription() : "—";
-
-                    return new LowConfidenceDto(
-                            p.getId(),
-                            patientName,
-                            p.getPatientId(),
-                            p.getLabel(),
-                            p.getConfidence(),
-                            p.getCreatedAt(),
-                            "Pending Review",       // <-- EXACTLY LIKE ORIGINAL
-                            symptomText
-                    );
-                })
-                .toList();
+        return reviewQueue.pending();
     }
 
-
-
-
-
     @Override
     public LowConfidenceDto getLowConfidenceReport(Long id) {
-        Prediction p = predictions.findById(id)
-                .orElseThrow(() -> new RuntimeException("Prediction not found"));
+        return reviewQueue.item(id);
+    }
 
-        String patientName = patients.findByPatientId(p.getPatientId())
-                .map(pp -> pp.getFirstName() + " " + pp.getLastName())
-                .orElse("Unknown");
+    @Override
+    public PageDto<ReviewItemDto> getReviewQueue(int page, int size) {
+        return reviewQueue.page(page, size);
+    }
 
-        SymptomEntry s = symptoms.findById(p.getSymptomId()).orElse(null);
-        String symptomText = (s != null) ? s.getDescription() : "—";
+    @Override
+    public List<ReviewItemDto> claimReviews(Long doctorId, int count) {
+        return reviewQueue.claim(doctorId, count);
+    }
 
-        return new LowConfidenceDto(
-                p.getId(),
-                patientName,
-                p.getPatientId(),
-                p.getLabel(),
-                p.getConfidence(),
-                p.getCreatedAt(),
-                p.isReviewed() ? "Reviewed" : "Pending Review",
-                symptomText
-        );
+    @Override
+    public List<ReviewItemDto> getClaimedReviews(Long doctorId) {
+        return reviewQueue.claimed(doctorId);
     }
 
+    @Override
+    public int renewReviewClaims(Long doctorId) {
+        return reviewQueue.renew(doctorId);
+    }
 
+    @Override
+    public boolean releaseReviewClaim(Long predictionId, Long doctorId) {
+        return reviewQueue.release(predictionId, doctorId);
+    }
 
     @Override
     @Transactional
@@ -292,6 +321,14 @@ public class DoctorServiceImpl implements DoctorService {
         Prediction p = predictions.findById(id)
                 .orElseThrow(() -> new RuntimeException("Prediction not found"));
 
+        // only look the doctor up when someone holds a live lease
+        if (p.isLeasedAt(LocalDateTime.now())) {
+            Long doctorId = users.findByUsername(doctorUsername).map(User::getId).orElse(null);
+            if (!p.getClaimedBy().equals(doctorId)) {
+                throw new IllegalStateException("Prediction is being reviewed by another doctor");
+            }
+        }
+
         p.setReviewed(true);
 
         // persist the change
@@ -312,100 +349,104 @@ public class DoctorServiceImpl implements DoctorService {
     // ------------------------------------
 
     @Override
-    public List<AllReportDto> getAllReports() {
-        return predictions.findAll().stream()
-                .map(p -> {
-
-                    // lookup patient by patientId
-                    String patientName = patients.findByPatientId(p.getPatientId())
-                            .map(pp -> pp.getFirstName() + " " + pp.getLastName())
-                            .orElse("Unknown");
-
-                    return new AllReportDto(
-                            p.getId(),
-                            patientName,
-                            p.getPatientId(),
-                            p.getLabel(),
-                            p.getConfidence(),
-                            p.getCreatedAt().atZone(java.time.ZoneId.systemDefault()).toInstant(),
-                            "Dr. Carter"   // placeholder until doctor info is added
-                    );
-                })
-                .toList();
+    public PageDto<AllReportDto> getReports(ReportFilter filter, int page, int size, String sort, String direction) {
+        ReportFilter f = ReportFilter.checked(filter);
+        Page<ReportRow> rows = predictions.findReportRows(
+                f.label(), f.minConfidence(), f.maxConfidence(), f.reviewed(),
+                startOf(f.from()), startOf(f.to()), f.patientId(),
+                PageRequest.of(page, size, reportSort(sort, direction)));
+
+        return PageDto.of(rows, rows.getContent().stream().map(this::toAllReportDto).toList());
     }
 
+    // No transaction: each batch is its own short query, so no connection or
+    // cursor is held between batches while the client downloads
+    @Override
+    public void streamReports(ReportFilter filter, String sort, String direction, Consumer<AllReportDto> sink) {
+        ReportFilter f = ReportFilter.checked(filter);
+        boolean descending = !"asc".equalsIgnoreCase(direction);
+        Pageable batch = PageRequest.of(0, EXPORT_BATCH_SIZE, reportSort(sort, direction));
+
+        ReportRow last = null;
+        List<ReportRow> rows;
+        do {
+            rows = exportBatch(f, sort, descending, last, batch);
+            rows.stream().map(this::toAllReportDto).forEach(sink);
+            if (!rows.isEmpty()) last = rows.get(rows.size() - 1);
+        } while (rows.size() == EXPORT_BATCH_SIZE);
+    }
+
+    // the next batch in the same order as reportSort, after the given row
+    private List<ReportRow> exportBatch(ReportFilter f, String sort, boolean descending, ReportRow after, Pageable batch) {
+        LocalDateTime from = startOf(f.from());
+        LocalDateTime to = startOf(f.to());
+        Long afterId = after != null ? after.id() : null;
+        LocalDateTime afterTime = after != null ? after.createdAt() : null;
+
+        if ("confidence".equals(sort)) {
+            return predictions.findReportBatchByConfidence(
+                    f.label(), f.minConfidence(), f.maxConfidence(), f.reviewed(), from, to, f.patientId(),
+                    descending, after != null ? after.confidence() : null, afterId, batch);
+        }
+        if ("label".equals(sort)) {
+            return predictions.findReportBatchByLabel(
+                    f.label(), f.minConfidence(), f.maxConfidence(), f.reviewed(), from, to, f.patientId(),
+                    descending, after != null ? after.label() : null, afterTime, afterId, batch);
+        }
+        return predictions.findReportBatchByDate(
+                f.label(), f.minConfidence(), f.maxConfidence(), f.reviewed(), from, to, f.patientId(),
+                descending, afterTime, afterId, batch);
+    }
 
     @Override
-    public List<LowConfidenceDto> getAllLowConfidenceReports() {
-        return predictions.findByConfidenceLessThan(0.55)
-                .stream()
-                .map(p -> {
-                    String patientName = patients.findByPatientId(p.getPatientId())
-                            .map(pp -> pp.getFirstName() + " " + pp.getLastName())
-                            .orElse("Unknown");
-
-                    SymptomEntry s = symptoms.findById(p.getSymptomId()).orElse(null);
-                    String symptomText = (s != null) ? s.getDescription() : "—";
-
-                    return new LowConfidenceDto(
-                            p.getId(),
-                            patientName,
-                            p.getPatientId(),
-                            p.getLabel(),
-                            p.getConfidence(),
-                            p.getCreatedAt(),
-                            p.isReviewed() ? "Reviewed" : "Pending Review",
-                            symptomText
-                    );
-                })
-                .toList();
+    public AllReportDto getReport(Long id) {
+        return predictions.findReportRow(id)
+                .map(this::toAllReportDto)
+                .orElseThrow(() -> new RuntimeException("Prediction not found"));
+    }
+
+    private static LocalDateTime startOf(LocalDate day) {
+        return day != null ? day.atStartOfDay() : null;
+    }
+
+    // sort = "date" | "confidence" | "label"; id breaks ties so pages never overlap
+    private Sort reportSort(String sort, String direction) {
+        Sort.Direction dir = "asc".equalsIgnoreCase(direction)
+                ? Sort.Direction.ASC
+                : Sort.Direction.DESC;
+
+        if ("confidence".equals(sort)) {
+            return Sort.by(dir, "confidence", "id");
+        }
+        if ("label".equals(sort)) {
+            return Sort.by(dir, "label").and(Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+        }
+        return Sort.by(dir, "createdAt", "id");
+    }
+
+    private AllReportDto toAllReportDto(ReportRow r) {
+        String patientName = r.firstName() != null
+                ? r.firstName() + " " + r.lastName()
+                : "Unknown";
+
+        return new AllReportDto(
+                r.id(),
+                patientName,
+                r.patientId(),
+                r.label(),
+                r.confidence(),
+                r.createdAt().atZone(java.time.ZoneId.systemDefault()).toInstant(),
+                "Dr. Carter"   // placeholder until doctor info is added
+        );
     }
 
 
     @Override
-    public List<RecentPatientDto> getAllPatients() {
-
-        return patients.findAll().stream().map(p -> {
-
-                    LocalDateTime lastSymptom = symptoms
-                            .findTop1ByPatientIdOrderBySubmittedAtDesc(p.getPatientId())
-                            .map(SymptomEntry::getSubmittedAt)
-                            .orElse(null);
-
-                    Prediction lastPrediction = predictions
-                            .findTop1ByPatientIdOrderByCreatedAtDesc(p.getPatientId())
-                            .orElse(null);
-
-                    LocalDateTime lastPredictionTime =
-                            lastPrediction != null ? lastPrediction.getCreatedAt() : null;
-
-                    LocalDateTime lastVisit = latest(lastSymptom, lastPredictionTime);
-
-                    String lastDiagnosis =
-                            lastPrediction != null ? lastPrediction.getLabel() : "No diagnosis yet";
-
-                    String doctorNotes = "—";
-                    if (lastPrediction != null) {
-                        var latestAnnotation = annotations
-                                .findTop1ByPredictionIdOrderByCreatedAtDesc(lastPrediction.getId());
-
-                        if (latestAnnotation.isPresent()) {
-                            doctorNotes = latestAnnotation.get().getNotes();
-                        }
-                    }
-
-                    return new RecentPatientDto(
-                            p.getPatientId(),
-                            p.getFirstName() + " " + p.getLastName(),
-                            calculateAge(p.getDateOfBirth()),
-                            lastVisit,
-                            lastDiagnosis,
-                            doctorNotes
-                    );
-                })
-                .toList();
+    public List<LowConfidenceDto> getAllLowConfidenceReports() {
+        return reviewQueue.allBelowThreshold();
     }
 
+
     // ------------------------------------
     // DTO MAPPERS
     // ------------------------------------
@@ -1,13 +1,14 @@
 package org.hsdd.service.impl;
 
-import org.hsdd.repo.PatientRepository;
+import org.hsdd.dto.NotificationDto;
 import org.hsdd.value.Notification;
 import org.hsdd.value.Prediction;
-import org.hsdd.model.User;
 import org.hsdd.repo.NotificationRepository;
-import org.hsdd.repo.UserRepository;
+import org.hsdd.service.NotificationDispatcher;
 import org.hsdd.service.NotificationService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 
@@ -15,16 +16,14 @@ import java.util.List;
 public class NotificationServiceImpl implements NotificationService {
 
     private final NotificationRepository notifications;
-    private final UserRepository users;
-    PatientRepository patients;
+    private final NotificationDispatcher dispatcher;
+
     public NotificationServiceImpl(
             NotificationRepository notifications,
-            UserRepository users,
-            PatientRepository patients
+            NotificationDispatcher dispatcher
     ) {
         this.notifications = notifications;
-        this.users = users;
-        this.patients = patients;
+        this.dispatcher = dispatcher;
     }
 
 
@@ -32,27 +31,19 @@ public class NotificationServiceImpl implements NotificationService {
     public void notifyLowConfidence(Prediction prediction, double threshold) {
         if (prediction.getConfidence() >= threshold) return;
 
-        var patient = patients.findByPatientId(prediction.getPatientId())
-                .orElse(null);
-
-
-        String fullName = (patient != null)
-                ? patient.getFirstName() + " " + patient.getLastName()
-                : "Unknown Patient";
-
-        List<User> doctors = users.findByRole("doctor");
-
-        for (User doc : doctors) {
-            Notification n = new Notification();
-            n.setUser(doc);
-            n.setPrediction(prediction);
-
-
-            n.setMessage("Low confidence prediction for "
-                    + fullName
-                    + " (ID " + prediction.getPatientId() + ")");
-
-            notifications.save(n);
+        Long predictionId = prediction.getId();
+        String patientId = prediction.getPatientId();
+
+        // the prediction row must be committed before doctors' notifications can reference it
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatcher.dispatch(predictionId, patientId);
+                }
+            });
+        } else {
+            dispatcher.dispatch(predictionId, patientId);
         }
     }
 
@@ -61,6 +52,11 @@ public class NotificationServiceImpl implements NotificationService {
         return notifications.findByUserIdAndReadFlagFalseOrderByCreatedAtDesc(userId);
     }
 
+    @Override
+    public List<NotificationDto> getUnread(Long userId, Long sinceId) {
+        return notifications.findUnread(userId, sinceId);
+    }
+
     @Override
     public void markAsRead(Long notificationId, Long userId) {
         Notification n = notifications.findById(notificationId)
@@ -1,12 +1,19 @@
 package org.hsdd.service.impl;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.hsdd.value.Prediction;
 import org.hsdd.value.SymptomEntry;
 import org.hsdd.model.AI;
 import org.hsdd.repo.PredictionRepository;
 import org.hsdd.service.NotificationService;
+import org.hsdd.service.PatientActivityService;
+import org.hsdd.service.PatientTrendService;
 import org.hsdd.service.PredictionService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class PredictionServiceImpl implements PredictionService {
@@ -14,29 +21,67 @@ public class PredictionServiceImpl implements PredictionService {
     private final PredictionRepository predictions;
     private final NotificationService notificationService;
     private final AI predictor;
+    private final PatientActivityService activity;
+    private final PatientTrendService trends;
+    private final TransactionTemplate tx;
+    private final Timer inferenceTimer;
+    private final Counter lowConfidence;
+    private final double reviewThreshold;
 
+    // doctors are notified below this; the review queue uses its own, configured threshold
     private static final double LOW_CONFIDENCE_THRESHOLD = 0.50;
 
     public PredictionServiceImpl(
             PredictionRepository predictions,
             NotificationService notificationService,
-            AI predictor
+            AI predictor,
+            PatientActivityService activity,
+            PatientTrendService trends,
+            TransactionTemplate tx,
+            MeterRegistry meters,
+            @Value("${hsdd.review.confidence-threshold:0.55}") double reviewThreshold
     ) {
         this.predictions = predictions;
         this.notificationService = notificationService;
         this.predictor = predictor;
+        this.activity = activity;
+        this.trends = trends;
+        this.tx = tx;
+        this.reviewThreshold = reviewThreshold;
+        // model call + save + side effects, i.e. what a symptom submission waits for
+        this.inferenceTimer = Timer.builder("hsdd.inference")
+                .description("Inference and save of one symptom entry")
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(meters);
+        this.lowConfidence = Counter.builder("hsdd.predictions.low_confidence")
+                .description("Predictions below the review threshold (hsdd.review.confidence-threshold)")
+                .register(meters);
     }
 
     @Override
-    public Prediction inferAndSave(SymptomEntry symptom, String actor, String ip) {
+    public Prediction inferAndSave(SymptomEntry symptom, String actor, String ip, boolean fresh) {
+        return inferenceTimer.record(() -> infer(symptom, fresh));
+    }
+
+    private Prediction infer(SymptomEntry symptom, boolean fresh) {
 
         // 1️⃣ Run Grok AI to generate prediction (DO NOT SAVE here)
-        Prediction generated = predictor.predict(symptom);
+        Prediction generated = predictor.predict(symptom, fresh);
 
-        // 2️⃣ Save to database (ONLY HERE)
-        Prediction saved = predictions.save(generated);
+        // 2️⃣ Save to database (ONLY HERE), with its summary rows in one transaction,
+        // opened only after the model call; joins the caller's on the synchronous path
+        Prediction saved = tx.execute(status -> {
+            Prediction p = predictions.save(generated);
+            activity.recordPrediction(p);
+            trends.recordPrediction(p);
+            return p;
+        });
 
         // 3️⃣ Notify doctor if confidence is low
+        if (saved.getConfidence() < reviewThreshold) {
+            lowConfidence.increment();
+        }
         notificationService.notifyLowConfidence(saved, LOW_CONFIDENCE_THRESHOLD);
 
         // 4️⃣ Return final saved prediction
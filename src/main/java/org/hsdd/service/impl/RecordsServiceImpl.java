@@ -2,19 +2,28 @@ package org.hsdd.service.impl;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hsdd.dto.CursorPageDto;
 import org.hsdd.dto.PredictionWithAnnotationDto;
 import org.hsdd.dto.SymptomDto;
 import org.hsdd.repo.PredictionRepository;
 import org.hsdd.repo.SymptomRepository;
+import org.hsdd.repo.projection.PredictionAnnotationRow;
+import org.hsdd.repo.projection.SymptomRow;
 import org.hsdd.service.RecordsService;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 @Service
 public class RecordsServiceImpl implements RecordsService {
 
+    private record Cursor(LocalDateTime time, Long id) {}
+
     private final SymptomRepository symptoms;
     private final PredictionRepository preds;
     private final ObjectMapper mapper = new ObjectMapper();
@@ -25,70 +34,91 @@ public class RecordsServiceImpl implements RecordsService {
     }
 
     @Override
-    public List<SymptomDto> listSymptoms(String patientId) {
-        return symptoms.findTop200ByPatientIdOrderBySubmittedAtDesc(patientId)
-                .stream()
-                .map(s -> {
-                    List<String> tags = new ArrayList<>();
-                    try {
-                        if (s.getTags() != null) {
-                            tags = mapper.readValue(s.getTags(), new TypeReference<List<String>>() {});
-                        }
-                    } catch (Exception ignored) {}
-
-                    return new SymptomDto(
-                            s.getId(),
-                            s.getDescription(),
-                            tags,
-                            s.getSubmittedAt()
-                    );
-                })
-                .toList();
+    public CursorPageDto<SymptomDto> listSymptoms(String patientId, String before, int limit) {
+        int size = pageSize(limit);
+        Cursor c = parseCursor(before);
+
+        // one extra row tells us whether there is a next page
+        List<SymptomRow> rows = symptoms.findPage(patientId, c.time(), c.id(), PageRequest.of(0, size + 1));
+
+        return page(rows, size, this::toSymptomDto, s -> s.submittedAt() + "_" + s.id());
     }
 
     @Override
-    public List<PredictionWithAnnotationDto> listPredictions(String patientId) {
-        return preds.findTop200ByPatientIdOrderByCreatedAtDesc(patientId)
-                .stream()
-                .map(p -> {
-                    double conf = p.getConfidence();
-
-                    // NEW CONFIDENCE LEVEL LOGIC (matches screenshot)
-                    String level;
-                    if (conf >= 0.90) {
-                        level = "high";
-                    } else if (conf >= 0.75) {
-                        level = "moderate";
-                    } else {
-                        level = "low";
-                    }
-
-                    // find MOST RECENT doctor annotation
-                    var latestAnn = (p.getAnnotations() == null || p.getAnnotations().isEmpty())
-                            ? null
-                            : p.getAnnotations()
-                            .stream()
-                            .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
-                            .findFirst()
-                            .orElse(null);
-
-                    String doctorUsername = latestAnn != null ? latestAnn.getDoctor().getUsername() : null;
-                    String doctorNotes = latestAnn != null ? latestAnn.getNotes() : null;
-                    String correctedLabel = latestAnn != null ? latestAnn.getCorrectedLabel() : null;
-
-                    return new PredictionWithAnnotationDto(
-                            p.getId(),
-                            p.getSymptomId(),
-                            p.getLabel(),
-                            p.getConfidence(),
-                            level,                 // NEW — confidence label
-                            p.getCreatedAt(),
-                            doctorUsername,
-                            doctorNotes,
-                            correctedLabel
-                    );
-                })
-                .toList();
+    public CursorPageDto<PredictionWithAnnotationDto> listPredictions(String patientId, String before, int limit) {
+        int size = pageSize(limit);
+        Cursor c = parseCursor(before);
+
+        List<PredictionAnnotationRow> rows =
+                preds.findPageWithLatestAnnotation(patientId, c.time(), c.id(), PageRequest.of(0, size + 1));
+
+        return page(rows, size, this::toPredictionDto, p -> p.createdAt() + "_" + p.id());
     }
 
+    private SymptomDto toSymptomDto(SymptomRow s) {
+        List<String> tags = new ArrayList<>();
+        try {
+            if (s.tags() != null) {
+                tags = mapper.readValue(s.tags(), new TypeReference<List<String>>() {});
+            }
+        } catch (Exception ignored) {}
+
+        return new SymptomDto(
+                s.id(),
+                s.description(),
+                tags,
+                s.submittedAt()
+        );
+    }
+
+    private PredictionWithAnnotationDto toPredictionDto(PredictionAnnotationRow p) {
+        double conf = p.confidence();
+
+        // NEW CONFIDENCE LEVEL LOGIC (matches screenshot)
+        String level;
+        if (conf >= 0.90) {
+            level = "high";
+        } else if (conf >= 0.75) {
+            level = "moderate";
+        } else {
+            level = "low";
+        }
+
+        return new PredictionWithAnnotationDto(
+                p.id(),
+                p.symptomId(),
+                p.label(),
+                p.confidence(),
+                level,                 // NEW — confidence label
+                p.createdAt(),
+                p.doctorUsername(),    // latest annotation, joined in the query
+                p.doctorNotes(),
+                p.correctedLabel()
+        );
+    }
+
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE));
+    }
+
+    private static Cursor parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new Cursor(null, null);
+        }
+        int sep = cursor.lastIndexOf('_');
+        try {
+            return new Cursor(
+                    LocalDateTime.parse(cursor.substring(0, sep)),
+                    Long.parseLong(cursor.substring(sep + 1)));
+        } catch (IndexOutOfBoundsException | DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static <R, T> CursorPageDto<T> page(List<R> rows, int size,
+                                                Function<R, T> mapper, Function<R, String> cursorOf) {
+        List<T> items = rows.stream().limit(size).map(mapper).toList();
+        String next = rows.size() > size ? cursorOf.apply(rows.get(size - 1)) : null;
+        return new CursorPageDto<>(items, next);
+    }
 }
@@ -8,15 +8,24 @@ import org.hsdd.dto.PredictionDto;
 import org.hsdd.dto.SubmitSymptomRequest;
 import org.hsdd.dto.SubmitSymptomResponse;
 import org.hsdd.dto.SymptomDto;
+import org.hsdd.dto.SymptomJobDto;
+import org.hsdd.value.Prediction;
 import org.hsdd.value.SymptomEntry;
 import org.hsdd.repo.PatientRepository;
 import org.hsdd.repo.SymptomRepository;
+import org.hsdd.service.PatientActivityService;
 import org.hsdd.service.PredictionService;
+import org.hsdd.service.SymptomJobTracker;
 import org.hsdd.service.SymptomService;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import java.security.Principal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 public class SymptomServiceImpl implements SymptomService {
@@ -24,20 +33,69 @@ public class SymptomServiceImpl implements SymptomService {
     private final SymptomRepository symptoms;
     private final PredictionService predictions;
     private final PatientRepository patients;
+    private final PatientActivityService activity;
+    private final SymptomJobTracker jobs;
+    private final ExecutorService inferenceExecutor;
     private final ObjectMapper mapper = new ObjectMapper();
 
     public SymptomServiceImpl(SymptomRepository symptoms,
                               PredictionService predictions,
-                              PatientRepository patients) {
+                              PatientRepository patients,
+                              PatientActivityService activity,
+                              SymptomJobTracker jobs,
+                              @Qualifier("inferenceExecutor") ExecutorService inferenceExecutor) {
         this.symptoms = symptoms;
         this.predictions = predictions;
         this.patients = patients;
+        this.activity = activity;
+        this.jobs = jobs;
+        this.inferenceExecutor = inferenceExecutor;
     }
 
     @Override
     @Transactional
     public SubmitSymptomResponse submit(SubmitSymptomRequest req, String actor, String ip) {
 
+        SymptomEntry saved = saveSymptom(req);
+
+        // call AI and save prediction
+        var pred = predictions.inferAndSave(saved, actor, ip, req.fresh());
+
+        return new SubmitSymptomResponse(toSymptomDto(saved), toPredictionDto(pred));
+    }
+
+    // No transaction here: the symptom insert commits on its own, so the
+    // xAI round trip below never holds a DB connection or a request thread.
+    @Override
+    public SymptomJobDto submitAsync(SubmitSymptomRequest req, String actor, String ip) {
+
+        SymptomEntry saved = saveSymptom(req);
+        SymptomJobDto job = jobs.start(toSymptomDto(saved), actor);
+
+        try {
+            inferenceExecutor.execute(() -> {
+                try {
+                    Prediction pred = predictions.inferAndSave(saved, actor, ip, req.fresh());
+                    jobs.complete(job.jobId(), toPredictionDto(pred));
+                } catch (Exception e) {
+                    jobs.fail(job.jobId(), "Prediction failed");
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.jobId());
+            throw new IllegalStateException("Inference queue is full, try again later");
+        }
+
+        return job;
+    }
+
+    @Override
+    public Optional<SymptomJobDto> getJob(String jobId, Principal requester) {
+        return jobs.find(jobId, requester);
+    }
+
+    private SymptomEntry saveSymptom(SubmitSymptomRequest req) {
+
         // resolve patient by 8-digit business ID
         Patient patient = patients.findByPatientId(req.patientId())
                 .orElseThrow(() -> new RuntimeException("Patient not found"));
@@ -53,24 +111,27 @@ public class SymptomServiceImpl implements SymptomService {
         SymptomEntry saved = symptoms.save(
                 new SymptomEntry(patient.getPatientId(), req.text(), tagsJson)
         );
+        activity.recordSymptom(saved);
+        return saved;
+    }
 
-        // call AI and save prediction
-        var pred = predictions.inferAndSave(saved, actor, ip);
-
-        // build DTOs
+    private SymptomDto toSymptomDto(SymptomEntry saved) {
         List<String> tags = new ArrayList<>();
         try {
-            if (tagsJson != null) {
-                tags = mapper.readValue(tagsJson, new TypeReference<List<String>>() {});
+            if (saved.getTags() != null) {
+                tags = mapper.readValue(saved.getTags(), new TypeReference<List<String>>() {});
             }
         } catch (Exception ignored) {}
 
-        SymptomDto symptomDto = new SymptomDto(
+        return new SymptomDto(
                 saved.getId(),
                 saved.getDescription(),
                 tags,
                 saved.getSubmittedAt()
         );
+    }
+
+    private PredictionDto toPredictionDto(Prediction pred) {
         double conf = pred.getConfidence();
 
         String level;
@@ -78,7 +139,7 @@ public class SymptomServiceImpl implements SymptomService {
         else if (conf >= 0.75) level = "moderate";
         else level = "low";
 
-        PredictionDto predictionDto = new PredictionDto(
+        return new PredictionDto(
                 pred.getId(),
                 pred.getSymptomId(),
                 pred.getLabel(),
@@ -86,7 +147,5 @@ public class SymptomServiceImpl implements SymptomService {
                 level,
                 pred.getCreatedAt()
         );
-
-        return new SubmitSymptomResponse(symptomDto, predictionDto);
     }
-}
\ No newline at end of file
+}
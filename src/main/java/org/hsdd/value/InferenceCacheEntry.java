@@ -0,0 +1,35 @@
+package org.hsdd.value;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Persistent copy of CachingAiClient's results so the cache survives restarts.
+// Written only through InferenceCacheRepository.upsert.
+@Entity
+@Table(name = "inference_cache")
+public class InferenceCacheEntry {
+
+    // SHA-256 of model + normalized description + sorted tags
+    @Id
+    @Column(name = "cache_key", length = 64)
+    private String cacheKey;
+
+    @Column(name = "label", nullable = false)
+    private String label;
+
+    @Column(name = "confidence", nullable = false)
+    private double confidence;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public String getCacheKey() { return cacheKey; }
+    public String getLabel() { return label; }
+    public double getConfidence() { return confidence; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+}
@@ -0,0 +1,53 @@
+package org.hsdd.value;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Per-patient "last visit / last diagnosis / latest doctor note" projection.
+// Written only through PatientActivitySummaryRepository upserts; rebuildable
+// from symptoms, predictions and annotations at any time.
+@Entity
+@Table(name = "patient_activity_summary")
+public class PatientActivitySummary {
+
+    @Id
+    @Column(name = "patient_id", length = 8)
+    private String patientId;
+
+    @Column(name = "last_symptom_at")
+    private LocalDateTime lastSymptomAt;
+
+    @Column(name = "last_prediction_id")
+    private Long lastPredictionId;
+
+    @Column(name = "last_prediction_at")
+    private LocalDateTime lastPredictionAt;
+
+    @Column(name = "last_diagnosis")
+    private String lastDiagnosis;
+
+    @Column(name = "last_annotation_id")
+    private Long lastAnnotationId;
+
+    @Column(name = "last_note", columnDefinition = "TEXT")
+    private String lastNote;
+
+    @Column(name = "last_visit")
+    private LocalDateTime lastVisit;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public PatientActivitySummary() {}
+
+    public String getPatientId() { return patientId; }
+    public LocalDateTime getLastSymptomAt() { return lastSymptomAt; }
+    public Long getLastPredictionId() { return lastPredictionId; }
+    public LocalDateTime getLastPredictionAt() { return lastPredictionAt; }
+    public String getLastDiagnosis() { return lastDiagnosis; }
+    public Long getLastAnnotationId() { return lastAnnotationId; }
+    public String getLastNote() { return lastNote; }
+    public LocalDateTime getLastVisit() { return lastVisit; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
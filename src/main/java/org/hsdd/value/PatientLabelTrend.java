@@ -0,0 +1,65 @@
+package org.hsdd.value;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+// Prediction counts per patient and label: one all-time row (granularity 'A',
+// bucket 1970-01-01) plus one row per day ('D'), ISO week ('W', Monday) and
+// month ('M', 1st).
+// Written only through PatientTrendRepository upserts; rebuildable from predictions.
+@Entity
+@Table(name = "patient_label_trend")
+public class PatientLabelTrend {
+
+    @Embeddable
+    public static class Key implements Serializable {
+
+        @Column(name = "patient_id", length = 8)
+        private String patientId;
+
+        @Column(name = "granularity", length = 1)
+        private String granularity;
+
+        @Column(name = "bucket_start")
+        private LocalDate bucketStart;
+
+        @Column(name = "label")
+        private String label;
+
+        public Key() {}
+
+        public String getPatientId() { return patientId; }
+        public String getGranularity() { return granularity; }
+        public LocalDate getBucketStart() { return bucketStart; }
+        public String getLabel() { return label; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key k)) return false;
+            return Objects.equals(patientId, k.patientId)
+                    && Objects.equals(granularity, k.granularity)
+                    && Objects.equals(bucketStart, k.bucketStart)
+                    && Objects.equals(label, k.label);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(patientId, granularity, bucketStart, label);
+        }
+    }
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "cnt", nullable = false)
+    private Long total;
+
+    public PatientLabelTrend() {}
+
+    public Key getId() { return id; }
+    public Long getTotal() { return total; }
+}
@@ -40,6 +40,13 @@ public class Prediction {
     @Column(name = "reviewed", nullable = false)
     private boolean reviewed = false;
 
+    // Review-queue lease; only ReviewQueueRepository writes these
+    @Column(name = "claimed_by", insertable = false, updatable = false)
+    private Long claimedBy;
+
+    @Column(name = "lease_until", insertable = false, updatable = false)
+    private LocalDateTime leaseUntil;
+
     @OneToMany(mappedBy = "prediction", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Annotation> annotations = new ArrayList<>();
 
@@ -115,6 +122,19 @@ public class Prediction {
 
     public void setReviewed(boolean reviewed) { this.reviewed = reviewed; }
 
+    public Long getClaimedBy() { return claimedBy; }
+
+    public void setClaimedBy(Long claimedBy) { this.claimedBy = claimedBy; }
+
+    public LocalDateTime getLeaseUntil() { return leaseUntil; }
+
+    public void setLeaseUntil(LocalDateTime leaseUntil) { this.leaseUntil = leaseUntil; }
+
+    // Another doctor holds it while this is true
+    public boolean isLeasedAt(LocalDateTime now) {
+        return claimedBy != null && leaseUntil != null && leaseUntil.isAfter(now);
+    }
+
     public List<Annotation> getAnnotations() { return annotations; }
 
     public void setAnnotations(List<Annotation> annotations) { this.annotations = annotations; }
@@ -0,0 +1,108 @@
+package org.hsdd.ai;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BatchingAiClientTest {
+
+    private final AiClient delegate = mock(AiClient.class);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private BatchingAiClient client;
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) client.stop();
+        executor.shutdownNow();
+    }
+
+    private BatchingAiClient start(boolean enabled, int maxSize, long windowMs) {
+        client = new BatchingAiClient(delegate, executor, enabled, maxSize, windowMs, 100);
+        client.start();
+        return client;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void analyze_concurrentCallsShareOneCompletion() throws Exception {
+        when(delegate.analyzeAll(anyList())).thenAnswer(inv -> {
+            List<AiClient.Request> reqs = inv.getArgument(0);
+            return reqs.stream().map(r -> new AiClient.Result("dx-" + r.description(), 0.7)).toList();
+        });
+
+        BatchingAiClient batcher = start(true, 3, 2_000);
+
+        Future<AiClient.Result> a = executor.submit(() -> batcher.analyze("a", List.of()));
+        Future<AiClient.Result> b = executor.submit(() -> batcher.analyze("b", List.of()));
+        Future<AiClient.Result> c = executor.submit(() -> batcher.analyze("c", List.of()));
+
+        assertEquals("dx-a", a.get(2, TimeUnit.SECONDS).label());
+        assertEquals("dx-b", b.get(2, TimeUnit.SECONDS).label());
+        assertEquals("dx-c", c.get(2, TimeUnit.SECONDS).label());
+
+        verify(delegate, times(1)).analyzeAll(anyList());
+        verify(delegate, never()).analyze(any(), any());
+        assertEquals(1, batcher.stats().batches());
+        assertEquals(3, batcher.stats().items());
+    }
+
+    @Test
+    void analyze_unparseableBatch_retriesEachItemSingly() throws Exception {
+        when(delegate.analyzeAll(anyList())).thenThrow(new BatchResponseException("not an array"));
+        when(delegate.analyze(eq("a"), any())).thenReturn(new AiClient.Result("A", 0.9));
+        when(delegate.analyze(eq("b"), any())).thenReturn(new AiClient.Result("B", 0.9));
+
+        BatchingAiClient batcher = start(true, 2, 2_000);
+
+        Future<AiClient.Result> a = executor.submit(() -> batcher.analyze("a", List.of()));
+        Future<AiClient.Result> b = executor.submit(() -> batcher.analyze("b", List.of()));
+
+        assertEquals("A", a.get(2, TimeUnit.SECONDS).label());
+        assertEquals("B", b.get(2, TimeUnit.SECONDS).label());
+        assertEquals(1, batcher.stats().parseFallbacks());
+    }
+
+    @Test
+    void analyze_providerFailure_failsEveryWaiter() {
+        when(delegate.analyzeAll(anyList())).thenThrow(new RuntimeException("xAI call failed"));
+
+        BatchingAiClient batcher = start(true, 2, 2_000);
+
+        Future<AiClient.Result> a = executor.submit(() -> batcher.analyze("a", List.of()));
+        Future<AiClient.Result> b = executor.submit(() -> batcher.analyze("b", List.of()));
+
+        assertThrows(Exception.class, () -> a.get(2, TimeUnit.SECONDS));
+        assertThrows(Exception.class, () -> b.get(2, TimeUnit.SECONDS));
+        verify(delegate, never()).analyze(any(), any());
+        assertEquals(1, batcher.stats().failedBatches());
+    }
+
+    @Test
+    void analyze_lonelyItemGoesOutAfterTheWindowAsSingleCall() {
+        when(delegate.analyze(any(), any())).thenReturn(new AiClient.Result("Cold", 0.6));
+
+        BatchingAiClient batcher = start(true, 8, 20);
+
+        assertEquals("Cold", batcher.analyze("cough", List.of()).label());
+        verify(delegate, never()).analyzeAll(anyList());
+    }
+
+    @Test
+    void analyze_disabled_passesThrough() {
+        when(delegate.analyze(any(), any())).thenReturn(new AiClient.Result("Cold", 0.6));
+
+        BatchingAiClient batcher = start(false, 8, 20);
+
+        assertEquals("Cold", batcher.analyze("cough", List.of()).label());
+        assertEquals(0, batcher.stats().items());
+    }
+}
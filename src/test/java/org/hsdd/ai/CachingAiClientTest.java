@@ -0,0 +1,117 @@
+package org.hsdd.ai;
+
+import org.hsdd.repo.InferenceCacheRepository;
+import org.hsdd.value.InferenceCacheEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CachingAiClientTest {
+
+    private final AiClient delegate = mock(AiClient.class);
+    private final InferenceCacheRepository store = mock(InferenceCacheRepository.class);
+    private final CachingAiClient client = new CachingAiClient(delegate, store, "grok", true, 100, 24);
+
+    @Test
+    void analyze_secondEquivalentCallServedFromMemory() {
+        when(store.findLive(anyString(), any())).thenReturn(Optional.empty());
+        when(delegate.analyze(any(), any())).thenReturn(new AiClient.Result("Migraine", 0.9));
+
+        AiClient.Result first = client.analyze("Headache, nausea", List.of("night"));
+        AiClient.Result second = client.analyze("nausea, Headache!", List.of("Night"));
+
+        assertEquals(first, second);
+        verify(delegate, times(1)).analyze(any(), any());
+        verify(store).upsert(anyString(), eq("Migraine"), eq(0.9), any(), any());
+
+        CachingAiClient.Stats stats = client.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.size());
+    }
+
+    @Test
+    void analyze_storeHitSkipsTheModel() {
+        InferenceCacheEntry row = mock(InferenceCacheEntry.class);
+        when(row.getLabel()).thenReturn("Cold");
+        when(row.getConfidence()).thenReturn(0.7);
+        when(row.getExpiresAt()).thenReturn(LocalDateTime.now().plusHours(1));
+        when(store.findLive(anyString(), any())).thenReturn(Optional.of(row));
+
+        assertEquals(new AiClient.Result("Cold", 0.7), client.analyze("cough", List.of()));
+        assertEquals(new AiClient.Result("Cold", 0.7), client.analyze("cough", List.of()));
+
+        verifyNoInteractions(delegate);
+        verify(store, times(1)).findLive(anyString(), any());
+        assertEquals(1, client.stats().storeHits());
+        assertEquals(1, client.stats().hits());
+    }
+
+    @Test
+    void analyze_bypassCallsModelAndRefreshesEntry() {
+        when(store.findLive(anyString(), any())).thenReturn(Optional.empty());
+        when(delegate.analyze(any(), any()))
+                .thenReturn(new AiClient.Result("Cold", 0.6))
+                .thenReturn(new AiClient.Result("Flu", 0.8));
+
+        client.analyze("fever", List.of());
+        AiClient.Result fresh = client.analyze("fever", List.of(), true);
+        AiClient.Result cached = client.analyze("fever", List.of());
+
+        assertEquals("Flu", fresh.label());
+        assertEquals("Flu", cached.label());
+        verify(delegate, times(2)).analyze(any(), any());
+        assertEquals(1, client.stats().bypasses());
+    }
+
+    @Test
+    void analyze_storeFailuresDoNotFailInference() {
+        when(store.findLive(anyString(), any())).thenThrow(new RuntimeException("db down"));
+        doThrow(new RuntimeException("db down")).when(store).upsert(anyString(), any(), anyDouble(), any(), any());
+        when(delegate.analyze(any(), any())).thenReturn(new AiClient.Result("Cold", 0.6));
+
+        assertEquals("Cold", client.analyze("fever", List.of()).label());
+    }
+
+    @Test
+    void purgeExpired_deletesExpiredRowsAndSurvivesStoreFailures() {
+        when(store.deleteExpired(any())).thenReturn(3).thenThrow(new RuntimeException("db down"));
+
+        client.purgeExpired();
+        client.purgeExpired();
+
+        verify(store, times(2)).deleteExpired(any(LocalDateTime.class));
+    }
+
+    @Test
+    void analyze_disabledAlwaysCallsModel() {
+        CachingAiClient off = new CachingAiClient(delegate, store, "grok", false, 100, 24);
+        when(delegate.analyze(any(), any())).thenReturn(new AiClient.Result("Cold", 0.6));
+
+        off.analyze("fever", List.of());
+        off.analyze("fever", List.of());
+
+        verify(delegate, times(2)).analyze(any(), any());
+        verifyNoInteractions(store);
+    }
+
+    @Test
+    void analyze_fallbackAnswersAreNotCached() {
+        when(store.findLive(anyString(), any())).thenReturn(Optional.empty());
+        when(delegate.analyze(any(), any()))
+                .thenReturn(AiClient.Result.needsReview())
+                .thenReturn(new AiClient.Result("Flu", 0.8));
+
+        assertTrue(client.analyze("fever", List.of()).degraded());
+        assertEquals("Flu", client.analyze("fever", List.of()).label());
+
+        verify(store, times(1)).upsert(anyString(), eq("Flu"), anyDouble(), any(), any());
+        assertEquals(0, client.stats().hits());
+    }
+}
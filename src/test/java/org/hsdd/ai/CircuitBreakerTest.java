@@ -0,0 +1,67 @@
+package org.hsdd.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final CircuitBreaker breaker = new CircuitBreaker(4, 4, 0.5, 1_000, now::get);
+
+    @Test
+    void opensAtFailureRate_onlyAfterMinCalls() {
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());   // 2 of min 4
+
+        breaker.onSuccess();
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.allow());
+        assertEquals(1, breaker.timesOpened());
+    }
+
+    @Test
+    void oldOutcomesSlideOutOfTheWindow() {
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onSuccess();   // 1/4
+        breaker.onFailure();   // first failure drops out: still 1/4
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void halfOpen_singleProbeDecides() {
+        for (int i = 0; i < 4; i++) breaker.onFailure();
+        now.addAndGet(1_000);
+
+        assertTrue(breaker.allow());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertFalse(breaker.allow());           // probe already out
+
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+
+        now.addAndGet(1_000);
+        assertTrue(breaker.allow());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.allow());
+    }
+
+    @Test
+    void ignoredProbeFreesTheSlot() {
+        for (int i = 0; i < 4; i++) breaker.onFailure();
+        now.addAndGet(1_000);
+
+        assertTrue(breaker.allow());
+        breaker.onIgnored();
+        assertTrue(breaker.allow());
+    }
+}
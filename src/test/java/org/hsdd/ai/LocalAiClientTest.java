@@ -0,0 +1,45 @@
+package org.hsdd.ai;
+
+import org.hsdd.repo.PredictionRepository;
+import org.hsdd.repo.projection.TrainingRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LocalAiClientTest {
+
+    private final PredictionRepository predictions = mock(PredictionRepository.class);
+    private final LocalAiClient client = new LocalAiClient(predictions, true, 0.7, 1, 1000, 0.49, 0);
+
+    @Test
+    void analyze_untrained_returnsNeedsReview() {
+        AiClient.Result r = client.analyze("headache", List.of());
+
+        assertEquals(AiClient.NEEDS_REVIEW, r.label());
+        assertEquals(1, client.stats().unknown());
+    }
+
+    @Test
+    void retrain_prefersDoctorCorrectionsAndSkipsUnsureModelLabels() {
+        when(predictions.findTrainingRows(eq(AiClient.NEEDS_REVIEW), eq(0.7), any())).thenReturn(List.of(
+                // same prediction twice (two annotations): the correction wins
+                new TrainingRow(3L, "headache and nausea", "[\"head\"]", "tension", 0.9, "migraine"),
+                new TrainingRow(3L, "headache and nausea", "[\"head\"]", "tension", 0.9, null),
+                new TrainingRow(2L, "fever and cough", null, "flu", 0.95, null),
+                // low-confidence model label without a correction: ignored
+                new TrainingRow(1L, "rash", null, "eczema", 0.3, null)
+        ));
+
+        assertEquals(2, client.retrain());
+
+        AiClient.Result r = client.analyze("nausea, headache", List.of("head"));
+        assertEquals("migraine", r.label());
+        assertTrue(r.degraded());
+        assertTrue(r.confidence() <= 0.49);
+        assertEquals(AiClient.NEEDS_REVIEW, client.analyze("rash", List.of()).label());
+    }
+}
@@ -0,0 +1,51 @@
+package org.hsdd.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NaiveBayesClassifierTest {
+
+    private static NaiveBayesClassifier.Example ex(String text, String tag, String label) {
+        return new NaiveBayesClassifier.Example(text, tag == null ? List.of() : List.of(tag), label);
+    }
+
+    private final NaiveBayesClassifier classifier = NaiveBayesClassifier.train(List.of(
+            ex("throbbing headache and light sensitivity", "headache", "Migraine"),
+            ex("severe headache with nausea, light hurts", "headache", "migraine"),
+            ex("one-sided headache, aura before", null, "Migraine"),
+            ex("fever, cough and body aches", "fever", "Flu"),
+            ex("high fever with chills and cough", "fever", "flu"),
+            ex("cough, sore throat, fever since yesterday", null, "flu"),
+            ex("itchy rash on arm", "skin", "eczema")   // only one example: dropped
+    ), 2);
+
+    @Test
+    void classify_picksMostLikelyLabel() {
+        AiClient.Result r = classifier.classify("bad headache, light is painful", List.of());
+
+        assertEquals("migraine", r.label());
+        assertTrue(r.confidence() > 0.5);
+        assertTrue(r.degraded());
+    }
+
+    @Test
+    void classify_tagsWeighIn() {
+        assertEquals("flu", classifier.classify("aches", List.of("Fever")).label());
+    }
+
+    @Test
+    void classify_unknownInput_returnsNull() {
+        assertNull(classifier.classify("zzz qqq", List.of()));
+        assertNull(classifier.classify(null, null));
+    }
+
+    @Test
+    void train_dropsRareLabelsAndNormalizesCase() {
+        assertEquals(2, classifier.labelCount());
+        assertEquals(6, classifier.exampleCount());
+        assertNull(NaiveBayesClassifier.train(List.of(), 1).classify("headache", List.of()));
+    }
+}
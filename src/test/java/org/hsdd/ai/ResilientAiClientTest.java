@@ -0,0 +1,161 @@
+package org.hsdd.ai;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ResilientAiClientTest {
+
+    private final AiClient delegate = mock(AiClient.class);
+    private final AiClient local = mock(AiClient.class);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @BeforeEach
+    void setUp() {
+        when(local.analyze(any(), any())).thenReturn(AiClient.Result.needsReview());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private ResilientAiClient client(int maxConcurrent, long timeoutMs, long hedgeDelayMs) {
+        return new ResilientAiClient(delegate, local, executor, new CircuitBreaker(4, 2, 0.5, 60_000),
+                maxConcurrent, timeoutMs, 0, hedgeDelayMs);
+    }
+
+    @Test
+    void analyze_success_passesThrough() {
+        when(delegate.analyze(any(), any())).thenReturn(new AiClient.Result("Flu", 0.8));
+
+        ResilientAiClient client = client(2, 1_000, 0);
+
+        assertEquals(new AiClient.Result("Flu", 0.8), client.analyze("fever", List.of()));
+        assertEquals(1, client.stats().successes());
+        assertEquals(0, client.stats().fallbacks());
+    }
+
+    @Test
+    void analyze_slowProvider_timesOutToNeedsReview() {
+        when(delegate.analyze(any(), any())).thenAnswer(inv -> {
+            Thread.sleep(2_000);
+            return new AiClient.Result("Flu", 0.8);
+        });
+
+        ResilientAiClient client = client(2, 50, 0);
+        AiClient.Result result = client.analyze("fever", List.of());
+
+        assertTrue(result.degraded());
+        assertEquals(0.0, result.confidence());
+        assertEquals(1, client.stats().timeouts());
+    }
+
+    @Test
+    void analyze_repeatedFailures_openCircuitAndStopCalling() {
+        when(delegate.analyze(any(), any()))
+                .thenThrow(new RuntimeException("xAI call failed", new HttpServerErrorException(HttpStatus.BAD_GATEWAY)));
+
+        ResilientAiClient client = client(2, 1_000, 0);
+        client.analyze("a", List.of());
+        client.analyze("b", List.of());
+        AiClient.Result third = client.analyze("c", List.of());
+
+        assertTrue(third.degraded());
+        assertEquals(CircuitBreaker.State.OPEN, client.stats().circuit());
+        assertEquals(1, client.stats().shortCircuited());
+        verify(delegate, times(2)).analyze(any(), any());
+    }
+
+    @Test
+    void analyze_clientErrors_doNotOpenCircuit() {
+        when(delegate.analyze(any(), any()))
+                .thenThrow(new RuntimeException("xAI call failed", new HttpClientErrorException(HttpStatus.BAD_REQUEST)));
+
+        ResilientAiClient client = client(2, 1_000, 0);
+        for (int i = 0; i < 4; i++) client.analyze("x", List.of());
+
+        assertEquals(CircuitBreaker.State.CLOSED, client.stats().circuit());
+        assertEquals(4, client.stats().failures());
+        verify(delegate, times(4)).analyze(any(), any());
+    }
+
+    @Test
+    void analyze_bulkheadFull_fallsBackWithoutCalling() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        when(delegate.analyze(any(), any())).thenAnswer(inv -> {
+            started.countDown();
+            release.await();
+            return new AiClient.Result("Flu", 0.8);
+        });
+
+        ResilientAiClient client = client(1, 5_000, 0);
+        var first = executor.submit(() -> client.analyze("a", List.of()));
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        AiClient.Result second = client.analyze("b", List.of());
+
+        assertTrue(second.degraded());
+        assertEquals(1, client.stats().rejected());
+        assertEquals(1, client.stats().inFlight());
+
+        release.countDown();
+        assertEquals("Flu", first.get(1, TimeUnit.SECONDS).label());
+    }
+
+    @Test
+    void analyze_hedge_fasterSecondRequestWins() {
+        AtomicInteger n = new AtomicInteger();
+        when(delegate.analyze(any(), any())).thenAnswer(inv -> {
+            if (n.incrementAndGet() == 1) {
+                Thread.sleep(2_000);
+                return new AiClient.Result("slow", 0.8);
+            }
+            return new AiClient.Result("fast", 0.8);
+        });
+
+        ResilientAiClient client = client(2, 1_000, 20);
+
+        assertEquals("fast", client.analyze("fever", List.of()).label());
+        assertEquals(1, client.stats().hedges());
+        assertEquals(1, client.stats().hedgeWins());
+    }
+
+    @Test
+    void analyze_fallback_prefersLocalClassifierAnswer() {
+        when(delegate.analyze(any(), any())).thenThrow(new RuntimeException("xAI call failed"));
+        when(local.analyze(eq("fever"), any())).thenReturn(new AiClient.Result("flu", 0.49, true));
+
+        ResilientAiClient client = client(2, 1_000, 0);
+        AiClient.Result result = client.analyze("fever", List.of());
+
+        assertEquals("flu", result.label());
+        assertTrue(result.degraded());
+        assertEquals(1, client.stats().localAnswers());
+    }
+
+    @Test
+    void isProviderFailure_classifiesCauses() {
+        assertTrue(ResilientAiClient.isProviderFailure(new ResourceAccessException("timeout")));
+        assertTrue(ResilientAiClient.isProviderFailure(new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS)));
+        assertFalse(ResilientAiClient.isProviderFailure(
+                new RuntimeException(new HttpClientErrorException(HttpStatus.UNAUTHORIZED))));
+    }
+}
@@ -0,0 +1,35 @@
+package org.hsdd.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymptomKeyTest {
+
+    @Test
+    void normalize_ignoresCaseOrderPunctuationAndDuplicates() {
+        assertEquals("headache, nausea", SymptomKey.normalizeDescription("Headache,  Nausea!"));
+        assertEquals("headache, nausea", SymptomKey.normalizeDescription("nausea; headache, HEADACHE"));
+        assertEquals("fever,night", SymptomKey.normalizeTags(List.of(" Night", "fever", "night")));
+    }
+
+    @Test
+    void of_sameKeyForEquivalentInput() {
+        String a = SymptomKey.of("grok", "Headache,  Nausea!", List.of("Night", "fever"));
+        String b = SymptomKey.of("grok", "nausea, headache", List.of("fever", "night"));
+
+        assertEquals(a, b);
+        assertEquals(64, a.length());
+    }
+
+    @Test
+    void of_modelAndTagsChangeTheKey() {
+        String base = SymptomKey.of("grok", "cough", List.of("dry"));
+
+        assertNotEquals(base, SymptomKey.of("other", "cough", List.of("dry")));
+        assertNotEquals(base, SymptomKey.of("grok", "cough", List.of("wet")));
+        assertEquals(SymptomKey.of("grok", "cough", null), SymptomKey.of("grok", "cough", List.of()));
+    }
+}
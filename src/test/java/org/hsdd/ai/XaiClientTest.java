@@ -0,0 +1,84 @@
+package org.hsdd.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class XaiClientTest {
+
+    private static final String URL = "https://xai.test/v1/chat/completions";
+
+    private final RestTemplate rest = new RestTemplate();
+    private final MockRestServiceServer server = MockRestServiceServer.bindTo(rest).build();
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final XaiClient client = new XaiClient("key", URL, "grok", rest, meters);
+
+    private void respond(String content) throws Exception {
+        String body = new ObjectMapper().writeValueAsString(
+                Map.of("choices", List.of(Map.of("message", Map.of("content", content)))));
+        server.expect(requestTo(URL))
+                .andExpect(header("Authorization", "Bearer key"))
+                .andRespond(withSuccess(body, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void analyze_parsesJsonAnswer() throws Exception {
+        respond("{\"label\": \"migraine\", \"confidence\": 0.91}");
+
+        assertEquals(new AiClient.Result("migraine", 0.91), client.analyze("headache", List.of()));
+        server.verify();
+    }
+
+    @Test
+    void analyze_recordsProviderLatency() throws Exception {
+        respond("{\"label\": \"migraine\", \"confidence\": 0.91}");
+
+        client.analyze("headache", List.of());
+
+        assertEquals(1, meters.get("hsdd.ai.provider.latency")
+                .tags("call", "single", "outcome", "success").timer().count());
+    }
+
+    @Test
+    void analyzeAll_demultiplexesById() throws Exception {
+        respond("[{\"id\": 1, \"label\": \"flu\", \"confidence\": 0.8},"
+                + " {\"id\": 0, \"label\": \"migraine\", \"confidence\": 0.9}]");
+
+        List<AiClient.Result> results = client.analyzeAll(List.of(
+                new AiClient.Request("headache", List.of()),
+                new AiClient.Request("fever", List.of("night"))));
+
+        assertEquals("migraine", results.get(0).label());
+        assertEquals("flu", results.get(1).label());
+    }
+
+    @Test
+    void analyzeAll_missingItem_throwsBatchResponseException() throws Exception {
+        respond("[{\"id\": 0, \"label\": \"migraine\", \"confidence\": 0.9}]");
+
+        assertThrows(BatchResponseException.class, () -> client.analyzeAll(List.of(
+                new AiClient.Request("headache", List.of()),
+                new AiClient.Request("fever", List.of()))));
+        assertEquals(1, meters.get("hsdd.ai.provider.latency")
+                .tags("call", "batch", "outcome", "error").timer().count());
+    }
+
+    @Test
+    void analyzeAll_plainText_throwsBatchResponseException() throws Exception {
+        respond("Sorry, I can only answer one patient at a time.");
+
+        assertThrows(BatchResponseException.class, () -> client.analyzeAll(List.of(
+                new AiClient.Request("headache", List.of()),
+                new AiClient.Request("fever", List.of()))));
+    }
+}
@@ -0,0 +1,20 @@
+package org.hsdd.bench;
+
+import org.hsdd.ai.AiClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+// Only active under the "bench" profile (see BenchContext): replaces the
+// xAI client at the bottom of the AI client chain with StubAiClient.
+@Configuration
+@Profile("bench")
+public class BenchConfig {
+
+    @Bean("xaiClient")
+    public AiClient xaiClient(@Value("${hsdd.bench.ai-latency-ms:0}") long latencyMs,
+                              @Value("${hsdd.bench.ai-jitter-ms:0}") long jitterMs) {
+        return new StubAiClient(latencyMs, jitterMs);
+    }
+}
@@ -0,0 +1,122 @@
+package org.hsdd.bench;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfiguration;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import org.hsdd.HsddApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// The whole application on a throwaway embedded MariaDB, so benchmarks that go
+// through the repositories run offline. Tables come from the entities plus
+// DB/sql_script; the model is StubAiClient. One per JMH fork (Level.Trial).
+public final class BenchContext implements AutoCloseable {
+
+    private final DB db;
+    private final ConfigurableApplicationContext context;
+    private final int port;
+
+    private BenchContext(DB db, ConfigurableApplicationContext context) {
+        this.db = db;
+        this.context = context;
+        this.port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port", "0"));
+    }
+
+    public static BenchContext start(Map<String, Object> overrides) {
+        DB db = null;
+        try {
+            DBConfigurationBuilder builder = DBConfigurationBuilder.newBuilder();
+            builder.setPort(0);   // any free port
+            // mariadbd refuses to run as root (e.g. in a container) unless told to
+            if ("root".equals(System.getProperty("user.name"))) {
+                builder.addArg("--user=root");
+            }
+            DBConfiguration config = builder.build();
+            db = DB.newEmbeddedDB(config);
+            db.start();
+
+            Map<String, Object> props = new HashMap<>();
+            props.put("spring.datasource.url", "jdbc:mysql://localhost:" + config.getPort()
+                    + "/HSDD?useSSL=false&allowPublicKeyRetrieval=true"
+                    // rather than db.createDB, which runs the mariadb client (needs libncurses5)
+                    + "&createDatabaseIfNotExist=true");
+            props.put("spring.datasource.username", "root");
+            props.put("spring.datasource.password", "");
+            // the driver tuning from application-example.yml; overridable per benchmark
+            props.put("spring.datasource.hikari.data-source-properties.rewriteBatchedStatements", "true");
+            props.put("spring.datasource.hikari.data-source-properties.cachePrepStmts", "true");
+            props.put("spring.datasource.hikari.data-source-properties.prepStmtCacheSize", "250");
+            props.put("spring.datasource.hikari.data-source-properties.prepStmtCacheSqlLimit", "2048");
+            props.put("spring.datasource.hikari.data-source-properties.useServerPrepStmts", "true");
+            props.put("spring.jpa.database-platform", "org.hibernate.dialect.MariaDBDialect");
+            props.put("spring.jpa.hibernate.ddl-auto", "create");
+            props.put("spring.jpa.properties.hibernate.jdbc.time_zone", "UTC");
+            // indexes and the extra tables, after Hibernate has created the rest
+            props.put("spring.jpa.defer-datasource-initialization", "true");
+            props.put("spring.sql.init.mode", "always");
+            props.put("spring.sql.init.schema-locations", "classpath:DB/sql_script");
+            props.put("spring.sql.init.continue-on-error", "true");
+            props.put("spring.main.allow-bean-definition-overriding", "true");
+            props.put("server.port", "0");
+            props.put("logging.level.root", "WARN");
+            props.put("xai.api-key", "bench");
+            props.put("xai.url", "http://localhost:9/unused");
+            props.put("xai.model", "bench-stub");
+            // measure our code, not cache hits or the fallback trainer
+            props.put("hsdd.inference.cache.enabled", "false");
+            props.put("hsdd.ai.local.enabled", "false");
+            props.putAll(overrides);
+
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(HsddApplication.class)
+                    .profiles("bench")
+                    .properties(props)
+                    .run();
+            // ddl-auto makes diagnosed_at NOT NULL without the DEFAULT the real schema
+            // has (the entity never inserts it), so give it one as in production
+            context.getBean(JdbcTemplate.class).execute(
+                    "alter table medical_history modify diagnosed_at datetime(6) not null default current_timestamp(6)");
+            return new BenchContext(db, context);
+        } catch (Exception e) {
+            stopQuietly(db);
+            throw new IllegalStateException("Could not start benchmark context", e);
+        }
+    }
+
+    public static BenchContext start() {
+        return start(Map.of());
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public JdbcTemplate jdbc() {
+        return context.getBean(JdbcTemplate.class);
+    }
+
+    // HTTP port of the embedded server
+    public int port() {
+        return port;
+    }
+
+    @Override
+    public void close() {
+        try {
+            context.close();
+        } finally {
+            stopQuietly(db);
+        }
+    }
+
+    private static void stopQuietly(DB db) {
+        if (db == null) return;
+        try {
+            db.stop();
+        } catch (Exception ignored) {
+        }
+    }
+}
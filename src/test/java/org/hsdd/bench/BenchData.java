@@ -0,0 +1,89 @@
+package org.hsdd.bench;
+
+import org.hsdd.service.PatientActivityService;
+import org.hsdd.service.PatientTrendService;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Synthetic patients for the database benchmarks. Rows go in with plain JDBC
+// batches / INSERT ... SELECT so 100k patients seed in seconds; the derived
+// tables are then rebuilt through the services, as in production.
+public final class BenchData {
+
+    private static final int BATCH = 1000;
+    private static final String PASSWORD_HASH = "$2a$10$benchbenchbenchbenchbenchbenchbenchbenchbenchbenchbe";
+
+    private static final String[][] SYMPTOMS = {
+            {"Throbbing headache with light sensitivity", "[\"headache\",\"light sensitivity\"]"},
+            {"Runny nose, sneezing and a sore throat", "[\"runny nose\",\"sore throat\"]"},
+            {"Fever, chills and aching joints", "[\"fever\",\"chills\"]"},
+            {"Stomach cramps and nausea after meals", "[\"nausea\",\"stomach cramps\"]"},
+            {"Itchy red rash on both forearms", "[\"rash\",\"itching\"]"}
+    };
+
+    private BenchData() {}
+
+    // `patients` patients, each with `predictionsPerPatient` symptom + prediction
+    // pairs spread over the past year
+    public static void seedPatients(BenchContext ctx, int patients, int predictionsPerPatient) {
+        JdbcTemplate jdbc = ctx.jdbc();
+
+        insertUsers(jdbc, patients);
+        jdbc.update("INSERT INTO patients (user_id, patient_id, first_name, last_name, date_of_birth) " +
+                "SELECT u.id, LPAD(u.id, 8, '0'), CONCAT('First', u.id), CONCAT('Last', u.id), " +
+                "DATE_SUB('2000-01-01', INTERVAL u.id % 20000 DAY) " +
+                "FROM users u LEFT JOIN patients p ON p.user_id = u.id " +
+                "WHERE u.role = 'patient' AND p.id IS NULL");
+
+        for (int round = 0; round < predictionsPerPatient; round++) {
+            String[] symptom = SYMPTOMS[round % SYMPTOMS.length];
+            jdbc.update("INSERT INTO symptoms (patient_id, description, tags, submitted_at) " +
+                            "SELECT patient_id, ?, ?, DATE_SUB(NOW(6), INTERVAL (id * 7919 + ?) % 525600 MINUTE) " +
+                            "FROM patients",
+                    symptom[0], symptom[1], round * 1440);
+        }
+        jdbc.update("INSERT INTO predictions (patient_id, symptom_id, label, confidence, created_at, reviewed) " +
+                "SELECT s.patient_id, s.id, ELT(1 + s.id % " + StubAiClient.LABELS.length + ", " + labelList() + "), " +
+                "0.35 + (s.id % 65) / 100, s.submitted_at, 0 " +
+                "FROM symptoms s LEFT JOIN predictions p ON p.symptom_id = s.id " +
+                "WHERE p.id IS NULL");
+
+        ctx.bean(PatientActivityService.class).rebuild();
+        ctx.bean(PatientTrendService.class).rebuild();
+    }
+
+    public static String anyPatientId(BenchContext ctx) {
+        return ctx.jdbc().queryForObject("SELECT patient_id FROM patients ORDER BY id LIMIT 1", String.class);
+    }
+
+    private static void insertUsers(JdbcTemplate jdbc, int count) {
+        Long start = jdbc.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        Timestamp now = Timestamp.from(Instant.now());
+        String sql = "INSERT INTO users (username, email, password_hash, created_at, role, active) " +
+                "VALUES (?, ?, ?, ?, 'patient', 1)";
+
+        List<Object[]> rows = new ArrayList<>(BATCH);
+        for (long i = start + 1; i <= start + count; i++) {
+            rows.add(new Object[]{"bench_p" + i, "bench_p" + i + "@example.com", PASSWORD_HASH, now});
+            if (rows.size() == BATCH) {
+                jdbc.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbc.batchUpdate(sql, rows);
+        }
+    }
+
+    private static String labelList() {
+        return Arrays.stream(StubAiClient.LABELS)
+                .map(l -> "'" + l.replace("'", "''") + "'")
+                .collect(Collectors.joining(", "));
+    }
+}
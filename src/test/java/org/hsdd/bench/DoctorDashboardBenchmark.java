@@ -0,0 +1,79 @@
+package org.hsdd.bench;
+
+import org.hsdd.dto.AllReportDto;
+import org.hsdd.dto.PageDto;
+import org.hsdd.dto.RecentPatientDto;
+import org.hsdd.dto.ReportFilter;
+import org.hsdd.service.DoctorService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Doctor dashboard reads on the embedded database over 1k-100k patients with
+// one prediction each. The reports export reads everything, so it runs single-shot.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DoctorDashboardBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000", "10000", "100000"})
+    public int patients;
+
+    private BenchContext ctx;
+    private DoctorService doctors;
+    private int lastPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ctx = BenchContext.start();
+        BenchData.seedPatients(ctx, patients, 1);
+        doctors = ctx.bean(DoctorService.class);
+        lastPage = (patients - 1) / PAGE_SIZE;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public PageDto<RecentPatientDto> recentPatientsFirstPage() {
+        return doctors.getRecentPatients(0, PAGE_SIZE);
+    }
+
+    // OFFSET paging: cost grows with the page number
+    @Benchmark
+    public PageDto<RecentPatientDto> recentPatientsLastPage() {
+        return doctors.getRecentPatients(lastPage, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public PageDto<RecentPatientDto> allPatientsByName() {
+        return doctors.getAllPatients(0, 50, "name", "asc");
+    }
+
+    @Benchmark
+    public PageDto<AllReportDto> reportsFirstPage() {
+        return doctors.getReports(ReportFilter.none(), 0, 50, "date", "desc");
+    }
+
+    @Benchmark
+    public PageDto<AllReportDto> reportsLowConfidenceByConfidence() {
+        ReportFilter lowConfidence = new ReportFilter(null, null, 0.5, null, null, null, null);
+        return doctors.getReports(lowConfidence, 0, 50, "confidence", "asc");
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public void exportAllReports(Blackhole bh) {
+        doctors.streamReports(ReportFilter.none(), "date", "desc", bh::consume);
+    }
+}
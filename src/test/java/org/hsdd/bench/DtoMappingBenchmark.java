@@ -0,0 +1,120 @@
+package org.hsdd.bench;
+
+import org.hsdd.dto.CursorPageDto;
+import org.hsdd.dto.LowConfidenceDto;
+import org.hsdd.dto.PageDto;
+import org.hsdd.dto.PatientFullRecordDto;
+import org.hsdd.dto.RecentPatientDto;
+import org.hsdd.dto.SymptomDto;
+import org.hsdd.repo.PatientRepository;
+import org.hsdd.repo.PredictionRepository;
+import org.hsdd.repo.ReviewQueueRepository;
+import org.hsdd.repo.SymptomRepository;
+import org.hsdd.repo.projection.PatientActivityRow;
+import org.hsdd.repo.projection.ReviewItemRow;
+import org.hsdd.repo.projection.SymptomRow;
+import org.hsdd.service.ReviewQueueService;
+import org.hsdd.service.impl.DoctorServiceImpl;
+import org.hsdd.service.impl.RecordsServiceImpl;
+import org.hsdd.value.Prediction;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Entity/projection -> DTO mapping in the services, without a database: the
+// repositories are proxies returning pre-built rows of `rows` items.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoMappingBenchmark {
+
+    private static final String PATIENT = "00000001";
+
+    @Param({"200", "1000"})
+    public int rows;
+
+    private DoctorServiceImpl doctors;
+    private RecordsServiceImpl records;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Prediction> predictions = new ArrayList<>(rows);
+        List<PatientActivityRow> activity = new ArrayList<>(rows);
+        List<SymptomRow> symptoms = new ArrayList<>(rows + 1);
+        List<ReviewItemRow> reviewItems = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Prediction p = new Prediction(PATIENT, (long) i, StubAiClient.LABELS[i % StubAiClient.LABELS.length],
+                    0.35 + (i % 65) / 100.0);
+            p.setId((long) i);
+            p.setCreatedAt(now.minusHours(i));
+            predictions.add(p);
+
+            activity.add(new PatientActivityRow(String.format("%08d", i), "First" + i, "Last" + i,
+                    LocalDate.of(1960, 1, 1).plusDays(i * 7L), now.minusHours(i), "Migraine", "Follow up"));
+
+            reviewItems.add(new ReviewItemRow((long) i, String.format("%08d", i), "First" + i, "Last" + i,
+                    p.getLabel(), 0.35, now.minusHours(i), "Throbbing headache with light sensitivity",
+                    false, i % 4 == 0 ? "doctor1" : null, i % 4 == 0 ? now.plusMinutes(10) : null));
+        }
+        // limit + 1 rows: the service trims one and emits a cursor
+        for (int i = 0; i <= rows; i++) {
+            symptoms.add(new SymptomRow((long) i, "Throbbing headache with light sensitivity",
+                    "[\"headache\",\"light sensitivity\"]", now.minusHours(i)));
+        }
+
+        PredictionRepository predictionRepo = repo(PredictionRepository.class,
+                "findByPatientIdOrderByCreatedAtDesc", predictions);
+        PatientRepository patientRepo = repo(PatientRepository.class,
+                "findRecentActivityRows", new PageImpl<>(activity, PageRequest.of(0, rows), rows * 10L));
+        SymptomRepository symptomRepo = repo(SymptomRepository.class, "findPage", symptoms);
+
+        ReviewQueueRepository reviewRepo = repo(ReviewQueueRepository.class, "findAllPending", reviewItems);
+
+        doctors = new DoctorServiceImpl(null, null, predictionRepo, null, patientRepo, null, null, null, null,
+                new ReviewQueueService(reviewRepo, 0.55, 15, 25));
+        records = new RecordsServiceImpl(symptomRepo, predictionRepo);
+    }
+
+    @Benchmark
+    public PatientFullRecordDto patientRecord() {
+        return doctors.getPatientRecord(PATIENT);
+    }
+
+    @Benchmark
+    public PageDto<RecentPatientDto> recentPatients() {
+        return doctors.getRecentPatients(0, rows);
+    }
+
+    @Benchmark
+    public List<LowConfidenceDto> lowConfidenceQueue() {
+        return doctors.getLowConfidenceReports();
+    }
+
+    // includes parsing each row's tag JSON
+    @Benchmark
+    public CursorPageDto<SymptomDto> symptomPage() {
+        return records.listSymptoms(PATIENT, null, rows);
+    }
+
+    // Repository stand-in: one method returns a fixed value, anything else fails loudly
+    @SuppressWarnings("unchecked")
+    private static <T> T repo(Class<T> type, String method, Object result) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, m, args) -> {
+            if (m.getName().equals(method)) return result;
+            if (m.getName().equals("toString")) return type.getSimpleName() + " stub";
+            throw new UnsupportedOperationException(type.getSimpleName() + "." + m.getName());
+        });
+    }
+}
@@ -0,0 +1,83 @@
+package org.hsdd.bench;
+
+import org.hsdd.model.MedicalHistory;
+import org.hsdd.repo.MedicalHistoryRepository;
+import org.hsdd.service.MedicalHistoryWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Insert rate (rows/s) for one medical history upload on the embedded database:
+// Hibernate saveAll (IDENTITY ids, one INSERT per row) against the JDBC batch
+// in MedicalHistoryWriter, with and without the driver settings
+// (rewriteBatchedStatements, prepared statement cache).
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HistoryInsertBenchmark {
+
+    public static final int ROWS = 1000;
+
+    @Param({"true", "false"})
+    public boolean driverTuning;
+
+    private BenchContext ctx;
+    private MedicalHistoryRepository repo;
+    private MedicalHistoryWriter writer;
+    private String patientId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String tuning = String.valueOf(driverTuning);
+        String prefix = "spring.datasource.hikari.data-source-properties.";
+        ctx = BenchContext.start(Map.of(
+                prefix + "rewriteBatchedStatements", tuning,
+                prefix + "cachePrepStmts", tuning,
+                prefix + "useServerPrepStmts", tuning));
+        BenchData.seedPatients(ctx, 1, 0);
+        patientId = ctx.jdbc().queryForObject("select patient_id from patients limit 1", String.class);
+        repo = ctx.bean(MedicalHistoryRepository.class);
+        writer = ctx.bean(MedicalHistoryWriter.class);
+    }
+
+    // keep the table (and its index) the same size for every iteration
+    @Setup(Level.Iteration)
+    public void truncate() {
+        ctx.jdbc().execute("truncate table medical_history");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<MedicalHistory> saveAll() {
+        return repo.saveAll(upload());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int jdbcBatch() {
+        return writer.insertAll(upload());
+    }
+
+    private List<MedicalHistory> upload() {
+        List<MedicalHistory> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            MedicalHistory h = new MedicalHistory();
+            h.setPatientId(patientId);
+            h.setTitle("Condition " + i);
+            h.setDetails("Recorded during bench upload, line " + i);
+            rows.add(h);
+        }
+        return rows;
+    }
+}
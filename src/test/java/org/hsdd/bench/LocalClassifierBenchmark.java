@@ -0,0 +1,75 @@
+package org.hsdd.bench;
+
+import org.hsdd.ai.AiClient;
+import org.hsdd.ai.NaiveBayesClassifier;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Latency of one local fallback classification, no network or database.
+//   mvn -Pbench verify -DskipTests -Dbench.include=LocalClassifierBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LocalClassifierBenchmark {
+
+    private static final String[] WORDS = {
+            "headache", "nausea", "fever", "cough", "chills", "rash", "itching", "fatigue", "dizziness",
+            "vomiting", "diarrhea", "sore", "throat", "chest", "pain", "shortness", "breath", "back",
+            "joint", "swelling", "light", "sensitivity", "runny", "nose", "sneezing", "stomach", "cramps",
+            "burning", "urination", "blurred", "vision", "numbness", "tingling", "palpitations", "sweating"
+    };
+
+    @Param({"20", "200"})
+    public int labels;
+
+    @Param({"10000"})
+    public int examples;
+
+    private NaiveBayesClassifier classifier;
+    private String description;
+    private List<String> tags;
+
+    @Setup
+    public void setUp() {
+        Random rnd = new Random(42);
+        List<NaiveBayesClassifier.Example> data = new ArrayList<>(examples);
+        for (int i = 0; i < examples; i++) {
+            int label = rnd.nextInt(labels);
+            data.add(new NaiveBayesClassifier.Example(
+                    sentence(rnd, 12), List.of(WORDS[label % WORDS.length]), "condition-" + label));
+        }
+        classifier = NaiveBayesClassifier.train(data, 1);
+        description = "Severe headache with nausea and light sensitivity since yesterday, some dizziness";
+        tags = List.of("headache", "nausea");
+    }
+
+    @Benchmark
+    public AiClient.Result classify() {
+        return classifier.classify(description, tags);
+    }
+
+    private static String sentence(Random rnd, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(WORDS[rnd.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LocalClassifierBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
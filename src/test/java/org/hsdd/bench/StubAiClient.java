@@ -0,0 +1,47 @@
+package org.hsdd.bench;
+
+import org.hsdd.ai.AiClient;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Stands in for the xAI provider: answers from a fixed label set, the same
+// answer for the same input, after latency-ms plus up to jitter-ms. About a fifth of
+// the answers fall under the 0.5 review threshold, like real traffic.
+public class StubAiClient implements AiClient {
+
+    static final String[] LABELS = {
+            "Migraine", "Common cold", "Influenza", "Gastroenteritis", "Allergic rhinitis",
+            "Tension headache", "Sinusitis", "Bronchitis", "Anxiety", "Dermatitis"
+    };
+
+    private final long latencyMs;
+    private final long jitterMs;
+
+    public StubAiClient(long latencyMs, long jitterMs) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+    }
+
+    public StubAiClient(long latencyMs) {
+        this(latencyMs, 0);
+    }
+
+    @Override
+    public Result analyze(String description, List<String> tags) {
+        long delay = latencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted", e);
+            }
+        }
+        int h = Objects.hash(description, tags);
+        String label = LABELS[Math.floorMod(h, LABELS.length)];
+        double confidence = 0.35 + Math.floorMod(h >>> 8, 65) / 100.0;
+        return new Result(label, confidence);
+    }
+}
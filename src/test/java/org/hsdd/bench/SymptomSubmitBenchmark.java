@@ -0,0 +1,53 @@
+package org.hsdd.bench;
+
+import org.hsdd.dto.SubmitSymptomRequest;
+import org.hsdd.dto.SubmitSymptomResponse;
+import org.hsdd.service.SymptomService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// SymptomServiceImpl.submit end to end on the embedded database: symptom insert,
+// the AI client chain down to a zero-latency StubAiClient, prediction insert,
+// activity/trend upserts and audit. Everything but the provider round trip.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SymptomSubmitBenchmark {
+
+    private BenchContext ctx;
+    private SymptomService symptoms;
+    private SubmitSymptomRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ctx = BenchContext.start();
+        BenchData.seedPatients(ctx, 1000, 1);
+        symptoms = ctx.bean(SymptomService.class);
+        request = new SubmitSymptomRequest(
+                BenchData.anyPatientId(ctx),
+                "Severe headache with nausea and light sensitivity since yesterday",
+                List.of("headache", "nausea"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public SubmitSymptomResponse submit() {
+        return symptoms.submit(request, "bench", "127.0.0.1");
+    }
+
+    // same patient from many request threads: contention on its summary rows
+    @Benchmark
+    @Threads(8)
+    public SubmitSymptomResponse submitConcurrent() {
+        return symptoms.submit(request, "bench", "127.0.0.1");
+    }
+}
@@ -0,0 +1,72 @@
+package org.hsdd.bench;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Symptom tags are stored as a JSON array string and parsed back on every read
+// (SymptomServiceImpl, RecordsServiceImpl, LocalAiClient). Shared mapper with a
+// TypeReference, as the services do, against a pre-built reader/writer and a
+// mapper per call.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TagJsonBenchmark {
+
+    private static final TypeReference<List<String>> TAG_LIST = new TypeReference<>() {};
+
+    @Param({"2", "12"})
+    public int tagCount;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private ObjectReader reader;
+    private ObjectWriter writer;
+    private List<String> tags;
+    private String json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        reader = mapper.readerFor(TAG_LIST);
+        writer = mapper.writerFor(TAG_LIST);
+        tags = new ArrayList<>(tagCount);
+        for (int i = 0; i < tagCount; i++) {
+            tags.add("symptom tag " + i);
+        }
+        json = mapper.writeValueAsString(tags);
+    }
+
+    @Benchmark
+    public String serialize() throws JsonProcessingException {
+        return mapper.writeValueAsString(tags);
+    }
+
+    @Benchmark
+    public String serializeWithWriter() throws JsonProcessingException {
+        return writer.writeValueAsString(tags);
+    }
+
+    @Benchmark
+    public List<String> deserialize() throws JsonProcessingException {
+        return mapper.readValue(json, TAG_LIST);
+    }
+
+    @Benchmark
+    public List<String> deserializeWithReader() throws JsonProcessingException {
+        return reader.readValue(json);
+    }
+
+    @Benchmark
+    public List<String> deserializeNewMapper() throws JsonProcessingException {
+        return new ObjectMapper().readValue(json, TAG_LIST);
+    }
+}
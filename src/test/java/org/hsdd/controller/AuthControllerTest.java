@@ -6,6 +6,8 @@ import org.hsdd.model.User;
 import org.hsdd.dto.AuthResponse;
 import org.hsdd.dto.LoginRequest;
 import org.hsdd.dto.SignupRequest;
+import org.hsdd.security.AuthPrincipal;
+import org.hsdd.security.LoginThrottledException;
 import org.hsdd.security.TokenAuthFilter;
 import org.hsdd.service.AuthService;
 import org.hsdd.service.UserService;
@@ -16,11 +18,17 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.test.web.servlet.MockMvc;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import java.util.List;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(AuthController.class)
@@ -157,7 +165,7 @@ class AuthControllerTest {
                 "PAT-XYZ"
         );
 
-        when(authService.login(any()))
+        when(authService.login(any(), any()))
                 .thenReturn(res);
 
         String body = """
@@ -181,7 +189,7 @@ class AuthControllerTest {
     @Test
     void login_passesCorrectDataToService() throws Exception {
 
-        when(authService.login(any()))
+        when(authService.login(any(), any()))
                 .thenReturn(new AuthResponse(
                         null,
                         null,
@@ -203,7 +211,7 @@ class AuthControllerTest {
                 .andExpect(status().isOk());
 
         ArgumentCaptor<LoginRequest> captor = ArgumentCaptor.forClass(LoginRequest.class);
-        verify(authService).login(captor.capture());
+        verify(authService).login(captor.capture(), eq("127.0.0.1"));
 
         LoginRequest sent = captor.getValue();
 
@@ -214,7 +222,7 @@ class AuthControllerTest {
     @Test
     void login_whenServiceThrows_returns500() throws Exception {
 
-        when(authService.login(any()))
+        when(authService.login(any(), any()))
                 .thenThrow(new RuntimeException("bad"));
 
         String body = """
@@ -229,4 +237,93 @@ class AuthControllerTest {
                         .content(body))
                 .andExpect(status().isInternalServerError());
     }
+
+    @Test
+    void login_whenThrottled_returns429WithRetryAfter() throws Exception {
+
+        when(authService.login(any(), any()))
+                .thenThrow(new LoginThrottledException(120));
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                        {"username":"jess","password":"wrong"}
+                        """))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "120"));
+    }
+
+    @Test
+    void login_whenHashingSaturated_returns503() throws Exception {
+
+        when(authService.login(any(), any()))
+                .thenThrow(new IllegalStateException("Too many password checks in progress, try again shortly"));
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                        {"username":"jess","password":"pw"}
+                        """))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    // =========================
+    //    RESET PASSWORD TESTS
+    // =========================
+
+    private static UsernamePasswordAuthenticationToken user(Long id, String name, String role) {
+        var auth = new UsernamePasswordAuthenticationToken(name, null,
+                List.of(new SimpleGrantedAuthority("ROLE_" + role.toUpperCase())));
+        auth.setDetails(new AuthPrincipal(id, name, role, true));
+        return auth;
+    }
+
+    @Test
+    void resetPassword_ownAccount_returns200() throws Exception {
+
+        mockMvc.perform(put("/api/auth/reset-password/10")
+                        .principal(user(10L, "jess", "patient"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                        {"newPassword":"Stronger456!"}
+                        """))
+                .andExpect(status().isOk());
+
+        verify(authService).resetPassword(10L, "Stronger456!");
+    }
+
+    @Test
+    void resetPassword_adminMayResetAnyAccount() throws Exception {
+
+        mockMvc.perform(put("/api/auth/reset-password/10")
+                        .principal(user(1L, "root", "admin"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                        {"newPassword":"Stronger456!"}
+                        """))
+                .andExpect(status().isOk());
+
+        verify(authService).resetPassword(10L, "Stronger456!");
+    }
+
+    @Test
+    void resetPassword_otherAccountOrAnonymous_returns403WithoutHashing() throws Exception {
+
+        mockMvc.perform(put("/api/auth/reset-password/10")
+                        .principal(user(11L, "mallory", "doctor"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                        {"newPassword":"Stronger456!"}
+                        """))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(put("/api/auth/reset-password/10")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                        {"newPassword":"Stronger456!"}
+                        """))
+                .andExpect(status().isForbidden());
+
+        verify(authService, never()).resetPassword(any(), any());
+    }
 }
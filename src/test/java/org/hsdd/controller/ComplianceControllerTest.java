@@ -1,12 +1,19 @@
 package org.hsdd.controller;
 
+import org.hsdd.ai.BatchingAiClient;
+import org.hsdd.ai.CachingAiClient;
+import org.hsdd.ai.LocalAiClient;
+import org.hsdd.ai.ResilientAiClient;
 import org.hsdd.dto.*;
 import org.hsdd.repo.UserRepository;
 import org.hsdd.service.AdminService;
+import org.hsdd.service.AuditSink;
+import org.hsdd.service.LatencyStats;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.hsdd.security.TokenAuthFilter;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
@@ -29,14 +36,36 @@ class ComplianceControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    // --- REQUIRED BY SECURITY FILTER ---
+    @MockBean
+    private TokenAuthFilter tokenAuthFilter;
+
     @MockBean
     private AdminService adminService;
 
     @MockBean
     private UserRepository userRepository;
 
+    @MockBean
+    private AuditSink auditSink;
+
+    @MockBean
+    private CachingAiClient inferenceCache;
+
+    @MockBean
+    private ResilientAiClient aiClient;
+
+    @MockBean
+    private BatchingAiClient aiBatcher;
+
+    @MockBean
+    private LocalAiClient localClassifier;
+
+    @MockBean
+    private LatencyStats latencyStats;
+
     // =======================================================================================
-    // 1) listUsers()  → returns JSON array of AdminUserDto
+    // 1) listUsers()  → returns a page of AdminUserDto
     // =======================================================================================
     @Test
     void listUsers_returnsListOfUsers() throws Exception {
@@ -55,14 +84,33 @@ class ComplianceControllerTest {
                 Instant.now()
         );
 
-        when(adminService.listUsers()).thenReturn(List.of(dto));
+        when(adminService.listUsers(null, null, null, 0, 50, "id", "asc"))
+                .thenReturn(new PageDto<>(List.of(dto), 0, 50, 1, 1));
 
         mockMvc.perform(get("/api/admin/users"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].userId").value(10))
-                .andExpect(jsonPath("$[0].username").value("jess"))
-                .andExpect(jsonPath("$[0].role").value("ADMIN"))
-                .andExpect(jsonPath("$[0].active").value(true));
+                .andExpect(jsonPath("$.items[0].userId").value(10))
+                .andExpect(jsonPath("$.items[0].username").value("jess"))
+                .andExpect(jsonPath("$.items[0].role").value("ADMIN"))
+                .andExpect(jsonPath("$.items[0].active").value(true))
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    @Test
+    void listUsers_bindsFiltersAndClampsPageSize() throws Exception {
+        when(adminService.listUsers("doctor", false, "dr", 2, 200, "name", "desc"))
+                .thenReturn(new PageDto<>(List.of(), 2, 200, 0, 0));
+
+        mockMvc.perform(get("/api/admin/users")
+                        .param("role", "doctor")
+                        .param("active", "false")
+                        .param("q", "dr")
+                        .param("page", "2")
+                        .param("size", "10000")
+                        .param("sort", "name")
+                        .param("dir", "desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.page").value(2));
     }
 
     // =======================================================================================
@@ -101,6 +149,11 @@ class ComplianceControllerTest {
     void systemHealth_returnsHealthJson() throws Exception {
 
         when(userRepository.countByActiveTrue()).thenReturn(7L);
+        when(auditSink.stats()).thenReturn(new AuditSink.Stats(3, 10000, 50, 47, 0, 0, 0, 5));
+        when(latencyStats.snapshot()).thenReturn(new LatencyStats.Snapshot(
+                new LatencyStats.Latency(40, 812.0, 2430.5, 2600.0),
+                new LatencyStats.Latency(38, 790.2, 2400.0, 2590.0),
+                List.of(new LatencyStats.EndpointLatency("POST", "/api/patient/symptoms", 40, 1, 820.0, 2450.0))));
 
         mockMvc.perform(get("/api/admin/system-health"))
                 .andExpect(status().isOk())
@@ -108,7 +161,12 @@ class ComplianceControllerTest {
                 .andExpect(jsonPath("$.cpuUsage").exists())
                 .andExpect(jsonPath("$.memoryUsage").exists())
                 .andExpect(jsonPath("$.uptime").exists())
-                .andExpect(jsonPath("$.lastBackup").value("2025-11-11 23:45"));
+                .andExpect(jsonPath("$.lastBackup").value("unknown"))
+                .andExpect(jsonPath("$.auditQueue.queueDepth").value(3))
+                .andExpect(jsonPath("$.auditQueue.dropped").value(0))
+                .andExpect(jsonPath("$.latency.inference.p50Ms").value(812.0))
+                .andExpect(jsonPath("$.latency.inference.p99Ms").value(2430.5))
+                .andExpect(jsonPath("$.latency.endpoints[0].uri").value("/api/patient/symptoms"));
     }
     @Test
     void createUser_returnsCreatedUser() throws Exception {
@@ -208,13 +266,63 @@ class ComplianceControllerTest {
                 "127.0.0.1"
         );
 
-        when(adminService.listAuditLogs(5)).thenReturn(List.of(log));
+        when(adminService.searchAuditLogs(null, null, null, null, null, 5))
+                .thenReturn(new CursorPageDto<>(List.of(log), null));
 
         mockMvc.perform(get("/api/admin/audit-logs?limit=5"))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
                 .andExpect(jsonPath("$[0].eventType").value("LOGIN"));
     }
 
+    @Test
+    void listAuditLogs_passesFiltersAndReturnsCursorHeader() throws Exception {
+
+        AuditLogDto log = new AuditLogDto(
+                7L, Instant.parse("2025-01-02T10:00:00Z"), "bob", "LOGIN", null, "10.0.0.1"
+        );
+
+        when(adminService.searchAuditLogs("bob", "LOGIN",
+                Instant.parse("2025-01-01T00:00:00Z"), null, "2025-01-03T00:00:00Z_9", 1))
+                .thenReturn(new CursorPageDto<>(List.of(log), "2025-01-02T10:00:00Z_7"));
+
+        mockMvc.perform(get("/api/admin/audit-logs")
+                        .param("limit", "1")
+                        .param("actor", "bob")
+                        .param("type", "LOGIN")
+                        .param("from", "2025-01-01T00:00:00Z")
+                        .param("cursor", "2025-01-03T00:00:00Z_9"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "2025-01-02T10:00:00Z_7"))
+                .andExpect(jsonPath("$[0].id").value(7));
+    }
+
+    @Test
+    void listAuditLogs_badCursorReturns400() throws Exception {
+
+        when(adminService.searchAuditLogs(any(), any(), any(), any(), eq("nope"), anyInt()))
+                .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        mockMvc.perform(get("/api/admin/audit-logs?cursor=nope"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void auditSummaryByWindow_returnsBuckets() throws Exception {
+
+        when(adminService.auditSummary(
+                Instant.parse("2025-01-01T00:00:00Z"), Instant.parse("2025-01-02T00:00:00Z"), "hour"))
+                .thenReturn(List.of(new AuditSummaryDto("2025-01-01 09:00:00", "LOGIN", 4L)));
+
+        mockMvc.perform(get("/api/admin/audit-logs/summary")
+                        .param("from", "2025-01-01T00:00:00Z")
+                        .param("to", "2025-01-02T00:00:00Z")
+                        .param("bucket", "hour"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bucket").value("2025-01-01 09:00:00"))
+                .andExpect(jsonPath("$[0].count").value(4));
+    }
+
     @Test
     void auditSummary_returnsSummaryMap() throws Exception {
 
@@ -242,4 +350,46 @@ class ComplianceControllerTest {
     }
 
 
+
+    // =======================================================================================
+    // rebuildActivitySummary() → returns number of rebuilt rows
+    // =======================================================================================
+    @Test
+    void rebuildActivitySummary_returnsRowCount() throws Exception {
+
+        when(adminService.rebuildActivitySummary("root")).thenReturn(7);
+
+        mockMvc.perform(post("/api/admin/maintenance/activity-summary/rebuild")
+                        .principal(() -> "root"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(7));
+    }
+
+    // =======================================================================================
+    // retrainLocalClassifier() → returns number of training examples
+    // =======================================================================================
+    @Test
+    void retrainLocalClassifier_returnsExampleCount() throws Exception {
+
+        when(adminService.retrainLocalClassifier("root")).thenReturn(250);
+
+        mockMvc.perform(post("/api/admin/maintenance/local-classifier/retrain")
+                        .principal(() -> "root"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.examples").value(250));
+    }
+
+    // =======================================================================================
+    // rebuildTrends() → returns number of rows written
+    // =======================================================================================
+    @Test
+    void rebuildTrends_returnsRowCount() throws Exception {
+
+        when(adminService.rebuildTrends("root")).thenReturn(96);
+
+        mockMvc.perform(post("/api/admin/maintenance/trends/rebuild")
+                        .principal(() -> "root"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(96));
+    }
 }
@@ -1,9 +1,13 @@
 package org.hsdd.controller;
 
+import org.hsdd.dto.HistoryImportDto;
+import org.hsdd.dto.HistoryLineError;
 import org.hsdd.model.MedicalHistory;
+import org.hsdd.security.PatientAccess;
 import org.hsdd.security.TokenAuthFilter;
 import org.hsdd.service.MedicalHistoryService;
 import org.hsdd.web.TestSecurityConfig;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -11,9 +15,12 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
@@ -35,23 +42,118 @@ class MedicalHistoryControllerTest {
     @MockBean
     private TokenAuthFilter tokenAuthFilter;
 
+    @MockBean
+    private PatientAccess access;
+
+    // ownership rules are PatientAccessTest's; here every caller owns every record
+    @BeforeEach
+    void allowAll() {
+        when(access.allows(any(), any())).thenReturn(true);
+    }
 
     // ---------------------------------------------------------
     // 1) uploadHistory() tests
     // ---------------------------------------------------------
 
+    private static HistoryImportDto result(String status) {
+        return new HistoryImportDto(7L, "12345678", "history.txt", "text", status,
+                120, 118, 2, null, Instant.now(), Instant.now(),
+                List.of(new HistoryLineError(5, "Missing title before ':'")));
+    }
+
     @Test
     void uploadHistory_success() throws Exception {
         MockMultipartFile file = new MockMultipartFile(
                 "file", "history.txt", "text/plain", "sample data".getBytes()
         );
+        when(historyService.uploadHistoryFile(eq("12345678"), isNull(), isNull(), any()))
+                .thenReturn(result("COMPLETED"));
 
         mockMvc.perform(multipart("/api/history/upload")
                         .file(file)
                         .param("patientId", "12345678"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importId").value(7))
+                .andExpect(jsonPath("$.rowsImported").value(118))
+                .andExpect(jsonPath("$.errors[0].line").value(5));
+    }
+
+    @Test
+    void uploadHistory_resumePassesImportId() throws Exception {
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "history.txt", "text/plain", "sample data".getBytes()
+        );
+        when(historyService.uploadHistoryFile(eq("12345678"), eq(7L), isNull(), any()))
+                .thenReturn(result("COMPLETED"));
+
+        mockMvc.perform(multipart("/api/history/upload")
+                        .file(file)
+                        .param("patientId", "12345678")
+                        .param("importId", "7"))
+                .andExpect(status().isOk());
+
+        verify(historyService).uploadHistoryFile(eq("12345678"), eq(7L), isNull(), any());
+    }
+
+    @Test
+    void uploadHistory_failedImport_returns500WithProgress() throws Exception {
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "history.txt", "text/plain", "sample data".getBytes()
+        );
+        when(historyService.uploadHistoryFile(eq("12345678"), isNull(), isNull(), any()))
+                .thenReturn(result("FAILED"));
+
+        mockMvc.perform(multipart("/api/history/upload")
+                        .file(file)
+                        .param("patientId", "12345678"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.linesCommitted").value(120));
+    }
+
+    @Test
+    void uploadHistory_importAlreadyRunning_returns409() throws Exception {
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "history.txt", "text/plain", "sample data".getBytes()
+        );
+        when(historyService.uploadHistoryFile(eq("12345678"), eq(7L), isNull(), any()))
+                .thenThrow(new IllegalStateException("Import 7 is already running"));
+
+        mockMvc.perform(multipart("/api/history/upload")
+                        .file(file)
+                        .param("patientId", "12345678")
+                        .param("importId", "7"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void uploadHistory_bulkFileAsDoctor_passesFormat() throws Exception {
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "export.csv", "text/csv", "patientId,title\n00000001,Asthma\n".getBytes()
+        );
+        when(historyService.uploadHistoryFile(isNull(), isNull(), eq("csv"), any()))
+                .thenReturn(result("COMPLETED"));
+
+        mockMvc.perform(multipart("/api/history/upload")
+                        .file(file)
+                        .param("format", "csv")
+                        .principal(new UsernamePasswordAuthenticationToken("doc", null,
+                                List.of(new SimpleGrantedAuthority("ROLE_DOCTOR")))))
                 .andExpect(status().isOk());
+    }
+
+    @Test
+    void uploadHistory_bulkFileAsPatient_returns403() throws Exception {
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "export.csv", "text/csv", "patientId,title\n".getBytes()
+        );
+
+        mockMvc.perform(multipart("/api/history/upload")
+                        .file(file)
+                        .principal(new UsernamePasswordAuthenticationToken("pat", null,
+                                List.of(new SimpleGrantedAuthority("ROLE_PATIENT")))))
+                .andExpect(status().isForbidden());
 
-        verify(historyService).uploadHistoryFile(eq("12345678"), any());
+        verifyNoInteractions(historyService);
     }
 
     @Test
@@ -67,8 +169,8 @@ class MedicalHistoryControllerTest {
                 "file", "x.txt", "text/plain", "abc".getBytes()
         );
 
-        doThrow(new IOException("err"))
-                .when(historyService).uploadHistoryFile(eq("12345678"), any());
+        when(historyService.uploadHistoryFile(eq("12345678"), any(), any(), any()))
+                .thenThrow(new IOException("err"));
 
         mockMvc.perform(multipart("/api/history/upload")
                         .file(file)
@@ -76,6 +178,38 @@ class MedicalHistoryControllerTest {
                 .andExpect(status().isInternalServerError());
     }
 
+    @Test
+    void uploadHistory_otherPatient_returns403() throws Exception {
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "history.txt", "text/plain", "sample data".getBytes()
+        );
+        when(access.allows(any(), eq("87654321"))).thenReturn(false);
+
+        mockMvc.perform(multipart("/api/history/upload")
+                        .file(file)
+                        .param("patientId", "87654321"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(historyService);
+    }
+
+    @Test
+    void getImport_otherPatientsImport_returns403() throws Exception {
+        when(historyService.getImport(7L)).thenReturn(result("RUNNING"));
+        when(access.allows(any(), eq("12345678"))).thenReturn(false);
+
+        mockMvc.perform(get("/api/history/imports/7"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void getImport_unknown_returns404() throws Exception {
+        when(historyService.getImport(99L)).thenThrow(new IllegalArgumentException("Import not found"));
+
+        mockMvc.perform(get("/api/history/imports/99"))
+                .andExpect(status().isNotFound());
+    }
+
     // ---------------------------------------------------------
     // 2) listHistory() tests
     // ---------------------------------------------------------
@@ -97,6 +231,17 @@ class MedicalHistoryControllerTest {
                 .andExpect(jsonPath("$[0].title").value("Asthma"));
     }
 
+    @Test
+    void listHistory_otherPatient_returns403() throws Exception {
+        when(access.allows(any(), eq("87654321"))).thenReturn(false);
+
+        mockMvc.perform(get("/api/history")
+                        .param("patientId", "87654321"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(historyService);
+    }
+
     @Test
     void listHistory_missingPatientId_returns400() throws Exception {
         mockMvc.perform(get("/api/history"))
@@ -135,6 +280,19 @@ class MedicalHistoryControllerTest {
                 .andExpect(jsonPath("$.id").value(10));
     }
 
+    @Test
+    void addHistoryEntry_otherPatient_returns403() throws Exception {
+        when(access.allows(any(), eq("87654321"))).thenReturn(false);
+
+        mockMvc.perform(post("/api/history/add")
+                        .param("patientId", "87654321")
+                        .param("title", "x")
+                        .param("details", "y"))
+                .andExpect(status().isForbidden());
+
+        verify(historyService, never()).save(any());
+    }
+
     @Test
     void addHistoryEntry_missingParams_returns400() throws Exception {
         mockMvc.perform(post("/api/history/add")
@@ -9,23 +9,30 @@ import org.hsdd.repo.UserRepository;
 import org.hsdd.service.DoctorFactory;
 import org.hsdd.service.DoctorService;
 import org.hsdd.service.NotificationService;
+import org.hsdd.service.NotificationStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.hsdd.security.AuthPrincipal;
+import org.hsdd.security.TokenAuthFilter;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import jakarta.servlet.ServletException;
 
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -41,12 +48,19 @@ class PredictionControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    // --- REQUIRED BY SECURITY FILTER ---
+    @MockBean
+    private TokenAuthFilter tokenAuthFilter;
+
     @MockBean
     private DoctorService doctorService;
 
     @MockBean
     private NotificationService notificationService;
 
+    @MockBean
+    private NotificationStream notificationStream;
+
     @MockBean
     private UserRepository users;
 
@@ -113,6 +127,42 @@ class PredictionControllerTest {
                 .andExpect(jsonPath("$[1].count").value(2));
     }
 
+    @Test
+    void getTrends_withRange_passesDates() throws Exception {
+        when(doctorService.getPatientTrends("PAT-2", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 4, 1)))
+                .thenReturn(List.of(new TrendDataDto("HSDD", 3L)));
+
+        mockMvc.perform(get("/api/doctor/patients/PAT-2/trends")
+                        .param("from", "2025-01-01")
+                        .param("to", "2025-04-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].label").value("HSDD"))
+                .andExpect(jsonPath("$[0].count").value(3));
+    }
+
+    @Test
+    void getTrendHistogram_returnsBuckets() throws Exception {
+        when(doctorService.getPatientTrendHistogram("PAT-2", "month", null, null))
+                .thenReturn(List.of(
+                        new TrendBucketDto(LocalDate.of(2025, 3, 1), "HSDD", 2L),
+                        new TrendBucketDto(LocalDate.of(2025, 4, 1), "Anxiety", 1L)));
+
+        mockMvc.perform(get("/api/doctor/patients/PAT-2/trends/histogram").param("bucket", "month"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bucketStart").value("2025-03-01"))
+                .andExpect(jsonPath("$[0].label").value("HSDD"))
+                .andExpect(jsonPath("$[1].count").value(1));
+    }
+
+    @Test
+    void getTrendHistogram_badBucket_returns400() throws Exception {
+        when(doctorService.getPatientTrendHistogram("PAT-2", "year", null, null))
+                .thenThrow(new IllegalArgumentException("bucket must be week or month"));
+
+        mockMvc.perform(get("/api/doctor/patients/PAT-2/trends/histogram").param("bucket", "year"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getPredictions_emptyListWhenNone() throws Exception {
         when(doctorService.getPatientPredictions("PAT-EMPTY"))
@@ -318,7 +368,7 @@ class PredictionControllerTest {
         User doctor = mockDoctorUser(10L, "doctor1");
 
         when(users.findByUsername("doctor1")).thenReturn(Optional.of(doctor));
-        when(notificationService.getUnreadNotifications(10L))
+        when(notificationService.getUnread(10L, null))
                 .thenReturn(Collections.emptyList());
 
         mockMvc.perform(get("/api/doctor/notifications")
@@ -327,6 +377,38 @@ class PredictionControllerTest {
                 .andExpect(content().json("[]"));
     }
 
+    @Test
+    void getUnreadNotifications_sinceIdUsesTokenUserWithoutLookup() throws Exception {
+        var auth = new UsernamePasswordAuthenticationToken("doctor1", null, List.of());
+        auth.setDetails(new AuthPrincipal(10L, "doctor1", "doctor", true));
+
+        NotificationDto n = new NotificationDto(42L, 7L, "Low confidence prediction", false, null);
+        when(notificationService.getUnread(10L, 41L)).thenReturn(List.of(n));
+
+        mockMvc.perform(get("/api/doctor/notifications")
+                        .param("sinceId", "41")
+                        .principal(auth))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(42))
+                .andExpect(jsonPath("$[0].predictionId").value(7));
+
+        verify(users, never()).findByUsername(any());
+    }
+
+    @Test
+    void streamNotifications_subscribesWithLastEventId() throws Exception {
+        User doctor = mockDoctorUser(10L, "doctor1");
+        when(users.findByUsername("doctor1")).thenReturn(Optional.of(doctor));
+        when(notificationStream.subscribe(10L, 41L)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/doctor/notifications/stream")
+                        .header("Last-Event-ID", "41")
+                        .principal(() -> "doctor1"))
+                .andExpect(request().asyncStarted());
+
+        verify(notificationStream).subscribe(10L, 41L);
+    }
+
     @Test
     void getUnreadNotifications_throwsWhenUserNotFound() throws Exception {
         when(users.findByUsername("missingDoctor"))
@@ -373,15 +455,16 @@ class PredictionControllerTest {
                 "Follow up in one month"
         );
 
-        when(doctorService.getRecentPatients())
-                .thenReturn(List.of(dto));
+        when(doctorService.getRecentPatients(0, 20))
+                .thenReturn(new PageDto<>(List.of(dto), 0, 20, 1, 1));
 
         mockMvc.perform(get("/api/doctor/recent-patients"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].patientId").value("PAT-1"))
-                .andExpect(jsonPath("$[0].name").value("Alice Smith"))
-                .andExpect(jsonPath("$[0].age").value(31))
-                .andExpect(jsonPath("$[0].lastDiagnosis").value("HSDD"));
+                .andExpect(jsonPath("$.items[0].patientId").value("PAT-1"))
+                .andExpect(jsonPath("$.items[0].name").value("Alice Smith"))
+                .andExpect(jsonPath("$.items[0].age").value(31))
+                .andExpect(jsonPath("$.items[0].lastDiagnosis").value("HSDD"))
+                .andExpect(jsonPath("$.totalElements").value(1));
     }
 
     @Test
@@ -403,23 +486,38 @@ class PredictionControllerTest {
                 "Note2"
         );
 
-        when(doctorService.getAllPatients())
-                .thenReturn(List.of(dto1, dto2));
+        when(doctorService.getAllPatients(0, 50, "name", "asc"))
+                .thenReturn(new PageDto<>(List.of(dto1, dto2), 0, 50, 2, 1));
 
         mockMvc.perform(get("/api/doctor/all-patients"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].patientId").value("PAT-1"))
-                .andExpect(jsonPath("$[1].patientId").value("PAT-2"));
+                .andExpect(jsonPath("$.items[0].patientId").value("PAT-1"))
+                .andExpect(jsonPath("$.items[1].patientId").value("PAT-2"));
+    }
+
+    @Test
+    void getAllPatients_passesPagingAndSortParams() throws Exception {
+        when(doctorService.getAllPatients(2, 200, "lastVisit", "desc"))
+                .thenReturn(new PageDto<>(Collections.emptyList(), 2, 200, 0, 0));
+
+        mockMvc.perform(get("/api/doctor/all-patients")
+                        .param("page", "2")
+                        .param("size", "5000")
+                        .param("sort", "lastVisit")
+                        .param("dir", "desc"))
+                .andExpect(status().isOk());
+
+        verify(doctorService).getAllPatients(2, 200, "lastVisit", "desc");
     }
 
     @Test
     void getAllPatients_emptyWhenNone() throws Exception {
-        when(doctorService.getAllPatients())
-                .thenReturn(Collections.emptyList());
+        when(doctorService.getAllPatients(0, 50, "name", "asc"))
+                .thenReturn(new PageDto<>(Collections.emptyList(), 0, 50, 0, 0));
 
         mockMvc.perform(get("/api/doctor/all-patients"))
                 .andExpect(status().isOk())
-                .andExpect(content().json("[]"));
+                .andExpect(jsonPath("$.items").isEmpty());
     }
 
     // -------------------------------------------------------------------------
@@ -515,6 +613,83 @@ class PredictionControllerTest {
                 .markPredictionReviewed(50L);
     }
 
+    @Test
+    void markLowConfidenceReviewed_leasedToAnotherDoctor_returns409() throws Exception {
+        doThrow(new IllegalStateException("Claimed by another doctor"))
+                .when(mockDoctor).markPredictionReviewed(51L);
+
+        mockMvc.perform(put("/api/doctor/low-confidence/51/review")
+                        .principal(() -> "doctorUser"))
+                .andExpect(status().isConflict());
+    }
+
+    // -------------------------------------------------------------------------
+    // REVIEW QUEUE (claim / lease)
+    // -------------------------------------------------------------------------
+
+    private ReviewItemDto reviewItem(Long id, String claimedBy) {
+        return new ReviewItemDto(id, "Alice", "PAT-1", "Flu", 0.3, LocalDateTime.now(),
+                "Fever", claimedBy, claimedBy != null ? LocalDateTime.now().plusMinutes(15) : null);
+    }
+
+    @Test
+    void getReviewQueue_clampsPageSize() throws Exception {
+        when(mockDoctor.getReviewQueue(0, 200))
+                .thenReturn(new PageDto<>(List.of(reviewItem(1L, null)), 0, 200, 1, 1));
+
+        mockMvc.perform(get("/api/doctor/review-queue")
+                        .param("size", "5000")
+                        .principal(() -> "doctorUser"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.items[0].claimedBy").doesNotExist());
+    }
+
+    @Test
+    void claimReviews_returnsClaimedItems() throws Exception {
+        when(mockDoctor.claimReviews(10))
+                .thenReturn(List.of(reviewItem(1L, "doctorUser"), reviewItem(2L, "doctorUser")));
+
+        mockMvc.perform(post("/api/doctor/review-queue/claim")
+                        .principal(() -> "doctorUser"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].claimedBy").value("doctorUser"));
+    }
+
+    @Test
+    void getClaimedReviews_returnsMine() throws Exception {
+        when(mockDoctor.getClaimedReviews()).thenReturn(List.of(reviewItem(3L, "doctorUser")));
+
+        mockMvc.perform(get("/api/doctor/review-queue/mine")
+                        .principal(() -> "doctorUser"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(3));
+    }
+
+    @Test
+    void renewReviewClaims_returnsCount() throws Exception {
+        when(mockDoctor.renewReviewClaims()).thenReturn(4);
+
+        mockMvc.perform(post("/api/doctor/review-queue/renew")
+                        .principal(() -> "doctorUser"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.renewed").value(4));
+    }
+
+    @Test
+    void releaseReviewClaim_notHeld_returns409() throws Exception {
+        when(mockDoctor.releaseReviewClaim(5L)).thenReturn(true);
+        when(mockDoctor.releaseReviewClaim(6L)).thenReturn(false);
+
+        mockMvc.perform(delete("/api/doctor/review-queue/claims/5")
+                        .principal(() -> "doctorUser"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/doctor/review-queue/claims/6")
+                        .principal(() -> "doctorUser"))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void getSingleLowConfidence_returnsOne() throws Exception {
         LowConfidenceDto dto = new LowConfidenceDto(
@@ -583,7 +758,7 @@ class PredictionControllerTest {
     // -------------------------------------------------------------------------
 
     @Test
-    void getAllReports_returnsAllReports() throws Exception {
+    void getReports_returnsPageAndBindsFilters() throws Exception {
         AllReportDto r1 = new AllReportDto(
                 1L,
                 "Alice",
@@ -597,25 +772,144 @@ class PredictionControllerTest {
                 2L,
                 "Bob",
                 "PAT-2",
-                "Anxiety",
+                "HSDD",
                 0.8,
                 Instant.now(),
                 "dr_jones"
         );
 
-        // ✅ UML-consistent: controller calls Doctor → getAllReports()
-        when(mockDoctor.getAllReports())
-                .thenReturn(List.of(r1, r2));
+        ReportFilter expected = new ReportFilter(
+                "HSDD", 0.5, null, false, LocalDate.of(2025, 1, 1), null, null);
+
+        // ✅ UML-consistent: controller calls Doctor → getReports()
+        when(mockDoctor.getReports(expected, 1, 200, "confidence", "asc"))
+                .thenReturn(new PageDto<>(List.of(r1, r2), 1, 200, 202, 2));
 
         mockMvc.perform(get("/api/doctor/reports")
+                        .param("page", "1")
+                        .param("size", "5000")
+                        .param("sort", "confidence")
+                        .param("dir", "asc")
+                        .param("label", "HSDD")
+                        .param("minConfidence", "0.5")
+                        .param("reviewed", "false")
+                        .param("from", "2025-01-01")
                         .principal(() -> "doctorUser"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.items[0].patientId").value("PAT-1"))
+                .andExpect(jsonPath("$.items[1].id").value(2))
+                .andExpect(jsonPath("$.items[1].disease").value("HSDD"))
+                .andExpect(jsonPath("$.totalElements").value(202));
+    }
+
+    @Test
+    void getReports_invalidRange_returns400() throws Exception {
+        when(mockDoctor.getReports(any(), anyInt(), anyInt(), anyString(), anyString()))
+                .thenThrow(new IllegalArgumentException("minConfidence must not exceed maxConfidence"));
+
+        mockMvc.perform(get("/api/doctor/reports")
+                        .param("minConfidence", "0.9")
+                        .param("maxConfidence", "0.1")
+                        .principal(() -> "doctorUser"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportReports_streamsJsonArray() throws Exception {
+        AllReportDto r1 = new AllReportDto(1L, "Alice", "PAT-1", "HSDD", 0.9, Instant.now(), "dr_smith");
+        AllReportDto r2 = new AllReportDto(2L, "Bob", "PAT-2", "Anxiety", 0.8, Instant.now(), "dr_jones");
+
+        doAnswer(inv -> {
+            java.util.function.Consumer<AllReportDto> sink = inv.getArgument(3);
+            sink.accept(r1);
+            sink.accept(r2);
+            return null;
+        }).when(mockDoctor).exportReports(eq(ReportFilter.none()), eq("date"), eq("desc"), any());
+
+        var started = mockMvc.perform(get("/api/doctor/reports/export")
+                        .principal(() -> "doctorUser"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
                 .andExpect(jsonPath("$[0].patientId").value("PAT-1"))
-                .andExpect(jsonPath("$[0].disease").value("HSDD"))
-                .andExpect(jsonPath("$[1].id").value(2))
-                .andExpect(jsonPath("$[1].patientId").value("PAT-2"))
                 .andExpect(jsonPath("$[1].disease").value("Anxiety"));
     }
 
+    @Test
+    void exportReports_invalidRange_returns400BeforeStreaming() throws Exception {
+        mockMvc.perform(get("/api/doctor/reports/export")
+                        .param("from", "2024-05-01")
+                        .param("to", "2024-04-01")
+                        .principal(() -> "doctorUser"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest());
+
+        verify(mockDoctor, never()).exportReports(any(), any(), any(), any());
+    }
+
+    @Test
+    void exportReports_failureMidway_leavesArrayOpen() throws Exception {
+        AllReportDto r1 = new AllReportDto(1L, "Alice", "PAT-1", "HSDD", 0.9, Instant.now(), "dr_smith");
+        doAnswer(inv -> {
+            java.util.function.Consumer<AllReportDto> sink = inv.getArgument(3);
+            sink.accept(r1);
+            throw new IllegalStateException("connection lost");
+        }).when(mockDoctor).exportReports(any(), any(), any(), any());
+
+        var started = mockMvc.perform(get("/api/doctor/reports/export")
+                        .principal(() -> "doctorUser"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        started.getAsyncResult(5_000);
+
+        String body = started.getResponse().getContentAsString();
+        assertTrue(body.startsWith("[{"), body);
+        assertFalse(body.trim().endsWith("]"), body);
+    }
+
+    @Test
+    void exportReports_tooManyRunning_returns503UntilOneFinishes() throws Exception {
+        java.util.concurrent.CountDownLatch finish = new java.util.concurrent.CountDownLatch(1);
+        doAnswer(inv -> finish.await(5, java.util.concurrent.TimeUnit.SECONDS))
+                .when(mockDoctor).exportReports(any(), any(), any(), any());
+
+        // default cap of 4
+        List<org.springframework.test.web.servlet.MvcResult> running = new java.util.ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            running.add(mockMvc.perform(get("/api/doctor/reports/export")
+                            .principal(() -> "doctorUser"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn());
+        }
+
+        mockMvc.perform(get("/api/doctor/reports/export")
+                        .principal(() -> "doctorUser"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isServiceUnavailable());
+
+        finish.countDown();
+        for (var r : running) r.getAsyncResult(5_000);
+
+        mockMvc.perform(get("/api/doctor/reports/export")
+                        .principal(() -> "doctorUser"))
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    void getReport_returnsSingleReport() throws Exception {
+        when(mockDoctor.getReport(7L))
+                .thenReturn(new AllReportDto(7L, "Alice", "PAT-1", "HSDD", 0.9, Instant.now(), "dr_smith"));
+
+        mockMvc.perform(get("/api/doctor/reports/7")
+                        .principal(() -> "doctorUser"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.patientName").value("Alice"));
+    }
+
 }
@@ -1,12 +1,15 @@
 package org.hsdd.controller;
 
+import org.hsdd.dto.CursorPageDto;
 import org.hsdd.dto.PredictionWithAnnotationDto;
 import org.hsdd.dto.PredictionDto;
 import org.hsdd.dto.SymptomDto;
 import org.hsdd.repo.UserRepository;
+import org.hsdd.security.PatientAccess;
 import org.hsdd.security.TokenAuthFilter;
 import org.hsdd.service.RecordsService;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -18,6 +21,9 @@ import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -40,6 +46,29 @@ class RecordsControllerTest {
     @MockBean
     private RecordsService recordsService;
 
+    @MockBean
+    private PatientAccess access;
+
+    // ownership rules are PatientAccessTest's; here every caller owns every record
+    @BeforeEach
+    void allowAll() {
+        when(access.allows(any(), any())).thenReturn(true);
+    }
+
+    @Test
+    void otherPatientsRecords_return403() throws Exception {
+        when(access.allows(any(), eq("PAT-9"))).thenReturn(false);
+
+        mockMvc.perform(get("/api/records/symptoms")
+                        .param("patientId", "PAT-9"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/records/predictions")
+                        .param("patientId", "PAT-9"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(recordsService);
+    }
+
     // -------------------------------------------------------------------------
     // SYMPTOMS
     // -------------------------------------------------------------------------
@@ -53,8 +82,8 @@ class RecordsControllerTest {
                 LocalDateTime.now()
         );
 
-        when(recordsService.listSymptoms("PAT-1"))
-                .thenReturn(List.of(s1));
+        when(recordsService.listSymptoms("PAT-1", null, 200))
+                .thenReturn(new CursorPageDto<>(List.of(s1), null));
 
         mockMvc.perform(get("/api/records/symptoms")
                         .param("patientId", "PAT-1"))
@@ -67,8 +96,8 @@ class RecordsControllerTest {
 
     @Test
     void listSymptoms_emptyListWhenNone() throws Exception {
-        when(recordsService.listSymptoms("EMPTY"))
-                .thenReturn(Collections.emptyList());
+        when(recordsService.listSymptoms("EMPTY", null, 200))
+                .thenReturn(new CursorPageDto<>(Collections.emptyList(), null));
 
         mockMvc.perform(get("/api/records/symptoms")
                         .param("patientId", "EMPTY"))
@@ -95,8 +124,8 @@ class RecordsControllerTest {
                 null
         );
 
-        when(recordsService.listPredictions("PAT-5"))
-                .thenReturn(List.of(p));
+        when(recordsService.listPredictions("PAT-5", null, 200))
+                .thenReturn(new CursorPageDto<>(List.of(p), null));
 
         mockMvc.perform(get("/api/records/predictions")
                         .param("patientId", "PAT-5"))
@@ -117,12 +146,40 @@ class RecordsControllerTest {
 
     @Test
     void listPredictions_emptyListWhenNone() throws Exception {
-        when(recordsService.listPredictions("EMPTY"))
-                .thenReturn(Collections.emptyList());
+        when(recordsService.listPredictions("EMPTY", null, 200))
+                .thenReturn(new CursorPageDto<>(Collections.emptyList(), null));
 
         mockMvc.perform(get("/api/records/predictions")
                         .param("patientId", "EMPTY"))
                 .andExpect(status().isOk())
                 .andExpect(content().json("[]"));
     }
+
+    // -------------------------------------------------------------------------
+    // KEYSET PAGING
+    // -------------------------------------------------------------------------
+
+    @Test
+    void listPredictions_passesCursorAndExposesNext() throws Exception {
+        when(recordsService.listPredictions("PAT-5", "2025-03-01T10:00_7", 20))
+                .thenReturn(new CursorPageDto<>(Collections.emptyList(), "2025-02-01T09:00_3"));
+
+        mockMvc.perform(get("/api/records/predictions")
+                        .param("patientId", "PAT-5")
+                        .param("before", "2025-03-01T10:00_7")
+                        .param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "2025-02-01T09:00_3"));
+    }
+
+    @Test
+    void listSymptoms_badCursor_returns400() throws Exception {
+        when(recordsService.listSymptoms("PAT-1", "nope", 200))
+                .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        mockMvc.perform(get("/api/records/symptoms")
+                        .param("patientId", "PAT-1")
+                        .param("before", "nope"))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -15,11 +15,14 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.security.Principal;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -140,4 +143,64 @@ class SymptomControllerTest {
 
         assert(ipCaptor.getValue().equals("123.45.67.89"));
     }
+
+    // -----------------------------------------------------------------------------
+    // 4. ASYNC SUBMISSION — returns 202 with a job handle
+    // -----------------------------------------------------------------------------
+    @Test
+    void submitSymptomAsync_returnsAcceptedWithJob() throws Exception {
+
+        when(symptomService.submitAsync(any(), any(), any()))
+                .thenReturn(new SymptomJobDto("job-1", "PENDING", null, null, null, Instant.now(), null));
+
+        String json = """
+        {
+          "patientId": "PAT-1",
+          "text": "Cough",
+          "tags": []
+        }
+        """;
+
+        mockMvc.perform(post("/api/patient/symptoms/async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.jobId").value("job-1"))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+
+    // -----------------------------------------------------------------------------
+    // 5. ASYNC SUBMISSION — full queue maps to 503
+    // -----------------------------------------------------------------------------
+    @Test
+    void submitSymptomAsync_queueFull_returns503() throws Exception {
+
+        when(symptomService.submitAsync(any(), any(), any()))
+                .thenThrow(new IllegalStateException("Inference queue is full, try again later"));
+
+        mockMvc.perform(post("/api/patient/symptoms/async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"patientId\":\"PAT-1\",\"text\":\"Cough\"}"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    // -----------------------------------------------------------------------------
+    // 6. JOB STATUS — known and unknown job ids
+    // -----------------------------------------------------------------------------
+    @Test
+    void getJob_returnsJobOr404() throws Exception {
+
+        PredictionDto prediction = new PredictionDto(5L, 10L, "Flu", 0.8, "moderate", LocalDateTime.now());
+        when(symptomService.getJob(eq("job-1"), any()))
+                .thenReturn(Optional.of(new SymptomJobDto("job-1", "DONE", null, prediction, null, Instant.now(), Instant.now())));
+        when(symptomService.getJob(eq("missing"), any())).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/patient/symptoms/jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("DONE"))
+                .andExpect(jsonPath("$.prediction.label").value("Flu"));
+
+        mockMvc.perform(get("/api/patient/symptoms/jobs/missing"))
+                .andExpect(status().isNotFound());
+    }
 }
@@ -0,0 +1,70 @@
+package org.hsdd.load;
+
+import java.util.Arrays;
+
+// All samples of one endpoint; percentiles are exact (nearest rank) at the end
+final class LatencyRecorder {
+
+    record Summary(
+            long count,
+            long errors,
+            double perSecond,
+            double meanMs,
+            double p50Ms,
+            double p90Ms,
+            double p99Ms,
+            double maxMs
+    ) {}
+
+    private long[] samples = new long[1024];
+    private int size;
+    private long errors;
+
+    synchronized void record(long nanos, boolean ok) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+        if (!ok) errors++;
+    }
+
+    synchronized void merge(LatencyRecorder other) {
+        long[] theirs;
+        long theirErrors;
+        synchronized (other) {
+            theirs = Arrays.copyOf(other.samples, other.size);
+            theirErrors = other.errors;
+        }
+        for (long s : theirs) record(s, true);
+        errors += theirErrors;
+    }
+
+    synchronized Summary summarize(double seconds) {
+        if (size == 0) {
+            return new Summary(0, errors, 0, 0, 0, 0, 0, 0);
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        long total = 0;
+        for (long s : sorted) total += s;
+        return new Summary(
+                size,
+                errors,
+                size / seconds,
+                ms(total / (double) size),
+                ms(percentile(sorted, 0.50)),
+                ms(percentile(sorted, 0.90)),
+                ms(percentile(sorted, 0.99)),
+                ms(sorted[size - 1])
+        );
+    }
+
+    static long percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double ms(double nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
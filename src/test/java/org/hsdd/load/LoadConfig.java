@@ -0,0 +1,67 @@
+package org.hsdd.load;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Load test settings, read from -Dload.* system properties (see LoadTest)
+record LoadConfig(
+        int patients,
+        int doctors,
+        int admins,
+        int symptomsPerPatient,
+        double annotatedShare,
+        int auditRows,
+        int threads,
+        int warmupSeconds,
+        int durationSeconds,
+        long thinkMs,
+        long aiLatencyMs,
+        long aiJitterMs,
+        Map<String, Integer> mix,
+        String report
+) {
+
+    static LoadConfig fromSystemProperties() {
+        return new LoadConfig(
+                intProp("load.patients", 2000),
+                intProp("load.doctors", 20),
+                intProp("load.admins", 3),
+                intProp("load.symptoms-per-patient", 5),
+                Double.parseDouble(System.getProperty("load.annotated-share", "0.2")),
+                intProp("load.audit-rows", 50000),
+                intProp("load.threads", 32),
+                intProp("load.warmup-seconds", 10),
+                intProp("load.duration-seconds", 60),
+                intProp("load.think-ms", 0),
+                intProp("load.ai-latency-ms", 800),
+                intProp("load.ai-jitter-ms", 400),
+                parseMix(System.getProperty("load.mix", "patient=70,doctor=25,admin=5")),
+                System.getProperty("load.report", "target/load-report.json")
+        );
+    }
+
+    // "patient=70,doctor=25,admin=5" -> share of requests per role
+    static Map<String, Integer> parseMix(String s) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : s.split(",")) {
+            String[] kv = part.trim().split("=");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("load.mix entries must look like role=weight: " + part);
+            }
+            String role = kv[0].trim();
+            if (!role.equals("patient") && !role.equals("doctor") && !role.equals("admin")) {
+                throw new IllegalArgumentException("Unknown role in load.mix: " + role);
+            }
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight > 0) mix.put(role, weight);
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("load.mix has no role with a positive weight");
+        }
+        return mix;
+    }
+
+    private static int intProp(String name, int def) {
+        return Integer.parseInt(System.getProperty(name, String.valueOf(def)));
+    }
+}
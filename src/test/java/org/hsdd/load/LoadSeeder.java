@@ -0,0 +1,223 @@
+package org.hsdd.load;
+
+import org.hsdd.bench.BenchContext;
+import org.hsdd.model.Patient;
+import org.hsdd.model.User;
+import org.hsdd.repo.AnnotationRepository;
+import org.hsdd.repo.AuditLogRepository;
+import org.hsdd.repo.PatientRepository;
+import org.hsdd.repo.PredictionRepository;
+import org.hsdd.repo.SymptomRepository;
+import org.hsdd.repo.UserRepository;
+import org.hsdd.service.PatientActivityService;
+import org.hsdd.service.PatientTrendService;
+import org.hsdd.value.Annotation;
+import org.hsdd.value.AuditLogEntry;
+import org.hsdd.value.Prediction;
+import org.hsdd.value.SymptomEntry;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Fills the database through the application's own repositories, so rows look
+// exactly like ones the API writes. Fixed seed: the same config gives the same data.
+final class LoadSeeder {
+
+    static final String PASSWORD = "load-test-pw";
+
+    record Account(String username, String patientId) {}
+
+    record Seeded(List<Account> patients, List<Account> doctors, List<Account> admins, long[] predictionIds) {}
+
+    private static final int CHUNK = 500;
+
+    // Patient ids in the production 8-digit format, from 90000001 up: a range kept
+    // for load data, so seeded ids are easy to spot and to delete afterwards
+    static final long FIRST_PATIENT_ID = 90_000_001L;
+
+    private static final String[][] SYMPTOMS = {
+            {"Throbbing headache with light sensitivity", "[\"headache\",\"light sensitivity\"]"},
+            {"Runny nose, sneezing and a sore throat", "[\"runny nose\",\"sore throat\"]"},
+            {"Fever, chills and aching joints", "[\"fever\",\"chills\"]"},
+            {"Stomach cramps and nausea after meals", "[\"nausea\",\"stomach cramps\"]"},
+            {"Itchy red rash on both forearms", "[\"rash\",\"itching\"]"},
+            {"Dry cough and tightness in the chest at night", "[\"cough\",\"chest tightness\"]"},
+            {"Lower back pain after lifting", "[\"back pain\"]"}
+    };
+
+    private static final String[] LABELS = {
+            "Migraine", "Common cold", "Influenza", "Gastroenteritis", "Dermatitis", "Bronchitis", "Muscle strain"
+    };
+
+    private static final String[] AUDIT_TYPES = {
+            "LOGIN_SUCCESS", "PATIENT_SUBMIT_SYMPTOM", "AI_PREDICTION", "DOCTOR_CREATE_ANNOTATION",
+            "DOCTOR_REVIEW_LOW_CONFIDENCE", "ADMIN_UPDATE_USER"
+    };
+
+    private final BenchContext ctx;
+    private final LoadConfig config;
+    private final Random rnd = new Random(7);
+
+    LoadSeeder(BenchContext ctx, LoadConfig config) {
+        this.ctx = ctx;
+        this.config = config;
+    }
+
+    Seeded seed() {
+        // one hash for everyone: BCrypt per user would dominate the seeding time
+        String hash = ctx.bean(PasswordEncoder.class).encode(PASSWORD);
+
+        List<User> doctorUsers = users("doctor", config.doctors(), hash);
+        List<Account> admins = accounts(users("admin", config.admins(), hash));
+        List<Account> patients = patients(users("patient", config.patients(), hash));
+
+        List<SymptomEntry> symptoms = symptoms(patients);
+        List<Prediction> predictions = predictions(symptoms);
+        annotations(predictions, doctorUsers);
+        auditRows(patients, doctorUsers);
+
+        ctx.bean(PatientActivityService.class).rebuild();
+        ctx.bean(PatientTrendService.class).rebuild();
+
+        return new Seeded(patients, accounts(doctorUsers), admins,
+                predictions.stream().mapToLong(Prediction::getId).toArray());
+    }
+
+    private List<User> users(String role, int count, String hash) {
+        UserRepository repo = ctx.bean(UserRepository.class);
+        List<User> out = new ArrayList<>(count);
+        List<User> chunk = new ArrayList<>(CHUNK);
+        for (int i = 1; i <= count; i++) {
+            User u = new User();
+            u.setUsername("load_" + role + "_" + i);
+            u.setEmail("load_" + role + "_" + i + "@example.com");
+            u.setPasswordHash(hash);
+            u.setRole(role);
+            u.setActive(true);
+            chunk.add(u);
+            if (chunk.size() == CHUNK || i == count) {
+                out.addAll(repo.saveAll(chunk));
+                chunk.clear();
+            }
+        }
+        return out;
+    }
+
+    private List<Account> patients(List<User> users) {
+        if (FIRST_PATIENT_ID + users.size() - 1 > 99_999_999L) {
+            throw new IllegalArgumentException("load.patients exceeds the reserved patient id range");
+        }
+        PatientRepository repo = ctx.bean(PatientRepository.class);
+        List<Account> out = new ArrayList<>(users.size());
+        List<Patient> chunk = new ArrayList<>(CHUNK);
+        for (int i = 0; i < users.size(); i++) {
+            User u = users.get(i);
+            Patient p = new Patient();
+            p.setUser(u);
+            p.setPatientId(String.format("%08d", FIRST_PATIENT_ID + i));
+            p.setFirstName("Load" + (i + 1));
+            p.setLastName(LABELS[i % LABELS.length].split(" ")[0] + "son");
+            p.setDateOfBirth(LocalDate.of(1940, 1, 1).plusDays(rnd.nextInt(365 * 65)));
+            chunk.add(p);
+            out.add(new Account(u.getUsername(), p.getPatientId()));
+            if (chunk.size() == CHUNK || i == users.size() - 1) {
+                repo.saveAll(chunk);
+                chunk.clear();
+            }
+        }
+        return out;
+    }
+
+    private List<SymptomEntry> symptoms(List<Account> patients) {
+        SymptomRepository repo = ctx.bean(SymptomRepository.class);
+        LocalDateTime now = LocalDateTime.now();
+        List<SymptomEntry> out = new ArrayList<>(patients.size() * config.symptomsPerPatient());
+        List<SymptomEntry> chunk = new ArrayList<>(CHUNK);
+        for (Account p : patients) {
+            for (int k = 0; k < config.symptomsPerPatient(); k++) {
+                String[] s = SYMPTOMS[rnd.nextInt(SYMPTOMS.length)];
+                SymptomEntry e = new SymptomEntry(p.patientId(), s[0], s[1]);
+                e.setSubmittedAt(now.minusMinutes(rnd.nextInt(525_600)));
+                chunk.add(e);
+                if (chunk.size() == CHUNK) {
+                    out.addAll(repo.saveAll(chunk));
+                    chunk.clear();
+                }
+            }
+        }
+        out.addAll(repo.saveAll(chunk));
+        return out;
+    }
+
+    private List<Prediction> predictions(List<SymptomEntry> symptoms) {
+        PredictionRepository repo = ctx.bean(PredictionRepository.class);
+        List<Prediction> out = new ArrayList<>(symptoms.size());
+        List<Prediction> chunk = new ArrayList<>(CHUNK);
+        for (SymptomEntry s : symptoms) {
+            Prediction p = new Prediction(s.getPatientId(), s.getId(),
+                    LABELS[rnd.nextInt(LABELS.length)], 0.35 + rnd.nextInt(65) / 100.0);
+            p.setCreatedAt(s.getSubmittedAt().plusSeconds(2));
+            p.setReviewed(p.getConfidence() >= 0.5 || rnd.nextBoolean());
+            chunk.add(p);
+            if (chunk.size() == CHUNK) {
+                out.addAll(repo.saveAll(chunk));
+                chunk.clear();
+            }
+        }
+        out.addAll(repo.saveAll(chunk));
+        return out;
+    }
+
+    private void annotations(List<Prediction> predictions, List<User> doctors) {
+        if (doctors.isEmpty()) return;
+        AnnotationRepository repo = ctx.bean(AnnotationRepository.class);
+        List<Annotation> chunk = new ArrayList<>(CHUNK);
+        for (Prediction p : predictions) {
+            if (rnd.nextDouble() >= config.annotatedShare()) continue;
+            Annotation a = new Annotation();
+            a.setPrediction(p);
+            a.setDoctor(doctors.get(rnd.nextInt(doctors.size())));
+            a.setNotes("Reviewed, follow up in two weeks");
+            if (rnd.nextInt(4) == 0) a.setCorrectedLabel(LABELS[rnd.nextInt(LABELS.length)]);
+            chunk.add(a);
+            if (chunk.size() == CHUNK) {
+                repo.saveAll(chunk);
+                chunk.clear();
+            }
+        }
+        repo.saveAll(chunk);
+    }
+
+    private void auditRows(List<Account> patients, List<User> doctors) {
+        AuditLogRepository repo = ctx.bean(AuditLogRepository.class);
+        Instant now = Instant.now();
+        List<AuditLogEntry> chunk = new ArrayList<>(CHUNK);
+        for (int i = 0; i < config.auditRows(); i++) {
+            AuditLogEntry e = new AuditLogEntry();
+            boolean byDoctor = !doctors.isEmpty() && rnd.nextInt(4) == 0;
+            e.setActor(byDoctor
+                    ? doctors.get(rnd.nextInt(doctors.size())).getUsername()
+                    : patients.isEmpty() ? null : patients.get(rnd.nextInt(patients.size())).username());
+            e.setEventType(AUDIT_TYPES[rnd.nextInt(AUDIT_TYPES.length)]);
+            e.setDetails("seeded");
+            e.setIpAddress("10.0." + rnd.nextInt(256) + "." + rnd.nextInt(256));
+            e.setEventTime(now.minus(Duration.ofSeconds(rnd.nextInt(30 * 86_400))));
+            chunk.add(e);
+            if (chunk.size() == CHUNK) {
+                repo.saveAll(chunk);
+                chunk.clear();
+            }
+        }
+        repo.saveAll(chunk);
+    }
+
+    private static List<Account> accounts(List<User> users) {
+        return users.stream().map(u -> new Account(u.getUsername(), null)).toList();
+    }
+}
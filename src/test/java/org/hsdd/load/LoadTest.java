@@ -0,0 +1,202 @@
+package org.hsdd.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hsdd.bench.BenchContext;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Capacity test. Seeds an embedded database through the repositories, starts the
+// application on it with StubAiClient as the model, then load.threads closed-loop
+// workers replay a mixed patient / doctor / admin workload over HTTP. Prints
+// per-endpoint throughput and latency percentiles and writes them as JSON.
+//
+//   mvn -Pload verify -DskipTests -Dload.threads=64 -Dload.duration-seconds=120 \
+//       -Dload.ai-latency-ms=1500 -Dload.mix=patient=60,doctor=35,admin=5
+//
+// All -Dload.* settings and their defaults are in LoadConfig. The inference
+// cache is off, so every symptom submission pays the stub's latency.
+public final class LoadTest {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+    private static final String LOGIN = "POST /api/auth/login";
+
+    private final LoadConfig config;
+    private final Workload workload;
+    private final List<String> roles = new ArrayList<>();
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<String, LatencyRecorder> recorders = new ConcurrentHashMap<>();
+    private final Map<String, String> tokens = new ConcurrentHashMap<>();
+
+    private volatile long measureFrom;
+
+    LoadTest(LoadConfig config, Workload workload) {
+        this.config = config;
+        this.workload = workload;
+        // one entry per weight point; roles without seeded accounts are left out
+        config.mix().forEach((role, weight) -> {
+            if (!workload.accounts(role).isEmpty()) {
+                for (int i = 0; i < weight; i++) roles.add(role);
+            }
+        });
+        if (roles.isEmpty()) {
+            throw new IllegalArgumentException("No seeded accounts for any role in load.mix");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig config = LoadConfig.fromSystemProperties();
+
+        try (BenchContext ctx = BenchContext.start(Map.of(
+                "hsdd.bench.ai-latency-ms", config.aiLatencyMs(),
+                "hsdd.bench.ai-jitter-ms", config.aiJitterMs()))) {
+
+            long t0 = System.nanoTime();
+            LoadSeeder.Seeded data = new LoadSeeder(ctx, config).seed();
+            System.out.printf("Seeded %d patients, %d doctors, %d admins, %d predictions in %.1f s%n",
+                    data.patients().size(), data.doctors().size(), data.admins().size(),
+                    data.predictionIds().length, (System.nanoTime() - t0) / 1e9);
+
+            Workload workload = new Workload("http://localhost:" + ctx.port(), data);
+            Map<String, Object> report = new LoadTest(config, workload).run();
+
+            Path out = Path.of(config.report());
+            if (out.getParent() != null) Files.createDirectories(out.getParent());
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(out.toFile(), report);
+            System.out.println("Report written to " + out.toAbsolutePath());
+        }
+    }
+
+    Map<String, Object> run() throws InterruptedException {
+        long start = System.nanoTime();
+        measureFrom = start + TimeUnit.SECONDS.toNanos(config.warmupSeconds());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(config.durationSeconds());
+
+        System.out.printf("Running %d workers: %d s warm-up, %d s measured%n",
+                config.threads(), config.warmupSeconds(), config.durationSeconds());
+
+        ExecutorService workers = Executors.newFixedThreadPool(config.threads(),
+                Thread.ofPlatform().name("load-worker-", 0).factory());
+        for (int i = 0; i < config.threads(); i++) {
+            workers.execute(() -> work(end));
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(config.warmupSeconds() + config.durationSeconds() + 120L, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+
+        return report();
+    }
+
+    private void work(long end) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+            String role = roles.get(rnd.nextInt(roles.size()));
+            List<LoadSeeder.Account> accounts = workload.accounts(role);
+            LoadSeeder.Account self = accounts.get(rnd.nextInt(accounts.size()));
+
+            String token = token(self);
+            if (token == null) continue;
+
+            Workload.Op op = workload.pick(role, rnd);
+            HttpRequest request;
+            try {
+                request = op.request().build(self, rnd)
+                        .header("Authorization", "Bearer " + token)
+                        .timeout(REQUEST_TIMEOUT)
+                        .build();
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not build request for " + op.name(), e);
+            }
+            send(op.name(), request);
+
+            if (config.thinkMs() > 0) {
+                try {
+                    Thread.sleep(config.thinkMs());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    // each account logs in once, on first use, like a real session
+    private String token(LoadSeeder.Account account) {
+        String token = tokens.get(account.username());
+        if (token != null) return token;
+        try {
+            HttpResponse<String> res = send(LOGIN, workload.login(account));
+            if (res == null || res.statusCode() != 200) return null;
+            token = mapper.readTree(res.body()).path("token").asText(null);
+        } catch (IOException e) {
+            return null;
+        }
+        if (token != null) tokens.put(account.username(), token);
+        return token;
+    }
+
+    private HttpResponse<String> send(String endpoint, HttpRequest request) {
+        long t = System.nanoTime();
+        HttpResponse<String> res = null;
+        try {
+            res = http.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            // counted as an error below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long took = System.nanoTime() - t;
+        if (t >= measureFrom) {
+            boolean ok = res != null && res.statusCode() < 400;
+            recorders.computeIfAbsent(endpoint, k -> new LatencyRecorder()).record(took, ok);
+        }
+        return res;
+    }
+
+    private Map<String, Object> report() {
+        double seconds = config.durationSeconds();
+        Map<String, LatencyRecorder.Summary> endpoints = new TreeMap<>();
+        LatencyRecorder all = new LatencyRecorder();
+        recorders.forEach((name, r) -> {
+            endpoints.put(name, r.summarize(seconds));
+            all.merge(r);
+        });
+        LatencyRecorder.Summary total = all.summarize(seconds);
+
+        String row = "%-42s %8s %7s %8s %9s %9s %9s %9s%n";
+        System.out.printf(row, "endpoint", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        endpoints.forEach((name, s) -> printRow(row, name, s));
+        printRow(row, "TOTAL", total);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", config);
+        report.put("measuredSeconds", config.durationSeconds());
+        report.put("endpoints", endpoints);
+        report.put("total", total);
+        return report;
+    }
+
+    private static void printRow(String format, String name, LatencyRecorder.Summary s) {
+        System.out.printf(format, name, s.count(), s.errors(), String.format("%.1f", s.perSecond()),
+                s.p50Ms(), s.p90Ms(), s.p99Ms(), s.maxMs());
+    }
+}
@@ -0,0 +1,124 @@
+package org.hsdd.load;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// What each role does, with relative weights. Endpoint names are route
+// templates so the report aggregates across ids.
+final class Workload {
+
+    interface RequestFactory {
+        HttpRequest.Builder build(LoadSeeder.Account self, ThreadLocalRandom rnd) throws JsonProcessingException;
+    }
+
+    record Op(String name, int weight, RequestFactory request) {}
+
+    private static final String[] TEXTS = {
+            "Pounding headache behind the eyes, worse in bright light",
+            "Sore throat and blocked nose for three days",
+            "High temperature with shivering and body aches",
+            "Nausea and cramping after eating",
+            "Red itchy patches on the neck",
+            "Persistent dry cough, worse at night"
+    };
+
+    private static final String[][] TAGS = {
+            {"headache"}, {"sore throat", "congestion"}, {"fever", "chills"}, {"nausea"}, {"rash"}, {"cough"}
+    };
+
+    private final String baseUrl;
+    private final LoadSeeder.Seeded data;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<String, List<Op>> byRole;
+
+    Workload(String baseUrl, LoadSeeder.Seeded data) {
+        this.baseUrl = baseUrl;
+        this.data = data;
+        this.byRole = Map.of(
+                "patient", List.of(
+                        new Op("POST /api/patient/symptoms", 3, (self, rnd) -> {
+                            int i = rnd.nextInt(TEXTS.length);
+                            return post("/api/patient/symptoms", Map.of(
+                                    "patientId", self.patientId(),
+                                    "text", TEXTS[i],
+                                    "tags", List.of(TAGS[i])));
+                        }),
+                        new Op("GET /api/records/symptoms", 2,
+                                (self, rnd) -> get("/api/records/symptoms?limit=50&patientId=" + self.patientId())),
+                        new Op("GET /api/records/predictions", 2,
+                                (self, rnd) -> get("/api/records/predictions?limit=50&patientId=" + self.patientId()))
+                ),
+                "doctor", List.of(
+                        new Op("GET /api/doctor/recent-patients", 3,
+                                (self, rnd) -> get("/api/doctor/recent-patients?page=0&size=20")),
+                        new Op("GET /api/doctor/patient/{id}/full-record", 3,
+                                (self, rnd) -> get("/api/doctor/patient/" + anyPatient(rnd) + "/full-record")),
+                        new Op("GET /api/doctor/patients/{id}/trends", 2,
+                                (self, rnd) -> get("/api/doctor/patients/" + anyPatient(rnd) + "/trends")),
+                        new Op("GET /api/doctor/low-confidence", 1,
+                                (self, rnd) -> get("/api/doctor/low-confidence")),
+                        new Op("POST /api/doctor/annotations", 1, (self, rnd) -> post("/api/doctor/annotations", Map.of(
+                                "predictionId", anyPrediction(rnd),
+                                "notes", "Load test note"))),
+                        new Op("GET /api/doctor/reports", 1,
+                                (self, rnd) -> get("/api/doctor/reports"))
+                ),
+                "admin", List.of(
+                        new Op("GET /api/admin/users", 1, (self, rnd) -> get("/api/admin/users")),
+                        new Op("GET /api/admin/audit-logs", 3, (self, rnd) -> get("/api/admin/audit-logs?limit=100")),
+                        new Op("GET /api/admin/audit-logs/summary", 1,
+                                (self, rnd) -> get("/api/admin/audit-logs/summary?bucket=hour")),
+                        new Op("GET /api/admin/system-health", 1, (self, rnd) -> get("/api/admin/system-health"))
+                )
+        );
+    }
+
+    List<LoadSeeder.Account> accounts(String role) {
+        return switch (role) {
+            case "patient" -> data.patients();
+            case "doctor" -> data.doctors();
+            case "admin" -> data.admins();
+            default -> throw new IllegalArgumentException("Unknown role: " + role);
+        };
+    }
+
+    Op pick(String role, ThreadLocalRandom rnd) {
+        List<Op> ops = byRole.get(role);
+        int total = ops.stream().mapToInt(Op::weight).sum();
+        int r = rnd.nextInt(total);
+        for (Op op : ops) {
+            r -= op.weight();
+            if (r < 0) return op;
+        }
+        return ops.get(ops.size() - 1);
+    }
+
+    HttpRequest login(LoadSeeder.Account account) throws JsonProcessingException {
+        return post("/api/auth/login", Map.of("username", account.username(), "password", LoadSeeder.PASSWORD))
+                .build();
+    }
+
+    private String anyPatient(ThreadLocalRandom rnd) {
+        return data.patients().get(rnd.nextInt(data.patients().size())).patientId();
+    }
+
+    private long anyPrediction(ThreadLocalRandom rnd) {
+        return data.predictionIds()[rnd.nextInt(data.predictionIds().length)];
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+    }
+
+    private HttpRequest.Builder post(String path, Object body) throws JsonProcessingException {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)));
+    }
+}
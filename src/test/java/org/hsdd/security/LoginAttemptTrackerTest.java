@@ -0,0 +1,75 @@
+package org.hsdd.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginAttemptTrackerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    // 60 s window, 3 failures per user, 5 per IP, 100 tracked keys
+    private final LoginAttemptTracker tracker = new LoginAttemptTracker(60, 3, 5, 100, now::get);
+
+    // -----------------------------------------------------------------------
+    // 1. PER-USERNAME LIMIT OVER A SLIDING WINDOW
+    // -----------------------------------------------------------------------
+    @Test
+    void blocksUsernameAtLimitUntilOldestFailureLeavesWindow() {
+        tracker.recordFailure("jess", "1.1.1.1");
+        now.addAndGet(10_000);
+        tracker.recordFailure("jess", "2.2.2.2");
+        tracker.recordFailure("Jess", "3.3.3.3");
+
+        assertEquals(50, tracker.retryAfterSeconds("jess", "4.4.4.4"));
+        assertEquals(0, tracker.retryAfterSeconds("other", "4.4.4.4"));
+
+        now.addAndGet(50_000);
+        assertEquals(0, tracker.retryAfterSeconds("jess", "4.4.4.4"));
+    }
+
+    @Test
+    void successClearsUsernameButNotIp() {
+        for (int i = 0; i < 5; i++) tracker.recordFailure("jess", "1.1.1.1");
+
+        tracker.recordSuccess("jess");
+
+        assertEquals(0, tracker.retryAfterSeconds("jess", "9.9.9.9"));
+        assertTrue(tracker.retryAfterSeconds("jess", "1.1.1.1") > 0);
+    }
+
+    // -----------------------------------------------------------------------
+    // 2. PER-IP LIMIT ACROSS USERNAMES
+    // -----------------------------------------------------------------------
+    @Test
+    void blocksIpSprayingManyUsernames() {
+        for (int i = 0; i < 5; i++) tracker.recordFailure("user" + i, "6.6.6.6");
+
+        assertTrue(tracker.retryAfterSeconds("fresh", "6.6.6.6") > 0);
+        assertEquals(0, tracker.retryAfterSeconds("fresh", "7.7.7.7"));
+    }
+
+    @Test
+    void nullIpTracksUsernameOnly() {
+        for (int i = 0; i < 3; i++) tracker.recordFailure("jess", null);
+
+        assertTrue(tracker.retryAfterSeconds("jess", null) > 0);
+        assertEquals(0, tracker.retryAfterSeconds("other", null));
+    }
+
+    // -----------------------------------------------------------------------
+    // 3. BOUNDED MEMORY
+    // -----------------------------------------------------------------------
+    @Test
+    void evictsLeastRecentlyUsedKeysBeyondMaxTracked() {
+        LoginAttemptTracker small = new LoginAttemptTracker(60, 1, 100, 2, now::get);
+
+        small.recordFailure("a", null);
+        small.recordFailure("b", null);
+        small.recordFailure("c", null);
+
+        assertEquals(0, small.retryAfterSeconds("a", null));
+        assertTrue(small.retryAfterSeconds("c", null) > 0);
+    }
+}
@@ -0,0 +1,90 @@
+package org.hsdd.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PasswordHasherTest {
+
+    private ExecutorService executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) executor.shutdownNow();
+    }
+
+    // -----------------------------------------------------------------------
+    // 1. HASHES ON THE EXECUTOR
+    // -----------------------------------------------------------------------
+    @Test
+    void encodeAndMatches_runOnHashExecutor() {
+        executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "pw-hash-test"));
+        PasswordEncoder encoder = spy(new BCryptPasswordEncoder(4));
+        doAnswer(inv -> {
+            assertEquals("pw-hash-test", Thread.currentThread().getName());
+            return inv.callRealMethod();
+        }).when(encoder).encode(any());
+        PasswordHasher hasher = new PasswordHasher(encoder, executor, 5000);
+
+        String hash = hasher.encode("secret");
+
+        assertTrue(hasher.matches("secret", hash));
+        assertFalse(hasher.matches("wrong", hash));
+    }
+
+    // -----------------------------------------------------------------------
+    // 2. SATURATED POOL FAILS FAST
+    // -----------------------------------------------------------------------
+    @Test
+    void fullQueue_throwsIllegalState() throws Exception {
+        executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1));
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> { release.await(); return null; });   // running
+        executor.submit(() -> null);                               // queued
+        PasswordHasher hasher = new PasswordHasher(new BCryptPasswordEncoder(4), executor, 5000);
+
+        try {
+            assertThrows(IllegalStateException.class, () -> hasher.matches("pw", "$2a$04$x"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void slowHash_timesOut() throws Exception {
+        executor = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> { release.await(); return null; });
+        PasswordHasher hasher = new PasswordHasher(new BCryptPasswordEncoder(4), executor, 50);
+
+        try {
+            assertThrows(IllegalStateException.class, () -> hasher.encode("pw"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    // -----------------------------------------------------------------------
+    // 3. WORK FACTOR UPGRADE DETECTION
+    // -----------------------------------------------------------------------
+    @Test
+    void needsRehash_whenStoredHashIsWeakerThanConfigured() {
+        String weak = new BCryptPasswordEncoder(4).encode("pw");
+        String current = new BCryptPasswordEncoder(5).encode("pw");
+        PasswordHasher hasher = new PasswordHasher(new BCryptPasswordEncoder(5), mock(ExecutorService.class), 5000);
+
+        assertTrue(hasher.needsRehash(weak));
+        assertFalse(hasher.needsRehash(current));
+    }
+}
@@ -0,0 +1,51 @@
+package org.hsdd.security;
+
+import org.hsdd.model.Patient;
+import org.hsdd.repo.PatientRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PatientAccessTest {
+
+    private final PatientRepository patients = mock(PatientRepository.class);
+    private final PatientAccess access = new PatientAccess(patients);
+
+    private static Principal user(String name, String role) {
+        return new UsernamePasswordAuthenticationToken(name, null, List.of(new SimpleGrantedAuthority(role)));
+    }
+
+    @Test
+    void staff_mayAccessAnyPatient() {
+        assertTrue(access.allows(user("doc", "ROLE_DOCTOR"), "12345678"));
+        assertTrue(access.allows(user("root", "ROLE_ADMIN"), "87654321"));
+        verifyNoInteractions(patients);
+    }
+
+    @Test
+    void patient_mayAccessOnlyOwnRecords() {
+        Patient own = new Patient();
+        own.setPatientId("12345678");
+        when(patients.findByUser_Username("pat")).thenReturn(Optional.of(own));
+
+        assertTrue(access.allows(user("pat", "ROLE_PATIENT"), "12345678"));
+        assertFalse(access.allows(user("pat", "ROLE_PATIENT"), "12345679"));
+    }
+
+    @Test
+    void unknownOrAnonymousCallers_denied() {
+        when(patients.findByUser_Username("ghost")).thenReturn(Optional.empty());
+
+        assertFalse(access.allows(user("ghost", "ROLE_PATIENT"), "12345678"));
+        assertFalse(access.allows(null, "12345678"));
+        assertFalse(access.allows(() -> "plain", "12345678"));
+        assertFalse(access.allows(user("doc", "ROLE_DOCTOR"), null));
+    }
+}
@@ -0,0 +1,101 @@
+package org.hsdd.security;
+
+import org.hsdd.model.User;
+import org.hsdd.repo.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PrincipalCacheTest {
+
+    private final UserRepository users = mock(UserRepository.class);
+    private final PrincipalCache cache = new PrincipalCache(users, 2, 300, 60);
+
+    private User user(Long id, String role, boolean active) {
+        User u = new User();
+        u.setId(id);
+        u.setUsername("user" + id);
+        u.setRole(role);
+        u.setActive(active);
+        return u;
+    }
+
+    // -----------------------------------------------------------------------
+    // 1. REPEATED LOOKUPS HIT THE DB ONCE
+    // -----------------------------------------------------------------------
+    @Test
+    void get_cachesPrincipal() {
+        when(users.findById(1L)).thenReturn(Optional.of(user(1L, "doctor", true)));
+
+        var first = cache.get(1L).orElseThrow();
+        var second = cache.get(1L).orElseThrow();
+
+        assertEquals("ROLE_DOCTOR", first.springRole());
+        assertEquals(first, second);
+        verify(users, times(1)).findById(1L);
+    }
+
+    // -----------------------------------------------------------------------
+    // 2. INVALIDATE FORCES A RELOAD AND MARKS OLDER TOKENS STALE
+    // -----------------------------------------------------------------------
+    @Test
+    void invalidate_reloadsAndMarksTokensStale() {
+        when(users.findById(1L))
+                .thenReturn(Optional.of(user(1L, "doctor", true)))
+                .thenReturn(Optional.of(user(1L, "doctor", false)));
+
+        long issuedAt = System.currentTimeMillis() - 1000;
+        assertTrue(cache.get(1L).orElseThrow().active());
+        assertFalse(cache.isStale(1L, issuedAt));
+
+        cache.invalidate(1L);
+
+        assertFalse(cache.get(1L).orElseThrow().active());
+        assertTrue(cache.isStale(1L, issuedAt));
+        verify(users, times(2)).findById(1L);
+    }
+
+    @Test
+    void revokeTokens_refusesOlderTokensOnly() throws InterruptedException {
+        long before = System.currentTimeMillis() - 1000;
+        assertFalse(cache.isRevoked(1L, before));
+
+        cache.revokeTokens(1L);
+        Thread.sleep(2);
+        long after = System.currentTimeMillis();
+
+        assertTrue(cache.isRevoked(1L, before));
+        assertTrue(cache.isStale(1L, before));
+        assertFalse(cache.isRevoked(1L, after));
+        assertFalse(cache.isRevoked(2L, before));
+    }
+
+    // -----------------------------------------------------------------------
+    // 3. CACHE IS BOUNDED (LRU)
+    // -----------------------------------------------------------------------
+    @Test
+    void get_evictsLeastRecentlyUsed() {
+        when(users.findById(anyLong())).thenAnswer(inv -> {
+            Long id = inv.getArgument(0);
+            return Optional.of(user(id, "patient", true));
+        });
+
+        cache.get(1L);
+        cache.get(2L);
+        cache.get(3L);   // evicts 1
+        cache.get(1L);
+
+        verify(users, times(2)).findById(1L);
+        verify(users, times(1)).findById(3L);
+    }
+
+    @Test
+    void get_unknownUserIsEmpty() {
+        when(users.findById(99L)).thenReturn(Optional.empty());
+
+        assertTrue(cache.get(99L).isEmpty());
+    }
+}
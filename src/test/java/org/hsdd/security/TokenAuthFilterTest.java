@@ -0,0 +1,67 @@
+package org.hsdd.security;
+
+import org.hsdd.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TokenAuthFilterTest {
+
+    private final PrincipalCache principals = mock(PrincipalCache.class);
+    private final TokenService tokens = new TokenService("test-secret", 60);
+    private final TokenAuthFilter filter = new TokenAuthFilter(principals, tokens);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private Authentication authenticate(String header) throws Exception {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/api/records/symptoms");
+        req.addHeader("Authorization", header);
+        filter.doFilter(req, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Test
+    void signedToken_authenticates() throws Exception {
+        User u = new User();
+        u.setId(1L);
+        u.setUsername("root");
+        u.setRole("admin");
+        u.setActive(true);
+
+        Authentication auth = authenticate("Bearer " + tokens.issue(u));
+
+        assertEquals("root", auth.getName());
+        assertEquals("ROLE_ADMIN", auth.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void revokedToken_ignored() throws Exception {
+        User u = new User();
+        u.setId(2L);
+        u.setUsername("pat");
+        u.setRole("patient");
+        u.setActive(true);
+        String token = tokens.issue(u);
+        when(principals.isRevoked(eq(2L), anyLong())).thenReturn(true);
+
+        assertNull(authenticate("Bearer " + token));
+    }
+
+    // the old unsigned format named any user id; it must not log anyone in
+    @Test
+    void unsignedLegacyToken_ignored() throws Exception {
+        assertNull(authenticate("Bearer TOKEN-1"));
+        verifyNoInteractions(principals);
+    }
+}
@@ -0,0 +1,74 @@
+package org.hsdd.security;
+
+import org.hsdd.model.User;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenServiceTest {
+
+    private final TokenService tokens = new TokenService("unit-test-secret", 60);
+
+    private User user() {
+        User u = new User();
+        u.setId(42L);
+        u.setUsername("dr:who");
+        u.setRole("doctor");
+        return u;
+    }
+
+    // -----------------------------------------------------------------------
+    // 1. ISSUED TOKEN ROUND-TRIPS ITS CLAIMS
+    // -----------------------------------------------------------------------
+    @Test
+    void issueThenVerify_returnsClaims() {
+        String token = tokens.issue(user());
+
+        assertTrue(tokens.isSigned(token));
+        var c = tokens.verify(token).orElseThrow();
+        assertEquals(42L, c.userId());
+        assertEquals("dr:who", c.username());
+        assertEquals("doctor", c.role());
+        assertTrue(c.expiresAt() > c.issuedAt());
+    }
+
+    // -----------------------------------------------------------------------
+    // 2. TAMPERED, FOREIGN OR EXPIRED TOKENS ARE REJECTED
+    // -----------------------------------------------------------------------
+    @Test
+    void verify_rejectsTamperedPayload() {
+        String token = tokens.issue(user());
+        String forged = tokens.issue(adminWithId(42L));
+        String mixed = forged.substring(0, forged.lastIndexOf('.')) + token.substring(token.lastIndexOf('.'));
+
+        assertTrue(tokens.verify(mixed).isEmpty());
+    }
+
+    @Test
+    void verify_rejectsTokenFromOtherSecret() {
+        String token = new TokenService("other-secret", 60).issue(user());
+
+        assertTrue(tokens.verify(token).isEmpty());
+    }
+
+    @Test
+    void verify_rejectsExpiredToken() {
+        String token = new TokenService("unit-test-secret", 0).issue(user());
+
+        assertTrue(tokens.verify(token).isEmpty());
+    }
+
+    @Test
+    void verify_rejectsLegacyToken() {
+        assertFalse(tokens.isSigned("TOKEN-42"));
+        assertTrue(tokens.verify("TOKEN-42").isEmpty());
+    }
+
+    private User adminWithId(Long id) {
+        User u = new User();
+        u.setId(id);
+        u.setUsername("dr:who");
+        u.setRole("admin");
+        return u;
+    }
+}
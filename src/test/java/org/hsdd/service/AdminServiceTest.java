@@ -1,24 +1,30 @@
 package org.hsdd.service;
 
-import org.hsdd.value.AuditLogEntry;
+import org.hsdd.ai.LocalAiClient;
 import org.hsdd.dto.AdminUserDto;
 import org.hsdd.dto.AuditLogDto;
+import org.hsdd.dto.AuditSummaryDto;
 import org.hsdd.dto.CreateUserRequest;
+import org.hsdd.dto.PageDto;
 import org.hsdd.dto.UpdateUserRequest;
 import org.hsdd.repo.AuditLogRepository;
+import org.hsdd.repo.projection.EventTypeCount;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 /**
@@ -33,6 +39,18 @@ class AdminServiceTest {
     @Mock
     private AuditLogRepository auditRepo;
 
+    @Mock
+    private PatientActivityService activity;
+
+    @Mock
+    private AuditService audit;
+
+    @Mock
+    private LocalAiClient localClassifier;
+
+    @Mock
+    private PatientTrendService trends;
+
     @InjectMocks
     private AdminService adminService;
 
@@ -56,13 +74,13 @@ class AdminServiceTest {
                 Instant.now()
         );
 
-        when(userService.getAllUsers()).thenReturn(List.of(dto));
+        when(userService.getUsers("admin", true, null, 0, 50, "username", "asc"))
+                .thenReturn(new PageDto<>(List.of(dto), 0, 50, 1, 1));
 
-        List<AdminUserDto> result = adminService.listUsers();
+        PageDto<AdminUserDto> result = adminService.listUsers("admin", true, null, 0, 50, "username", "asc");
 
-        assertEquals(1, result.size());
-        assertEquals("admin", result.get(0).username());
-        verify(userService).getAllUsers();
+        assertEquals(1, result.items().size());
+        assertEquals("admin", result.items().get(0).username());
     }
 
     @Test
@@ -210,25 +228,12 @@ class AdminServiceTest {
     // -------------------------------------------------------------------------
 
     @Test
-    void listAuditLogs_mapsToDtoAndAppliesLimit() {
-        AuditLogEntry a1 = new AuditLogEntry();
-        a1.setId(1L);
-        a1.setEventTime(Instant.parse("2025-01-01T00:00:00Z"));
-        a1.setActor("alice");
-        a1.setEventType("LOGIN");
-        a1.setDetails("desc1");
-        a1.setIpAddress("1.1.1.1");
-
-        AuditLogEntry a2 = new AuditLogEntry();
-        a2.setId(2L);
-        a2.setEventTime(Instant.parse("2025-01-02T00:00:00Z"));
-        a2.setActor("bob");
-        a2.setEventType("CREATE_USER");
-        a2.setDetails("desc2");
-        a2.setIpAddress("2.2.2.2");
-
-        when(auditRepo.findAllByOrderByEventTimeDesc())
-                .thenReturn(List.of(a2, a1)); // already sorted desc
+    void listAuditLogs_pushesLimitIntoQuery() {
+        AuditLogDto a2 = new AuditLogDto(2L, Instant.parse("2025-01-02T00:00:00Z"),
+                "bob", "CREATE_USER", "desc2", "2.2.2.2");
+
+        when(auditRepo.findPage(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), any()))
+                .thenReturn(List.of(a2));
 
         List<AuditLogDto> result = adminService.listAuditLogs(1);
 
@@ -236,35 +241,58 @@ class AdminServiceTest {
         assertEquals(2L, result.get(0).id());
         assertEquals("bob", result.get(0).actor());
 
-        verify(auditRepo).findAllByOrderByEventTimeDesc();
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(auditRepo).findPage(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), page.capture());
+        assertEquals(2, page.getValue().getPageSize());   // limit + 1 probe row
+        verify(auditRepo, never()).findAllByOrderByEventTimeDesc();
     }
 
     @Test
     void listAuditLogs_zeroLimit_returnsEmpty() {
-        AuditLogEntry a = new AuditLogEntry();
-        a.setId(1L);
-
-        when(auditRepo.findAllByOrderByEventTimeDesc())
-                .thenReturn(List.of(a));
-
         List<AuditLogDto> result = adminService.listAuditLogs(0);
 
         assertTrue(result.isEmpty());
+        verifyNoInteractions(auditRepo);
     }
 
     @Test
-    void auditSummary_groupsCountsByEventType() {
-        AuditLogEntry a1 = new AuditLogEntry();
-        a1.setEventType("LOGIN");
+    void searchAuditLogs_returnsCursorWhenMoreRows() {
+        Instant t = Instant.parse("2025-01-02T10:00:00Z");
+        AuditLogDto r1 = new AuditLogDto(9L, t, "bob", "LOGIN", null, null);
+        AuditLogDto r2 = new AuditLogDto(8L, t, "bob", "LOGIN", null, null);
+        AuditLogDto r3 = new AuditLogDto(7L, t.minusSeconds(5), "bob", "LOGIN", null, null);
 
-        AuditLogEntry a2 = new AuditLogEntry();
-        a2.setEventType("LOGIN");
+        when(auditRepo.findPage(eq("bob"), eq("LOGIN"), any(), any(), isNull(), isNull(), any()))
+                .thenReturn(List.of(r1, r2, r3));
 
-        AuditLogEntry a3 = new AuditLogEntry();
-        a3.setEventType("DELETE_USER");
+        var page = adminService.searchAuditLogs("bob", "LOGIN", null, null, null, 2);
 
-        when(auditRepo.findAll())
-                .thenReturn(List.of(a1, a2, a3));
+        assertEquals(2, page.items().size());
+        assertEquals("2025-01-02T10:00:00Z_8", page.nextCursor());
+    }
+
+    @Test
+    void searchAuditLogs_decodesCursorAndBlankFilters() {
+        when(auditRepo.findPage(any(), any(), any(), any(), any(), any(), any())).thenReturn(List.of());
+
+        var page = adminService.searchAuditLogs(" ", "", null, null, "2025-01-02T10:00:00Z_8", 50);
+
+        assertTrue(page.items().isEmpty());
+        assertNull(page.nextCursor());
+        verify(auditRepo).findPage(isNull(), isNull(), isNull(), isNull(),
+                eq(Instant.parse("2025-01-02T10:00:00Z")), eq(8L), any());
+    }
+
+    @Test
+    void searchAuditLogs_rejectsBadCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> adminService.searchAuditLogs(null, null, null, null, "garbage", 10));
+    }
+
+    @Test
+    void auditSummary_groupsCountsByEventType() {
+        when(auditRepo.countByEventType(null, null))
+                .thenReturn(List.of(new EventTypeCount("LOGIN", 2L), new EventTypeCount("DELETE_USER", 1L)));
 
         Map<String, Long> result = adminService.auditSummary();
 
@@ -272,6 +300,63 @@ class AdminServiceTest {
         assertEquals(1L, result.get("DELETE_USER"));
         assertEquals(2, result.size());
 
-        verify(auditRepo).findAll();
+        verify(auditRepo, never()).findAll();
+    }
+
+    @Test
+    void auditSummary_hourBucketsUseSqlGrouping() {
+        Instant from = Instant.parse("2025-01-01T00:00:00Z");
+        Instant to = Instant.parse("2025-01-02T00:00:00Z");
+        List<Object[]> rows = List.of(
+                new Object[]{"2025-01-01 09:00:00", "LOGIN", 4L},
+                new Object[]{"2025-01-01 10:00:00", "LOGIN", 1L}
+        );
+        when(auditRepo.countByBucketAndEventType("%Y-%m-%d %H:00:00", from, to)).thenReturn(rows);
+
+        List<AuditSummaryDto> result = adminService.auditSummary(from, to, "hour");
+
+        assertEquals(2, result.size());
+        assertEquals("2025-01-01 09:00:00", result.get(0).bucket());
+        assertEquals(4L, result.get(0).count());
+    }
+
+    @Test
+    void auditSummary_rejectsOversizedHourlyWindow() {
+        Instant to = Instant.parse("2025-06-01T00:00:00Z");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> adminService.auditSummary(to.minus(Duration.ofDays(60)), to, "hour"));
+        assertThrows(IllegalArgumentException.class,
+                () -> adminService.auditSummary(null, to, "week"));
+    }
+
+    // -------------------------------------------------------------------------
+    // MAINTENANCE
+    // -------------------------------------------------------------------------
+
+    @Test
+    void rebuildActivitySummary_rebuildsAndLogs() {
+        when(activity.rebuild()).thenReturn(42);
+
+        int rows = adminService.rebuildActivitySummary("admin1");
+
+        assertEquals(42, rows);
+        verify(audit).log("admin1", "ADMIN_REBUILD_ACTIVITY_SUMMARY", "rows=42");
+    }
+
+    @Test
+    void retrainLocalClassifier_retrainsAndLogs() {
+        when(localClassifier.retrain()).thenReturn(120);
+
+        assertEquals(120, adminService.retrainLocalClassifier("admin1"));
+        verify(audit).log("admin1", "ADMIN_RETRAIN_LOCAL_CLASSIFIER", "examples=120");
+    }
+
+    @Test
+    void rebuildTrends_rebuildsAndLogs() {
+        when(trends.rebuild()).thenReturn(42);
+
+        assertEquals(42, adminService.rebuildTrends("admin1"));
+        verify(audit).log("admin1", "ADMIN_REBUILD_TRENDS", "rows=42");
     }
 }
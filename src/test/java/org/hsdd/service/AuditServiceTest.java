@@ -2,7 +2,6 @@ package org.hsdd.service;
 
 import jakarta.servlet.http.HttpServletRequest;
 import org.hsdd.value.AuditLogEntry;
-import org.hsdd.repo.AuditLogRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -17,7 +16,7 @@ import static org.mockito.Mockito.*;
 class AuditServiceTest {
 
     @Mock
-    private AuditLogRepository repo;
+    private AuditSink sink;
 
     @Mock
     private HttpServletRequest request;
@@ -26,16 +25,16 @@ class AuditServiceTest {
     private AuditService auditService;
 
     // -----------------------------------------------------------
-    // 1. BASIC SUCCESS CASE — all fields set + saved
+    // 1. BASIC SUCCESS CASE — all fields set + handed to the sink
     // -----------------------------------------------------------
     @Test
-    void log_savesCorrectAuditLog() {
+    void log_submitsCorrectAuditLog() {
         when(request.getRemoteAddr()).thenReturn("111.222.333.444");
 
         auditService.log("jess", "LOGIN", "User logged in");
 
         ArgumentCaptor<AuditLogEntry> captor = ArgumentCaptor.forClass(AuditLogEntry.class);
-        verify(repo).save(captor.capture());
+        verify(sink).submit(captor.capture());
 
         AuditLogEntry saved = captor.getValue();
 
@@ -43,10 +42,11 @@ class AuditServiceTest {
         assertEquals("LOGIN", saved.getEventType());
         assertEquals("User logged in", saved.getDetails());
         assertEquals("111.222.333.444", saved.getIpAddress());
+        assertNotNull(saved.getEventTime());
     }
 
     // -----------------------------------------------------------
-    // 2. NULL ACTOR — ensure null actor is allowed and saved
+    // 2. NULL ACTOR — ensure null actor is allowed and submitted
     // -----------------------------------------------------------
     @Test
     void log_allowsNullActor() {
@@ -55,7 +55,7 @@ class AuditServiceTest {
         auditService.log(null, "UPDATE", "Updated user");
 
         ArgumentCaptor<AuditLogEntry> captor = ArgumentCaptor.forClass(AuditLogEntry.class);
-        verify(repo).save(captor.capture());
+        verify(sink).submit(captor.capture());
 
         AuditLogEntry saved = captor.getValue();
 
@@ -66,7 +66,7 @@ class AuditServiceTest {
     }
 
     // -----------------------------------------------------------
-    // 3. REQUEST IP HANDLING — verify IP is always taken from request
+    // 3. REQUEST IP HANDLING — IP is read on the calling thread every time
     // -----------------------------------------------------------
     @Test
     void log_usesRequestIpEveryTime() {
@@ -78,7 +78,7 @@ class AuditServiceTest {
         auditService.log("bob", "CREATE", "Created account");
 
         ArgumentCaptor<AuditLogEntry> captor = ArgumentCaptor.forClass(AuditLogEntry.class);
-        verify(repo, times(2)).save(captor.capture());
+        verify(sink, times(2)).submit(captor.capture());
 
         AuditLogEntry first = captor.getAllValues().get(0);
         AuditLogEntry second = captor.getAllValues().get(1);
@@ -86,4 +86,18 @@ class AuditServiceTest {
         assertEquals("5.5.5.5", first.getIpAddress());
         assertEquals("6.6.6.6", second.getIpAddress());
     }
+
+    // -----------------------------------------------------------
+    // 4. NO BOUND REQUEST — still audited, just without an IP
+    // -----------------------------------------------------------
+    @Test
+    void log_outsideRequestHasNoIp() {
+        when(request.getRemoteAddr()).thenThrow(new IllegalStateException("No thread-bound request"));
+
+        auditService.log("system", "ADMIN_REBUILD_ACTIVITY_SUMMARY", "rows=3");
+
+        ArgumentCaptor<AuditLogEntry> captor = ArgumentCaptor.forClass(AuditLogEntry.class);
+        verify(sink).submit(captor.capture());
+        assertNull(captor.getValue().getIpAddress());
+    }
 }
@@ -0,0 +1,131 @@
+package org.hsdd.service;
+
+import org.hsdd.value.AuditLogEntry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AuditSinkTest {
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+
+    // writer thread is not started; tests drive flush() directly
+    private AuditSink sink(int capacity, int batchSize, AuditSink.OverflowPolicy policy) {
+        return new AuditSink(jdbc, capacity, batchSize, 10, policy, 1, 1000);
+    }
+
+    private AuditLogEntry entry(String type) {
+        AuditLogEntry a = new AuditLogEntry();
+        a.setActor("jess");
+        a.setEventType(type);
+        a.setIpAddress("1.2.3.4");
+        return a;
+    }
+
+    // batches are reused after writing, so record their size at call time
+    @SuppressWarnings("unchecked")
+    private List<Integer> recordBatchSizes() {
+        List<Integer> sizes = new ArrayList<>();
+        when(jdbc.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(inv -> {
+                    sizes.add(((Collection<AuditLogEntry>) inv.getArgument(1)).size());
+                    return new int[0][];
+                });
+        return sizes;
+    }
+
+    // -----------------------------------------------------------
+    // 1. FLUSH WRITES QUEUED ENTRIES IN BATCHES OF batch-size
+    // -----------------------------------------------------------
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_writesInBatches() {
+        List<Integer> sizes = recordBatchSizes();
+        AuditSink sink = sink(100, 2, AuditSink.OverflowPolicy.DROP);
+        for (int i = 0; i < 5; i++) sink.submit(entry("E" + i));
+
+        assertEquals(5, sink.flush());
+
+        assertEquals(List.of(2, 2, 1), sizes);
+        verify(jdbc, times(3)).batchUpdate(eq(AuditSink.INSERT_SQL), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(5, sink.stats().written());
+        assertEquals(0, sink.stats().queueDepth());
+    }
+
+    // -----------------------------------------------------------
+    // 2. OVERFLOW POLICIES
+    // -----------------------------------------------------------
+    @Test
+    void submit_dropPolicyCountsDrops() {
+        AuditSink sink = sink(2, 10, AuditSink.OverflowPolicy.DROP);
+        sink.submit(entry("A"));
+        sink.submit(entry("B"));
+        sink.submit(entry("C"));
+
+        assertEquals(2, sink.stats().enqueued());
+        assertEquals(1, sink.stats().dropped());
+        verifyNoInteractions(jdbc);
+    }
+
+    @Test
+    void submit_callerRunsWritesSynchronouslyWhenFull() {
+        AuditSink sink = sink(1, 10, AuditSink.OverflowPolicy.CALLER_RUNS);
+        sink.submit(entry("A"));
+        sink.submit(entry("B"));
+
+        assertEquals(1, sink.stats().callerRuns());
+        assertEquals(1, sink.stats().written());
+        assertEquals(1, sink.stats().queueDepth());
+    }
+
+    @Test
+    void submit_blockPolicyDropsAfterTimeout() {
+        AuditSink sink = sink(1, 10, AuditSink.OverflowPolicy.BLOCK);
+        sink.submit(entry("A"));
+        sink.submit(entry("B"));
+
+        assertEquals(1, sink.stats().dropped());
+    }
+
+    // -----------------------------------------------------------
+    // 3. FAILED BATCHES ARE COUNTED, NOT THROWN TO THE CALLER
+    // -----------------------------------------------------------
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_countsFailedBatch() {
+        doThrow(new RuntimeException("db down")).when(jdbc)
+                .batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+
+        AuditSink sink = sink(10, 10, AuditSink.OverflowPolicy.DROP);
+        sink.submit(entry("A"));
+        sink.submit(entry("B"));
+
+        assertDoesNotThrow(sink::flush);
+        assertEquals(2, sink.stats().failed());
+        assertEquals(0, sink.stats().written());
+    }
+
+    // -----------------------------------------------------------
+    // 4. SHUTDOWN DRAINS THE QUEUE
+    // -----------------------------------------------------------
+    @Test
+    void stop_flushesPendingEntries() {
+        AuditSink sink = sink(100, 50, AuditSink.OverflowPolicy.DROP);
+        sink.start();
+        for (int i = 0; i < 20; i++) sink.submit(entry("E" + i));
+
+        sink.stop();
+
+        assertEquals(20, sink.stats().written() + sink.stats().failed());
+        assertEquals(0, sink.stats().queueDepth());
+    }
+}
@@ -5,8 +5,12 @@ import org.hsdd.model.User;
 import org.hsdd.dto.LoginRequest;
 import org.hsdd.repo.PatientRepository;
 import org.hsdd.repo.UserRepository;
+import org.hsdd.security.LoginAttemptTracker;
+import org.hsdd.security.LoginThrottledException;
+import org.hsdd.security.PasswordHasher;
+import org.hsdd.security.PrincipalCache;
+import org.hsdd.security.TokenService;
 import org.junit.jupiter.api.Test;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Optional;
 
@@ -25,11 +29,14 @@ class AuthServiceTest {
 
     private final UserRepository users = mock(UserRepository.class);
     private final PatientRepository patients = mock(PatientRepository.class);
-    private final PasswordEncoder encoder = mock(PasswordEncoder.class);
+    private final PasswordHasher hasher = mock(PasswordHasher.class);
     private final AuditService audit = mock(AuditService.class);
+    private final TokenService tokens = new TokenService("test-secret", 60);
+    private final LoginAttemptTracker attempts = new LoginAttemptTracker(900, 3, 10, 1000);
+    private final PrincipalCache principals = mock(PrincipalCache.class);
 
     private final AuthService service = new AuthService(
-            users, patients, encoder, audit
+            users, patients, hasher, audit, tokens, attempts, principals
     );
 
     // -----------------------------------------------------------------------
@@ -47,11 +54,13 @@ class AuthServiceTest {
         when(users.findByUsername("jess"))
                 .thenReturn(Optional.of(u));
         // stub password verification to succeed
-        when(encoder.matches(eq("pass"), eq("hashedPass"))).thenReturn(true);
+        when(hasher.matches(eq("pass"), eq("hashedPass"))).thenReturn(true);
 
-        var res = service.login(new LoginRequest("jess", "pass"));
+        var res = service.login(new LoginRequest("jess", "pass"), "10.0.0.1");
 
-        assertEquals("TOKEN-55", res.token());
+        var claims = tokens.verify(res.token()).orElseThrow();
+        assertEquals(55L, claims.userId());
+        assertEquals("doctor", claims.role());
         assertEquals("jess", res.username());
         assertEquals("doctor", res.role());
         assertEquals(55L, res.userId());
@@ -69,7 +78,7 @@ class AuthServiceTest {
 
         assertThrows(
                 IllegalArgumentException.class,
-                () -> service.login(new LoginRequest("nope", "whatever"))
+                () -> service.login(new LoginRequest("nope", "whatever"), "10.0.0.1")
         );
     }
 
@@ -84,11 +93,11 @@ class AuthServiceTest {
         when(users.findByUsername("jane"))
                 .thenReturn(Optional.of(u));
         // stub password verification to fail
-        when(encoder.matches(eq("wrong"), eq("hashed"))).thenReturn(false);
+        when(hasher.matches(eq("wrong"), eq("hashed"))).thenReturn(false);
 
         assertThrows(
                 IllegalArgumentException.class,
-                () -> service.login(new LoginRequest("jane", "wrong"))
+                () -> service.login(new LoginRequest("jane", "wrong"), "10.0.0.1")
         );
     }
 
@@ -111,16 +120,129 @@ class AuthServiceTest {
         when(users.findByUsername("patientUser"))
                 .thenReturn(Optional.of(u));
 
-        when(encoder.matches(eq("pw"), eq("hashedPw"))).thenReturn(true);
+        when(hasher.matches(eq("pw"), eq("hashedPw"))).thenReturn(true);
         when(patients.findByUser(u))
                 .thenReturn(Optional.of(p));
 
-        var res = service.login(new LoginRequest("patientUser", "pw"));
+        var res = service.login(new LoginRequest("patientUser", "pw"), "10.0.0.1");
 
-        assertEquals("TOKEN-22", res.token());
+        assertEquals(22L, tokens.verify(res.token()).orElseThrow().userId());
         assertEquals("patientUser", res.username());
         assertEquals("patient", res.role());
         assertEquals(22L, res.userId());
         assertEquals("PAT-777", res.patientId());
     }
-}
\ No newline at end of file
+
+    // -----------------------------------------------------------------------
+    // 4. LOGOUT AUDITS FROM SIGNED TOKEN WITHOUT A DB LOOKUP
+    // -----------------------------------------------------------------------
+    @Test
+    void logout_signedTokenAuditsWithoutLookup() {
+        User u = new User();
+        u.setId(9L);
+        u.setUsername("doc");
+        u.setRole("doctor");
+
+        service.logout("Bearer " + tokens.issue(u));
+
+        verify(audit).log("doc", "LOGOUT", "userId=9");
+        verify(users, never()).findById(any());
+    }
+
+    // -----------------------------------------------------------------------
+    // 5. REPEATED FAILURES ARE REFUSED BEFORE ANY LOOKUP OR HASHING
+    // -----------------------------------------------------------------------
+    @Test
+    void login_afterTooManyFailures_throttlesWithoutHashing() {
+        User u = new User();
+        u.setId(1L);
+        u.setUsername("jane");
+        u.setRole("doctor");
+        u.setPasswordHash("hashed");
+
+        when(users.findByUsername("jane")).thenReturn(Optional.of(u));
+        when(hasher.matches(eq("wrong"), eq("hashed"))).thenReturn(false);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> service.login(new LoginRequest("jane", "wrong"), "10.0.0.1"));
+        }
+
+        LoginThrottledException e = assertThrows(LoginThrottledException.class,
+                () -> service.login(new LoginRequest("JANE", "right"), "10.0.0.2"));
+
+        assertTrue(e.getRetryAfterSeconds() > 0);
+        verify(users, times(3)).findByUsername(any());
+        verify(hasher, times(3)).matches(any(), any());
+    }
+
+    @Test
+    void login_unknownUsersCountAgainstTheClientIp() {
+        when(users.findByUsername(any())).thenReturn(Optional.empty());
+
+        for (int i = 0; i < 10; i++) {
+            String name = "user" + i;
+            assertThrows(IllegalArgumentException.class,
+                    () -> service.login(new LoginRequest(name, "x"), "10.0.0.9"));
+        }
+
+        assertThrows(LoginThrottledException.class,
+                () -> service.login(new LoginRequest("someone-else", "x"), "10.0.0.9"));
+        verify(hasher, never()).matches(any(), any());
+    }
+
+    // -----------------------------------------------------------------------
+    // 6. OLD WORK FACTOR IS UPGRADED ON SUCCESSFUL LOGIN
+    // -----------------------------------------------------------------------
+    @Test
+    void login_rehashesWhenWorkFactorChanged() {
+        User u = new User();
+        u.setId(3L);
+        u.setUsername("doc");
+        u.setRole("doctor");
+        u.setPasswordHash("old-hash");
+
+        when(users.findByUsername("doc")).thenReturn(Optional.of(u));
+        when(hasher.matches("pw", "old-hash")).thenReturn(true);
+        when(hasher.needsRehash("old-hash")).thenReturn(true);
+        when(hasher.encode("pw")).thenReturn("new-hash");
+
+        service.login(new LoginRequest("doc", "pw"), "10.0.0.1");
+
+        assertEquals("new-hash", u.getPasswordHash());
+        verify(users).save(u);
+    }
+
+    @Test
+    void login_currentWorkFactor_noRehash() {
+        User u = new User();
+        u.setId(3L);
+        u.setUsername("doc");
+        u.setRole("doctor");
+        u.setPasswordHash("hash");
+
+        when(users.findByUsername("doc")).thenReturn(Optional.of(u));
+        when(hasher.matches("pw", "hash")).thenReturn(true);
+
+        service.login(new LoginRequest("doc", "pw"), "10.0.0.1");
+
+        verify(hasher, never()).encode(any());
+        verify(users, never()).save(any());
+    }
+
+    @Test
+    void resetPassword_revokesEarlierTokens() {
+        User u = new User();
+        u.setId(4L);
+        u.setUsername("pat");
+        when(users.findById(4L)).thenReturn(Optional.of(u));
+        when(hasher.encode("new-pw")).thenReturn("new-hash");
+
+        service.resetPassword(4L, "new-pw");
+
+        assertEquals("new-hash", u.getPasswordHash());
+        var order = inOrder(users, principals);
+        order.verify(users).save(u);
+        order.verify(principals).revokeTokens(4L);
+    }
+}
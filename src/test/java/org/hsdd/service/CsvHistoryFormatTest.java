@@ -0,0 +1,92 @@
+package org.hsdd.service;
+
+import org.hsdd.model.MedicalHistory;
+import org.junit.jupiter.api.Test;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvHistoryFormatTest {
+
+    private final CsvHistoryFormat format = new CsvHistoryFormat();
+
+    // Hands out at most n characters per read, so records cross buffer refills
+    static final class TrickleReader extends FilterReader {
+        private final int n;
+
+        TrickleReader(String s, int n) {
+            super(new StringReader(s));
+            this.n = n;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            return super.read(cbuf, off, Math.min(len, n));
+        }
+    }
+
+    private static List<String> records(HistoryFormat.Records records) throws IOException {
+        List<String> out = new ArrayList<>();
+        for (String r; (r = records.next()) != null; ) out.add(r);
+        return out;
+    }
+
+    @Test
+    void split_plainAndEmptyFields() {
+        assertEquals(List.of("a", "", "c", ""), CsvHistoryFormat.split("a,,c,"));
+        assertEquals(List.of(""), CsvHistoryFormat.split(""));
+    }
+
+    @Test
+    void split_quotedCommasAndEscapedQuotes() {
+        assertEquals(List.of("1", "Knee, left", "said \"ouch\""),
+                CsvHistoryFormat.split("1,\"Knee, left\",\"said \"\"ouch\"\"\""));
+        assertEquals(List.of("\""), CsvHistoryFormat.split("\"\"\"\""));
+    }
+
+    @Test
+    void split_keepsLineBreaksInsideQuotes() {
+        assertEquals(List.of("a", "line 1\r\nline 2"), CsvHistoryFormat.split("a,\"line 1\r\nline 2\""));
+    }
+
+    @Test
+    void split_unterminatedQuote_rejected() {
+        assertThrows(IllegalArgumentException.class, () -> CsvHistoryFormat.split("a,\"open"));
+    }
+
+    @Test
+    void open_crlfRowsAcrossReadBoundaries() throws IOException {
+        String csv = "Title,Details,Patient_ID\r\n"
+                + "Asthma,\"Inhaler, daily\",00000001\r\n"
+                + "\"Knee \"\"left\"\"\",\"Arthroscopy\r\n2019\",\r\n"
+                + "Flu,,00000002";
+
+        for (int n : new int[] {1, 2, 3, 7}) {
+            HistoryFormat.Records records = format.open(new TrickleReader(csv, n), 1000);
+            List<String> rows = records(records);
+            assertEquals(3, rows.size(), "reads of " + n);
+
+            List<MedicalHistory> knee = records.parse(rows.get(1), "12345678");
+            assertEquals("Knee \"left\"", knee.get(0).getTitle());
+            assertEquals("Arthroscopy\r\n2019", knee.get(0).getDetails());
+            assertEquals("12345678", knee.get(0).getPatientId());
+
+            MedicalHistory asthma = records.parse(rows.get(0), null).get(0);
+            assertEquals("Inhaler, daily", asthma.getDetails());
+            assertEquals("00000001", asthma.getPatientId());
+            assertEquals("00000002", records.parse(rows.get(2), null).get(0).getPatientId());
+        }
+    }
+
+    @Test
+    void open_withoutTitleColumn_rejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> format.open(new StringReader("patient_id,details\n1,x\n"), 1000));
+    }
+}
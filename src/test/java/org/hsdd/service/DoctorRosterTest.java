@@ -0,0 +1,31 @@
+package org.hsdd.service;
+
+import org.hsdd.repo.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DoctorRosterTest {
+
+    private final UserRepository users = mock(UserRepository.class);
+    private final DoctorRoster roster = new DoctorRoster(users, 60);
+
+    @Test
+    void doctorIds_cachedUntilInvalidated() {
+        when(users.findActiveIdsByRole("doctor"))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(1L, 2L, 3L));
+
+        assertEquals(List.of(1L, 2L), roster.doctorIds());
+        assertEquals(List.of(1L, 2L), roster.doctorIds());
+        verify(users, times(1)).findActiveIdsByRole("doctor");
+
+        roster.invalidate();
+
+        assertEquals(List.of(1L, 2L, 3L), roster.doctorIds());
+        verify(users, times(2)).findActiveIdsByRole("doctor");
+    }
+}
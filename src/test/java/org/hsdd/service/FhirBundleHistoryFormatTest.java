@@ -0,0 +1,110 @@
+package org.hsdd.service;
+
+import org.hsdd.model.MedicalHistory;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FhirBundleHistoryFormatTest {
+
+    private static List<String> entries(FhirBundleHistoryFormat.EntryScanner scanner) throws IOException {
+        List<String> out = new ArrayList<>();
+        for (String e; (e = scanner.next()) != null; ) out.add(e);
+        return out;
+    }
+
+    @Test
+    void scanner_nestedBracesAndStrings() throws IOException {
+        String first = "{\"resource\": {\"note\": [{\"text\": \"a } ] { [ b\"}], \"x\": {\"y\": [1, {\"z\": 2}]}}}";
+        String second = "{\"resource\": {\"note\": [{\"text\": \"quote \\\" and \\\\\"}]}}";
+        String bundle = "{\"meta\": {\"entry\": [\"not this one\"]}, \"note\": \"entry: [\", "
+                + "\"entry\": [ " + first + " ,\n\t" + second + " ], \"type\": \"collection\"}";
+
+        FhirBundleHistoryFormat.EntryScanner scanner = new FhirBundleHistoryFormat.EntryScanner(
+                new StringReader(bundle), 1000);
+
+        assertTrue(scanner.seekEntryArray());
+        assertEquals(List.of(first, second), entries(scanner));
+        assertNull(scanner.next());
+    }
+
+    @Test
+    void scanner_entriesAcrossReadBoundaries() throws IOException {
+        String entry = "{\"resource\": {\"resourceType\": \"Condition\", \"code\": {\"text\": \"C{%d}\"}}}";
+        StringBuilder bundle = new StringBuilder("{\"entry\": [");
+        List<String> expected = new ArrayList<>();
+        // enough entries to run well past the scanner's 8192-char buffer
+        for (int i = 0; i < 300; i++) {
+            String e = entry.formatted(i);
+            expected.add(e);
+            bundle.append(i == 0 ? "" : ", ").append(e);
+        }
+        bundle.append("]}");
+
+        for (int n : new int[] {1, 5, 8192}) {
+            FhirBundleHistoryFormat.EntryScanner scanner = new FhirBundleHistoryFormat.EntryScanner(
+                    new CsvHistoryFormatTest.TrickleReader(bundle.toString(), n), 1000);
+            assertTrue(scanner.seekEntryArray());
+            assertEquals(expected, entries(scanner), "reads of " + n);
+        }
+    }
+
+    @Test
+    void scanner_longEntryIsTruncatedAndScanningContinues() throws IOException {
+        String big = "{\"resource\": {\"note\": [{\"text\": \"" + "x".repeat(100) + "\"}]}}";
+        FhirBundleHistoryFormat.EntryScanner scanner = new FhirBundleHistoryFormat.EntryScanner(
+                new StringReader("{\"entry\": [" + big + ", {}]}"), 20);
+
+        assertTrue(scanner.seekEntryArray());
+        assertEquals(20, scanner.next().length());
+        assertTrue(scanner.truncated);
+        assertEquals("{}", scanner.next());
+        assertFalse(scanner.truncated);
+        assertNull(scanner.next());
+    }
+
+    @Test
+    void scanner_oversizedStringBeforeEntries_isSkipped() throws IOException {
+        String huge = "x".repeat(5_000_000);
+        // a long key that merely starts with "entry" must not match either
+        String bundle = "{\"text\": {\"div\": \"" + huge + "\"}, \"entry" + huge + "\": [\"no\"], "
+                + "\"entry\": [{}]}";
+        FhirBundleHistoryFormat.EntryScanner scanner = new FhirBundleHistoryFormat.EntryScanner(
+                new StringReader(bundle), 1000);
+
+        assertTrue(scanner.seekEntryArray());
+        assertEquals(List.of("{}"), entries(scanner));
+    }
+
+    @Test
+    void scanner_withoutEntryArray() throws IOException {
+        assertFalse(new FhirBundleHistoryFormat.EntryScanner(
+                new StringReader("{\"resourceType\": \"Patient\", \"x\": {\"entry\": []}}"), 1000).seekEntryArray());
+    }
+
+    @Test
+    void scanner_truncatedBundle_throws() throws IOException {
+        FhirBundleHistoryFormat.EntryScanner scanner = new FhirBundleHistoryFormat.EntryScanner(
+                new StringReader("{\"entry\": [{\"resource\": {\"a\": \"}"), 1000);
+
+        assertTrue(scanner.seekEntryArray());
+        assertThrows(IOException.class, scanner::next);
+    }
+
+    @Test
+    void parseEntry_escapedTextAndPatientReference() {
+        String entry = "{\"resource\": {\"resourceType\": \"Procedure\", \"subject\": {\"reference\": \"Patient/00000009\"},"
+                + " \"code\": {\"text\": \"Knee \\\"left\\\"\"}, \"note\": [{\"text\": \"a {b}\"}]}}";
+
+        MedicalHistory row = new FhirBundleHistoryFormat().parseEntry(entry, null).get(0);
+
+        assertEquals("Knee \"left\"", row.getTitle());
+        assertEquals("a {b}", row.getDetails());
+        assertEquals("00000009", row.getPatientId());
+    }
+}
@@ -0,0 +1,84 @@
+package org.hsdd.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hsdd.bench.BenchContext;
+import org.hsdd.bench.BenchData;
+import org.hsdd.dto.HistoryImportDto;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// HistoryImportService on a real database, with one EntityManager bound for the
+// whole call the way open-in-view does for a request: the progress updates are
+// bulk JPQL, so the response must not come from a stale managed entity.
+class HistoryImportPersistenceTest {
+
+    private static BenchContext ctx;
+    private static String patientId;
+
+    @BeforeAll
+    static void start() {
+        ctx = BenchContext.start();
+        BenchData.seedPatients(ctx, 1, 0);
+        patientId = BenchData.anyPatientId(ctx);
+    }
+
+    @AfterAll
+    static void stop() {
+        if (ctx != null) ctx.close();
+    }
+
+    private static <T> T inRequest(Supplier<T> call) {
+        EntityManagerFactory emf = ctx.bean(EntityManagerFactory.class);
+        EntityManager em = emf.createEntityManager();
+        TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(em));
+        try {
+            return call.get();
+        } finally {
+            TransactionSynchronizationManager.unbindResource(emf);
+            em.close();
+        }
+    }
+
+    private static ByteArrayInputStream text(String s) {
+        return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void upload_reportsCommittedState() {
+        HistoryImportService importer = ctx.bean(HistoryImportService.class);
+
+        HistoryImportDto out = inRequest(() ->
+                importer.importFile(patientId, null, "h.txt", null, text("Asthma: inhaler\nDiabetes: type 2\n")));
+
+        assertEquals("COMPLETED", out.status());
+        assertEquals(2, out.linesCommitted());
+        assertEquals(2, out.rowsImported());
+        assertNull(out.lastError());
+    }
+
+    @Test
+    void resumingFailedImport_reportsCompletion() {
+        HistoryImportService importer = ctx.bean(HistoryImportService.class);
+        HistoryImportDto started = importer.start(patientId, "r.txt", null);
+        ctx.jdbc().update("update history_imports set status = 'FAILED', last_error = 'boom', lines_committed = 1 "
+                + "where id = ?", started.importId());
+
+        HistoryImportDto out = inRequest(() ->
+                importer.importFile(patientId, started.importId(), "r.txt", null, text("a: 1\nb: 2\n")));
+
+        assertEquals("COMPLETED", out.status());
+        assertEquals(2, out.linesCommitted());
+        assertEquals(1, out.rowsImported());
+        assertNull(out.lastError());
+    }
+}
@@ -0,0 +1,325 @@
+package org.hsdd.service;
+
+import org.hsdd.dto.HistoryImportDto;
+import org.hsdd.model.HistoryImport;
+import org.hsdd.model.MedicalHistory;
+import org.hsdd.repo.HistoryImportRepository;
+import org.hsdd.repo.PatientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class HistoryImportServiceTest {
+
+    private final HistoryImportRepository imports = mock(HistoryImportRepository.class);
+    private final MedicalHistoryWriter writer = mock(MedicalHistoryWriter.class);
+    private final TransactionTemplate tx = mock(TransactionTemplate.class);
+    private final PatientRepository patients = mock(PatientRepository.class);
+    private final ExecutorService parser = Executors.newFixedThreadPool(2);
+    private final HistoryImportService service = new HistoryImportService(
+            imports, writer, tx, patients,
+            List.of(new TextHistoryFormat(), new CsvHistoryFormat(), new FhirBundleHistoryFormat()),
+            parser, 2, 200, 1000, 10, 2);
+
+    private final HistoryImport imp = new HistoryImport();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        doAnswer(inv -> {
+            ((Consumer<TransactionStatus>) inv.getArgument(0)).accept(null);
+            return null;
+        }).when(tx).executeWithoutResult(any());
+
+        imp.setPatientId("12345678");
+        imp.setFileName("history.txt");
+        imp.setFormat(TextHistoryFormat.NAME);
+        when(imports.save(any())).thenAnswer(inv -> {
+            HistoryImport saved = inv.getArgument(0);
+            saved.setId(7L);
+            return saved;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        parser.shutdownNow();
+    }
+
+    private static ByteArrayInputStream text(String s) {
+        return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<MedicalHistory>> insertedChunks(int times) {
+        ArgumentCaptor<List<MedicalHistory>> captor = ArgumentCaptor.forClass(List.class);
+        verify(writer, times(times)).insertAll(captor.capture());
+        return captor.getAllValues();
+    }
+
+    @Test
+    void importFile_parsesLinesAndCommitsInChunks() {
+        String file = """
+                Asthma: Uses inhaler daily
+                Diabetes: Chronic condition
+                High BP
+                """;
+
+        HistoryImportDto out = service.importFile("12345678", null, "history.txt", null, text(file));
+
+        List<List<MedicalHistory>> chunks = insertedChunks(2);
+        assertEquals(2, chunks.get(0).size());
+        assertEquals("Asthma", chunks.get(0).get(0).getTitle());
+        assertEquals("Uses inhaler daily", chunks.get(0).get(0).getDetails());
+        assertEquals("Chronic condition", chunks.get(0).get(1).getDetails());
+        assertEquals("High BP", chunks.get(1).get(0).getTitle());
+        assertEquals("High BP", chunks.get(1).get(0).getDetails());
+
+        verify(imports).recordProgress(eq(7L), eq(2L), eq(2L), eq(0L), any());
+        verify(imports).recordProgress(eq(7L), eq(3L), eq(1L), eq(0L), any());
+        verify(imports).finish(eq(7L), eq(HistoryImport.Status.COMPLETED), isNull(), any());
+        assertEquals(7L, out.importId());
+        assertTrue(out.errors().isEmpty());
+    }
+
+    @Test
+    void importFile_emptyFile_completesWithoutInserting() {
+        service.importFile("12345678", null, "empty.txt", null, text(""));
+
+        verify(writer, never()).insertAll(any());
+        verify(imports, never()).recordProgress(any(), anyLong(), anyLong(), anyLong(), any());
+        verify(imports).finish(eq(7L), eq(HistoryImport.Status.COMPLETED), isNull(), any());
+    }
+
+    @Test
+    void importFile_reportsBadLinesAndKeepsGoing() {
+        String file = ": no title\n" + "T".repeat(101) + ": long title\n" + "x".repeat(250) + "\nOk: fine\n";
+
+        HistoryImportDto out = service.importFile("12345678", null, "history.txt", null, text(file));
+
+        List<List<MedicalHistory>> chunks = insertedChunks(1);
+        assertEquals("Ok", chunks.get(0).get(0).getTitle());
+        assertEquals(List.of(1L, 2L, 3L), out.errors().stream().map(e -> e.line()).toList());
+        assertTrue(out.errors().get(2).message().contains("200"));
+        verify(imports).recordProgress(eq(7L), eq(2L), eq(0L), eq(2L), any());
+        verify(imports).recordProgress(eq(7L), eq(4L), eq(1L), eq(1L), any());
+    }
+
+    @Test
+    void importFile_failureMidway_keepsCommittedChunksAndMarksFailed() {
+        when(writer.insertAll(any()))
+                .thenReturn(2)
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+        service.importFile("12345678", null, "history.txt", null, text("a: 1\nb: 2\nc: 3\nd: 4\n"));
+
+        verify(imports).recordProgress(eq(7L), eq(2L), eq(2L), eq(0L), any());
+        verify(imports, never()).recordProgress(eq(7L), eq(4L), anyLong(), anyLong(), any());
+        verify(imports).finish(eq(7L), eq(HistoryImport.Status.FAILED), eq("connection lost"), any());
+    }
+
+    @Test
+    void importFile_resume_skipsCommittedLines() {
+        imp.setId(7L);
+        imp.setStatus(HistoryImport.Status.FAILED);
+        imp.setLinesCommitted(2);
+        when(imports.findById(7L)).thenReturn(Optional.of(imp));
+        when(imports.claim(eq(7L), eq(HistoryImport.Status.RUNNING), eq(HistoryImport.Status.COMPLETED), any(), any()))
+                .thenReturn(1);
+
+        service.importFile("12345678", 7L, "history.txt", null, text("a: 1\nb: 2\nc: 3\n"));
+
+        List<List<MedicalHistory>> chunks = insertedChunks(1);
+        assertEquals(1, chunks.get(0).size());
+        assertEquals("c", chunks.get(0).get(0).getTitle());
+        verify(imports).recordProgress(eq(7L), eq(3L), eq(1L), eq(0L), any());
+    }
+
+    @Test
+    void importFile_resumeWhileRunning_throws() {
+        imp.setId(7L);
+        imp.setStatus(HistoryImport.Status.RUNNING);
+        when(imports.findById(7L)).thenReturn(Optional.of(imp));
+        when(imports.claim(any(), any(), any(), any(), any())).thenReturn(0);
+
+        assertThrows(IllegalStateException.class,
+                () -> service.importFile("12345678", 7L, "history.txt", null, text("a: 1\n")));
+        verify(writer, never()).insertAll(any());
+    }
+
+    @Test
+    void importFile_resumeOtherPatientOrFile_rejected() {
+        imp.setId(7L);
+        when(imports.findById(7L)).thenReturn(Optional.of(imp));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.importFile("87654321", 7L, "history.txt", null, text("a: 1\n")));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.importFile("12345678", 7L, "other.txt", null, text("a: 1\n")));
+        verify(imports, never()).claim(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void importFile_completedImport_isNotReimported() {
+        imp.setId(7L);
+        imp.setStatus(HistoryImport.Status.COMPLETED);
+        when(imports.findById(7L)).thenReturn(Optional.of(imp));
+
+        HistoryImportDto out = service.importFile("12345678", 7L, "history.txt", null, text("a: 1\n"));
+
+        assertEquals("COMPLETED", out.status());
+        verify(writer, never()).insertAll(any());
+        verify(imports, never()).claim(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void importFile_textWithoutPatient_rejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.importFile(null, null, "history.txt", null, text("a: 1\n")));
+        verify(imports, never()).save(any());
+    }
+
+    @Test
+    void importFile_csv_checksPatientsOncePerChunk() {
+        when(patients.findExistingPatientIds(any())).thenReturn(List.of("00000001"));
+        String csv = """
+                patient_id,title,details
+                00000001,Asthma,"Uses inhaler, daily"
+                00000002,Diabetes,Type 2
+                00000001,"Knee ""left"" surgery","Arthroscopy
+                2019"
+                """;
+
+        HistoryImportDto out = service.importFile(null, null, "export.csv", null, text(csv));
+
+        List<List<MedicalHistory>> chunks = insertedChunks(2);
+        assertEquals(List.of("Asthma"), chunks.get(0).stream().map(MedicalHistory::getTitle).toList());
+        assertEquals("Uses inhaler, daily", chunks.get(0).get(0).getDetails());
+        assertEquals("Knee \"left\" surgery", chunks.get(1).get(0).getTitle());
+        assertEquals("Arthroscopy\n2019", chunks.get(1).get(0).getDetails());
+        verify(patients, times(2)).findExistingPatientIds(any());
+        assertEquals(2L, out.errors().get(0).line());
+        assertEquals("Unknown patientId 00000002", out.errors().get(0).message());
+        assertEquals("csv", out.format());
+    }
+
+    @Test
+    void importFile_fhirBundle_importsClinicalResources() {
+        when(patients.findExistingPatientIds(any())).thenReturn(List.of("00000001", "00000002"));
+        String bundle = """
+                {"resourceType": "Bundle", "type": "collection", "entry": [
+                  {"resource": {"resourceType": "Patient", "id": "00000001"}},
+                  {"resource": {"resourceType": "Condition", "subject": {"reference": "Patient/00000001"},
+                                "code": {"text": "Asthma"}, "note": [{"text": "Uses inhaler {daily}"}]}},
+                  {"resource": {"resourceType": "AllergyIntolerance", "patient": {"reference": "Patient/00000002"},
+                                "code": {"coding": [{"code": "227493005", "display": "Cashew nuts"}]},
+                                "reaction": [{"description": "Hives"}]}},
+                  {"resource": {"resourceType": "Condition", "subject": {"reference": "Patient/00000002"}}}
+                ]}
+                """;
+
+        HistoryImportDto out = service.importFile(null, null, "bundle.json", null, text(bundle));
+
+        List<List<MedicalHistory>> chunks = insertedChunks(2);
+        MedicalHistory asthma = chunks.get(0).get(0);
+        assertEquals("00000001", asthma.getPatientId());
+        assertEquals("Uses inhaler {daily}", asthma.getDetails());
+        MedicalHistory allergy = chunks.get(1).get(0);
+        assertEquals("00000002", allergy.getPatientId());
+        assertEquals("Cashew nuts", allergy.getTitle());
+        assertEquals("Hives", allergy.getDetails());
+        assertEquals(4L, out.errors().get(0).line());
+        verify(imports).recordProgress(eq(7L), eq(4L), eq(1L), eq(1L), any());
+    }
+
+    @Test
+    void importFile_csvForOnePatient_rejectsRowsForOthers() {
+        when(patients.findExistingPatientIds(any())).thenReturn(List.of("12345678", "87654321"));
+        String csv = """
+                patient_id,title,details
+                ,Asthma,Inhaler
+                87654321,Diabetes,Type 2
+                12345678,Migraine,Weekly
+                """;
+
+        HistoryImportDto out = service.importFile("12345678", null, "mine.csv", null, text(csv));
+
+        List<MedicalHistory> written = insertedChunks(2).stream().flatMap(List::stream).toList();
+        assertEquals(List.of("Asthma", "Migraine"), written.stream().map(MedicalHistory::getTitle).toList());
+        assertTrue(written.stream().allMatch(h -> "12345678".equals(h.getPatientId())));
+        assertEquals(1, out.errors().size());
+        assertEquals(2L, out.errors().get(0).line());
+        assertTrue(out.errors().get(0).message().contains("87654321"));
+    }
+
+    @Test
+    void importFile_fhirForOnePatient_rejectsEntriesForOthers() {
+        when(patients.findExistingPatientIds(any())).thenReturn(List.of("12345678", "87654321"));
+        String bundle = """
+                {"resourceType": "Bundle", "entry": [
+                  {"resource": {"resourceType": "Condition", "subject": {"reference": "Patient/87654321"},
+                                "code": {"text": "Asthma"}}}
+                ]}
+                """;
+
+        HistoryImportDto out = service.importFile("12345678", null, "mine.json", null, text(bundle));
+
+        verify(writer, never()).insertAll(any());
+        assertEquals(1L, out.errors().get(0).line());
+        verify(imports).recordProgress(eq(7L), eq(1L), eq(0L), eq(1L), any());
+    }
+
+    @Test
+    void importFile_notABundle_fails() {
+        service.importFile(null, null, "bundle.json", null, text("{\"resourceType\": \"Patient\"}"));
+
+        verify(imports).finish(eq(7L), eq(HistoryImport.Status.FAILED), contains("entry"), any());
+    }
+
+    @Test
+    void importFile_unknownFormat_rejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.importFile(null, null, "export.xml", "hl7", text("")));
+    }
+
+    @Test
+    void lineReader_handlesTerminatorsBomAndLongLines() throws Exception {
+        HistoryLineReader r = new HistoryLineReader(new StringReader("\uFEFFa\r\nb\rc\n" + "x".repeat(10) + "\nlast"), 4);
+
+        assertEquals("a", r.readLine());
+        assertEquals("b", r.readLine());
+        assertEquals("c", r.readLine());
+        assertFalse(r.truncated());
+        assertEquals("xxxx", r.readLine());
+        assertTrue(r.truncated());
+        assertEquals("last", r.readLine());
+        assertFalse(r.truncated());
+        assertNull(r.readLine());
+    }
+
+    @Test
+    void lineReader_csvQuotes_keepLineBreaksInsideFields() throws Exception {
+        HistoryLineReader r = new HistoryLineReader(new StringReader("a,\"x\ny\"\r\nb,\"\"\"q\"\"\"\n"), 100, true);
+
+        assertEquals("a,\"x\ny\"", r.readLine());
+        assertEquals("b,\"\"\"q\"\"\"", r.readLine());
+        assertNull(r.readLine());
+    }
+}
@@ -0,0 +1,74 @@
+package org.hsdd.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyStatsTest {
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final LatencyStats stats = new LatencyStats(meters);
+
+    private Timer timer(String name, String... tags) {
+        return Timer.builder(name).tags(tags).publishPercentiles(0.5, 0.99).register(meters);
+    }
+
+    @Test
+    void snapshot_withoutTraffic_reportsZeros() {
+        LatencyStats.Snapshot s = stats.snapshot();
+
+        assertEquals(new LatencyStats.Latency(0, 0, 0, 0), s.inference());
+        assertEquals(new LatencyStats.Latency(0, 0, 0, 0), s.aiProvider());
+        assertTrue(s.endpoints().isEmpty());
+    }
+
+    @Test
+    void snapshot_reportsInferencePercentiles() {
+        Timer t = timer("hsdd.inference");
+        for (int i = 1; i <= 100; i++) t.record(Duration.ofMillis(i * 10L));
+
+        LatencyStats.Latency l = stats.snapshot().inference();
+
+        assertEquals(100, l.count());
+        assertEquals(500, l.p50Ms(), 25);
+        assertEquals(990, l.p99Ms(), 40);
+        assertEquals(1000, l.maxMs(), 1);
+    }
+
+    @Test
+    void snapshot_providerLatencyIgnoresFailedCalls() {
+        timer("hsdd.ai.provider.latency", "call", "single", "outcome", "success").record(Duration.ofMillis(800));
+        timer("hsdd.ai.provider.latency", "call", "single", "outcome", "error").record(Duration.ofMillis(5));
+
+        LatencyStats.Latency l = stats.snapshot().aiProvider();
+
+        assertEquals(1, l.count());
+        assertEquals(800, l.maxMs(), 1);
+    }
+
+    @Test
+    void snapshot_groupsEndpointsAndSortsByTraffic() {
+        Timer listOk = timer("http.server.requests", "method", "GET", "uri", "/api/doctor/reports", "outcome", "SUCCESS", "status", "200");
+        Timer listErr = timer("http.server.requests", "method", "GET", "uri", "/api/doctor/reports", "outcome", "SERVER_ERROR", "status", "500");
+        Timer submit = timer("http.server.requests", "method", "POST", "uri", "/api/patient/symptoms", "outcome", "SUCCESS", "status", "200");
+        for (int i = 0; i < 5; i++) listOk.record(Duration.ofMillis(20));
+        listErr.record(Duration.ofMillis(3));
+        submit.record(Duration.ofMillis(900));
+
+        List<LatencyStats.EndpointLatency> endpoints = stats.snapshot().endpoints();
+
+        assertEquals(2, endpoints.size());
+        LatencyStats.EndpointLatency first = endpoints.get(0);
+        assertEquals("GET", first.method());
+        assertEquals("/api/doctor/reports", first.uri());
+        assertEquals(6, first.requests());
+        assertEquals(1, first.errors());
+        assertEquals(20, first.p50Ms(), 2);
+        assertEquals("/api/patient/symptoms", endpoints.get(1).uri());
+    }
+}
@@ -0,0 +1,62 @@
+package org.hsdd.service;
+
+import org.hsdd.model.MedicalHistory;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MedicalHistoryWriterTest {
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final MedicalHistoryWriter writer = new MedicalHistoryWriter(jdbc, 2);
+
+    private MedicalHistory entry(String title) {
+        MedicalHistory h = new MedicalHistory();
+        h.setPatientId("12345678");
+        h.setTitle(title);
+        h.setDetails(title + " details");
+        return h;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void insertAll_writesOneJdbcBatchWithConfiguredSize() throws Exception {
+        List<MedicalHistory> entries = List.of(entry("Asthma"), entry("Diabetes"), entry("High BP"));
+        PreparedStatement ps = mock(PreparedStatement.class);
+        List<Integer> rows = new ArrayList<>();
+        when(jdbc.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(inv -> {
+                    ParameterizedPreparedStatementSetter<MedicalHistory> setter = inv.getArgument(3);
+                    for (MedicalHistory h : (Collection<MedicalHistory>) inv.getArgument(1)) {
+                        setter.setValues(ps, h);
+                        rows.add(1);
+                    }
+                    return new int[0][];
+                });
+
+        assertEquals(3, writer.insertAll(entries));
+
+        verify(jdbc).batchUpdate(eq(MedicalHistoryWriter.INSERT_SQL), eq(entries), eq(2),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(3, rows.size());
+        verify(ps).setString(2, "Asthma");
+        verify(ps).setString(3, "High BP details");
+        verify(ps, times(3)).setString(1, "12345678");
+    }
+
+    @Test
+    void insertAll_emptyList_skipsDatabase() {
+        assertEquals(0, writer.insertAll(List.of()));
+
+        verifyNoInteractions(jdbc);
+    }
+}
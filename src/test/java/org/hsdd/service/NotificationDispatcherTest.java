@@ -0,0 +1,154 @@
+package org.hsdd.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hsdd.model.Patient;
+import org.hsdd.repo.NotificationRepository;
+import org.hsdd.repo.PatientRepository;
+import org.hsdd.repo.projection.NotificationRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NotificationDispatcherTest {
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final TransactionTemplate tx = mock(TransactionTemplate.class);
+    private final PatientRepository patients = mock(PatientRepository.class);
+    private final DoctorRoster roster = mock(DoctorRoster.class);
+    private final NotificationRepository notifications = mock(NotificationRepository.class);
+    private final NotificationStream stream = mock(NotificationStream.class);
+    private final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+    private NotificationDispatcher dispatcher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        doAnswer(inv -> {
+            ((Consumer<TransactionStatus>) inv.getArgument(0)).accept(null);
+            return null;
+        }).when(tx).executeWithoutResult(any());
+
+        Patient p = new Patient();
+        p.setFirstName("Jess");
+        p.setLastName("Morcos");
+        when(patients.findByPatientId("PAT-11111")).thenReturn(Optional.of(p));
+
+        dispatcher = new NotificationDispatcher(jdbc, tx, patients, roster, notifications, stream, executor, meters, 3, 1, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    // -------------------------------------------------------------------------
+    // 1. fanOut() — ONE batched insert covering every doctor
+    // -------------------------------------------------------------------------
+    @Test
+    @SuppressWarnings("unchecked")
+    void fanOut_writesOneBatchForAllDoctors() {
+        when(roster.doctorIds()).thenReturn(List.of(1L, 2L, 3L));
+
+        int rows = dispatcher.fanOut(99L, "PAT-11111");
+
+        assertEquals(3, rows);
+        verify(jdbc, times(1)).batchUpdate(eq(NotificationDispatcher.INSERT_SQL),
+                argThat((Collection<Long> ids) -> ids.equals(List.of(1L, 2L, 3L))),
+                eq(3), any(ParameterizedPreparedStatementSetter.class));
+        verify(tx).executeWithoutResult(any());
+    }
+
+    @Test
+    void fanOut_recordsFanOutSize() {
+        when(roster.doctorIds()).thenReturn(List.of(1L, 2L, 3L));
+
+        dispatcher.fanOut(99L, "PAT-11111");
+
+        var summary = meters.get("hsdd.notifications.fanout").summary();
+        assertEquals(1, summary.count());
+        assertEquals(3.0, summary.totalAmount());
+    }
+
+    @Test
+    void fanOut_pushesInsertedRowsWhenDoctorsAreConnected() {
+        when(roster.doctorIds()).thenReturn(List.of(1L, 2L));
+        when(stream.hasSubscribers()).thenReturn(true);
+        List<NotificationRow> rows = List.of(
+                new NotificationRow(1L, 500L, 99L, "msg", false, null),
+                new NotificationRow(2L, 501L, 99L, "msg", false, null));
+        when(notifications.findRowsByPredictionId(99L)).thenReturn(rows);
+
+        dispatcher.fanOut(99L, "PAT-11111");
+
+        verify(stream).publish(rows);
+    }
+
+    @Test
+    void fanOut_skipsReadBackWithoutSubscribers() {
+        when(roster.doctorIds()).thenReturn(List.of(1L));
+        when(stream.hasSubscribers()).thenReturn(false);
+
+        dispatcher.fanOut(99L, "PAT-11111");
+
+        verifyNoInteractions(notifications);
+        verify(stream, never()).publish(any());
+    }
+
+    @Test
+    void fanOut_noDoctorsWritesNothing() {
+        when(roster.doctorIds()).thenReturn(List.of());
+
+        assertEquals(0, dispatcher.fanOut(99L, "PAT-11111"));
+        verifyNoInteractions(jdbc, patients);
+    }
+
+    // -------------------------------------------------------------------------
+    // 2. dispatch() — runs async and retries transient failures
+    // -------------------------------------------------------------------------
+    @Test
+    @SuppressWarnings("unchecked")
+    void dispatch_retriesUntilInsertSucceeds() {
+        when(roster.doctorIds()).thenReturn(List.of(1L));
+        when(jdbc.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new RuntimeException("deadlock"))
+                .thenThrow(new RuntimeException("deadlock"))
+                .thenReturn(new int[0][]);
+
+        dispatcher.dispatch(99L, "PAT-11111");
+
+        verify(jdbc, timeout(2000).times(3)).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void dispatch_givesUpAfterMaxAttempts() throws Exception {
+        when(roster.doctorIds()).thenReturn(List.of(1L));
+        when(jdbc.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new RuntimeException("db down"));
+
+        dispatcher.dispatch(99L, "PAT-11111");
+
+        verify(jdbc, timeout(2000).times(3)).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        Thread.sleep(50);
+        verify(jdbc, times(3)).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+}
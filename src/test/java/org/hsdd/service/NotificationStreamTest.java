@@ -0,0 +1,114 @@
+package org.hsdd.service;
+
+import org.hsdd.dto.NotificationDto;
+import org.hsdd.repo.NotificationRepository;
+import org.hsdd.repo.projection.NotificationRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class NotificationStreamTest {
+
+    private final NotificationRepository notifications = mock(NotificationRepository.class);
+    private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+    // sender tasks are collected here and run by hand
+    private final List<Runnable> sends = new ArrayList<>();
+    private final NotificationStream stream =
+            new NotificationStream(notifications, scheduler, sends::add, 60_000, 60_000, 2, 2);
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    // -------------------------------------------------------------------------
+    // 1. subscribe() — registers the connection, replays after Last-Event-ID
+    // -------------------------------------------------------------------------
+    @Test
+    void subscribe_registersAndReplaysMissed() {
+        when(notifications.findUnread(10L, 40L)).thenReturn(List.of(
+                new NotificationDto(42L, 7L, "b", false, null),
+                new NotificationDto(41L, 6L, "a", false, null)));
+
+        SseEmitter emitter = stream.subscribe(10L, 40L);
+
+        assertNotNull(emitter);
+        assertTrue(stream.hasSubscribers());
+        assertEquals(1, stream.connectionCount(10L));
+        verify(notifications).findUnread(10L, 40L);
+    }
+
+    @Test
+    void subscribe_withoutLastEventIdSkipsReplay() {
+        stream.subscribe(10L, null);
+
+        verifyNoInteractions(notifications);
+    }
+
+    // -------------------------------------------------------------------------
+    // 2. per-user connection cap drops the oldest
+    // -------------------------------------------------------------------------
+    @Test
+    void subscribe_capsConnectionsPerUser() {
+        stream.subscribe(10L, null);
+        stream.subscribe(10L, null);
+        stream.subscribe(10L, null);
+
+        assertEquals(2, stream.connectionCount(10L));
+    }
+
+    // -------------------------------------------------------------------------
+    // 3. publish() — only users with open streams are touched
+    // -------------------------------------------------------------------------
+    @Test
+    void publish_ignoresUsersWithoutConnection() {
+        stream.subscribe(10L, null);
+
+        assertDoesNotThrow(() -> stream.publish(List.of(
+                new NotificationRow(10L, 50L, 7L, "msg", false, null),
+                new NotificationRow(11L, 51L, 7L, "msg", false, null))));
+
+        assertEquals(1, stream.connectionCount(10L));
+        assertEquals(0, stream.connectionCount(11L));
+    }
+
+    // -------------------------------------------------------------------------
+    // 4. writes happen on the sender, one task per connection at a time
+    // -------------------------------------------------------------------------
+    @Test
+    void publish_queuesForSenderInsteadOfWriting() {
+        stream.subscribe(10L, null);
+
+        stream.publish(List.of(new NotificationRow(10L, 50L, 7L, "msg", false, null)));
+        stream.publish(List.of(new NotificationRow(10L, 51L, 7L, "msg", false, null)));
+
+        // one drain task for both events
+        assertEquals(1, sends.size());
+        sends.remove(0).run();
+
+        stream.publish(List.of(new NotificationRow(10L, 52L, 7L, "msg", false, null)));
+        assertEquals(1, sends.size());
+        assertEquals(1, stream.connectionCount(10L));
+    }
+
+    @Test
+    void publish_clientTooFarBehind_isDropped() {
+        stream.subscribe(10L, null);
+        stream.subscribe(11L, null);
+
+        // queue capacity 2, sender never gets to user 10's events
+        for (long id = 50; id < 53; id++) {
+            stream.publish(List.of(new NotificationRow(10L, id, 7L, "msg", false, null)));
+        }
+
+        assertEquals(0, stream.connectionCount(10L));
+        assertEquals(1, stream.connectionCount(11L));
+    }
+}
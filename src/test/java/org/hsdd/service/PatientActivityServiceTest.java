@@ -0,0 +1,85 @@
+package org.hsdd.service;
+
+import org.hsdd.repo.PatientActivitySummaryRepository;
+import org.hsdd.value.Annotation;
+import org.hsdd.value.Prediction;
+import org.hsdd.value.SymptomEntry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PatientActivityServiceTest {
+
+    @Mock
+    private PatientActivitySummaryRepository summaries;
+
+    @InjectMocks
+    private PatientActivityService service;
+
+    // -----------------------------------------------------------
+    // 1. SYMPTOM — upserts last symptom time
+    // -----------------------------------------------------------
+    @Test
+    void recordSymptom_upsertsSubmittedAt() {
+        SymptomEntry s = new SymptomEntry("PAT-1", "Cough", null);
+        s.setSubmittedAt(LocalDateTime.parse("2025-01-01T10:00:00"));
+
+        service.recordSymptom(s);
+
+        verify(summaries).upsertSymptom("PAT-1", LocalDateTime.parse("2025-01-01T10:00:00"));
+    }
+
+    // -----------------------------------------------------------
+    // 2. PREDICTION — upserts id, label and time
+    // -----------------------------------------------------------
+    @Test
+    void recordPrediction_upsertsLatestPrediction() {
+        Prediction p = new Prediction("PAT-1", 10L, "Flu", 0.8);
+        p.setId(99L);
+        p.setCreatedAt(LocalDateTime.parse("2025-01-01T10:05:00"));
+
+        service.recordPrediction(p);
+
+        verify(summaries).upsertPrediction("PAT-1", 99L, "Flu", LocalDateTime.parse("2025-01-01T10:05:00"));
+    }
+
+    // -----------------------------------------------------------
+    // 3. ANNOTATION — note is scoped to its prediction
+    // -----------------------------------------------------------
+    @Test
+    void recordAnnotation_updatesNoteForPrediction() {
+        Prediction p = new Prediction("PAT-1", 10L, "Flu", 0.8);
+        p.setId(99L);
+
+        Annotation a = new Annotation();
+        a.setPrediction(p);
+        a.setNotes("Rest and fluids");
+
+        service.recordAnnotation(a);
+
+        verify(summaries).updateNote("PAT-1", 99L, null, "Rest and fluids");
+    }
+
+    // -----------------------------------------------------------
+    // 4. REBUILD — clears then backfills
+    // -----------------------------------------------------------
+    @Test
+    void rebuild_deletesThenInsertsFromHistory() {
+        when(summaries.insertFromHistory()).thenReturn(12);
+
+        assertEquals(12, service.rebuild());
+
+        InOrder order = inOrder(summaries);
+        order.verify(summaries).deleteAllRows();
+        order.verify(summaries).insertFromHistory();
+    }
+}
@@ -0,0 +1,160 @@
+package org.hsdd.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PatientIdAllocatorTest {
+
+    private static final String LOCK_SQL = "select next_value from id_sequences where name = ? for update";
+    private static final String KEY_SQL = "select next_value from id_sequences where name = ?";
+    private static final String TAKEN_SQL = "select patient_id from patients where patient_id in (";
+    private static final long KEY = 42L;
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager txManager = mock(PlatformTransactionManager.class);
+    private final PatientIdAllocator.IdPermutation permutation = new PatientIdAllocator.IdPermutation(KEY);
+
+    private PatientIdAllocator allocator(int blockSize) {
+        return new PatientIdAllocator(jdbc, txManager, blockSize);
+    }
+
+    private String id(long counter) {
+        return PatientIdAllocator.format(permutation.apply(counter));
+    }
+
+    @BeforeEach
+    void key() {
+        when(jdbc.queryForObject(KEY_SQL, Long.class, PatientIdAllocator.KEY)).thenReturn(KEY);
+    }
+
+    // -----------------------------------------------------------
+    // 1. ONE RESERVATION PER BLOCK, IDS SERVED FROM MEMORY
+    // -----------------------------------------------------------
+    @Test
+    void next_servesBlockFromMemoryThenReservesNext() {
+        when(jdbc.queryForList(eq(LOCK_SQL), eq(Long.class), any()))
+                .thenReturn(List.of(1L))
+                .thenReturn(List.of(4L));
+        when(jdbc.queryForList(startsWith(TAKEN_SQL), eq(String.class), any(Object[].class))).thenReturn(List.of());
+
+        PatientIdAllocator ids = allocator(3);
+
+        assertEquals(id(1), ids.next());
+        assertEquals(id(2), ids.next());
+        assertEquals(id(3), ids.next());
+        assertEquals(id(4), ids.next());
+
+        verify(jdbc).update("update id_sequences set next_value = ? where name = ?", 4L, "patient_id");
+        verify(jdbc).update("update id_sequences set next_value = ? where name = ?", 7L, "patient_id");
+        verify(jdbc, times(2)).queryForList(eq(LOCK_SQL), eq(Long.class), any());
+        verify(jdbc, times(1)).queryForObject(KEY_SQL, Long.class, PatientIdAllocator.KEY);
+    }
+
+    // -----------------------------------------------------------
+    // 2. IDS ALREADY IN USE ARE SKIPPED
+    // -----------------------------------------------------------
+    @Test
+    void next_skipsIdsAlreadyInUse() {
+        when(jdbc.queryForList(eq(LOCK_SQL), eq(Long.class), any())).thenReturn(List.of(10L));
+        when(jdbc.queryForList(startsWith(TAKEN_SQL), eq(String.class), any(Object[].class)))
+                .thenReturn(List.of(id(10), id(12)));
+
+        PatientIdAllocator ids = allocator(5);
+
+        assertEquals(id(11), ids.next());
+        assertEquals(id(13), ids.next());
+        assertEquals(id(14), ids.next());
+    }
+
+    @Test
+    void next_fullyTakenBlock_reservesAnother() {
+        when(jdbc.queryForList(eq(LOCK_SQL), eq(Long.class), any()))
+                .thenReturn(List.of(1L))
+                .thenReturn(List.of(3L));
+        when(jdbc.queryForList(startsWith(TAKEN_SQL), eq(String.class), any(Object[].class)))
+                .thenReturn(List.of(id(1), id(2)))
+                .thenReturn(List.of());
+
+        assertEquals(id(3), allocator(2).next());
+    }
+
+    // -----------------------------------------------------------
+    // 3. SEQUENCE ROW CREATED ON FIRST USE, RANGE CAPPED AT 8 DIGITS
+    // -----------------------------------------------------------
+    @Test
+    void reserve_missingSequenceRow_createsIt() {
+        when(jdbc.queryForList(eq(LOCK_SQL), eq(Long.class), any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(1L));
+
+        PatientIdAllocator.Block block = allocator(50).reserve();
+
+        assertEquals(new PatientIdAllocator.Block(1, 51), block);
+        verify(jdbc).update("insert ignore into id_sequences (name, next_value) values (?, 1)", "patient_id");
+    }
+
+    @Test
+    void reserve_capsAtLargestEightDigitId() {
+        when(jdbc.queryForList(eq(LOCK_SQL), eq(Long.class), any())).thenReturn(List.of(99_999_990L));
+
+        PatientIdAllocator.Block block = allocator(50).reserve();
+
+        assertEquals(100_000_000L, block.to());
+    }
+
+    @Test
+    void reserve_exhausted_throws() {
+        when(jdbc.queryForList(eq(LOCK_SQL), eq(Long.class), any())).thenReturn(List.of(100_000_000L));
+
+        assertThrows(IllegalStateException.class, () -> allocator(50).reserve());
+        verify(jdbc, never()).update(startsWith("update"), any(Object[].class));
+    }
+
+    // -----------------------------------------------------------
+    // 4. KEY SHARED THROUGH THE DATABASE
+    // -----------------------------------------------------------
+    @Test
+    void loadKey_keepsTheFirstNodesKey() {
+        assertEquals(KEY, allocator(50).loadKey());
+
+        verify(jdbc).update(eq("insert ignore into id_sequences (name, next_value) values (?, ?)"),
+                eq(PatientIdAllocator.KEY), anyLong());
+    }
+
+    // -----------------------------------------------------------
+    // 5. PERMUTATION
+    // -----------------------------------------------------------
+    @Test
+    void permutation_isInjectiveAndNotSequential() {
+        Set<Long> seen = new HashSet<>();
+        int adjacent = 0;
+        long previous = -1;
+        for (long n = 1; n <= 20_000; n++) {
+            long id = permutation.apply(n);
+            assertTrue(id >= 0 && id <= PatientIdAllocator.MAX_ID);
+            assertTrue(seen.add(id), "duplicate id for counter " + n);
+            if (Math.abs(id - previous) <= 1) adjacent++;
+            previous = id;
+        }
+        assertTrue(adjacent < 5, "consecutive counters gave adjacent ids " + adjacent + " times");
+    }
+
+    @Test
+    void permutation_dependsOnKey() {
+        PatientIdAllocator.IdPermutation other = new PatientIdAllocator.IdPermutation(KEY + 1);
+
+        assertEquals(permutation.apply(123), new PatientIdAllocator.IdPermutation(KEY).apply(123));
+        assertNotEquals(permutation.apply(123), other.apply(123));
+        assertEquals(8, PatientIdAllocator.format(permutation.apply(PatientIdAllocator.MAX_ID)).length());
+    }
+}
@@ -0,0 +1,91 @@
+package org.hsdd.service;
+
+import org.hsdd.repo.PatientTrendRepository;
+import org.hsdd.value.Prediction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PatientTrendServiceTest {
+
+    @Mock
+    private PatientTrendRepository trends;
+
+    @InjectMocks
+    private PatientTrendService service;
+
+    // -----------------------------------------------------------
+    // 1. PREDICTION — one upsert for all-time, day, week and month
+    // -----------------------------------------------------------
+    @Test
+    void recordPrediction_incrementsDayWeekAndMonthBuckets() {
+        Prediction p = new Prediction("PAT-1", 10L, "Flu", 0.8);
+        // a Thursday
+        p.setCreatedAt(LocalDateTime.parse("2025-05-15T23:30:00"));
+
+        service.recordPrediction(p);
+
+        verify(trends).increment("PAT-1", "Flu",
+                LocalDate.of(2025, 5, 15), LocalDate.of(2025, 5, 12), LocalDate.of(2025, 5, 1));
+    }
+
+    // -----------------------------------------------------------
+    // 2. RANGES — totals exact, histograms widened to whole buckets, end exclusive
+    // -----------------------------------------------------------
+    @Test
+    void totals_range_isExact() {
+        service.totals("PAT-1", LocalDate.of(2025, 5, 14), LocalDate.of(2025, 5, 20));
+
+        // Wed..Mon, not widened to the weeks around it
+        verify(trends).findTotalsBetween("PAT-1", LocalDate.of(2025, 5, 14), LocalDate.of(2025, 5, 20));
+    }
+
+    @Test
+    void histogram_month_usesMonthRows() {
+        service.histogram("PAT-1", PatientTrendService.Bucket.MONTH,
+                LocalDate.of(2025, 1, 20), LocalDate.of(2025, 4, 1));
+
+        verify(trends).findBuckets("PAT-1", "M", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 4, 1));
+    }
+
+    @Test
+    void histogram_rejectsEmptyOrTooLargeRange() {
+        LocalDate d = LocalDate.of(2025, 1, 1);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.histogram("PAT-1", PatientTrendService.Bucket.WEEK, d, d));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.histogram("PAT-1", PatientTrendService.Bucket.WEEK, d, d.plusYears(10)));
+        verifyNoInteractions(trends);
+    }
+
+    @Test
+    void bucket_parse() {
+        assertEquals(PatientTrendService.Bucket.WEEK, PatientTrendService.Bucket.parse("Week"));
+        assertEquals(PatientTrendService.Bucket.MONTH, PatientTrendService.Bucket.parse("month"));
+        assertThrows(IllegalArgumentException.class, () -> PatientTrendService.Bucket.parse("day"));
+    }
+
+    // -----------------------------------------------------------
+    // 3. REBUILD — wipe then recompute
+    // -----------------------------------------------------------
+    @Test
+    void rebuild_deletesThenInserts() {
+        when(trends.insertFromHistory()).thenReturn(30);
+
+        assertEquals(30, service.rebuild());
+
+        var order = inOrder(trends);
+        order.verify(trends).deleteAllRows();
+        order.verify(trends).insertFromHistory();
+    }
+}
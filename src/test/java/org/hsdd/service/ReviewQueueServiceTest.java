@@ -0,0 +1,142 @@
+package org.hsdd.service;
+
+import org.hsdd.dto.LowConfidenceDto;
+import org.hsdd.dto.PageDto;
+import org.hsdd.dto.ReviewItemDto;
+import org.hsdd.repo.ReviewQueueRepository;
+import org.hsdd.repo.projection.ReviewItemRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewQueueServiceTest {
+
+    @Mock
+    private ReviewQueueRepository queue;
+
+    private ReviewQueueService service;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        service = new ReviewQueueService(queue, 0.55, 15, 25);
+    }
+
+    private ReviewItemRow row(long id, boolean reviewed, String holder, LocalDateTime leaseUntil) {
+        return new ReviewItemRow(id, "PAT-" + id, "Jess", "Morcos", "Flu", 0.30,
+                now.minusHours(id), "Fever and chills", reviewed, holder, leaseUntil);
+    }
+
+    @Test
+    void page_readsOldestFirstAndHidesExpiredLeases() {
+        List<ReviewItemRow> rows = List.of(
+                row(1, false, "drA", now.plusMinutes(5)),
+                row(2, false, "drB", now.minusMinutes(5)));
+        when(queue.findPending(eq(0.55), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(rows, PageRequest.of(0, 50), 2));
+
+        PageDto<ReviewItemDto> page = service.page(0, 50);
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(queue).findPending(eq(0.55), pageable.capture());
+        assertEquals(Sort.by("createdAt", "id"), pageable.getValue().getSort());
+
+        assertEquals("Jess Morcos", page.items().get(0).patientName());
+        assertEquals("drA", page.items().get(0).claimedBy());
+        assertNull(page.items().get(1).claimedBy());
+        assertNull(page.items().get(1).leaseUntil());
+    }
+
+    @Test
+    void pending_marksLeasedItemsInReview() {
+        when(queue.findAllPending(eq(0.55), any(Sort.class))).thenReturn(List.of(
+                row(1, false, "drA", now.plusMinutes(5)),
+                row(2, false, null, null)));
+
+        List<LowConfidenceDto> list = service.pending();
+
+        assertEquals("In Review", list.get(0).status());
+        assertEquals("Pending Review", list.get(1).status());
+        assertEquals("Fever and chills", list.get(1).symptomDescription());
+    }
+
+    @Test
+    void allBelowThreshold_keepsReviewedStatusAndUnknownNames() {
+        ReviewItemRow orphan = new ReviewItemRow(3L, "PAT-3", null, null, "Anxiety", 0.3, now,
+                null, true, null, null);
+        when(queue.findAllBelow(eq(0.55), any(Sort.class))).thenReturn(List.of(orphan));
+
+        LowConfidenceDto dto = service.allBelowThreshold().get(0);
+
+        assertEquals("Reviewed", dto.status());
+        assertEquals("Unknown", dto.patientName());
+        assertEquals("—", dto.symptomDescription());
+    }
+
+    @Test
+    void item_missing_throws() {
+        when(queue.findItem(9L)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> service.item(9L));
+    }
+
+    @Test
+    void claim_capsBatchSizeAndSetsLease() {
+        when(queue.findClaimedBy(eq(7L), any())).thenReturn(List.of(row(1, false, "drA", now.plusMinutes(15))));
+
+        List<ReviewItemDto> mine = service.claim(7L, 1000);
+
+        ArgumentCaptor<LocalDateTime> at = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> until = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(queue).claim(eq(7L), eq(0.55), at.capture(), until.capture(), eq(25));
+        assertEquals(Duration.ofMinutes(15), Duration.between(at.getValue(), until.getValue()));
+        assertEquals(1, mine.size());
+        assertEquals("drA", mine.get(0).claimedBy());
+    }
+
+    @Test
+    void claim_atLeastOne() {
+        service.claim(7L, 0);
+
+        verify(queue).claim(eq(7L), eq(0.55), any(), any(), eq(1));
+    }
+
+    @Test
+    void release_reportsWhetherTheDoctorHeldTheLease() {
+        when(queue.release(eq(1L), eq(7L), any())).thenReturn(1);
+        when(queue.release(eq(2L), eq(7L), any())).thenReturn(0);
+
+        assertTrue(service.release(1L, 7L));
+        assertFalse(service.release(2L, 7L));
+    }
+
+    @Test
+    void renew_extendsByLeaseLength() {
+        when(queue.renew(eq(7L), any(), any())).thenReturn(3);
+
+        assertEquals(3, service.renew(7L));
+
+        ArgumentCaptor<LocalDateTime> at = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> until = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(queue).renew(eq(7L), at.capture(), until.capture());
+        assertEquals(Duration.ofMinutes(15), Duration.between(at.getValue(), until.getValue()));
+    }
+}
@@ -0,0 +1,44 @@
+package org.hsdd.service;
+
+import org.hsdd.dto.SymptomJobDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymptomJobTrackerTest {
+
+    private final SymptomJobTracker tracker = new SymptomJobTracker(30);
+
+    private static Principal user(String name, String role) {
+        return new UsernamePasswordAuthenticationToken(name, null, List.of(new SimpleGrantedAuthority(role)));
+    }
+
+    @Test
+    void find_submitterSeesOwnJobThroughItsLifecycle() {
+        SymptomJobDto job = tracker.start(null, "pat");
+
+        assertEquals(SymptomJobTracker.PENDING,
+                tracker.find(job.jobId(), user("pat", "ROLE_PATIENT")).orElseThrow().status());
+
+        tracker.fail(job.jobId(), "Prediction failed");
+
+        assertEquals(SymptomJobTracker.FAILED,
+                tracker.find(job.jobId(), user("pat", "ROLE_PATIENT")).orElseThrow().status());
+    }
+
+    @Test
+    void find_otherPatientsGetNothing_staffSeeAll() {
+        SymptomJobDto job = tracker.start(null, "pat");
+
+        assertTrue(tracker.find(job.jobId(), user("other", "ROLE_PATIENT")).isEmpty());
+        assertTrue(tracker.find(job.jobId(), null).isEmpty());
+        assertTrue(tracker.find(job.jobId(), user("doc", "ROLE_DOCTOR")).isPresent());
+        assertTrue(tracker.find(job.jobId(), user("root", "ROLE_ADMIN")).isPresent());
+        assertTrue(tracker.find("missing", user("root", "ROLE_ADMIN")).isEmpty());
+    }
+}
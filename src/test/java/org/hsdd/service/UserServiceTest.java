@@ -2,18 +2,26 @@ package org.hsdd.service;
 
 import org.hsdd.model.Patient;
 import org.hsdd.model.User;
+import org.hsdd.dto.AdminUserDto;
 import org.hsdd.dto.CreateUserRequest;
+import org.hsdd.dto.PageDto;
 import org.hsdd.dto.UpdateUserRequest;
 import org.hsdd.repo.PatientRepository;
 import org.hsdd.repo.UserRepository;
+import org.hsdd.security.PasswordHasher;
+import org.hsdd.security.PrincipalCache;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -24,8 +32,11 @@ class UserServiceTest {
 
     @Mock private UserRepository users;
     @Mock private PatientRepository patients;
-    @Mock private PasswordEncoder encoder;
+    @Mock private PasswordHasher hasher;
     @Mock private AuditService audit;
+    @Mock private PrincipalCache principals;
+    @Mock private DoctorRoster doctors;
+    @Mock private PatientIdAllocator patientIds;
 
     @InjectMocks
     private UserService service;
@@ -49,10 +60,9 @@ class UserServiceTest {
 
         when(users.existsByUsername("jess")).thenReturn(false);
         when(users.existsByEmail("jess@example.com")).thenReturn(false);
-        when(encoder.encode("pw123")).thenReturn("ENCODED");
+        when(hasher.encode("pw123")).thenReturn("ENCODED");
 
-        // simulate first generated ID is unused
-        when(patients.existsByPatientId(any())).thenReturn(false);
+        when(patientIds.next()).thenReturn("00000042");
 
         // mock save(User)
         doAnswer(inv -> {
@@ -74,7 +84,7 @@ class UserServiceTest {
         assertEquals("jess", dto.username());
         assertEquals("jess@example.com", dto.email());
         assertEquals("patient", dto.role());
-        assertNotNull(dto.patientId());
+        assertEquals("00000042", dto.patientId());
         assertEquals("Jessica", dto.firstName());
         assertEquals("Morcos", dto.lastName());
         assertEquals(LocalDate.parse("2002-01-10"), dto.dateOfBirth());
@@ -104,7 +114,7 @@ class UserServiceTest {
 
         when(users.findById(5L)).thenReturn(Optional.of(existingUser));
         when(patients.findByUser(existingUser)).thenReturn(Optional.of(patient));
-        when(encoder.encode("newPw")).thenReturn("ENC_NEW");
+        when(hasher.encode("newPw")).thenReturn("ENC_NEW");
 
         UpdateUserRequest req = new UpdateUserRequest(
                 "new@test.com",
@@ -129,6 +139,7 @@ class UserServiceTest {
         verify(users).save(existingUser);
         verify(patients).save(patient);
         verify(audit).log("adminActor", "ADMIN_UPDATE_USER", "userId=5");
+        verify(principals).invalidate(5L);
     }
 
     // -------------------------------------------------------------------------
@@ -158,6 +169,94 @@ class UserServiceTest {
 
         verify(users).save(u);
         verify(audit).log("adminA", "ADMIN_REACTIVATE_USER", "userId=22");
+        verify(principals).invalidate(22L);
     }
 
+    // -------------------------------------------------------------------------
+    // 4. deleteUser() — deactivates + drops cached principal
+    // -------------------------------------------------------------------------
+    @Test
+    void deleteUser_deactivatesAndInvalidatesPrincipal() {
+
+        User u = new User();
+        u.setId(7L);
+        u.setUsername("gone");
+        u.setRole("patient");
+        u.setActive(true);
+
+        when(users.findById(7L)).thenReturn(Optional.of(u));
+
+        service.deleteUser(7L, "adminA");
+
+        assertFalse(u.isActive());
+        verify(users).save(u);
+        verify(principals).invalidate(7L);
+        verify(doctors).invalidate();
+        verify(audit).log("adminA", "ADMIN_DEACTIVATE_USER", "userId=7");
+    }
+
+    // -------------------------------------------------------------------------
+    // 5. registerUser() — concurrent duplicate caught by the unique key
+    // -------------------------------------------------------------------------
+    @Test
+    void registerUser_duplicateInsertRace_reportsConflictAsBadRequest() {
+        CreateUserRequest req = new CreateUserRequest(
+                "jess", "jess@example.com", "pw123", "patient",
+                "Jessica", "Morcos", null, null);
+
+        when(users.existsByUsername("jess")).thenReturn(false);
+        when(users.existsByEmail("jess@example.com")).thenReturn(false);
+        when(hasher.encode("pw123")).thenReturn("ENCODED");
+        when(users.save(any(User.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry 'jess'"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> service.registerUser(req, "adminUser"));
+
+        assertEquals("Username or email already exists", e.getMessage());
+        verifyNoInteractions(patientIds, patients);
+    }
+
+    // -------------------------------------------------------------------------
+    // 6. getUsers() — filters and sort pushed into the joined query
+    // -------------------------------------------------------------------------
+    @Test
+    void getUsers_normalizesFiltersAndMapsSort() {
+        AdminUserDto row = new AdminUserDto(3L, "dr_50%", "d@x.com", "doctor", true,
+                null, null, null, null, null, Instant.now());
+        when(users.findAdminRows(eq("doctor"), eq(true), eq("dr\\_50\\%%"), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(row), Pageable.ofSize(20), 41));
+
+        PageDto<AdminUserDto> page = service.getUsers(" Doctor ", true, "dr_50%", 0, 20, "username", "desc");
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(users).findAdminRows(any(), any(), any(), pageable.capture());
+        assertEquals(Sort.by(Sort.Direction.DESC, "username").and(Sort.by(Sort.Direction.DESC, "id")),
+                pageable.getValue().getSort());
+        assertEquals(20, pageable.getValue().getPageSize());
+
+        assertEquals(41, page.totalElements());
+        assertEquals(3, page.totalPages());
+        assertEquals("dr_50%", page.items().get(0).username());
+        verify(patients, never()).findByUser(any());
+    }
+
+    @Test
+    void getUsers_blankFiltersAndUnknownSort_fallBackToAllById() {
+        when(users.findAdminRows(isNull(), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of()));
+
+        service.getUsers("", null, "  ", 0, 50, "password", "asc");
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(users).findAdminRows(isNull(), isNull(), isNull(), pageable.capture());
+        assertEquals(Sort.by(Sort.Direction.ASC, "id"), pageable.getValue().getSort());
+    }
+
+    @Test
+    void getUser_missing_throws() {
+        when(users.findAdminRow(404L)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> service.getUser(404L));
+    }
 }
@@ -8,6 +8,7 @@ import org.hsdd.value.Annotation;
 import org.hsdd.value.Prediction;
 import org.hsdd.repo.*;
 import org.hsdd.service.AuditService;
+import org.hsdd.service.PatientActivityService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -39,6 +40,8 @@ class DoctorServiceImplAnnotationsTest {
     private SymptomRepository symptoms;
     @Mock
     private AuditService audit;
+    @Mock
+    private PatientActivityService activity;
 
     @InjectMocks
     private DoctorServiceImpl service;
@@ -124,6 +127,7 @@ class DoctorServiceImplAnnotationsTest {
         verify(audit).log("dr_jess",
                 "DOCTOR_CREATE_ANNOTATION",
                 "predictionId=100");
+        verify(activity).recordAnnotation(saved);
     }
 
     @Test
@@ -173,6 +177,7 @@ class DoctorServiceImplAnnotationsTest {
         verify(audit).log("dr_jess",
                 "DOCTOR_UPDATE_ANNOTATION",
                 "annotationId=5");
+        verify(activity).recordAnnotation(existing);
     }
 
     @Test
@@ -197,6 +202,6 @@ class DoctorServiceImplAnnotationsTest {
 
         assertTrue(ex.getMessage().contains("Unauthorized"));
         verify(annotations, never()).save(any());
-        verifyNoInteractions(audit);
+        verifyNoInteractions(audit, activity);
     }
 }
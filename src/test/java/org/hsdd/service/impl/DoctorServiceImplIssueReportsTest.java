@@ -7,6 +7,7 @@ import org.hsdd.model.IssueReport;
 import org.hsdd.value.Prediction;
 import org.hsdd.repo.*;
 import org.hsdd.service.AuditService;
+import org.hsdd.service.PatientActivityService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -38,6 +39,8 @@ class DoctorServiceImplIssueReportsTest {
     private SymptomRepository symptoms;
     @Mock
     private AuditService audit;
+    @Mock
+    private PatientActivityService activity;
 
     @InjectMocks
     private DoctorServiceImpl service;
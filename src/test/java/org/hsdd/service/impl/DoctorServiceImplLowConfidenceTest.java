@@ -1,6 +1,7 @@
 package org.hsdd.service.impl;
 
 import org.hsdd.dto.LowConfidenceDto;
+import org.hsdd.model.User;
 import org.hsdd.repo.AnnotationRepository;
 import org.hsdd.repo.IssueReportRepository;
 import org.hsdd.repo.PatientRepository;
@@ -8,6 +9,9 @@ import org.hsdd.repo.PredictionRepository;
 import org.hsdd.repo.SymptomRepository;
 import org.hsdd.repo.UserRepository;
 import org.hsdd.service.AuditService;
+import org.hsdd.service.PatientActivityService;
+import org.hsdd.service.PatientTrendService;
+import org.hsdd.service.ReviewQueueService;
 import org.hsdd.value.Prediction;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -46,6 +50,15 @@ class DoctorServiceImplLowConfidenceTest {
     @Mock
     AuditService audit;
 
+    @Mock
+    PatientActivityService activity;
+
+    @Mock
+    PatientTrendService trends;
+
+    @Mock
+    ReviewQueueService reviewQueue;
+
     private DoctorServiceImpl service;
 
     @BeforeEach
@@ -57,47 +70,25 @@ class DoctorServiceImplLowConfidenceTest {
                 users,
                 patients,
                 symptoms,
-                audit
+                audit,
+                activity,
+                trends,
+                reviewQueue
         );
     }
 
     @Test
-    void getAllLowConfidenceReports_usesSimpleThresholdFilter() {
-        LocalDateTime now = LocalDateTime.now();
-
-        // prediction below threshold, already reviewed
-        Prediction p = new Prediction();
-        p.setId(2L);
-        p.setPatientId("PAT-2");
-        p.setSymptomId(11L);
-        p.setLabel("Anxiety");
-        p.setConfidence(0.30);
-        p.setCreatedAt(now);
-        p.setReviewed(true);
-
-        when(predictions.findByConfidenceLessThan(0.55))
-                .thenReturn(List.of(p));
-
-        // unknown patient => "Unknown"
-        when(patients.findByPatientId("PAT-2"))
-                .thenReturn(Optional.empty());
+    void lowConfidenceLists_comeFromReviewQueue() {
+        LowConfidenceDto dto = new LowConfidenceDto(2L, "Unknown", "PAT-2", "Anxiety", 0.30,
+                LocalDateTime.now(), "Reviewed", "—");
+        when(reviewQueue.allBelowThreshold()).thenReturn(List.of(dto));
+        when(reviewQueue.pending()).thenReturn(List.of());
 
-        // no symptom description
-        when(symptoms.findById(11L))
-                .thenReturn(Optional.empty());
+        assertEquals(List.of(dto), service.getAllLowConfidenceReports());
+        assertEquals(List.of(), service.getLowConfidenceReports());
 
-        List<LowConfidenceDto> result = service.getAllLowConfidenceReports();
-
-        assertEquals(1, result.size());
-        LowConfidenceDto dto = result.get(0);
-
-        assertEquals(2L, dto.id());
-        assertEquals("Unknown", dto.patientName());
-        assertEquals("PAT-2", dto.patientId());
-        assertEquals("Anxiety", dto.predictedDisease());
-        assertEquals(0.30, dto.confidence());
-        // ✅ because p.setReviewed(true)
-        assertEquals("Reviewed", dto.status());
+        // no per-row lookups any more
+        verifyNoInteractions(predictions, patients, symptoms);
     }
 
     @Test
@@ -125,6 +116,62 @@ class DoctorServiceImplLowConfidenceTest {
         );
     }
 
+    @Test
+    void markLowConfidenceReviewed_leasedToOtherDoctor_throws() {
+        Prediction p = new Prediction();
+        p.setId(11L);
+        p.setConfidence(0.40);
+        p.setClaimedBy(7L);
+        p.setLeaseUntil(LocalDateTime.now().plusMinutes(5));
+
+        User me = new User();
+        me.setId(8L);
+
+        when(predictions.findById(11L)).thenReturn(Optional.of(p));
+        when(users.findByUsername("doctorUser")).thenReturn(Optional.of(me));
+
+        assertThrows(IllegalStateException.class,
+                () -> service.markLowConfidenceReviewed(11L, "doctorUser"));
+        assertFalse(p.isReviewed());
+        verify(predictions, never()).save(any());
+    }
+
+    @Test
+    void markLowConfidenceReviewed_ownLease_isAllowed() {
+        Prediction p = new Prediction();
+        p.setId(12L);
+        p.setConfidence(0.40);
+        p.setClaimedBy(8L);
+        p.setLeaseUntil(LocalDateTime.now().plusMinutes(5));
+
+        User me = new User();
+        me.setId(8L);
+
+        when(predictions.findById(12L)).thenReturn(Optional.of(p));
+        when(users.findByUsername("doctorUser")).thenReturn(Optional.of(me));
+
+        service.markLowConfidenceReviewed(12L, "doctorUser");
+
+        assertTrue(p.isReviewed());
+        verify(predictions).save(p);
+    }
+
+    @Test
+    void markLowConfidenceReviewed_expiredLease_skipsDoctorLookup() {
+        Prediction p = new Prediction();
+        p.setId(13L);
+        p.setConfidence(0.40);
+        p.setClaimedBy(7L);
+        p.setLeaseUntil(LocalDateTime.now().minusMinutes(1));
+
+        when(predictions.findById(13L)).thenReturn(Optional.of(p));
+
+        service.markLowConfidenceReviewed(13L, "doctorUser");
+
+        assertTrue(p.isReviewed());
+        verifyNoInteractions(users);
+    }
+
     @Test
     void markLowConfidencePending_setsReviewedFalse() {
         Prediction p = new Prediction();
@@ -1,18 +1,28 @@
 package org.hsdd.service.impl;
 
 import org.hsdd.model.Patient;
+import org.hsdd.dto.PageDto;
+import org.hsdd.dto.PatientFullRecordDto;
 import org.hsdd.dto.PredictionDto;
 import org.hsdd.dto.RecentPatientDto;
+import org.hsdd.dto.TrendBucketDto;
 import org.hsdd.dto.TrendDataDto;
 import org.hsdd.value.Annotation;
 import org.hsdd.value.Prediction;
 import org.hsdd.value.SymptomEntry;
 import org.hsdd.repo.*;
+import org.hsdd.repo.projection.PatientActivityRow;
 import org.hsdd.service.AuditService;
+import org.hsdd.service.PatientActivityService;
+import org.hsdd.service.PatientTrendService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -38,6 +48,10 @@ class DoctorServiceImplPatientsTest {
     private SymptomRepository symptoms;
     @Mock
     private AuditService audit;
+    @Mock
+    private PatientActivityService activity;
+    @Mock
+    private PatientTrendService trends;
 
     @InjectMocks
     private DoctorServiceImpl service;
@@ -77,17 +91,56 @@ class DoctorServiceImplPatientsTest {
     }
 
     @Test
-    void getPatientTrends_groupsByLabelCounts() {
+    void getPatientTrends_readsAggregateTable() {
+        List<TrendDataDto> totals = List.of(new TrendDataDto("HSDD", 2L), new TrendDataDto("Anxiety", 1L));
+        when(trends.totals("PAT-1")).thenReturn(totals);
+
+        assertEquals(totals, service.getPatientTrends("PAT-1"));
+        verifyNoInteractions(predictions);
+    }
+
+    @Test
+    void getPatientTrends_openEndedRange_fillsMissingBound() {
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        when(trends.totals(eq("PAT-1"), eq(from), any(LocalDate.class))).thenReturn(List.of());
+
+        service.getPatientTrends("PAT-1", from, null);
+
+        ArgumentCaptor<LocalDate> to = ArgumentCaptor.forClass(LocalDate.class);
+        verify(trends).totals(eq("PAT-1"), eq(from), to.capture());
+        assertEquals(LocalDate.now().plusDays(1), to.getValue());
+    }
+
+    @Test
+    void getPatientTrendHistogram_defaultsToLastTwelveBuckets() {
+        LocalDate to = LocalDate.of(2025, 6, 15);
+        List<TrendBucketDto> cells = List.of(new TrendBucketDto(LocalDate.of(2025, 6, 1), "HSDD", 4L));
+        when(trends.histogram("PAT-1", PatientTrendService.Bucket.MONTH, to.minusMonths(12), to))
+                .thenReturn(cells);
+
+        assertEquals(cells, service.getPatientTrendHistogram("PAT-1", "month", null, to));
+    }
+
+    @Test
+    void getPatientTrendHistogram_unknownBucket_throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getPatientTrendHistogram("PAT-1", "year", null, null));
+    }
+
+    @Test
+    void getPatientRecord_buildsBothSectionsFromOneRead() {
         LocalDateTime now = LocalDateTime.now();
 
         Prediction p1 = new Prediction();
+        p1.setId(1L);
         p1.setPatientId("PAT-1");
         p1.setSymptomId(1L);
-        p1.setLabel("HSDD");
-        p1.setConfidence(0.8);
+        p1.setLabel("Anxiety");
+        p1.setConfidence(0.6);
         p1.setCreatedAt(now);
 
         Prediction p2 = new Prediction();
+        p2.setId(2L);
         p2.setPatientId("PAT-1");
         p2.setSymptomId(2L);
         p2.setLabel("HSDD");
@@ -95,103 +148,52 @@ class DoctorServiceImplPatientsTest {
         p2.setCreatedAt(now.minusDays(1));
 
         Prediction p3 = new Prediction();
+        p3.setId(3L);
         p3.setPatientId("PAT-1");
         p3.setSymptomId(3L);
-        p3.setLabel("Anxiety");
-        p3.setConfidence(0.6);
+        p3.setLabel("HSDD");
+        p3.setConfidence(0.8);
         p3.setCreatedAt(now.minusDays(2));
 
         when(predictions.findByPatientIdOrderByCreatedAtDesc("PAT-1"))
                 .thenReturn(List.of(p1, p2, p3));
 
-        List<TrendDataDto> trends = service.getPatientTrends("PAT-1");
+        PatientFullRecordDto record = service.getPatientRecord("PAT-1");
 
-        assertEquals(2, trends.size());
+        assertEquals("PAT-1", record.patientId());
+        assertEquals(3, record.predictions().size());
+        assertEquals(1L, record.predictions().get(0).id());
+        assertEquals(List.of(new TrendDataDto("HSDD", 2L), new TrendDataDto("Anxiety", 1L)), record.trends());
 
-        TrendDataDto hsd = trends.stream()
-                .filter(t -> t.label().equals("HSDD"))
-                .findFirst()
-                .orElseThrow();
-        TrendDataDto anx = trends.stream()
-                .filter(t -> t.label().equals("Anxiety"))
-                .findFirst()
-                .orElseThrow();
-
-        assertEquals(2L, hsd.count());
-        assertEquals(1L, anx.count());
+        verify(predictions, times(1)).findByPatientIdOrderByCreatedAtDesc("PAT-1");
+        verifyNoInteractions(trends);
     }
 
     @Test
-    void getRecentPatients_buildsSortedListWithDoctorNotes() {
+    void getRecentPatients_buildsPageFromActivitySummary() {
         LocalDate today = LocalDate.now();
         LocalDateTime now = LocalDateTime.now();
 
-        // Patients
-        Patient p1 = new Patient();
-        p1.setPatientId("P1");
-        p1.setFirstName("Alice");
-        p1.setLastName("Smith");
-        p1.setDateOfBirth(today.minusYears(30));
-
-        Patient p2 = new Patient();
-        p2.setPatientId("P2");
-        p2.setFirstName("Bob");
-        p2.setLastName("Jones");
-        p2.setDateOfBirth(today.minusYears(40));
-
-        when(patients.findAll()).thenReturn(List.of(p1, p2));
-
-        // Symptoms
-        SymptomEntry s1 = new SymptomEntry();
-        s1.setPatientId("P1");
-        s1.setSubmittedAt(now.minusDays(1));
-
-        when(symptoms.findTop1ByPatientIdOrderBySubmittedAtDesc("P1"))
-                .thenReturn(Optional.of(s1));
-        when(symptoms.findTop1ByPatientIdOrderBySubmittedAtDesc("P2"))
-                .thenReturn(Optional.empty());
-
-        // Predictions (last for each)
-        Prediction pred1 = new Prediction();
-        pred1.setId(10L);
-        pred1.setPatientId("P1");
-        pred1.setSymptomId(1L);
-        pred1.setLabel("Diagnosis1");
-        pred1.setConfidence(0.8);
-        pred1.setCreatedAt(now.minusDays(2));
-
-        Prediction pred2 = new Prediction();
-        pred2.setId(20L);
-        pred2.setPatientId("P2");
-        pred2.setSymptomId(2L);
-        pred2.setLabel("Diagnosis2");
-        pred2.setConfidence(0.7);
-        pred2.setCreatedAt(now.minusDays(3));
-
-        when(predictions.findTop1ByPatientIdOrderByCreatedAtDesc("P1"))
-                .thenReturn(Optional.of(pred1));
-        when(predictions.findTop1ByPatientIdOrderByCreatedAtDesc("P2"))
-                .thenReturn(Optional.of(pred2));
-
-        // Latest annotation for P1
-        Annotation ann = new Annotation();
-        ann.setNotes("Follow up soon");
-        when(annotations.findTop1ByPredictionIdOrderByCreatedAtDesc(10L))
-                .thenReturn(Optional.of(ann));
-        when(annotations.findTop1ByPredictionIdOrderByCreatedAtDesc(20L))
-                .thenReturn(Optional.empty());
-
-        List<RecentPatientDto> result = service.getRecentPatients();
+        PatientActivityRow r1 = new PatientActivityRow("P1", "Alice", "Smith", today.minusYears(30),
+                now.minusDays(1), "Diagnosis1", "Follow up soon");
+        PatientActivityRow r2 = new PatientActivityRow("P2", "Bob", "Jones", today.minusYears(40),
+                now.minusDays(3), "Diagnosis2", null);
 
-        assertEquals(2, result.size());
+        when(patients.findRecentActivityRows(PageRequest.of(0, 20)))
+                .thenReturn(new PageImpl<>(List.of(r1, r2), PageRequest.of(0, 20), 2));
+
+        PageDto<RecentPatientDto> result = service.getRecentPatients(0, 20);
+
+        assertEquals(2, result.items().size());
+        assertEquals(2, result.totalElements());
 
-        // P1 should come first (more recent lastVisit)
-        RecentPatientDto first = result.get(0);
-        RecentPatientDto second = result.get(1);
+        RecentPatientDto first = result.items().get(0);
+        RecentPatientDto second = result.items().get(1);
 
         assertEquals("P1", first.patientId());
         assertEquals("Alice Smith", first.name());
         assertEquals(30, first.age());
+        assertEquals(now.minusDays(1), first.lastVisit());
         assertEquals("Diagnosis1", first.lastDiagnosis());
         assertEquals("Follow up soon", first.doctorNotes());
 
@@ -200,29 +202,25 @@ class DoctorServiceImplPatientsTest {
         assertEquals(40, second.age());
         assertEquals("Diagnosis2", second.lastDiagnosis());
         assertEquals("—", second.doctorNotes());
+
+        // no per-patient lookups
+        verifyNoInteractions(symptoms, predictions, annotations);
     }
 
     @Test
-    void getAllPatients_returnsListWithoutSortingLogic() {
-        // This just reuses same mapping logic as getRecentPatients, but without sort.
+    void getAllPatients_patientWithoutActivity_usesDefaults() {
         LocalDate today = LocalDate.now();
 
-        Patient p = new Patient();
-        p.setPatientId("PX");
-        p.setFirstName("Test");
-        p.setLastName("Patient");
-        p.setDateOfBirth(today.minusYears(25));
+        PatientActivityRow row = new PatientActivityRow("PX", "Test", "Patient", today.minusYears(25),
+                null, null, null);
 
-        when(patients.findAll()).thenReturn(List.of(p));
-        when(symptoms.findTop1ByPatientIdOrderBySubmittedAtDesc("PX"))
-                .thenReturn(Optional.empty());
-        when(predictions.findTop1ByPatientIdOrderByCreatedAtDesc("PX"))
-                .thenReturn(Optional.empty());
+        when(patients.findActivityRows(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(row), PageRequest.of(0, 50), 1));
 
-        List<RecentPatientDto> result = service.getAllPatients();
+        PageDto<RecentPatientDto> result = service.getAllPatients(0, 50, "name", "asc");
 
-        assertEquals(1, result.size());
-        RecentPatientDto dto = result.get(0);
+        assertEquals(1, result.items().size());
+        RecentPatientDto dto = result.items().get(0);
 
         assertEquals("PX", dto.patientId());
         assertEquals("Test Patient", dto.name());
@@ -230,5 +228,26 @@ class DoctorServiceImplPatientsTest {
         assertNull(dto.lastVisit());
         assertEquals("No diagnosis yet", dto.lastDiagnosis());
         assertEquals("—", dto.doctorNotes());
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(patients).findActivityRows(pageable.capture());
+        assertEquals(Sort.Direction.ASC, pageable.getValue().getSort().getOrderFor("lastName").getDirection());
+    }
+
+    @Test
+    void getAllPatients_sortByLastVisit_ordersOnSummaryColumn() {
+        when(patients.findActivityRows(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of()));
+
+        service.getAllPatients(1, 10, "lastVisit", "desc");
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(patients).findActivityRows(pageable.capture());
+
+        assertEquals(1, pageable.getValue().getPageNumber());
+        assertEquals(10, pageable.getValue().getPageSize());
+        Sort.Order order = pageable.getValue().getSort().iterator().next();
+        assertEquals("a.lastVisit", order.getProperty());
+        assertEquals(Sort.Direction.DESC, order.getDirection());
     }
 }
@@ -1,21 +1,33 @@
 package org.hsdd.service.impl;
 
-import org.hsdd.model.Patient;
 import org.hsdd.dto.AllReportDto;
-import org.hsdd.value.Prediction;
+import org.hsdd.dto.PageDto;
+import org.hsdd.dto.ReportFilter;
 import org.hsdd.repo.*;
+import org.hsdd.repo.projection.ReportRow;
 import org.hsdd.service.AuditService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,67 +51,161 @@ class DoctorServiceImplReportsTest {
     @InjectMocks
     private DoctorServiceImpl service;
 
+    private final LocalDateTime t1 = LocalDateTime.now().minusDays(1);
+    private final LocalDateTime t2 = LocalDateTime.now();
+
+    private List<ReportRow> rows() {
+        return List.of(
+                new ReportRow(1L, "PAT-1", "Alice", "Smith", "HSDD", 0.9, t1, false),
+                new ReportRow(2L, "PAT-2", null, null, "Anxiety", 0.8, t2, true));
+    }
+
     @Test
-    void getAllReports_mapsPredictionsToAllReportDto() {
-        LocalDateTime t1 = LocalDateTime.now().minusDays(1);
-        LocalDateTime t2 = LocalDateTime.now();
-
-        Prediction p1 = new Prediction();
-        p1.setId(1L);
-        p1.setPatientId("PAT-1");
-        p1.setSymptomId(10L);
-        p1.setLabel("HSDD");
-        p1.setConfidence(0.9);
-        p1.setCreatedAt(t1);
-
-        Prediction p2 = new Prediction();
-        p2.setId(2L);
-        p2.setPatientId("PAT-2");
-        p2.setSymptomId(11L);
-        p2.setLabel("Anxiety");
-        p2.setConfidence(0.8);
-        p2.setCreatedAt(t2);
-
-        Patient patient1 = new Patient();
-        patient1.setPatientId("PAT-1");
-        patient1.setFirstName("Alice");
-        patient1.setLastName("Smith");
-
-        when(predictions.findAll())
-                .thenReturn(List.of(p1, p2));
-        when(patients.findByPatientId("PAT-1"))
-                .thenReturn(Optional.of(patient1));
-        when(patients.findByPatientId("PAT-2"))
-                .thenReturn(Optional.empty());
-
-        List<AllReportDto> result = service.getAllReports();
-
-        assertEquals(2, result.size());
-
-        AllReportDto r1 = result.get(0);
-        AllReportDto r2 = result.get(1);
+    void getReports_mapsJoinedRowsToAllReportDto() {
+        Page<ReportRow> page = new PageImpl<>(rows(), PageRequest.of(0, 50), 2);
+        when(predictions.findReportRows(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
+                any(Pageable.class))).thenReturn(page);
+
+        PageDto<AllReportDto> result = service.getReports(ReportFilter.none(), 0, 50, "date", "desc");
+
+        assertEquals(2, result.items().size());
+        assertEquals(2, result.totalElements());
+
+        AllReportDto r1 = result.items().get(0);
+        AllReportDto r2 = result.items().get(1);
 
         assertEquals(1L, r1.id());
         assertEquals("Alice Smith", r1.patientName());
         assertEquals("PAT-1", r1.patientId());
         assertEquals("HSDD", r1.disease());
         assertEquals(0.9, r1.confidence());
-        assertEquals(
-                t1.atZone(ZoneId.systemDefault()).toInstant(),
-                r1.createdAt()
-        );
+        assertEquals(t1.atZone(ZoneId.systemDefault()).toInstant(), r1.createdAt());
         assertEquals("Dr. Carter", r1.doctor());
 
         assertEquals(2L, r2.id());
         assertEquals("Unknown", r2.patientName());
-        assertEquals("PAT-2", r2.patientId());
         assertEquals("Anxiety", r2.disease());
-        assertEquals(0.8, r2.confidence());
-        assertEquals(
-                t2.atZone(ZoneId.systemDefault()).toInstant(),
-                r2.createdAt()
-        );
-        assertEquals("Dr. Carter", r2.doctor());
 
+        // names come from the joined query, never one lookup per row
+        verifyNoInteractions(patients);
+    }
+
+    @Test
+    void getReports_passesFiltersAndSortToQuery() {
+        ReportFilter filter = new ReportFilter("HSDD", 0.2, 0.6, false,
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 1), "PAT-1");
+        when(predictions.findReportRows(any(), any(), any(), any(), any(), any(), any(), any(Pageable.class)))
+                .thenReturn(Page.empty());
+
+        service.getReports(filter, 3, 20, "confidence", "asc");
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(predictions).findReportRows(eq("HSDD"), eq(0.2), eq(0.6), eq(false),
+                eq(LocalDateTime.of(2025, 1, 1, 0, 0)), eq(LocalDateTime.of(2025, 2, 1, 0, 0)),
+                eq("PAT-1"), pageable.capture());
+        assertEquals(3, pageable.getValue().getPageNumber());
+        assertEquals(20, pageable.getValue().getPageSize());
+        assertEquals(Sort.by(Sort.Direction.ASC, "confidence", "id"), pageable.getValue().getSort());
+    }
+
+    @Test
+    void getReports_unknownSort_defaultsToNewestFirst() {
+        when(predictions.findReportRows(any(), any(), any(), any(), any(), any(), any(), any(Pageable.class)))
+                .thenReturn(Page.empty());
+
+        service.getReports(null, 0, 50, "bogus", null);
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(predictions).findReportRows(any(), any(), any(), any(), any(), any(), any(), pageable.capture());
+        assertEquals(Sort.by(Sort.Direction.DESC, "createdAt", "id"), pageable.getValue().getSort());
+    }
+
+    @Test
+    void getReports_invertedConfidenceRange_throws() {
+        ReportFilter filter = new ReportFilter(null, 0.9, 0.1, null, null, null, null);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getReports(filter, 0, 50, "date", "desc"));
+        verifyNoInteractions(predictions);
+    }
+
+    @Test
+    void getReports_emptyDateRange_throws() {
+        LocalDate day = LocalDate.of(2025, 1, 1);
+        ReportFilter filter = new ReportFilter(null, null, null, null, day, day, null);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getReports(filter, 0, 50, "date", "desc"));
+    }
+
+    @Test
+    void streamReports_singleShortBatch() {
+        when(predictions.findReportBatchByLabel(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
+                eq(false), isNull(), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(rows());
+
+        List<AllReportDto> out = new ArrayList<>();
+        service.streamReports(ReportFilter.none(), "label", "asc", out::add);
+
+        assertEquals(List.of(1L, 2L), out.stream().map(AllReportDto::id).toList());
+        ArgumentCaptor<Pageable> batch = ArgumentCaptor.forClass(Pageable.class);
+        verify(predictions).findReportBatchByLabel(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
+                eq(false), isNull(), isNull(), isNull(), batch.capture());
+        assertEquals(DoctorServiceImpl.EXPORT_BATCH_SIZE, batch.getValue().getPageSize());
+        assertEquals(Sort.by(Sort.Direction.ASC, "label").and(Sort.by(Sort.Direction.DESC, "createdAt", "id")),
+                batch.getValue().getSort());
+    }
+
+    @Test
+    void streamReports_fullBatch_resumesAfterItsLastRow() {
+        List<ReportRow> full = new ArrayList<>();
+        for (long id = DoctorServiceImpl.EXPORT_BATCH_SIZE; id > 0; id--) {
+            full.add(new ReportRow(id + 10, "PAT-1", "Alice", "Smith", "HSDD", 0.9, t2, false));
+        }
+        ReportRow last = full.get(full.size() - 1);
+        when(predictions.findReportBatchByDate(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
+                eq(true), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(full);
+        when(predictions.findReportBatchByDate(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
+                eq(true), eq(t2), eq(11L), any(Pageable.class)))
+                .thenReturn(rows());
+
+        List<AllReportDto> out = new ArrayList<>();
+        service.streamReports(ReportFilter.none(), "date", "desc", out::add);
+
+        assertEquals(11L, last.id());
+        assertEquals(DoctorServiceImpl.EXPORT_BATCH_SIZE + 2, out.size());
+        assertEquals(2L, out.get(out.size() - 1).id());
+        // a short batch ends the export
+        verify(predictions, times(2)).findReportBatchByDate(any(), any(), any(), any(), any(), any(), any(),
+                anyBoolean(), any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    void streamReports_confidenceSort_usesConfidenceKeyset() {
+        when(predictions.findReportBatchByConfidence(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
+                eq(false), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(rows());
+
+        List<AllReportDto> out = new ArrayList<>();
+        service.streamReports(ReportFilter.none(), "confidence", "asc", out::add);
+
+        assertEquals(2, out.size());
+    }
+
+    @Test
+    void getReport_returnsSingleRow() {
+        when(predictions.findReportRow(1L)).thenReturn(Optional.of(rows().get(0)));
+
+        AllReportDto r = service.getReport(1L);
+
+        assertEquals("Alice Smith", r.patientName());
+    }
+
+    @Test
+    void getReport_missing_throws() {
+        when(predictions.findReportRow(9L)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> service.getReport(9L));
     }
 }
@@ -1,85 +1,58 @@
 package org.hsdd.service.impl;
 
+import org.hsdd.dto.HistoryImportDto;
 import org.hsdd.model.MedicalHistory;
 import org.hsdd.repo.MedicalHistoryRepository;
+import org.hsdd.service.HistoryImportService;
 import org.hsdd.service.MedicalHistoryService;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentCaptor;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 class MedicalHistoryServiceImplTest {
 
     private final MedicalHistoryRepository repo = mock(MedicalHistoryRepository.class);
-    private final MedicalHistoryService service = new MedicalHistoryServiceImpl(repo);
+    private final HistoryImportService importer = mock(HistoryImportService.class);
+    private final MedicalHistoryService service = new MedicalHistoryServiceImpl(repo, importer);
 
     // ------------------------------------------------------
     // 1) uploadHistoryFile() tests
     // ------------------------------------------------------
 
     @Test
-    void uploadHistoryFile_savesParsedEntries() throws Exception {
-
-        String text = """
-                Asthma: Uses inhaler daily
-                Diabetes: Chronic condition
-                High BP
-                """;
-
+    void uploadHistoryFile_streamsToImporter() throws Exception {
         MockMultipartFile file = new MockMultipartFile(
                 "file", "history.txt",
-                "text/plain", text.getBytes()
-        );
-
-        service.uploadHistoryFile("12345678", file);
-
-        ArgumentCaptor<List<MedicalHistory>> captor = ArgumentCaptor.forClass(List.class);
-        verify(repo).saveAll(captor.capture());
-
-        List<MedicalHistory> saved = captor.getValue();
-
-        assertEquals(3, saved.size());
-
-        assertEquals("Asthma", saved.get(0).getTitle());
-        assertEquals("Uses inhaler daily", saved.get(0).getDetails());
-
-        assertEquals("Diabetes", saved.get(1).getTitle());
-        assertEquals("Chronic condition", saved.get(1).getDetails());
-
-        assertEquals("High BP", saved.get(2).getTitle());
-        assertEquals("High BP", saved.get(2).getDetails());
-    }
-
-    @Test
-    void uploadHistoryFile_emptyFile_doesNotSave() throws Exception {
-
-        MockMultipartFile file = new MockMultipartFile(
-                "file", "empty.txt",
-                "text/plain", "".getBytes()
+                "text/plain", "Asthma: Uses inhaler daily".getBytes()
         );
+        HistoryImportDto dto = new HistoryImportDto(7L, "12345678", "history.txt", "text", "COMPLETED",
+                1, 1, 0, null, Instant.now(), Instant.now(), List.of());
+        when(importer.importFile(eq("12345678"), eq(7L), eq("history.txt"), isNull(), any())).thenReturn(dto);
 
-        service.uploadHistoryFile("12345678", file);
+        HistoryImportDto out = service.uploadHistoryFile("12345678", 7L, null, file);
 
-        verify(repo, never()).saveAll(any());
+        assertSame(dto, out);
     }
 
     @Test
     void uploadHistoryFile_throwsIOException() throws Exception {
 
         MultipartFile badFile = mock(MultipartFile.class);
-        when(badFile.getBytes()).thenThrow(new IOException("fail"));
+        when(badFile.getInputStream()).thenThrow(new IOException("fail"));
 
         assertThrows(IOException.class, () ->
-                service.uploadHistoryFile("12345678", badFile)
+                service.uploadHistoryFile("12345678", null, null, badFile)
         );
 
-        verify(repo, never()).saveAll(any());
+        verifyNoInteractions(importer);
     }
 
     // ------------------------------------------------------
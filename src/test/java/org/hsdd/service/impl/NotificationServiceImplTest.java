@@ -1,15 +1,12 @@
 package org.hsdd.service.impl;
 
-import org.hsdd.model.Patient;
-import org.hsdd.model.User;
-import org.hsdd.repo.PatientRepository;
+import org.hsdd.dto.NotificationDto;
 import org.hsdd.value.Notification;
 import org.hsdd.value.Prediction;
 import org.hsdd.repo.NotificationRepository;
-import org.hsdd.repo.UserRepository;
+import org.hsdd.service.NotificationDispatcher;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -27,59 +24,24 @@ class NotificationServiceImplTest {
     private NotificationRepository notifications;
 
     @Mock
-    private UserRepository users;
-    @Mock
-    private PatientRepository patients;
+    private NotificationDispatcher dispatcher;
 
     @InjectMocks
     private NotificationServiceImpl service;
 
     // -------------------------------------------------------------------------
-    // 1. notifyLowConfidence() — creates 1 notification PER doctor
+    // 1. notifyLowConfidence() — hands the fan-out to the async dispatcher
     // -------------------------------------------------------------------------
     @Test
-    void notifyLowConfidence_createsNotificationsForDoctors() {
+    void notifyLowConfidence_dispatchesFanOut() {
 
-        // Prediction
         Prediction p = new Prediction("PAT-11111", 10L, "HSDD", 0.20);
         p.setId(99L);
 
-        // Doctors
-        User doctor1 = new User();
-        doctor1.setId(1L);
-        doctor1.setRole("doctor");
-
-        User doctor2 = new User();
-        doctor2.setId(2L);
-        doctor2.setRole("doctor");
-
-        when(users.findByRole("doctor"))
-                .thenReturn(List.of(doctor1, doctor2));
-
-        // Patient lookup
-        Patient patient = new Patient();
-        patient.setFirstName("Jess");
-        patient.setLastName("Morcos");
-
-        when(patients.findByPatientId("PAT-11111"))
-                .thenReturn(Optional.of(patient));
-
-        // Execute
         service.notifyLowConfidence(p, 0.50);
 
-        // Verify saved notifications
-        ArgumentCaptor<Notification> captor = ArgumentCaptor.forClass(Notification.class);
-        verify(notifications, times(2)).save(captor.capture());
-
-        List<Notification> saved = captor.getAllValues();
-
-        // FIRST
-        assertEquals(doctor1, saved.get(0).getUser());
-        assertTrue(saved.get(0).getMessage().contains("Jess Morcos"));
-        assertTrue(saved.get(0).getMessage().contains("PAT-11111"));
-
-        // SECOND
-        assertEquals(doctor2, saved.get(1).getUser());
+        verify(dispatcher).dispatch(99L, "PAT-11111");
+        verifyNoInteractions(notifications);
     }
 
     // -------------------------------------------------------------------------
@@ -91,12 +53,23 @@ class NotificationServiceImplTest {
 
         service.notifyLowConfidence(p, 0.50);
 
-        verifyNoInteractions(users);
+        verifyNoInteractions(dispatcher);
         verifyNoInteractions(notifications);
     }
 
     // -------------------------------------------------------------------------
-    // 3. markAsRead() — loads notification, sets read flag, saves it
+    // 3. getUnread() — DTO query with optional sinceId
+    // -------------------------------------------------------------------------
+    @Test
+    void getUnread_delegatesToProjectionQuery() {
+        NotificationDto dto = new NotificationDto(5L, 9L, "msg", false, null);
+        when(notifications.findUnread(1L, 4L)).thenReturn(List.of(dto));
+
+        assertEquals(List.of(dto), service.getUnread(1L, 4L));
+    }
+
+    // -------------------------------------------------------------------------
+    // 4. markAsRead() — loads notification, sets read flag, saves it
     // -------------------------------------------------------------------------
     @Test
     void markAsRead_marksNotificationTrueAndSaves() {
@@ -1,16 +1,23 @@
 package org.hsdd.service.impl;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.hsdd.value.Prediction;
 import org.hsdd.value.SymptomEntry;
 import org.hsdd.model.AI;
 import org.hsdd.repo.PredictionRepository;
 import org.hsdd.service.NotificationService;
+import org.hsdd.service.PatientActivityService;
+import org.hsdd.service.PatientTrendService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -27,9 +34,28 @@ class PredictionServiceImplTest {
     @Mock
     private AI predictor;
 
-    @InjectMocks
+    @Mock
+    private PatientActivityService activity;
+
+    @Mock
+    private PatientTrendService trends;
+
+    @Mock
+    private TransactionTemplate tx;
+
+    @Spy
+    private MeterRegistry meters = new SimpleMeterRegistry();
+
     private PredictionServiceImpl service;
 
+    @BeforeEach
+    void setUp() {
+        service = new PredictionServiceImpl(predictions, notificationService, predictor,
+                activity, trends, tx, meters, 0.55);
+        when(tx.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
     // -------------------------------------------------------------------------
     // 1. inferAndSave() — saves prediction with correct values
     // -------------------------------------------------------------------------
@@ -42,7 +68,7 @@ class PredictionServiceImplTest {
         // predictor must return a new Prediction
         Prediction generated = new Prediction("PAT-12345", 10L, "Flu", 0.30);
 
-        when(predictor.predict(symptom)).thenReturn(generated);
+        when(predictor.predict(symptom, false)).thenReturn(generated);
 
         // repo save returns a saved prediction
         Prediction saved = new Prediction("PAT-12345", 10L, "Flu", 0.30);
@@ -70,7 +96,7 @@ class PredictionServiceImplTest {
         symptom.setId(20L);
 
         Prediction generated = new Prediction("PAT-99999", 20L, "Flu", 0.30);
-        when(predictor.predict(symptom)).thenReturn(generated);
+        when(predictor.predict(symptom, false)).thenReturn(generated);
 
         Prediction saved = new Prediction("PAT-99999", 20L, "Flu", 0.30);
         saved.setId(200L);
@@ -81,6 +107,43 @@ class PredictionServiceImplTest {
 
         verify(notificationService, times(1))
                 .notifyLowConfidence(saved, 0.50);
+        verify(activity).recordPrediction(saved);
+        verify(trends).recordPrediction(saved);
+        verify(tx).execute(any());
+        assertEquals(1.0, meters.get("hsdd.predictions.low_confidence").counter().count());
+        assertEquals(1, meters.get("hsdd.inference").timer().count());
+    }
+
+    @Test
+    void inferAndSave_countsAgainstReviewThresholdNotNotificationThreshold() {
+
+        SymptomEntry symptom = new SymptomEntry("PAT-99999", "Headache", null);
+        symptom.setId(22L);
+
+        // above the 0.50 notification threshold, below the 0.55 review threshold
+        Prediction generated = new Prediction("PAT-99999", 22L, "Migraine", 0.52);
+        when(predictor.predict(symptom, false)).thenReturn(generated);
+        when(predictions.save(generated)).thenReturn(generated);
+
+        service.inferAndSave(symptom, "actor", "10.0.0.1");
+
+        assertEquals(1.0, meters.get("hsdd.predictions.low_confidence").counter().count());
+        verify(notificationService).notifyLowConfidence(generated, 0.50);
+    }
+
+    @Test
+    void inferAndSave_confidentPrediction_doesNotCountAsLowConfidence() {
+
+        SymptomEntry symptom = new SymptomEntry("PAT-99999", "Headache", null);
+        symptom.setId(21L);
+
+        Prediction generated = new Prediction("PAT-99999", 21L, "Migraine", 0.90);
+        when(predictor.predict(symptom, false)).thenReturn(generated);
+        when(predictions.save(generated)).thenReturn(generated);
+
+        service.inferAndSave(symptom, "actor", "10.0.0.1");
+
+        assertEquals(0.0, meters.get("hsdd.predictions.low_confidence").counter().count());
     }
 
     // -------------------------------------------------------------------------
@@ -93,7 +156,7 @@ class PredictionServiceImplTest {
         symptom.setId(55L);
 
         Prediction generated = new Prediction("PAT-77777", 55L, "Flu", 0.30);
-        when(predictor.predict(symptom)).thenReturn(generated);
+        when(predictor.predict(symptom, false)).thenReturn(generated);
 
         when(predictions.save(any(Prediction.class)))
                 .thenAnswer(inv -> {
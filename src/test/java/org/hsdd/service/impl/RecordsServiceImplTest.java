@@ -1,21 +1,25 @@
 package org.hsdd.service.impl;
 
+import org.hsdd.dto.CursorPageDto;
 import org.hsdd.dto.PredictionWithAnnotationDto;
 import org.hsdd.dto.SymptomDto;
-import org.hsdd.value.Prediction;
-import org.hsdd.value.SymptomEntry;
 import org.hsdd.repo.PredictionRepository;
 import org.hsdd.repo.SymptomRepository;
+import org.hsdd.repo.projection.PredictionAnnotationRow;
+import org.hsdd.repo.projection.SymptomRow;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,20 +35,19 @@ class RecordsServiceImplTest {
     private RecordsServiceImpl service;
 
     // ------------------------------------------------------------------------
-    // 1. listSymptoms() — maps Symptom → SymptomDto including JSON tags
+    // 1. listSymptoms() — maps SymptomRow → SymptomDto including JSON tags
     // ------------------------------------------------------------------------
     @Test
-    void listSymptoms_mapsEntitiesToDtosCorrectly() {
+    void listSymptoms_mapsRowsToDtosCorrectly() {
 
-        SymptomEntry s = new SymptomEntry(
-                "PAT-12345",
+        SymptomRow s = new SymptomRow(
+                10L,
                 "Headache",
-                "[\"pressure\",\"fatigue\"]"
+                "[\"pressure\",\"fatigue\"]",
+                LocalDateTime.parse("2025-01-01T12:00:00")
         );
-        s.setId(10L);
-        s.setSubmittedAt(LocalDateTime.parse("2025-01-01T12:00:00"));
 
-        when(symptoms.findTop200ByPatientIdOrderBySubmittedAtDesc("PAT-12345"))
+        when(symptoms.findPage(eq("PAT-12345"), isNull(), isNull(), any()))
                 .thenReturn(List.of(s));
 
         List<SymptomDto> result = service.listSymptoms("PAT-12345");
@@ -57,25 +60,30 @@ class RecordsServiceImplTest {
         assertEquals(List.of("pressure", "fatigue"), dto.tags());
         assertEquals(LocalDateTime.parse("2025-01-01T12:00:00"), dto.submittedAt());
 
-        verify(symptoms).findTop200ByPatientIdOrderBySubmittedAtDesc("PAT-12345");
+        // default page of 200 plus the look-ahead row
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(symptoms).findPage(eq("PAT-12345"), isNull(), isNull(), page.capture());
+        assertEquals(201, page.getValue().getPageSize());
     }
 
     // ------------------------------------------------------------------------
-    // 2. listPredictions() — maps Prediction → PredictionDto correctly
+    // 2. listPredictions() — maps the joined row incl. latest annotation
     // ------------------------------------------------------------------------
     @Test
-    void listPredictions_mapsEntitiesToDtosCorrectly() {
+    void listPredictions_mapsRowsToDtosCorrectly() {
 
-        Prediction p = new Prediction(
-                "PAT-12345",
+        PredictionAnnotationRow p = new PredictionAnnotationRow(
+                200L,
                 55L,
                 "HSDD",
-                0.62
+                0.62,
+                LocalDateTime.parse("2025-01-02T08:30:00"),
+                "dr.house",
+                "Looks fine",
+                "Tension headache"
         );
-        p.setId(200L);
-        p.setCreatedAt(LocalDateTime.parse("2025-01-02T08:30:00"));
 
-        when(preds.findTop200ByPatientIdOrderByCreatedAtDesc("PAT-12345"))
+        when(preds.findPageWithLatestAnnotation(eq("PAT-12345"), isNull(), isNull(), any()))
                 .thenReturn(List.of(p));
 
         List<PredictionWithAnnotationDto> result = service.listPredictions("PAT-12345");
@@ -87,9 +95,11 @@ class RecordsServiceImplTest {
         assertEquals(55L, dto.symptomId());
         assertEquals("HSDD", dto.label());
         assertEquals(0.62, dto.confidence());
+        assertEquals("low", dto.confidenceLevel());
         assertEquals(LocalDateTime.parse("2025-01-02T08:30:00"), dto.createdAt());
-
-        verify(preds).findTop200ByPatientIdOrderByCreatedAtDesc("PAT-12345");
+        assertEquals("dr.house", dto.doctorUsername());
+        assertEquals("Looks fine", dto.doctorNotes());
+        assertEquals("Tension headache", dto.correctedLabel());
     }
 
     // ------------------------------------------------------------------------
@@ -98,13 +108,49 @@ class RecordsServiceImplTest {
     @Test
     void listSymptoms_emptyListReturnsEmpty() {
 
-        when(symptoms.findTop200ByPatientIdOrderBySubmittedAtDesc("EMPTY"))
+        when(symptoms.findPage(eq("EMPTY"), isNull(), isNull(), any()))
                 .thenReturn(List.of());
 
-        List<SymptomDto> result = service.listSymptoms("EMPTY");
+        CursorPageDto<SymptomDto> result = service.listSymptoms("EMPTY", null, 50);
+
+        assertTrue(result.items().isEmpty());
+        assertNull(result.nextCursor());
+    }
+
+    // ------------------------------------------------------------------------
+    // 4. keyset paging — extra row yields a cursor, cursor is passed back
+    // ------------------------------------------------------------------------
+    @Test
+    void listPredictions_fullPage_returnsCursorOfLastItem() {
+
+        LocalDateTime t = LocalDateTime.parse("2025-03-01T10:00:00");
+        PredictionAnnotationRow newest = new PredictionAnnotationRow(3L, 1L, "A", 0.95, t, null, null, null);
+        PredictionAnnotationRow middle = new PredictionAnnotationRow(2L, 1L, "B", 0.8, t, null, null, null);
+        PredictionAnnotationRow extra = new PredictionAnnotationRow(1L, 1L, "C", 0.5, t.minusDays(1), null, null, null);
 
-        assertNotNull(result);
-        assertTrue(result.isEmpty());
-        verify(symptoms).findTop200ByPatientIdOrderBySubmittedAtDesc("EMPTY");
+        when(preds.findPageWithLatestAnnotation(eq("PAT-1"), isNull(), isNull(), any()))
+                .thenReturn(List.of(newest, middle, extra));
+
+        CursorPageDto<PredictionWithAnnotationDto> page = service.listPredictions("PAT-1", null, 2);
+
+        assertEquals(2, page.items().size());
+        assertEquals("high", page.items().get(0).confidenceLevel());
+        assertEquals("moderate", page.items().get(1).confidenceLevel());
+        assertEquals("2025-03-01T10:00_2", page.nextCursor());
+
+        when(preds.findPageWithLatestAnnotation(eq("PAT-1"), eq(t), eq(2L), any()))
+                .thenReturn(List.of(extra));
+
+        CursorPageDto<PredictionWithAnnotationDto> next = service.listPredictions("PAT-1", page.nextCursor(), 2);
+
+        assertEquals(List.of(1L), next.items().stream().map(PredictionWithAnnotationDto::id).toList());
+        assertNull(next.nextCursor());
+    }
+
+    @Test
+    void listSymptoms_badCursor_throwsIllegalArgument() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.listSymptoms("PAT-1", "yesterday", 10));
+        verifyNoInteractions(symptoms);
     }
 }
@@ -7,16 +7,23 @@ import org.hsdd.value.Prediction;
 import org.hsdd.value.SymptomEntry;
 import org.hsdd.repo.PatientRepository;
 import org.hsdd.repo.SymptomRepository;
+import org.hsdd.service.PatientActivityService;
 import org.hsdd.service.PredictionService;
+import org.hsdd.service.SymptomJobTracker;
+import org.hsdd.dto.SymptomJobDto;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -33,6 +40,15 @@ class SymptomServiceImplTest {
     @Mock
     private PatientRepository patients;
 
+    @Mock
+    private PatientActivityService activity;
+
+    @Mock
+    private SymptomJobTracker jobs;
+
+    @Mock
+    private ExecutorService inferenceExecutor;
+
     @InjectMocks
     private SymptomServiceImpl service;
 
@@ -64,7 +80,7 @@ class SymptomServiceImplTest {
         prediction.setId(50L);
         prediction.setCreatedAt(LocalDateTime.parse("2025-01-01T10:05:00"));
 
-        when(predictions.inferAndSave(any(), eq("actorX"), eq("5.5.5.5")))
+        when(predictions.inferAndSave(any(), eq("actorX"), eq("5.5.5.5"), eq(false)))
                 .thenReturn(prediction);
 
         SubmitSymptomResponse res = service.submit(req, "actorX", "5.5.5.5");
@@ -84,7 +100,8 @@ class SymptomServiceImplTest {
 
         // Verify save
         verify(symptoms, times(1)).save(any(SymptomEntry.class));
-        verify(predictions).inferAndSave(any(SymptomEntry.class), eq("actorX"), eq("5.5.5.5"));
+        verify(activity).recordSymptom(savedSymptom);
+        verify(predictions).inferAndSave(any(SymptomEntry.class), eq("actorX"), eq("5.5.5.5"), eq(false));
     }
 
 
@@ -116,7 +133,7 @@ class SymptomServiceImplTest {
         pred.setId(60L);
         pred.setCreatedAt(LocalDateTime.now());
 
-        when(predictions.inferAndSave(any(), any(), any()))
+        when(predictions.inferAndSave(any(), any(), any(), anyBoolean()))
                 .thenReturn(pred);
 
         SubmitSymptomResponse res = service.submit(req, "actorY", "77.7.7.7");
@@ -147,6 +164,89 @@ class SymptomServiceImplTest {
         );
 
         verify(symptoms, never()).save(any());
-        verify(predictions, never()).inferAndSave(any(), any(), any());
+        verify(predictions, never()).inferAndSave(any(), any(), any(), anyBoolean());
+    }
+
+    // ------------------------------------------------------------------------------------
+    // 4. ASYNC SUBMIT — symptom saved, job returned, inference runs on the executor
+    // ------------------------------------------------------------------------------------
+    @Test
+    void submitAsync_savesSymptomAndCompletesJobOnExecutor() {
+
+        SubmitSymptomRequest req = new SubmitSymptomRequest("PAT-12345", "Cough", List.of("dry"));
+
+        Patient patient = new Patient();
+        patient.setPatientId("PAT-12345");
+        when(patients.findByPatientId("PAT-12345")).thenReturn(Optional.of(patient));
+
+        SymptomEntry saved = new SymptomEntry("PAT-12345", "Cough", "[\"dry\"]");
+        saved.setId(30L);
+        when(symptoms.save(any())).thenReturn(saved);
+
+        SymptomJobDto job = new SymptomJobDto("job-1", SymptomJobTracker.PENDING, null, null, null, Instant.now(), null);
+        when(jobs.start(any(), any())).thenReturn(job);
+
+        Prediction pred = new Prediction("PAT-12345", 30L, "Cold", 0.8);
+        pred.setId(70L);
+        when(predictions.inferAndSave(saved, "actor", "1.1.1.1", false)).thenReturn(pred);
+
+        SymptomJobDto res = service.submitAsync(req, "actor", "1.1.1.1");
+
+        assertEquals("job-1", res.jobId());
+        verify(jobs).start(any(), eq("actor"));
+        verify(predictions, never()).inferAndSave(any(), any(), any(), anyBoolean());
+
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(inferenceExecutor).execute(task.capture());
+        task.getValue().run();
+
+        verify(jobs).complete(eq("job-1"), argThat(p -> p.id().equals(70L) && p.label().equals("Cold")));
+    }
+
+    // ------------------------------------------------------------------------------------
+    // 5. ASYNC SUBMIT — AI failure marks the job failed
+    // ------------------------------------------------------------------------------------
+    @Test
+    void submitAsync_inferenceFailure_marksJobFailed() {
+
+        SubmitSymptomRequest req = new SubmitSymptomRequest("PAT-1", "Pain", null);
+
+        Patient patient = new Patient();
+        patient.setPatientId("PAT-1");
+        when(patients.findByPatientId("PAT-1")).thenReturn(Optional.of(patient));
+        when(symptoms.save(any())).thenReturn(new SymptomEntry("PAT-1", "Pain", null));
+        when(jobs.start(any(), any())).thenReturn(
+                new SymptomJobDto("job-2", SymptomJobTracker.PENDING, null, null, null, Instant.now(), null));
+        when(predictions.inferAndSave(any(), any(), any(), anyBoolean())).thenThrow(new RuntimeException("xAI call failed"));
+
+        service.submitAsync(req, "actor", "ip");
+
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(inferenceExecutor).execute(task.capture());
+        task.getValue().run();
+
+        verify(jobs).fail(eq("job-2"), any());
+        verify(jobs, never()).complete(any(), any());
+    }
+
+    // ------------------------------------------------------------------------------------
+    // 6. ASYNC SUBMIT — full queue is reported and the job is dropped
+    // ------------------------------------------------------------------------------------
+    @Test
+    void submitAsync_queueFull_throwsAndRemovesJob() {
+
+        SubmitSymptomRequest req = new SubmitSymptomRequest("PAT-1", "Pain", null);
+
+        Patient patient = new Patient();
+        patient.setPatientId("PAT-1");
+        when(patients.findByPatientId("PAT-1")).thenReturn(Optional.of(patient));
+        when(symptoms.save(any())).thenReturn(new SymptomEntry("PAT-1", "Pain", null));
+        when(jobs.start(any(), any())).thenReturn(
+                new SymptomJobDto("job-3", SymptomJobTracker.PENDING, null, null, null, Instant.now(), null));
+        doThrow(new RejectedExecutionException()).when(inferenceExecutor).execute(any());
+
+        assertThrows(IllegalStateException.class, () -> service.submitAsync(req, "actor", "ip"));
+
+        verify(jobs).remove("job-3");
     }
 }
@@ -61,8 +61,12 @@ function authHeaders() {
 
 
 // ⬅️⬅️⬅️ THIS WAS MISSING — NOW RESTORED
-export async function fetchUsers() {
-  const res = await fetch(`${API_BASE}/api/admin/users`, {
+// params: { page, size, sort, dir, role, active, q } → { items, page, size, totalElements, totalPages }
+export async function fetchUsers(params = {}) {
+  const query = new URLSearchParams(
+    Object.entries(params).filter(([, v]) => v !== undefined && v !== null && v !== "")
+  );
+  const res = await fetch(`${API_BASE}/api/admin/users?${query}`, {
     method: "GET",
     headers: authHeaders(),
   });
@@ -57,6 +57,21 @@ export default function DashboardDoctor() {
         setRecentNotifications(Array.isArray(data) ? data : []);
       })
       .catch(() => setRecentNotifications([]));
+
+    // Live updates: the server pushes new notifications instead of us polling.
+    // EventSource reconnects by itself and sends Last-Event-ID to catch up.
+    const source = new EventSource(
+      "http://localhost:8080/api/doctor/notifications/stream?access_token=" +
+        encodeURIComponent(token)
+    );
+    source.addEventListener("notification", (e) => {
+      const n = JSON.parse(e.data);
+      setRecentNotifications((prev) =>
+        prev.some((p) => p.id === n.id) ? prev : [n, ...prev]
+      );
+    });
+
+    return () => source.close();
   }, []);
 
   // ================================
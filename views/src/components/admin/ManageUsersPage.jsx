@@ -8,21 +8,46 @@ import {
   reactivateUser,
 } from "../../api/";
 
+const PAGE_SIZE = 50;
+
 export default function ManageUsersPage() {
   const [users, setUsers] = useState([]);
   const [search, setSearch] = useState("");
+  const [role, setRole] = useState("");
+  const [status, setStatus] = useState("all");
+  const [sortOrder, setSortOrder] = useState("id:asc");
+  const [page, setPage] = useState(0);
+  const [totalPages, setTotalPages] = useState(0);
+  const [totalElements, setTotalElements] = useState(0);
   const navigate = useNavigate();
 
-  // Load users from backend
+  // 🔁 search, filters, sort and paging all run on the server
   useEffect(() => {
     loadUsers();
-  }, []);
+  }, [page, search, role, status, sortOrder]);
 
   async function loadUsers() {
-    const data = await fetchUsers();
-    setUsers(data);
+    const [sort, dir] = sortOrder.split(":");
+    const data = await fetchUsers({
+      page,
+      size: PAGE_SIZE,
+      sort,
+      dir,
+      role,
+      active: status === "all" ? "" : status === "active",
+      q: search.trim(),
+    });
+    setUsers(data.items);
+    setTotalPages(data.totalPages);
+    setTotalElements(data.totalElements);
   }
 
+  // any filter change starts again from the first page
+  const onFilter = (setter) => (e) => {
+    setter(e.target.value);
+    setPage(0);
+  };
+
   async function handleDeactivate(id) {
     await deactivateUser(id);
     loadUsers();
@@ -33,17 +58,6 @@ export default function ManageUsersPage() {
     loadUsers();
   }
 
-  const filtered = users.filter((u) => {
-    const q = search.toLowerCase();
-    return (
-      u.username.toLowerCase().includes(q) ||
-      (u.firstName && u.firstName.toLowerCase().includes(q)) ||
-      (u.lastName && u.lastName.toLowerCase().includes(q)) ||
-      u.email.toLowerCase().includes(q) ||
-      String(u.userId).includes(q)
-    );
-  });
-
   return (
     <div className="min-h-screen bg-gray-100 flex flex-col">
       {/* Header */}
@@ -61,14 +75,46 @@ export default function ManageUsersPage() {
 
         {/* Top Bar */}
         <div className="flex justify-between items-center mb-6">
-          {/* 🔍 Search */}
-          <input
-            type="text"
-            placeholder="Search by name, email, or ID..."
-            value={search}
-            onChange={(e) => setSearch(e.target.value)}
-            className="border border-gray-300 rounded px-3 py-2 w-1/3"
-          />
+          {/* 🔍 Search + filters */}
+          <div className="flex items-center space-x-3 w-2/3">
+            <input
+              type="text"
+              placeholder="Username or email starts with..."
+              value={search}
+              onChange={onFilter(setSearch)}
+              className="border border-gray-300 rounded px-3 py-2 w-1/2"
+            />
+            <select
+              value={role}
+              onChange={onFilter(setRole)}
+              className="border border-gray-300 rounded px-3 py-2"
+            >
+              <option value="">All roles</option>
+              <option value="patient">Patient</option>
+              <option value="doctor">Doctor</option>
+              <option value="admin">Admin</option>
+            </select>
+            <select
+              value={status}
+              onChange={onFilter(setStatus)}
+              className="border border-gray-300 rounded px-3 py-2"
+            >
+              <option value="all">Any status</option>
+              <option value="active">Active</option>
+              <option value="inactive">Inactive</option>
+            </select>
+            <select
+              value={sortOrder}
+              onChange={onFilter(setSortOrder)}
+              className="border border-gray-300 rounded px-3 py-2"
+            >
+              <option value="id:asc">Oldest account</option>
+              <option value="createdAt:desc">Newest account</option>
+              <option value="username:asc">Username</option>
+              <option value="name:asc">Patient name</option>
+              <option value="role:asc">Role</option>
+            </select>
+          </div>
 
           {/* ➕ Add User */}
           <button
@@ -93,7 +139,7 @@ export default function ManageUsersPage() {
           </thead>
 
           <tbody>
-            {filtered.map((user) => (
+            {users.map((user) => (
               <tr key={user.userId} className="border-b hover:bg-gray-50">
                 <td className="p-3">{user.userId}</td>
 
@@ -157,7 +203,29 @@ export default function ManageUsersPage() {
           </tbody>
         </table>
 
-        
+        {/* ⏭ Paging */}
+        <div className="flex items-center justify-between mt-4 text-gray-700">
+          <span>{totalElements} users</span>
+          <div className="flex items-center space-x-3">
+            <button
+              disabled={page === 0}
+              onClick={() => setPage(page - 1)}
+              className="px-3 py-1 border rounded disabled:opacity-40"
+            >
+              Previous
+            </button>
+            <span>
+              Page {totalPages === 0 ? 0 : page + 1} of {totalPages}
+            </span>
+            <button
+              disabled={page + 1 >= totalPages}
+              onClick={() => setPage(page + 1)}
+              className="px-3 py-1 border rounded disabled:opacity-40"
+            >
+              Next
+            </button>
+          </div>
+        </div>
       </div>
     </div>
   );
@@ -57,8 +57,50 @@ export default function SystemHealthPage() {
           <HealthCard title="Memory Usage" value={`${systemData.memoryUsage}%`} color="bg-yellow-100" />
           <HealthCard title="Active Users" value={systemData.activeUsers} color="bg-purple-100" />
           <HealthCard title="Last Backup" value={systemData.lastBackup} color="bg-gray-100" />
+          {systemData.latency && (
+            <>
+              <HealthCard
+                title="Inference p50 / p99"
+                value={`${systemData.latency.inference.p50Ms} / ${systemData.latency.inference.p99Ms} ms`}
+                color="bg-red-100"
+              />
+              <HealthCard
+                title="AI Provider p50 / p99"
+                value={`${systemData.latency.aiProvider.p50Ms} / ${systemData.latency.aiProvider.p99Ms} ms`}
+                color="bg-orange-100"
+              />
+            </>
+          )}
         </div>
 
+        {systemData.latency?.endpoints?.length > 0 && (
+          <div className="bg-white rounded-lg shadow p-6">
+            <h2 className="text-xl font-semibold mb-4">Endpoint Latency</h2>
+            <table className="w-full text-left">
+              <thead>
+                <tr className="text-gray-600">
+                  <th className="py-2">Endpoint</th>
+                  <th className="py-2">Requests</th>
+                  <th className="py-2">Errors</th>
+                  <th className="py-2">p50 (ms)</th>
+                  <th className="py-2">p99 (ms)</th>
+                </tr>
+              </thead>
+              <tbody>
+                {systemData.latency.endpoints.map((e) => (
+                  <tr key={`${e.method} ${e.uri}`} className="border-t">
+                    <td className="py-2 font-mono text-sm">{e.method} {e.uri}</td>
+                    <td className="py-2">{e.requests}</td>
+                    <td className="py-2">{e.errors}</td>
+                    <td className="py-2">{e.p50Ms}</td>
+                    <td className="py-2">{e.p99Ms}</td>
+                  </tr>
+                ))}
+              </tbody>
+            </table>
+          </div>
+        )}
+
         
       </div>
     </div>
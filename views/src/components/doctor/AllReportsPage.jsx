@@ -2,18 +2,28 @@ import { useState, useEffect } from "react";
 import DoctorNav from "./DoctorNav";
 import { useNavigate } from "react-router-dom";
 
+const PAGE_SIZE = 50;
+
 export default function AllReportsPage() {
   const [reports, setReports] = useState([]);
-  const [filteredReports, setFilteredReports] = useState([]);
-  const [filterDisease, setFilterDisease] = useState("all");
-  const [sortOrder, setSortOrder] = useState("newest");
-  const [searchQuery, setSearchQuery] = useState("");
-  const [uniqueDiagnoses, setUniqueDiagnoses] = useState([]);
+  const [page, setPage] = useState(0);
+  const [totalPages, setTotalPages] = useState(0);
+  const [totalElements, setTotalElements] = useState(0);
+
+  const [filterDisease, setFilterDisease] = useState("");
+  const [patientId, setPatientId] = useState("");
+  const [minConfidence, setMinConfidence] = useState("");
+  const [maxConfidence, setMaxConfidence] = useState("");
+  const [reviewed, setReviewed] = useState("all");
+  const [from, setFrom] = useState("");
+  const [to, setTo] = useState("");
+  const [sortOrder, setSortOrder] = useState("date:desc");
 
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState("");
   const navigate = useNavigate();
 
+  // 🔁 filters, sort and paging all run on the server
   useEffect(() => {
     const token = localStorage.getItem("token");
     if (!token) {
@@ -21,7 +31,19 @@ export default function AllReportsPage() {
       return;
     }
 
-    fetch("http://localhost:8080/api/doctor/reports", {
+    const [sort, dir] = sortOrder.split(":");
+    const params = new URLSearchParams({ page, size: PAGE_SIZE, sort, dir });
+    if (filterDisease.trim()) params.set("label", filterDisease.trim());
+    if (patientId.trim()) params.set("patientId", patientId.trim());
+    if (minConfidence !== "") params.set("minConfidence", Number(minConfidence) / 100);
+    if (maxConfidence !== "") params.set("maxConfidence", Number(maxConfidence) / 100);
+    if (reviewed !== "all") params.set("reviewed", reviewed);
+    if (from) params.set("from", from);
+    if (to) params.set("to", to);
+
+    setLoading(true);
+    setError("");
+    fetch(`http://localhost:8080/api/doctor/reports?${params}`, {
       headers: {
         "Content-Type": "application/json",
         Authorization: `Bearer ${token}`,
@@ -29,11 +51,12 @@ export default function AllReportsPage() {
     })
       .then((res) => {
         if (res.status === 403) throw new Error("Forbidden");
+        if (res.status === 400) throw new Error("Invalid filter range");
         if (!res.ok) throw new Error("Failed to fetch reports");
         return res.json();
       })
       .then((data) => {
-        const normalized = data.map((r) => ({
+        const normalized = data.items.map((r) => ({
           id: r.id,
           patientName: r.patientName,
           patientId: r.patientId,
@@ -44,51 +67,18 @@ export default function AllReportsPage() {
         }));
 
         setReports(normalized);
-        setFilteredReports(sortReports(normalized, sortOrder));
-
-        // ⬅️ Extract unique diagnoses dynamically
-        const diagSet = new Set();
-        normalized.forEach((r) => diagSet.add(r.disease));
-        setUniqueDiagnoses(["all", ...Array.from(diagSet)]);
+        setTotalPages(data.totalPages);
+        setTotalElements(data.totalElements);
       })
       .catch((err) => setError(err.message))
       .finally(() => setLoading(false));
-  }, []);
-
-  // Sorting helper
-  const sortReports = (data, order) => {
-    return [...data].sort((a, b) => {
-      const dateA = a.date === "—" ? 0 : new Date(a.date).getTime();
-      const dateB = b.date === "—" ? 0 : new Date(b.date).getTime();
-      return order === "newest" ? dateB - dateA : dateA - dateB;
-    });
-  };
+  }, [page, filterDisease, patientId, minConfidence, maxConfidence, reviewed, from, to, sortOrder]);
 
-  // Apply search + filter + sort
-  useEffect(() => {
-    let list = [...reports];
-
-    // 🔍 SEARCH BAR FILTER
-    if (searchQuery.trim() !== "") {
-      const q = searchQuery.toLowerCase();
-      list = list.filter(
-        (r) =>
-          r.patientName.toLowerCase().includes(q) ||
-          r.disease.toLowerCase().includes(q) ||
-          r.patientId.toLowerCase().includes(q)
-      );
-    }
-
-    // 🎯 DIAGNOSIS FILTER
-    if (filterDisease !== "all") {
-      list = list.filter((r) => r.disease === filterDisease);
-    }
-
-    // 🗂 SORT
-    list = sortReports(list, sortOrder);
-
-    setFilteredReports(list);
-  }, [searchQuery, filterDisease, sortOrder, reports]);
+  // any filter change starts again from the first page
+  const onFilter = (setter) => (e) => {
+    setter(e.target.value);
+    setPage(0);
+  };
 
   return (
     <div className="min-h-screen bg-gray-100 flex flex-col">
@@ -106,45 +96,91 @@ export default function AllReportsPage() {
         {error && <div className="mb-4 text-red-600 font-medium">{error}</div>}
 
         {/* 🔎 Search + Filter + Sort */}
-        <div className="flex flex-wrap items-center justify-between mb-6 gap-4">
+        <div className="flex flex-wrap items-end gap-4 mb-6">
 
-          {/* 🔍 Search bar */}
-          <div>
+          {/* 🔍 Patient ID */}
+          <div className="flex flex-col">
+            <label className="font-medium text-gray-700">Patient ID</label>
             <input
               type="text"
-              placeholder="Search by name, diagnosis, or patient ID…"
-              value={searchQuery}
-              onChange={(e) => setSearchQuery(e.target.value)}
-              className="border border-gray-300 rounded px-3 py-2 w-64 focus:ring focus:ring-[#b0372b]"
+              placeholder="e.g. 12345678"
+              value={patientId}
+              onChange={onFilter(setPatientId)}
+              className="border border-gray-300 rounded px-3 py-2 w-40 focus:ring focus:ring-[#b0372b]"
             />
           </div>
 
-          {/* 🎯 Filter by diagnosis */}
-          <div className="flex items-center space-x-3">
-            <label className="font-medium text-gray-700">Diagnosis:</label>
-            <select
+          {/* 🎯 Diagnosis */}
+          <div className="flex flex-col">
+            <label className="font-medium text-gray-700">Diagnosis</label>
+            <input
+              type="text"
+              placeholder="Exact diagnosis"
               value={filterDisease}
-              onChange={(e) => setFilterDisease(e.target.value)}
+              onChange={onFilter(setFilterDisease)}
+              className="border border-gray-300 rounded px-3 py-2 w-48 focus:ring focus:ring-[#b0372b]"
+            />
+          </div>
+
+          {/* 📊 Confidence range (%) */}
+          <div className="flex flex-col">
+            <label className="font-medium text-gray-700">Confidence %</label>
+            <div className="flex items-center space-x-2">
+              <input
+                type="number" min="0" max="100" placeholder="min"
+                value={minConfidence}
+                onChange={onFilter(setMinConfidence)}
+                className="border border-gray-300 rounded px-2 py-2 w-20"
+              />
+              <span>–</span>
+              <input
+                type="number" min="0" max="100" placeholder="max"
+                value={maxConfidence}
+                onChange={onFilter(setMaxConfidence)}
+                className="border border-gray-300 rounded px-2 py-2 w-20"
+              />
+            </div>
+          </div>
+
+          {/* ✅ Reviewed */}
+          <div className="flex flex-col">
+            <label className="font-medium text-gray-700">Status</label>
+            <select
+              value={reviewed}
+              onChange={onFilter(setReviewed)}
               className="border border-gray-300 rounded px-3 py-2 focus:ring focus:ring-[#b0372b]"
             >
-              {uniqueDiagnoses.map((d) => (
-                <option key={d} value={d}>
-                  {d === "all" ? "All" : d}
-                </option>
-              ))}
+              <option value="all">All</option>
+              <option value="false">Pending Review</option>
+              <option value="true">Reviewed</option>
             </select>
           </div>
 
+          {/* 📅 Date range */}
+          <div className="flex flex-col">
+            <label className="font-medium text-gray-700">From / To</label>
+            <div className="flex items-center space-x-2">
+              <input type="date" value={from} onChange={onFilter(setFrom)}
+                     className="border border-gray-300 rounded px-2 py-2" />
+              <input type="date" value={to} onChange={onFilter(setTo)}
+                     className="border border-gray-300 rounded px-2 py-2" />
+            </div>
+          </div>
+
           {/* 🗂 Sort */}
-          <div className="flex items-center space-x-3">
-            <label className="font-medium text-gray-700">Sort:</label>
+          <div className="flex flex-col">
+            <label className="font-medium text-gray-700">Sort</label>
             <select
               value={sortOrder}
-              onChange={(e) => setSortOrder(e.target.value)}
+              onChange={onFilter(setSortOrder)}
               className="border border-gray-300 rounded px-3 py-2 focus:ring focus:ring-[#b0372b]"
             >
-              <option value="newest">Newest → Oldest</option>
-              <option value="oldest">Oldest → Newest</option>
+              <option value="date:desc">Newest → Oldest</option>
+              <option value="date:asc">Oldest → Newest</option>
+              <option value="confidence:asc">Confidence ↑</option>
+              <option value="confidence:desc">Confidence ↓</option>
+              <option value="label:asc">Diagnosis A → Z</option>
+              <option value="label:desc">Diagnosis Z → A</option>
             </select>
           </div>
         </div>
@@ -153,7 +189,7 @@ export default function AllReportsPage() {
         <div className="bg-white rounded-lg shadow-lg p-6">
           <h2 className="text-2xl font-semibold mb-4">Diagnostic Reports</h2>
 
-          {filteredReports.length === 0 ? (
+          {reports.length === 0 ? (
             <p className="text-gray-500">No reports found.</p>
           ) : (
             <table className="w-full text-left border-collapse">
@@ -167,7 +203,7 @@ export default function AllReportsPage() {
                 </tr>
               </thead>
               <tbody>
-                {filteredReports.map((r) => (
+                {reports.map((r) => (
                   <tr key={r.id} className="border-b hover:bg-gray-50 transition">
                     <td className="p-3">{r.date}</td>
                     <td className="p-3 font-medium text-gray-800">{r.patientName}</td>
@@ -197,6 +233,30 @@ export default function AllReportsPage() {
               </tbody>
             </table>
           )}
+
+          {/* ⏭ Paging */}
+          <div className="flex items-center justify-between mt-4 text-gray-700">
+            <span>{totalElements} reports</span>
+            <div className="flex items-center space-x-3">
+              <button
+                disabled={page === 0}
+                onClick={() => setPage(page - 1)}
+                className="px-3 py-1 border rounded disabled:opacity-40"
+              >
+                Previous
+              </button>
+              <span>
+                Page {totalPages === 0 ? 0 : page + 1} of {totalPages}
+              </span>
+              <button
+                disabled={page + 1 >= totalPages}
+                onClick={() => setPage(page + 1)}
+                className="px-3 py-1 border rounded disabled:opacity-40"
+              >
+                Next
+              </button>
+            </div>
+          </div>
         </div>
       </div>
     </div>
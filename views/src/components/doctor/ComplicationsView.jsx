@@ -6,6 +6,8 @@ export default function ComplicationsView() {
   const [reports, setReports] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState("");
+  // ids of items this doctor currently holds a lease on
+  const [claimedIds, setClaimedIds] = useState(new Set());
 
   // 🔄 Fetch low-confidence reports on mount
   useEffect(() => {
@@ -45,8 +47,50 @@ export default function ComplicationsView() {
         setError(err.message || "Unexpected error");
       })
       .finally(() => setLoading(false));
+
+    fetch("http://localhost:8080/api/doctor/review-queue/mine", {
+      headers: { Authorization: `Bearer ${token}` },
+    })
+      .then((res) => (res.ok ? res.json() : []))
+      .then((items) => setClaimedIds(new Set(items.map((i) => i.id))))
+      .catch(() => {});
   }, []);
 
+  // 📥 Claim the next batch of oldest unclaimed items for this doctor
+  const handleClaim = async () => {
+    const token = localStorage.getItem("token");
+
+    if (!token) {
+      window.location.href = "/";
+      return;
+    }
+
+    try {
+      const res = await fetch(
+        "http://localhost:8080/api/doctor/review-queue/claim?count=10",
+        {
+          method: "POST",
+          headers: { Authorization: `Bearer ${token}` },
+        }
+      );
+
+      if (!res.ok) {
+        throw new Error("Failed to claim reports");
+      }
+
+      // response is everything this doctor now holds
+      const items = await res.json();
+      const ids = new Set(items.map((i) => i.id));
+      setClaimedIds(ids);
+      setReports((prev) =>
+        prev.map((r) => (ids.has(r.id) ? { ...r, status: "In Review" } : r))
+      );
+    } catch (err) {
+      console.error("Error claiming reports:", err);
+      alert("Could not claim reports. Please try again.");
+    }
+  };
+
   // ✅ Mark a report as reviewed (PUT backend + update UI)
   const handleMarkReviewed = async (id) => {
     const token = localStorage.getItem("token");
@@ -67,6 +111,10 @@ export default function ComplicationsView() {
         }
       );
 
+      if (res.status === 409) {
+        alert("Another doctor is reviewing this report.");
+        return;
+      }
       if (!res.ok) {
         throw new Error("Failed to mark report as reviewed");
       }
@@ -109,7 +157,15 @@ export default function ComplicationsView() {
 
         {/* 🧾 Reports Table */}
         <div className="bg-white rounded-lg shadow-lg p-6">
-          <h2 className="text-2xl font-semibold mb-4">Flagged Predictions</h2>
+          <div className="flex items-center justify-between mb-4">
+            <h2 className="text-2xl font-semibold">Flagged Predictions</h2>
+            <button
+              onClick={handleClaim}
+              className="px-4 py-2 bg-[#b0372b] text-white rounded hover:bg-[#992c23] transition"
+            >
+              Claim next 10
+            </button>
+          </div>
 
           {reports.length === 0 && !loading ? (
             <p className="text-gray-500">No low-confidence reports found.</p>
@@ -161,13 +217,19 @@ export default function ComplicationsView() {
                         {report.status}
                       </td>
                       <td className="p-3">
-                        {report.status === "Pending Review" ? (
+                        {report.status === "Pending Review" ||
+                        (report.status === "In Review" &&
+                          claimedIds.has(report.id)) ? (
                           <button
                             onClick={() => handleMarkReviewed(report.id)}
                             className="px-3 py-1 bg-[#b0372b] text-white rounded hover:bg-[#992c23] transition"
                           >
                             Mark Reviewed
                           </button>
+                        ) : report.status === "In Review" ? (
+                          <span className="text-gray-500 text-sm italic">
+                            Claimed by another doctor
+                          </span>
                         ) : (
                           <span className="text-gray-500 text-sm italic">
                             ✓ Done
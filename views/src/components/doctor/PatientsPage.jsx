@@ -2,11 +2,17 @@ import { useState, useEffect } from "react";
 import DoctorNav from "./DoctorNav";
 import { useNavigate } from "react-router-dom";
 
+const PAGE_SIZE = 50;
+
 export default function RecentPatientsPage() {
   const [patients, setPatients] = useState([]);
   const [sortOrder, setSortOrder] = useState("newest");
+  const [page, setPage] = useState(0);
+  const [totalPages, setTotalPages] = useState(0);
+  const [totalElements, setTotalElements] = useState(0);
   const navigate = useNavigate();
 
+  // sorting and paging run on the server
   useEffect(() => {
     const token = localStorage.getItem("token");
 
@@ -15,7 +21,9 @@ export default function RecentPatientsPage() {
       return;
     }
 
-    fetch("http://localhost:8080/api/doctor/all-patients", {
+    const dir = sortOrder === "newest" ? "desc" : "asc";
+    const params = new URLSearchParams({ page, size: PAGE_SIZE, sort: "lastVisit", dir });
+    fetch(`http://localhost:8080/api/doctor/all-patients?${params}`, {
       headers: {
         "Content-Type": "application/json",
         Authorization: `Bearer ${token}`,
@@ -27,7 +35,7 @@ export default function RecentPatientsPage() {
         return res.json();
       })
       .then((data) => {
-        const formatted = data.map((p) => {
+        const formatted = data.items.map((p) => {
           const raw =
             p.lastVisit !== null && p.lastVisit !== "No visits yet"
               ? new Date(p.lastVisit)
@@ -35,38 +43,22 @@ export default function RecentPatientsPage() {
 
           return {
             ...p,
-            lastVisitRaw: raw,
             lastVisit: raw ? raw.toLocaleString() : "No visits yet",
             doctorNotes: p.doctorNotes || "—",
           };
         });
 
         setPatients(formatted);
-        sortPatients(sortOrder, formatted);
+        setTotalPages(data.totalPages);
+        setTotalElements(data.totalElements);
       })
       .catch((err) => console.error("Error fetching patients:", err));
-  }, []);
-
-  const sortPatients = (order, list = patients) => {
-    const sorted = [...list].sort((a, b) => {
-      const aVal = a.lastVisitRaw;
-      const bVal = b.lastVisitRaw;
-
-      // If NO visits → always bottom
-      if (!aVal && !bVal) return 0;
-      if (!aVal) return 1;
-      if (!bVal) return -1;
-
-      return order === "newest" ? bVal - aVal : aVal - bVal;
-    });
-
-    setPatients(sorted);
-  };
+  }, [page, sortOrder]);
 
+  // a new order starts again from the first page
   const handleSortChange = (e) => {
-    const order = e.target.value;
-    setSortOrder(order);
-    sortPatients(order);
+    setSortOrder(e.target.value);
+    setPage(0);
   };
 
   const handleViewRecord = (patientId) => {
@@ -138,6 +130,30 @@ export default function RecentPatientsPage() {
               )}
             </tbody>
           </table>
+
+          {/* ⏭ Paging */}
+          <div className="flex items-center justify-between mt-4 text-gray-700">
+            <span>{totalElements} patients</span>
+            <div className="flex items-center space-x-3">
+              <button
+                disabled={page === 0}
+                onClick={() => setPage(page - 1)}
+                className="px-3 py-1 border rounded disabled:opacity-40"
+              >
+                Previous
+              </button>
+              <span>
+                Page {totalPages === 0 ? 0 : page + 1} of {totalPages}
+              </span>
+              <button
+                disabled={page + 1 >= totalPages}
+                onClick={() => setPage(page + 1)}
+                className="px-3 py-1 border rounded disabled:opacity-40"
+              >
+                Next
+              </button>
+            </div>
+          </div>
         </div>
       </div>
     </div>
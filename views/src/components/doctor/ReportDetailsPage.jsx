@@ -28,9 +28,9 @@ export default function ReportDetailsPage() {
     setLoading(true);
 
     Promise.all([
-      fetch(`http://localhost:8080/api/doctor/reports`, {
+      fetch(`http://localhost:8080/api/doctor/reports/${reportId}`, {
         headers: { Authorization: `Bearer ${token}` }
-      }).then(res => res.json()),
+      }).then(res => res.ok ? res.json() : null),
 
       fetch(`http://localhost:8080/api/doctor/predictions/${reportId}/annotations`, {
         headers: { Authorization: `Bearer ${token}` }
@@ -40,8 +40,7 @@ export default function ReportDetailsPage() {
         headers: { Authorization: `Bearer ${token}` }
       }).then(res => res.json()),
     ])
-      .then(([allReports, annos, issues]) => {
-        const r = allReports.find(r => r.id == reportId);
+      .then(([r, annos, issues]) => {
         if (!r) throw new Error("Report not found");
 
         setReport(r);
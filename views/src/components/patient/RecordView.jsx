@@ -5,6 +5,8 @@ export default function RecordView() {
   const [file, setFile] = useState(null);
   const [uploadStatus, setUploadStatus] = useState("");
   const [history, setHistory] = useState([]);
+  // last upload's import; a FAILED one can be resumed with the same file
+  const [lastImport, setLastImport] = useState(null);
 
   const token = localStorage.getItem("token");
   const patientId = localStorage.getItem("patientId");
@@ -34,9 +36,7 @@ export default function RecordView() {
     fetchHistory();
   }, []);
 
-  const uploadFile = async (e) => {
-    e.preventDefault();
-
+  const sendFile = async (importId) => {
     if (!file) {
       setUploadStatus("Select a file first.");
       return;
@@ -44,22 +44,43 @@ export default function RecordView() {
 
     const formData = new FormData();
     formData.append("patientId", patientId);
+    if (importId) formData.append("importId", importId);
     formData.append("file", file);
 
-    const res = await fetch("http://localhost:8080/api/history/upload", {
-      method: "POST",
-      body: formData,
-      headers: { Authorization: `Bearer ${token}` },
-    });
-
-    if (res.ok) {
-      setUploadStatus("Upload successful.");
-      fetchHistory();
-    } else {
-      setUploadStatus("Upload failed.");
+    setUploadStatus(importId ? "Resuming upload..." : "Uploading...");
+    try {
+      const res = await fetch("http://localhost:8080/api/history/upload", {
+        method: "POST",
+        body: formData,
+        headers: { Authorization: `Bearer ${token}` },
+      });
+
+      const isJson = res.headers.get("content-type")?.includes("application/json");
+      const body = isJson ? await res.json() : await res.text();
+
+      if (isJson) {
+        setLastImport(body);
+        setUploadStatus(
+          body.status === "COMPLETED"
+            ? `Upload successful: ${body.rowsImported} records imported.`
+            : `Upload stopped after line ${body.linesCommitted}: ${body.lastError || "unknown error"}`
+        );
+        fetchHistory();
+      } else if (res.status === 409) {
+        setUploadStatus("This upload is still running. Try again in a few minutes.");
+      } else {
+        setUploadStatus(body || "Upload failed.");
+      }
+    } catch {
+      setUploadStatus("Upload interrupted.");
     }
   };
 
+  const uploadFile = (e) => {
+    e.preventDefault();
+    sendFile(null);
+  };
+
   return (
     <div className="min-h-screen bg-gray-100">
       <header className="bg-[#b0372b] p-4">
@@ -85,7 +106,28 @@ export default function RecordView() {
           >
             Upload
           </button>
+          {lastImport && lastImport.status !== "COMPLETED" && (
+            <button
+              type="button"
+              onClick={() => sendFile(lastImport.importId)}
+              className="ml-2 border border-[#b0372b] text-[#b0372b] px-4 py-2 rounded"
+            >
+              Resume
+            </button>
+          )}
           {uploadStatus && <p className="mt-2 text-gray-700">{uploadStatus}</p>}
+          {lastImport?.errors?.length > 0 && (
+            <div className="mt-2 text-sm text-gray-600">
+              <p>{lastImport.errorLines} line(s) skipped:</p>
+              <ul className="list-disc ml-5">
+                {lastImport.errors.map((err) => (
+                  <li key={err.line}>
+                    Line {err.line}: {err.message}
+                  </li>
+                ))}
+              </ul>
+            </div>
+          )}
         </form>
 
         {/* HISTORY LIST */}